@@ -1,14 +1,37 @@
+import java.io.IOException;
+
 import controllers.AuthenticatorController;
+import controllers.SessionServer;
+import databases.DataStore;
+import utilities.MetricsRegistry;
+import utilities.PasswordUtility;
 
 /**
  * Main class to run the application.
- * It initializes the AuthenticatorController and starts the authentication process.
+ * It loads the data files into memory, initializes the AuthenticatorController and starts the authentication process.
+ * Journaled rows are compacted into the data files and the metrics are written to a file when the application shuts down.
  * The application runs in a loop until the user chooses to exit.
+ * Run with "--server [port]" to serve many concurrent sessions over a local port instead of the terminal.
  * The main method is the entry point of the application.
  */
 
 public class Main {
     public static void main(String[] args) {
+        DataStore.loadAll();
+        PasswordUtility.calibrate();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            DataStore.compactAll();
+            MetricsRegistry.dump();
+        }));
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : SessionServer.DEFAULT_PORT;
+            try {
+                new SessionServer(port).run();
+            } catch (IOException e) {
+                System.err.println("Failed to start server on port " + port + ": " + e.getMessage());
+            }
+            return;
+        }
         AuthenticatorController authenticatorController = new AuthenticatorController();
         while (true){
             authenticatorController.authenticate();
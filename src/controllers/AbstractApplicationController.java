@@ -11,6 +11,8 @@ import models.Applicant;
 import models.Application;
 import models.FlatType;
 import models.Project;
+import models.ProjectQueryEngine;
+import models.ProjectQueryEngine.SortOrder;
 import views.ApplicationView;
 
 /**
@@ -211,9 +213,10 @@ public abstract class AbstractApplicationController implements IApplicationContr
      */
     public boolean showApplicableFilteredProjects(ArrayList<Project> applicableProjects, Applicant applicant) {
         List<String> filters = applicant.getFilter();
+        // Indexed once, then queried for every search made from this menu
+        ProjectQueryEngine queryEngine = new ProjectQueryEngine(applicableProjects);
         while (true) {
             int option = view.showFilterMenu(filters);
-            ArrayList<Project> projectsToFilter = new ArrayList<>(applicableProjects);
             switch (option) {
                 case 0:
                     return false;
@@ -273,43 +276,43 @@ public abstract class AbstractApplicationController implements IApplicationContr
                     filters.addAll(List.of("", "", "", "", ""));
                     view.displayInfo("Filters cleared.");
                     break;
-                case 7:
-                    Project.filterProject(projectsToFilter, filters);
-                    if (projectsToFilter.size() == 0) {
+                case 7: {
+                    ArrayList<Project> filteredProjects = queryEngine.query(filters, SortOrder.NAME);
+                    if (filteredProjects.size() == 0) {
                         view.displayInfo("No result from search");
                     } else {
-                        Project.sortProjectByName(projectsToFilter);
-                        if (showApplicableProjects(projectsToFilter, applicant)) {
+                        if (showApplicableProjects(filteredProjects, applicant)) {
                             return true;
                         }
                     }
                     break;
-                case 8:
-                    Project.filterProject(projectsToFilter, filters);
-                    if (projectsToFilter.size() == 0) {
+                }
+                case 8: {
+                    ArrayList<Project> filteredProjects = queryEngine.query(filters, SortOrder.NEIGHBOURHOOD);
+                    if (filteredProjects.size() == 0) {
                         view.displayInfo("No result from search");
                     } else {
-                        Project.sortProjectByNeighbourhood(projectsToFilter);
-                        if (showApplicableProjects(projectsToFilter, applicant)) {
+                        if (showApplicableProjects(filteredProjects, applicant)) {
                             return true;
                         }
                     }
                     break;
+                }
                 case 9:
-                    Project.filterProject(projectsToFilter, filters);
-                    if (projectsToFilter.size() == 0) {
+                    if (queryEngine.count(filters) == 0) {
                         view.displayInfo("No result from search");
                     } else {
                         int order = view.promptSortOrder();
+                        SortOrder sortOrder;
                         if (order == 1) {
-                            Project.sortProjectByPrice(projectsToFilter, true);
+                            sortOrder = SortOrder.PRICE_ASCENDING;
                         } else if (order == 2) {
-                            Project.sortProjectByPrice(projectsToFilter, false);
+                            sortOrder = SortOrder.PRICE_DESCENDING;
                         } else {
                             view.displayError("Invalid selection. Please try again.");
                             break;
                         }
-                        if (showApplicableProjects(projectsToFilter, applicant)) {
+                        if (showApplicableProjects(queryEngine.query(filters, sortOrder), applicant)) {
                             return true;
                         }
                     }
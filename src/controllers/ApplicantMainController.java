@@ -1,6 +1,7 @@
 package controllers;
 
 import models.Applicant;
+import utilities.MetricsRegistry;
 import views.ApplicantMainView;
 
 
@@ -35,6 +36,7 @@ public class ApplicantMainController {
     /**
      * This method displays the main menu for the applicant and handles their selections.
      * It provides options for managing applications, projects, enquiries, and password changes.
+     * Each option is recorded as an action in MetricsRegistry.
      * 
      * @param applicant The applicant for whom to display the main menu.
      */
@@ -44,16 +46,16 @@ public class ApplicantMainController {
             option = mainView.showApplicantMenu();
             switch (option) {
                 case 1:
-                    applicationController.applicationAction(applicant);
+                    MetricsRegistry.action("applicant.applications", () -> applicationController.applicationAction(applicant));
                     break;
                 case 2:
-                    applicationController.projectAction(applicant);
+                    MetricsRegistry.action("applicant.projects", () -> applicationController.projectAction(applicant));
                     break;
                 case 3:
-                    applicantEnquiryController.enquiryActionMenu(applicant);
+                    MetricsRegistry.action("applicant.enquiries", () -> applicantEnquiryController.enquiryActionMenu(applicant));
                     break;
                 case 4:
-                    authenticatorController.handlePasswordChange(applicant);
+                    MetricsRegistry.action("applicant.password", () -> authenticatorController.handlePasswordChange(applicant));
                     break;
                 case 5:
                     return;
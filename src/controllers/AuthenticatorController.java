@@ -44,7 +44,7 @@ public class AuthenticatorController {
         if (currentPassword.isBlank()){
             return false;
         }
-        if (!currentPassword.equals(user.getPassword())){
+        if (!user.validatePassword(currentPassword)){
             authenticatorView.displayError("Current password is incorrect! Please try again.");
             return false;
         }
@@ -100,11 +100,17 @@ public class AuthenticatorController {
                 return;
             }
             inPassword = authenticatorView.getPassword();
-            if (!user.getPassword().equals(inPassword)) {
+            if (!user.validatePassword(inPassword)) {
                 authenticatorView.displayError("Incorrect password. Please try again!");
             } 
             else {
                 authenticatorView.displaySuccess("Login Successful!");
+                // Passwords still stored in plaintext are hashed on the first successful login
+                try {
+                    user.upgradePasswordHash(inPassword);
+                } catch (IOException e) {
+                    LoggerUtility.logError("Failed to store password hash for " + user.getNric(), e);
+                }
                 if (user.getClass() == Applicant.class) {
                     new ApplicantMainController().applicantSelectMenu((Applicant) user);
                 } 
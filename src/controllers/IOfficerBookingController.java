@@ -8,6 +8,7 @@ public interface IOfficerBookingController {
 
 	boolean updateApplications(Application application, String status);
 	boolean updateProject(Application application);
+	boolean updateBooking(Application application);
 	void selectApplicationToBook(models.HDBOfficer officer);
 	void viewGenerateReceipt(models.HDBOfficer officer);
 
@@ -13,6 +13,9 @@ import databases.ApplicationDB;
 import databases.HDBManagerDB;
 import models.HDBManager;
 import views.ManagerMainView;
+import utilities.MetricsRegistry;
+import utilities.PasswordUtility;
+import utilities.ScannerUtility;
 import models.Application;
 import java.util.List;
 
@@ -93,6 +96,30 @@ public class ManagerMainController {
         }
     }
 
+    /**
+     * Shows the live metrics dashboard: counters, cache and table gauges, timers of the DB calls and menu actions,
+     * and the storage costs of each action. The dashboard is refreshed until the manager returns to the menu,
+     * and can be written to the metrics dump file on request.
+     */
+    public void showMetricsDashboard() {
+        while (true) {
+            System.out.println("\n=========================================");
+            System.out.println("             SYSTEM METRICS             ");
+            System.out.println("=========================================");
+            System.out.print(MetricsRegistry.report());
+            System.out.println("=========================================");
+            System.out.print("Press Enter to refresh, D to save to file, or 0 to return: ");
+            String input = ScannerUtility.getScanner().nextLine().trim();
+            if (input.equals("0")) {
+                return;
+            }
+            if (input.equalsIgnoreCase("D")) {
+                MetricsRegistry.dump();
+                System.out.println("[SUCCESS] Metrics saved to " + MetricsRegistry.getDumpFile());
+            }
+        }
+    }
+
     /**
      * Change the password of the HDB Manager.
      * 
@@ -103,10 +130,10 @@ public class ManagerMainController {
     public void changePassword(HDBManager manager, String newPassword) {
     try {
         // Update the password in memory
-        manager.setPassword(newPassword);
+        manager.setPassword(PasswordUtility.hash(newPassword));
 
         // Update the password in the Excel file
-        HDBManagerDB.updateManagerPassword(manager.getNric(), newPassword);
+        HDBManagerDB.updateManagerPassword(manager.getNric(), manager.getPassword());
 
         System.out.println("[SUCCESS] Password changed successfully.");
     } catch (IOException e) {
@@ -14,6 +14,8 @@ import enums.FilterIndex;
 import enums.FlatTypeName;
 import views.ManagerProjectView;
 import models.Project;
+import models.ProjectQueryEngine;
+import models.ProjectQueryEngine.SortOrder;
 import utilities.LoggerUtility;
 import utilities.ScannerUtility;
 import models.FlatType;
@@ -152,12 +154,12 @@ public class ManagerProjectController implements IManagerProjectController {
      * @return The user's choice as an integer.
      */
     private int getValidChoice(int min, int max) {
-        while (!ScannerUtility.SCANNER.hasNextInt()) {
+        while (!ScannerUtility.getScanner().hasNextInt()) {
             System.out.print("Invalid input. Please enter a number: ");
-            ScannerUtility.SCANNER.next();
+            ScannerUtility.getScanner().next();
         }
-        int choice = ScannerUtility.SCANNER.nextInt();
-        ScannerUtility.SCANNER.nextLine(); // Clear newline
+        int choice = ScannerUtility.getScanner().nextInt();
+        ScannerUtility.getScanner().nextLine(); // Clear newline
         return choice;
     }
 
@@ -181,10 +183,7 @@ public class ManagerProjectController implements IManagerProjectController {
             // Assign the logged-in manager to the project
             project.setProjectManager(loggedInManager);
 
-            // Generate ID based on existing projects
-            int projectID = ProjectDB.getAllProjects().size() + 1;
-            project.setProjectID(projectID);
-
+            // createProject assigns the next free project ID
             if (ProjectDB.createProject(project)) {
                 view.displaySuccess("Saving project to storage...");
             } else {
@@ -205,19 +204,10 @@ public class ManagerProjectController implements IManagerProjectController {
 
     @Override
     public void editProject(Project project) {
-        try {
-            ArrayList<Project> projectList = new ArrayList<>();
-            projectList.add(project);
-            editProjectMenu(projectList);
-
-            if (ProjectDB.updateProject(project)) {
-                view.displaySuccess("Project updated successfully.");
-            } else {
-                view.displayError("Failed to update project.");
-            }
-        } catch (IOException e) {
-            view.displayError("Error: " + e.getMessage());
-        }
+        ArrayList<Project> projectList = new ArrayList<>();
+        projectList.add(project);
+        // The menu edits a copy of the project and saves it once the changes are confirmed
+        editProjectMenu(projectList);
     }
 
     /**
@@ -346,8 +336,8 @@ public class ManagerProjectController implements IManagerProjectController {
             // Prompt the user to select a project
             try {
                 System.out.print("\nEnter the project number to delete: ");
-                choice = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                choice = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (choice == 0) {
                     view.displayInfo("Delete canceled.");
                     return;
@@ -359,7 +349,7 @@ public class ManagerProjectController implements IManagerProjectController {
                     view.displayError("Invalid selection. Please try again.");
                 }
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 view.displayError("Invalid input. Please enter a valid number.");
                 continue;
             }
@@ -373,8 +363,8 @@ public class ManagerProjectController implements IManagerProjectController {
                 System.out.println("1. Yes");
                 System.out.println("2. No");
                 System.out.print("Enter your choice: ");
-                confirm = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                confirm = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (confirm == 1) {
                     deleteProject(projects.get(choice - 1));
                     view.displaySuccess("Project deleted successfully.");
@@ -386,7 +376,7 @@ public class ManagerProjectController implements IManagerProjectController {
                     view.displayError("Invalid selection. Please try again.");
                 }
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 view.displayError("Invalid input. Please enter 1 or 2.");
             }
         }
@@ -397,7 +387,7 @@ public class ManagerProjectController implements IManagerProjectController {
      */
     private void searchProjects() {
         System.out.print("Enter search keyword (e.g., project name or neighborhood): ");
-        String keyword = ScannerUtility.SCANNER.nextLine().trim().toLowerCase();
+        String keyword = ScannerUtility.getScanner().nextLine().trim().toLowerCase();
 
         ArrayList<Project> allProjects = getAllProjects();
         ArrayList<Project> filteredProjects = new ArrayList<>();
@@ -427,43 +417,13 @@ public class ManagerProjectController implements IManagerProjectController {
     }
 
     /**
-     * Retrieves the logged-in manager.
+     * Filters a list of projects in place based on the FilterIndex filters.
      *
-     * @return The logged-in HDBManager instance.
+     * @param projects The list of projects to filter.
+     * @param filters The list of filters, indexed by FilterIndex.
      */
     public static void filterProject(ArrayList<Project> projects, List<String> filters) {
-        // Filter by Project Name
-        if (!filters.get(FilterIndex.PROJECT_NAME.getIndex()).isEmpty()) {
-            String projectNameFilter = filters.get(FilterIndex.PROJECT_NAME.getIndex()).toLowerCase();
-            projects.removeIf(project -> !project.getProjectName().toLowerCase().contains(projectNameFilter));
-        }
-    
-        // Filter by Neighborhood
-        if (!filters.get(FilterIndex.NEIGHBOURHOOD.getIndex()).isEmpty()) {
-            String neighborhoodFilter = filters.get(FilterIndex.NEIGHBOURHOOD.getIndex()).toLowerCase();
-            projects.removeIf(project -> !project.getNeighborhood().toLowerCase().contains(neighborhoodFilter));
-        }
-    
-        // Filter by Minimum Price
-        if (!filters.get(FilterIndex.PRICE_START.getIndex()).isEmpty()) {
-            double minPrice = Double.parseDouble(filters.get(FilterIndex.PRICE_START.getIndex()));
-            projects.removeIf(project -> project.getFlatTypes().stream()
-                    .noneMatch(flatType -> flatType.getPricePerFlat() >= minPrice));
-        }
-    
-        // Filter by Maximum Price
-        if (!filters.get(FilterIndex.PRICE_END.getIndex()).isEmpty()) {
-            double maxPrice = Double.parseDouble(filters.get(FilterIndex.PRICE_END.getIndex()));
-            projects.removeIf(project -> project.getFlatTypes().stream()
-                    .noneMatch(flatType -> flatType.getPricePerFlat() <= maxPrice));
-        }
-    
-        // Filter by Flat Type
-        if (!filters.get(FilterIndex.FLAT_TYPE.getIndex()).isEmpty()) {
-            String flatTypeFilter = filters.get(FilterIndex.FLAT_TYPE.getIndex()).toLowerCase();
-            projects.removeIf(project -> project.getFlatTypes().stream()
-                    .noneMatch(flatType -> flatType.getFlatType().toLowerCase().contains(flatTypeFilter)));
-        }
+        Project.filterProject(projects, filters);
     }
 
     /**
@@ -478,10 +438,10 @@ public class ManagerProjectController implements IManagerProjectController {
         System.out.println("=========================================");
     
         System.out.print("Enter Project Name: ");
-        String projectName = ScannerUtility.SCANNER.nextLine();
+        String projectName = ScannerUtility.getScanner().nextLine();
     
         System.out.print("Enter Neighborhood: ");
-        String neighborhood = ScannerUtility.SCANNER.nextLine();
+        String neighborhood = ScannerUtility.getScanner().nextLine();
     
         System.out.print("Enter Opening Date (yyyy-MM-dd): ");
         Date openingDate = getDateInput();
@@ -498,8 +458,8 @@ public class ManagerProjectController implements IManagerProjectController {
         }
     
         System.out.print("Enter Officer Slots: ");
-        int officerSlots = ScannerUtility.SCANNER.nextInt();
-        ScannerUtility.SCANNER.nextLine(); 
+        int officerSlots = ScannerUtility.getScanner().nextInt();
+        ScannerUtility.getScanner().nextLine(); 
         
 
         ArrayList<FlatType> flatTypes = new ArrayList<>();
@@ -518,7 +478,7 @@ public class ManagerProjectController implements IManagerProjectController {
             System.out.println("- " + flatType.getFlatType() + ": " + flatType.getNumFlats() + " units at $" + flatType.getPricePerFlat());
         }
         System.out.print("Confirm project creation? (yes/no): ");
-        String confirm = ScannerUtility.SCANNER.nextLine().trim().toLowerCase();
+        String confirm = ScannerUtility.getScanner().nextLine().trim().toLowerCase();
     
         if (!confirm.equals("yes")) {
             view.displayInfo("Project creation aborted.");
@@ -534,9 +494,11 @@ public class ManagerProjectController implements IManagerProjectController {
 
     /**
      * Displays a menu for editing an existing project and handles user input for project details.
+     * The changes are made to a copy of the selected project, which is only saved once they are confirmed,
+     * so the selected project never holds unconfirmed changes.
      *
      * @param projects The list of projects to choose from for editing.
-     * @return The edited Project object or null if the editing was canceled.
+     * @return The edited and saved copy of the project, or null if the editing was canceled or failed.
      */
 
     public Project editProjectMenu(ArrayList<Project> projects) {
@@ -560,8 +522,8 @@ public class ManagerProjectController implements IManagerProjectController {
     
         // Prompt the user to select a project
         System.out.print("Enter the number of the project to edit: ");
-        int choice = ScannerUtility.SCANNER.nextInt();
-        ScannerUtility.SCANNER.nextLine(); // Consume newline
+        int choice = ScannerUtility.getScanner().nextInt();
+        ScannerUtility.getScanner().nextLine(); // Consume newline
     
         if (choice == 0) {
             view.displayInfo("Edit operation canceled.");
@@ -573,23 +535,22 @@ public class ManagerProjectController implements IManagerProjectController {
             return null;
         }
     
-        // Get the selected project
-        Project selectedProject = projects.get(choice - 1);
+        // Edit a copy of the selected project
+        Project selectedProject = new Project(projects.get(choice - 1));
     
-        // Edit the selected project
         System.out.println("\n=========================================");
         System.out.println("           EDIT PROJECT DETAILS          ");
         System.out.println("=========================================");
     
         System.out.print("Enter new Project Name (current: " + selectedProject.getProjectName() + "): ");
-        String newName = ScannerUtility.SCANNER.nextLine();
+        String newName = ScannerUtility.getScanner().nextLine();
         if (!newName.isBlank()) {
             selectedProject.setProjectName(newName);
             LoggerUtility.logInfo("Project name updated to: " + newName);
         }
     
         System.out.print("Enter new Neighborhood (current: " + selectedProject.getNeighborhood() + "): ");
-        String newNeighborhood = ScannerUtility.SCANNER.nextLine();
+        String newNeighborhood = ScannerUtility.getScanner().nextLine();
         if (!newNeighborhood.isBlank()) {
             selectedProject.setNeighborhood(newNeighborhood);
             LoggerUtility.logInfo("Neighborhood updated to: " + newNeighborhood);
@@ -612,7 +573,7 @@ public class ManagerProjectController implements IManagerProjectController {
         }
     
         System.out.print("Enter new Officer Slots (current: " + selectedProject.getOfficerSlots() + "): ");
-        String officerSlotsInput = ScannerUtility.SCANNER.nextLine();
+        String officerSlotsInput = ScannerUtility.getScanner().nextLine();
         if (!officerSlotsInput.isBlank()) {
             try {
                 int newOfficerSlots = Integer.parseInt(officerSlotsInput);
@@ -626,7 +587,9 @@ public class ManagerProjectController implements IManagerProjectController {
         // Keep the manager name static
         selectedProject.setProjectManager(loggedInManager);
         System.out.println("\nEditing Flat Types...");
-        editFlatTypes(selectedProject.getFlatTypes());
+        ArrayList<FlatType> flatTypes = selectedProject.getFlatTypes();
+        editFlatTypes(flatTypes);
+        selectedProject.setFlatTypes(flatTypes);
     
         // Confirm changes
         System.out.println("\n=========================================");
@@ -643,7 +606,7 @@ public class ManagerProjectController implements IManagerProjectController {
         }
         System.out.println("Manager Name: " + selectedProject.getProjectManager().getName());
         System.out.print("Confirm changes? (yes/no): ");
-        String confirm = ScannerUtility.SCANNER.nextLine().trim().toLowerCase();
+        String confirm = ScannerUtility.getScanner().nextLine().trim().toLowerCase();
     
         if (!confirm.equals("yes")) {
             view.displayInfo("Changes discarded.");
@@ -685,10 +648,10 @@ public class ManagerProjectController implements IManagerProjectController {
     
             int choice;
             try {
-                choice = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+                choice = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
                 System.out.println("[ERROR] Invalid input. Please enter a valid number.");
                 continue;
             }
@@ -735,8 +698,8 @@ public class ManagerProjectController implements IManagerProjectController {
 
         // Prompt the user to select a project
         System.out.print("Enter the number of the project to toggle visibility: ");
-        int choice = ScannerUtility.SCANNER.nextInt();
-        ScannerUtility.SCANNER.nextLine(); // Consume newline
+        int choice = ScannerUtility.getScanner().nextInt();
+        ScannerUtility.getScanner().nextLine(); // Consume newline
 
         if (choice == 0) {
             view.displayInfo("Toggle visibility operation canceled.");
@@ -788,9 +751,9 @@ public class ManagerProjectController implements IManagerProjectController {
         int indexToDelete = -1;
     
         while (true) {
-            if (ScannerUtility.SCANNER.hasNextInt()) {
-                indexToDelete = ScannerUtility.SCANNER.nextInt() - 1; // Convert to 0-based index
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+            if (ScannerUtility.getScanner().hasNextInt()) {
+                indexToDelete = ScannerUtility.getScanner().nextInt() - 1; // Convert to 0-based index
+                ScannerUtility.getScanner().nextLine(); // Consume newline
     
                 if (indexToDelete >= 0 && indexToDelete < projects.size()) {
                     break; // Valid index
@@ -800,13 +763,13 @@ public class ManagerProjectController implements IManagerProjectController {
                 }
             } else {
                 System.out.println("[ERROR] Please enter a valid number.");
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
             }
         }
     
         Project projectToDelete = projects.get(indexToDelete);
         System.out.print("Are you sure you want to delete the project '" + projectToDelete.getProjectName() + "'? (yes/no): ");
-        String confirmation = ScannerUtility.SCANNER.nextLine();
+        String confirmation = ScannerUtility.getScanner().nextLine();
     
         if (confirmation.equalsIgnoreCase("yes")) {
             controller.deleteProject(projectToDelete); // Call the controller method to delete the project
@@ -827,7 +790,7 @@ public class ManagerProjectController implements IManagerProjectController {
         dateFormat.setLenient(false); // Ensure strict date parsing
 
         try {
-            String dateInput = ScannerUtility.SCANNER.nextLine();
+            String dateInput = ScannerUtility.getScanner().nextLine();
             return dateFormat.parse(dateInput);
         } catch (ParseException e) {
             LoggerUtility.logError("Invalid date format entered: " + e.getMessage(), e);
@@ -843,6 +806,8 @@ public class ManagerProjectController implements IManagerProjectController {
      */
     public boolean filterProjectsMenu(ArrayList<Project> allProjects) {
         List<String> filters = new ArrayList<>(List.of("", "", "", "", "")); // Initialize empty filters
+        // Indexed once, then queried for every search made from this menu
+        ProjectQueryEngine queryEngine = new ProjectQueryEngine(allProjects);
         while (true) {
             System.out.println("\n=========================================");
             System.out.println("              FILTER PROJECTS            ");
@@ -863,15 +828,14 @@ public class ManagerProjectController implements IManagerProjectController {
     
             int option = -1;
             try {
-                option = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+                option = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 view.displayError("Invalid selection. Please try again.");
                 continue;
             }
     
-            ArrayList<Project> projectsToFilter = new ArrayList<>(allProjects);
             switch (option) {
                 case 0:
                     return false;
@@ -918,39 +882,39 @@ public class ManagerProjectController implements IManagerProjectController {
                     filters.addAll(List.of("", "", "", "", ""));
                     view.displayInfo("Filters cleared.");
                     break;
-                case 8:
-                    Project.filterProject(projectsToFilter, filters);
-                    if (projectsToFilter.isEmpty()) {
+                case 8: {
+                    ArrayList<Project> filteredProjects = queryEngine.query(filters, SortOrder.NAME);
+                    if (filteredProjects.isEmpty()) {
                         view.displayInfo("No results found.");
                     } else {
-                        Project.sortProjectByName(projectsToFilter);
-                        view.displayProjects(projectsToFilter);
+                        view.displayProjects(filteredProjects);
                     }
                     break;
-                case 9:
-                    Project.filterProject(projectsToFilter, filters);
-                    if (projectsToFilter.isEmpty()) {
+                }
+                case 9: {
+                    ArrayList<Project> filteredProjects = queryEngine.query(filters, SortOrder.NEIGHBOURHOOD);
+                    if (filteredProjects.isEmpty()) {
                         view.displayInfo("No results found.");
                     } else {
-                        Project.sortProjectByNeighbourhood(projectsToFilter);
-                        view.displayProjects(projectsToFilter);
+                        view.displayProjects(filteredProjects);
                     }
                     break;
+                }
                 case 10:
-                    Project.filterProject(projectsToFilter, filters);
-                    if (projectsToFilter.isEmpty()) {
+                    if (queryEngine.count(filters) == 0) {
                         view.displayInfo("No results found.");
                     } else {
                         int order = promptSortOrder();
+                        SortOrder sortOrder;
                         if (order == 1) {
-                            Project.sortProjectByPrice(projectsToFilter, true);
+                            sortOrder = SortOrder.PRICE_ASCENDING;
                         } else if (order == 2) {
-                            Project.sortProjectByPrice(projectsToFilter, false);
+                            sortOrder = SortOrder.PRICE_DESCENDING;
                         } else {
                             view.displayError("Invalid selection. Please try again.");
                             break;
                         }
-                        view.displayProjects(projectsToFilter);
+                        view.displayProjects(queryEngine.query(filters, sortOrder));
                     }
                     break;
                 default:
@@ -982,11 +946,11 @@ public class ManagerProjectController implements IManagerProjectController {
         while (true){
         System.out.print("\nEnter minimum price (0 to clear filter): ");
             try {
-                double price = ScannerUtility.SCANNER.nextDouble();
-                ScannerUtility.SCANNER.nextLine();
+                double price = ScannerUtility.getScanner().nextDouble();
+                ScannerUtility.getScanner().nextLine();
                 return price;
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 view.displayError("Invalid Price. Please try again.");
             }
         }
@@ -1012,8 +976,8 @@ public class ManagerProjectController implements IManagerProjectController {
         while (true) {
             System.out.print("\nEnter the number corresponding to the project name (0 to clear filter): ");
             try {
-                int choice = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+                int choice = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
     
                 if (choice == 0) {
                     return ""; // Clear filter
@@ -1025,7 +989,7 @@ public class ManagerProjectController implements IManagerProjectController {
                     view.displayError("Invalid selection. Please try again.");
                 }
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine(); // Consume invalid input
+                ScannerUtility.getScanner().nextLine(); // Consume invalid input
                 view.displayError("Invalid input. Please enter a valid number.");
             }
         }
@@ -1061,8 +1025,8 @@ public class ManagerProjectController implements IManagerProjectController {
         while (true) {
             System.out.print("\nEnter the number corresponding to the neighborhood (0 to clear filter): ");
             try {
-                int choice = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+                int choice = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
 
                 if (choice == 0) {
                     return ""; // Clear filter
@@ -1074,7 +1038,7 @@ public class ManagerProjectController implements IManagerProjectController {
                     view.displayError("Invalid selection. Please try again.");
                 }
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine(); // Consume invalid input
+                ScannerUtility.getScanner().nextLine(); // Consume invalid input
                 view.displayError("Invalid input. Please enter a valid number.");
             }
         }
@@ -1090,11 +1054,11 @@ public class ManagerProjectController implements IManagerProjectController {
         while (true){
             System.out.print("\nEnter maximum price (0 to clear filter): ");
             try {
-                double price = ScannerUtility.SCANNER.nextDouble();
-                ScannerUtility.SCANNER.nextLine();
+                double price = ScannerUtility.getScanner().nextDouble();
+                ScannerUtility.getScanner().nextLine();
                 return price;
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 view.displayError("Invalid Price. Please try again.");
             }
         }
@@ -1114,14 +1078,14 @@ public class ManagerProjectController implements IManagerProjectController {
                 System.out.println("2. 3~ROOM");
                 System.out.println("3. Clear Filter");
                 System.out.print("\nEnter Option: ");
-                int selectedFlat = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                int selectedFlat = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (selectedFlat >= 1 && selectedFlat <= 3) {
                     return selectedFlat;
                 }
                 view.displayInfo("Invalid option.");
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 view.displayInfo("Invalid option.");
             }
         }
@@ -1140,14 +1104,14 @@ public class ManagerProjectController implements IManagerProjectController {
                 System.out.println("1. Ascending");
                 System.out.println("2. Descending");
                 System.out.print("\nEnter Option: ");
-                int order = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                int order = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (order == 1 || order == 2) {
                     return order;
                 }
                 view.displayError("Invalid selection. Please try again.");
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 view.displayError("Invalid . Please try again.");
             }
         }
@@ -2,6 +2,9 @@ package controllers;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import models.HDBManager;
 import models.OfficerRegistration;
@@ -96,4 +99,19 @@ public class ManagerRegistrationController implements IManagerRegistrationContro
         }
         return pendingRegistrations;
     }
+
+    /**
+     * Retrieve the registration conflicts of every officer at once: each pair of pending or successful
+     * registrations of an officer for projects whose application windows overlap.
+     * 
+     * @return The clashing pairs keyed by officer NRIC, only for officers with conflicts.
+     */
+    public Map<String, List<OfficerRegistration[]>> getRegistrationConflicts() {
+        try {
+            return OfficerRegistration.getClashIndexDB().getAllConflicts();
+        } catch (IOException e) {
+            System.out.println("[ERROR] Failed to retrieve registration conflicts: " + e.getMessage());
+            return new TreeMap<>();
+        }
+    }
 }
\ No newline at end of file
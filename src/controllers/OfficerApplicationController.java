@@ -2,13 +2,10 @@ package controllers;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
-import enums.FlatTypeName;
-import enums.MaritalStatus;
 import models.Applicant;
-import models.FlatType;
 import models.HDBOfficer;
 import models.OfficerRegistration;
 import models.Project;
@@ -21,79 +18,25 @@ import models.Project;
 public class OfficerApplicationController extends AbstractApplicationController {
 
     /**
-     * Constructor for the OfficerApplicationController class.
-     * Initializes the view used for displaying information to the user.
-     * @param view The view to be used for displaying information.
+     * This method retrieves a list of applicable projects for the given officer applying as an applicant.
+     * The open projects and flat types for the officer's marital status and age are looked up in the eligibility engine,
+     * leaving out every project the officer has registered to handle. The registrations are read once per call.
+     *
+     * @param applicant The officer for whom to retrieve applicable projects.
+     * @return A list of applicable projects for the officer, or null if the officer is not eligible or an error occurs.
      */
-
     public ArrayList<Project> getApplicableProjects(Applicant applicant) {
         try {
-            List<Project> allProjects = Project.getAllProjectsDB();
-            ArrayList<Project> applicableProjects = new ArrayList<Project>();
-
-            for (Project project : allProjects) {
-                // Check project visibility
-                if (!project.getProjectVisibility()) {
-                    continue;
-                }
-                // Check if application is still open
-                if (!project.getApplicationClosingDate().after(new Date())) {
-                    continue;
-                }
-
-                // Check if there are registrations to be an officer
-                HDBOfficer officer = (HDBOfficer) applicant;
-                List<OfficerRegistration> officerRegistrations = OfficerRegistration.getOfficerRegistrationsByOfficerDB(officer);
-                boolean toSkip = false;
-                for (OfficerRegistration officerRegistration : officerRegistrations) {
-                    if (officerRegistration.getProjectID() == project.getProjectID()) {
-                        toSkip = true;
-                        break;
-                    }
-                }
-                if (toSkip) {
-                    continue;
-                }
-
-                List<FlatType> projectFlatTypes = project.getFlatTypes();
-
-                // Single applicant
-                if (applicant.getMaritalStatus().equals(MaritalStatus.SINGLE.getStatus())) {
-                    if (applicant.getAge() < 35) {
-                        return null;
-                    }
-                    List<FlatType> applicableFlatTypes = new ArrayList<FlatType>();
-                    for (FlatType flatType : projectFlatTypes) {
-                        if (flatType.getFlatType().equals(FlatTypeName.TWO_ROOM.getflatTypeName())) {
-                            applicableProjects.add(project);
-                            applicableFlatTypes.add(flatType);
-                        }
-                    }
-                    project.setFlatTypes(applicableFlatTypes);
-                }
-                // Married applicant
-                else if (applicant.getMaritalStatus().equals(MaritalStatus.MARRIED.getStatus())) {
-                    if (applicant.getAge() < 21) {
-                        return null;
-                    }
-                    List<FlatType> applicableFlatTypes = new ArrayList<FlatType>();
-                    for (FlatType flatType : projectFlatTypes) {
-                        if (flatType.getFlatType().equals(FlatTypeName.TWO_ROOM.getflatTypeName()) ||
-                                flatType.getFlatType().equals(FlatTypeName.THREE_ROOM.getflatTypeName())) {
-                            applicableFlatTypes.add(flatType);
-                        }
-                    }
-                    if (applicableFlatTypes.size() != 0) {
-                        project.setFlatTypes(applicableFlatTypes);
-                        applicableProjects.add(project);
-                    }
-                }
+            // Check if there are registrations to be an officer
+            HDBOfficer officer = (HDBOfficer) applicant;
+            Set<Integer> registeredProjectIDs = new HashSet<>();
+            for (OfficerRegistration officerRegistration : OfficerRegistration.getOfficerRegistrationsByOfficerDB(officer)) {
+                registeredProjectIDs.add(officerRegistration.getProjectID());
             }
-            Project.sortProjectByName(applicableProjects);
-            return applicableProjects;
+            return Project.getApplicableProjectsDB(applicant.getMaritalStatus(), applicant.getAge(), registeredProjectIDs);
         } catch (IOException e) {
             return null;
         }
     }
 
-}
\ No newline at end of file
+}
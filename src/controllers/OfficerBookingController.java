@@ -4,13 +4,18 @@ import models.Application;
 import models.FlatType;
 import models.HDBOfficer;
 import models.OfficerRegistration;
-import models.Project;
 import utilities.LoggerUtility;
 import views.OfficerBookingView;
+import databases.FlatInventory;
+import databases.StaleVersionException;
+import databases.Transaction;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import enums.ApplicationStatus;
 import enums.OfficerRegisterationStatus;
@@ -27,6 +32,10 @@ import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
  * This class is responsible for handling the booking process of applications by HDB officers.
  */
 public class OfficerBookingController implements IOfficerBookingController {
+    // How many times a booking is retried after other officers changed the application or project first
+    private static final int MAX_BOOKING_ATTEMPTS = 50;
+    // IDs of the applications an officer is booking right now
+    private static final Set<Integer> APPLICATIONS_BEING_BOOKED = ConcurrentHashMap.newKeySet();
 
     private OfficerBookingView view;
     public OfficerBookingController() {
@@ -52,44 +61,145 @@ public class OfficerBookingController implements IOfficerBookingController {
     }
 
     /**
-     * Update the project associated with an application in the database.
+     * Take one unit of the flat type of an application from the inventory of its project and write it to the project.
      * 
      * @param application The application whose project is to be updated.
      */
     @Override
     public boolean updateProject(Application application) {
+        Transaction transaction = new Transaction();
         try {
-            // Update the project details in the database
-            for (FlatType flatType : application.getProject().getFlatTypes()){
-                if (application.getFlatType() == flatType.getFlatType()){
-                    flatType.setNumFlats(flatType.getNumFlats()-1);
-                    Project.updateProjectDB(application.getProject());
-                    return true;
-                }
+            if (!FlatInventory.take(application.getProject().getProjectID(), application.getFlatType(), transaction)) {
+                return false;
             }
-            return false;
+            transaction.commit();
+            return true;
         } catch (Exception e) {
             LoggerUtility.logError("Failed to update project when booking", e);
             return false;
+        } finally {
+            transaction.rollback();
         }
     }
 
     /**
-     * Generate a booking receipt for the specified application.
+     * Book the flat of an application: take one unit of its flat type and mark the application as booked.
+     * The unit is reserved on the atomic inventory counters of the project, so officers booking at once never wait for
+     * each other to find out whether a unit is left, and the last unit cannot be taken twice. The booked application
+     * and the unit taken off the project are then written in one transaction, so a booking is never saved without
+     * its unit or the other way round.
+     * The application is only saved if nobody has saved it since it was read. If another officer saved it first,
+     * the unit is given back and the booking is retried on the latest state of the application.
+     * Only one officer books an application at a time, so that a second booking of the same application
+     * does not hold a unit that other applications could have taken.
      * 
-     * @param applicationId The ID of the application to generate a receipt for.
-     * @return boolean indicating if receipt generation was successful
+     * @param application The application to book.
+     * @return boolean indicating if the booking was successful
      */
-    private boolean updateBooking(Application application) {
-        if (updateApplications(application, ApplicationStatus.BOOKED.getStatus())){
-            if (updateProject(application)){
-                // Revert
-                updateApplications(application, ApplicationStatus.BOOKED.getStatus());
+    @Override
+    public boolean updateBooking(Application application) {
+        if (!APPLICATIONS_BEING_BOOKED.add(application.getApplicationID())){
+            return false;
+        }
+        try {
+            return bookWithRetry(application);
+        } finally {
+            APPLICATIONS_BEING_BOOKED.remove(application.getApplicationID());
+        }
+    }
+
+    /**
+     * Book the flat of an application, retrying while other officers save the application first.
+     * 
+     * @param application The application to book.
+     * @return boolean indicating if the booking was successful
+     */
+    private boolean bookWithRetry(Application application) {
+        Application current = application;
+        for (int attempt = 1; attempt <= MAX_BOOKING_ATTEMPTS; attempt++) {
+            if (!ApplicationStatus.SUCESSFUL.getStatus().equals(current.getApplicationStatus())){
                 return false;
             }
+            int projectID = current.getProject().getProjectID();
+            // The unit is given back by the transaction unless it commits
+            Transaction transaction = new Transaction();
+            try {
+                if (!FlatInventory.take(projectID, current.getFlatType(), transaction)){
+                    return false;
+                }
+                // Write a copy, so the shared application only changes once the booking is saved
+                Application bookedApplication = new Application(current.getApplicant(), current.getProject(),
+                    ApplicationStatus.BOOKED.getStatus(), current.getApplicationID(), current.getFlatType());
+                bookedApplication.setVersion(current.getVersion());
+                Application.updateApplicationDB(bookedApplication, transaction);
+                transaction.commit();
+                application.setApplicationStatus(ApplicationStatus.BOOKED.getStatus());
+                return true;
+            } catch (StaleVersionException e) {
+                try {
+                    current = Application.reloadApplicationDB(current.getApplicationID());
+                } catch (IOException reloadError) {
+                    LoggerUtility.logError("Failed to reload application when booking: " + application.getApplicationID(), reloadError);
+                    return false;
+                }
+                if (current == null || !backOff(attempt)){
+                    return false;
+                }
+            } catch (IOException | IllegalStateException e) {
+                LoggerUtility.logError("Failed to book flat for application: " + application.getApplicationID(), e);
+                return false;
+            } finally {
+                transaction.rollback();
+            }
+        }
+        LoggerUtility.logInfo("Gave up booking flat for application " + application.getApplicationID()
+            + " after " + MAX_BOOKING_ATTEMPTS + " conflicting attempts");
+        return false;
+    }
+
+    /**
+     * Wait a short random time before retrying a booking, longer after each conflict,
+     * so that officers retrying at once do not keep colliding.
+     * 
+     * @param attempt The number of attempts made so far.
+     * @return false if the thread was interrupted while waiting.
+     */
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(1 << Math.min(attempt, 6)));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Retrieve the applications with a given status in the projects the officer is successfully registered for.
+     * Uses the status index of the applications, so only applications with the status are checked.
+     * 
+     * @param officer The HDB officer handling the applications.
+     * @param status The status of the applications to retrieve.
+     * @return A list of applications in the officer's projects with the status.
+     * @throws IOException If there is an error retrieving the data from the database.
+     */
+    private ArrayList<Application> getOfficerProjectApplications(HDBOfficer officer, String status) throws IOException {
+        Set<Integer> officerProjectIDs = new HashSet<Integer>();
+        for (OfficerRegistration registration : OfficerRegistration.getOfficerRegistrationsByOfficerDB(officer)){
+            if (registration.getRegistrationStatus().equals(OfficerRegisterationStatus.SUCESSFUL.getStatus())){
+                officerProjectIDs.add(registration.getProjectID());
+            }
         }
-        
-        return true;
+        ArrayList<Application> officerProjectApplications = new ArrayList<Application>();
+        if (officerProjectIDs.isEmpty()){
+            return officerProjectApplications;
+        }
+        for (Application application : Application.getApplicationsByStatusDB(status)){
+            if (officerProjectIDs.contains(application.getProject().getProjectID())){
+                officerProjectApplications.add(application);
+            }
+        }
+        return officerProjectApplications;
     }
 
     /**
@@ -99,22 +209,8 @@ public class OfficerBookingController implements IOfficerBookingController {
      */
 
     public void selectApplicationToBook(HDBOfficer officer){
-        List<Application> allApplications;
-        ArrayList<OfficerRegistration> registrations;
         try {
-            allApplications = Application.getAllApplicationDB();
-            registrations = OfficerRegistration.getOfficerRegistrationsByOfficerDB(officer);
-            ArrayList<Application> officerProjectApplications = new ArrayList<Application>();
-            for (Application application : allApplications){
-                for (OfficerRegistration registration : registrations){
-                    if ((registration.getProjectID() == application.getProject().getProjectID()) && 
-                    application.getApplicationStatus().equals(ApplicationStatus.SUCESSFUL.getStatus()) && 
-                    registration.getRegistrationStatus().equals(OfficerRegisterationStatus.SUCESSFUL.getStatus())){
-                        officerProjectApplications.add(application);
-                        break;
-                    }
-                }
-            }
+            ArrayList<Application> officerProjectApplications = getOfficerProjectApplications(officer, ApplicationStatus.SUCESSFUL.getStatus());
             if (officerProjectApplications.size() == 0){
                 view.displayInfo("No applications need booking");
                 return;
@@ -145,22 +241,8 @@ public class OfficerBookingController implements IOfficerBookingController {
      */
 
     public void viewGenerateReceipt(HDBOfficer officer){
-        List<Application> allApplications;
-        ArrayList<OfficerRegistration> registrations;
         try {
-            allApplications = Application.getAllApplicationDB();
-            registrations = OfficerRegistration.getOfficerRegistrationsByOfficerDB(officer);
-            ArrayList<Application> officerProjectApplications = new ArrayList<Application>();
-            for (Application application : allApplications){
-                for (OfficerRegistration registration : registrations){
-                    if ((registration.getProjectID() == application.getProject().getProjectID()) && 
-                    application.getApplicationStatus().equals(ApplicationStatus.BOOKED.getStatus()) && 
-                    registration.getRegistrationStatus().equals(OfficerRegisterationStatus.SUCESSFUL.getStatus())){
-                        officerProjectApplications.add(application);
-                        break;
-                    }
-                }
-            }
+            ArrayList<Application> officerProjectApplications = getOfficerProjectApplications(officer, ApplicationStatus.BOOKED.getStatus());
             if (officerProjectApplications.size() == 0){
                 view.displayInfo("No booked applications");
                 return;
@@ -1,6 +1,7 @@
 package controllers;
 
 import models.HDBOfficer;
+import utilities.MetricsRegistry;
 import views.OfficerMainView;
 
 /**
@@ -34,6 +35,7 @@ public class OfficerMainController {
 
 	/**
 	 * Displays the officer menu and handles the selected action.
+	 * Each option is recorded as an action in MetricsRegistry.
 	 * @param officer The HDB officer who is logged in.
 	 */
 	public void officerSelectMenu(HDBOfficer officer) {
@@ -43,31 +45,31 @@ public class OfficerMainController {
 			option = mainView.showOfficerMenu();
 			switch (option) {
 				case 1:
-					officerApplicationController.applicationAction(officer);
+					MetricsRegistry.action("officer.applications", () -> officerApplicationController.applicationAction(officer));
 					break;
 				case 2:
-					officerApplicationController.projectAction(officer);
+					MetricsRegistry.action("officer.projects", () -> officerApplicationController.projectAction(officer));
 					break;
 				case 3:
-					applicantEnquiryController.enquiryActionMenu(officer);
+					MetricsRegistry.action("officer.ownEnquiries", () -> applicantEnquiryController.enquiryActionMenu(officer));
 					break;
 				case 4:
-					officerRegistrationController.showRegistrations(officer);
+					MetricsRegistry.action("officer.registrations", () -> officerRegistrationController.showRegistrations(officer));
 					break;
 				case 5:
-					officerRegistrationController.joinProjectAction(officer);
+					MetricsRegistry.action("officer.joinProject", () -> officerRegistrationController.joinProjectAction(officer));
 					break;
 				case 6:
-					officerEnquiryController.enquiryActionMenu(officer);
+					MetricsRegistry.action("officer.projectEnquiries", () -> officerEnquiryController.enquiryActionMenu(officer));
 					break;
 				case 7:
-					officerBookingController.selectApplicationToBook(officer);
+					MetricsRegistry.action("officer.booking", () -> officerBookingController.selectApplicationToBook(officer));
 					break;
 				case 8:
-					officerBookingController.viewGenerateReceipt(officer);
+					MetricsRegistry.action("officer.receipt", () -> officerBookingController.viewGenerateReceipt(officer));
 					break;
 				case 9:
-					authenticatorController.handlePasswordChange(officer);
+					MetricsRegistry.action("officer.password", () -> authenticatorController.handlePasswordChange(officer));
 					break;
 				case 10:
 					return;
@@ -2,8 +2,6 @@ package controllers;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
 
 import enums.OfficerRegisterationStatus;
 import models.Application;
@@ -95,62 +93,19 @@ public class OfficerRegistrationController implements IOfficerRegistrationContro
 
     /**
      * Gets the list of projects the officer can register for.
+     * Clashes with the officer's pending and successful registrations are looked up in the registration clash index.
      * @param officer The officer requesting the projects.
      * @return A list of registrable projects.
      * @exception IOException If there is an error reading from the database.
      */
     public ArrayList<Project> getRegistrableProjects(HDBOfficer officer){
         try {
-            List<Project> allProjects = Project.getAllProjectsDB();
-            ArrayList<Project> registrableProjects = new ArrayList<Project>();
-            ArrayList<OfficerRegistration> registrations = OfficerRegistration.getOfficerRegistrationsByOfficerDB(officer);
             Application application = Application.getApplicationByNricDB(officer.getNric());
-            Project applicationProject = null;
-            if (application != null){
-                applicationProject = application.getProject();
-            }
-
-            for (Project project : allProjects){
-                // Check project visibility
-                if (!project.getProjectVisibility()){
-                    continue; 
-                }
-                // Check if project is still open
-                if (!project.getApplicationClosingDate().after(new Date())){
-                    continue; 
-                }
-                // Check if officer is an applicant of the project
-                if (applicationProject != null && project.getProjectID() == applicationProject.getProjectID()){
-                    continue;
-                }
-                if (project.getOfficerSlots() <= 0){
-                    continue;
-                }
-                boolean toSkip = false;
-                for (OfficerRegistration registration : registrations){
-                    // Check that projects are not the same ID
-                    if (project.getProjectID() == registration.getProjectID()){
-                        toSkip = true;
-                        break;
-                    }
-                    // Check that application is SUCCESSFUL/PENDING and date does not clash 
-                    Project registrationProject = registration.getProject();
-
-                    if (registration.getRegistrationStatus().equals(OfficerRegisterationStatus.PENDING.getStatus()) || registration.getRegistrationStatus().equals(OfficerRegisterationStatus.SUCESSFUL.getStatus())){
-                        if (!(registrationProject.getApplicationClosingDate().before(project.getApplicationOpeningDate()) || registrationProject.getApplicationOpeningDate().after(project.getApplicationClosingDate()))){
-                            toSkip = true;
-                            break;
-                        }
-                    }
-                }
-                if (toSkip){
-                    continue;
-                }
-                // Passes all criterias
-                registrableProjects.add(project);
+            Integer appliedProjectID = null;
+            if (application != null && application.getProject() != null){
+                appliedProjectID = application.getProject().getProjectID();
             }
-            Project.sortProjectByName(registrableProjects);
-            return registrableProjects;
+            return OfficerRegistration.getClashIndexDB().getRegistrableProjects(officer, appliedProjectID);
         }
         catch (IOException e){
             return null;
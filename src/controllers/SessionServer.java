@@ -0,0 +1,84 @@
+package controllers;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import utilities.LoggerUtility;
+import utilities.Session;
+
+/**
+ * SessionServer class serves many users at once, one session per connection on a local port.
+ * Each connection gets its own thread, Session and AuthenticatorController, and runs the same login and menu flow
+ * as the terminal; connect with a line based client such as "nc localhost 5050".
+ * Sessions share the in-memory tables of DataStore, which are safe for concurrent use.
+ * The server only listens on the loopback address, so only users on the same machine can connect.
+ */
+public class SessionServer {
+    public static final int DEFAULT_PORT = 5050;
+
+    private final int port;
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    /**
+     * Constructor for SessionServer
+     * @param port The local port to listen on.
+     */
+    public SessionServer(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Accepts connections until the server is stopped, serving each in its own thread.
+     * @throws IOException if the port cannot be opened.
+     */
+    public void run() throws IOException {
+        Session.routeSystemOutput();
+        ExecutorService sessions = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "session-" + sessionCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Serving sessions on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                sessions.execute(() -> serve(socket));
+            }
+        } finally {
+            sessions.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the login and menu flow for one connection until the client disconnects.
+     * @param socket The connection of the session.
+     */
+    private void serve(Socket socket) {
+        String client = socket.getRemoteSocketAddress().toString();
+        LoggerUtility.logInfo("Session opened for " + client);
+        try (socket;
+             Session session = new Session(socket.getInputStream(), new PrintStream(
+                 new BufferedOutputStream(socket.getOutputStream()), true, StandardCharsets.UTF_8))) {
+            session.bind();
+            AuthenticatorController authenticatorController = new AuthenticatorController();
+            while (!socket.isClosed()) {
+                authenticatorController.authenticate();
+            }
+        } catch (Session.ClosedError e) {
+            // The client disconnected
+        } catch (IOException | RuntimeException e) {
+            LoggerUtility.logError("Session failed for " + client, e);
+        } finally {
+            Session.unbind();
+            LoggerUtility.logInfo("Session closed for " + client);
+        }
+    }
+}
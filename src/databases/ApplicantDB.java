@@ -2,21 +2,20 @@ package databases;
 
 import models.Applicant;
 import enums.UserFileIndex;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Row; 
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.util.HashMap;
 
 /**
  * ApplicantDB handles the database operations for the Applicant class.
  * It provides methods to retrieve and save applicant information from an Excel file.
+ * Reads are served from the in-memory table in DataStore and writes are written through to the file.
  */
 
 public class ApplicantDB {
-    private static final String APPLICANT_FILEPATH = "resources/data/ApplicantList.xlsx";
+    // Canonical Applicant instances keyed by NRIC
+    private static final EntityCache<String, Applicant> CACHE = new EntityCache<>("Applicant", 1024);
+    // Index of the table by normalised NRIC, kept up to date by the table on every write
+    private static final TableIndex BY_NRIC = DataStore.APPLICANTS.createIndex(UserDirectory::nricOf);
 
     /**
      * Retrieves an applicant's information based on their NRIC.
@@ -28,33 +27,52 @@ public class ApplicantDB {
      */
     
     public static Applicant getApplicantByNRIC(String nric) throws IOException, NumberFormatException {
-		try (FileInputStream fileStreamIn = new FileInputStream(APPLICANT_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                // Skip header
-                if (row.getRowNum() == 0) continue;
+        return OperationLog.time("ApplicantDB.getApplicantByNRIC", "Applicant", () -> {
+            // Check if NRIC match
+            TableRow row = DataStore.APPLICANTS.findFirst(BY_NRIC, UserDirectory.normalise(nric));
+            return row == null ? null : createApplicantFromRow(row);
+        });
+    }
 
-                // Read the user details from the row
-                if (row.getCell(UserFileIndex.NRIC.getIndex()) == null || 
-                    row.getCell(UserFileIndex.NRIC.getIndex()).getCellType() != org.apache.poi.ss.usermodel.CellType.STRING) {
-                    continue;
-                }
-                String fileNric = row.getCell(UserFileIndex.NRIC.getIndex()).getStringCellValue();
+    /**
+     * Retrieves every applicant keyed by NRIC in a single pass over the table.
+     * 
+     * @return A HashMap of NRIC to Applicant object.
+     * @throws IOException If there is an error reading the file.
+     * @throws NumberFormatException If there is an error converting the age to an integer.
+     */
+    public static HashMap<String, Applicant> getApplicantMap() throws IOException, NumberFormatException {
+        return OperationLog.time("ApplicantDB.getApplicantMap", "Applicant", () -> {
+            HashMap<String, Applicant> applicants = new HashMap<>();
+            for (TableRow row : DataStore.APPLICANTS.getRows()) {
+                Applicant applicant = createApplicantFromRow(row);
+                applicants.putIfAbsent(applicant.getNric(), applicant);
+            }
+            return applicants;
+        });
+    }
 
-                // Check if NRIC match
-                if (fileNric.equals(nric)) {
-                    String name = row.getCell(UserFileIndex.NAME.getIndex()).getStringCellValue();
-                    String maritalStatus = row.getCell(UserFileIndex.MARITAL_STATUS.getIndex()).getStringCellValue();
-                    String filePassword = row.getCell(UserFileIndex.PASSWORD.getIndex()).getStringCellValue();
-                    // !! Propogate any NumberFormatException to calling method
-                    int age = (int) row.getCell(UserFileIndex.AGE.getIndex()).getNumericCellValue();
+    /**
+     * Drops every cached Applicant, such as after the file has been changed outside the program.
+     */
+    static void invalidateAll() {
+        CACHE.clear();
+    }
 
-                    return new Applicant(name, nric, age, maritalStatus, filePassword);
-                }
-            } 
+    private static Applicant createApplicantFromRow(TableRow row) {
+        String nric = row.getString(UserFileIndex.NRIC.getIndex());
+        Applicant cached = CACHE.get(nric);
+        if (cached != null) {
+            return new Applicant(cached);
         }
-		return null;
+        String name = row.getString(UserFileIndex.NAME.getIndex());
+        String maritalStatus = row.getString(UserFileIndex.MARITAL_STATUS.getIndex());
+        String filePassword = row.getString(UserFileIndex.PASSWORD.getIndex());
+        // !! Propogate any NumberFormatException to calling method
+        int age = row.getInt(UserFileIndex.AGE.getIndex());
+
+        Applicant applicant = new Applicant(name, nric, age, maritalStatus, filePassword);
+        return new Applicant(CACHE.putIfAbsent(nric, applicant));
     }
 
     /**
@@ -65,28 +83,14 @@ public class ApplicantDB {
      * @throws IOException If there is an error writing to the file.
      */
     public static boolean saveUser(Applicant applicant) throws IOException {
-        try (FileInputStream fis = new FileInputStream(APPLICANT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            boolean found = false;
-
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                String fileNric = row.getCell(UserFileIndex.NRIC.getIndex()).getStringCellValue();
-                if (fileNric.equals(applicant.getNric())) {
-                    row.getCell(UserFileIndex.PASSWORD.getIndex()).setCellValue(applicant.getPassword());
-                    found = true;
-                    break;
-                }
-            }
-
-            if (found) {
-                try (FileOutputStream fos = new FileOutputStream(APPLICANT_FILEPATH)) {
-                    workbook.write(fos);
-                    return true;
-                }
+        return OperationLog.time("ApplicantDB.saveUser", "Applicant", () -> {
+            try {
+                return DataStore.APPLICANTS.update(
+                    row -> row.getString(UserFileIndex.NRIC.getIndex()).equals(applicant.getNric()),
+                    row -> row.set(UserFileIndex.PASSWORD.getIndex(), applicant.getPassword()));
+            } finally {
+                CACHE.invalidate(applicant.getNric());
             }
-            return false;
-        }
+        });
     }
 }
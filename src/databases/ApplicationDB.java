@@ -3,17 +3,23 @@ package databases;
 import models.*;
 import utilities.LoggerUtility;
 import enums.ProjectApplicationFileIndex;
-import java.io.*;
+import java.io.IOException;
 import java.util.*;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 /**
  * ApplicationDB class handles the database operations for the Application entity.
  * It provides methods to create, read, update, and delete Application in an Excel file.
  * It also includes helper methods to convert between Application objects and Excel rows.
+ * Reads are served from the in-memory table in DataStore and writes are written through to the file.
  */
 public class ApplicationDB {
-    private static final String APPLICATION_FILEPATH = "resources/data/ProjectApplication.xlsx";
+    // Canonical Application instances keyed by application ID
+    private static final EntityCache<Integer, Application> CACHE = new EntityCache<>("Application", 4096);
+    // Secondary indexes over the application table, kept up to date by the table on every write
+    private static final TableIndex BY_NRIC = DataStore.APPLICATIONS.createIndex(
+        row -> row.isBlank(ProjectApplicationFileIndex.NRIC.getIndex()) ? null : row.getString(ProjectApplicationFileIndex.NRIC.getIndex()));
+    private static final TableIndex BY_PROJECT = DataStore.APPLICATIONS.createIndex(ApplicationDB::projectIdOf);
+    private static final TableIndex BY_STATUS = DataStore.APPLICATIONS.createIndex(
+        row -> row.isBlank(ProjectApplicationFileIndex.STATUS.getIndex()) ? null : row.getString(ProjectApplicationFileIndex.STATUS.getIndex()));
 
     /**
      * Creates a new application for a given applicant and project.
@@ -23,69 +29,89 @@ public class ApplicationDB {
      * @param flatType The type of flat applied for.
      */
     public static void createApplication(Applicant applicant, Project project, String status, FlatType flatType) throws IOException {
-        File file = new File(APPLICATION_FILEPATH);
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Row lastRow = sheet.getRow(sheet.getLastRowNum());
-            int applicationID;
-            if (lastRow == null || lastRow.getCell(ProjectApplicationFileIndex.ID.getIndex()).getCellType() != CellType.NUMERIC) {
-                applicationID = 1; 
-            } else {
-                applicationID  = (int) lastRow.getCell(ProjectApplicationFileIndex.ID.getIndex()).getNumericCellValue() + 1;
-            }
-            int newRowNum = sheet.getLastRowNum() + 1;
-            Row row = sheet.createRow(newRowNum);
-            populateApplicationRow(row, applicationID, applicant, project, status, flatType.getFlatType());
-
-            // Save the changes to the file
-            try (FileOutputStream fos = new FileOutputStream(file)) {
-                workbook.write(fos);
+        OperationLog.run("ApplicationDB.createApplication", "Application", 1, () -> {
+            try {
+                int applicationID = DataStore.APPLICATION_IDS.next();
+                TableRow row = DataStore.APPLICATIONS.newRow();
+                populateApplicationRow(row, applicationID, applicant, project, status, flatType.getFlatType());
+                DataStore.APPLICATIONS.insert(row);
+                LoggerUtility.logInfo(String.format("Created application for NRIC: %s, Project: %s", 
+                    applicant.getNric(), project.getProjectName()));
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to create application for NRIC: " + applicant.getNric(), e);
+                throw e;
             }
-            LoggerUtility.logInfo(String.format("Created application for NRIC: %s, Project: %s", 
-                applicant.getNric(), project.getProjectName()));
-        } catch (IOException e) {
-            LoggerUtility.logError("Failed to create application for NRIC: " + applicant.getNric(), e);
-            throw e;
-        }
+        });
     }
 
     /**
-     * Updates an existing application in the Excel file.
+     * Updates an existing application in the Excel file, if its row is still at the version the application was read at.
+     * On success the application moves to the new version of the row.
      * @param application The application object containing updated information.
      * @return void
+     * @throws StaleVersionException If another session has updated the application since it was read.
      * @throws IOException If there is an error reading or writing the file.
      */
     public static void updateApplication(Application application) throws IOException {
-        File file = new File(APPLICATION_FILEPATH);
-        Workbook workbook;
-        Sheet sheet;
-        try (FileInputStream fis = new FileInputStream(file)) {
-            workbook = new XSSFWorkbook(fis);
-            sheet = workbook.getSheetAt(0);
-        }
-            
-        for (Row row : sheet) {
-            if (row.getRowNum() == 0) continue; 
-            if (row.getCell(ProjectApplicationFileIndex.ID.getIndex()) == null || row.getCell(ProjectApplicationFileIndex.ID.getIndex()).getCellType() == CellType.BLANK) continue;
-            int applicationID = (int) row.getCell(ProjectApplicationFileIndex.ID.getIndex()).getNumericCellValue();
-            
-            if (applicationID == application.getApplicationID()) {
-                populateApplicationRow(
-                    row, 
-                    applicationID, 
-                    application.getApplicant(),
-                    application.getProject(), 
-                    application.getApplicationStatus(), 
-                    application.getFlatType());
-                break;
+        OperationLog.run("ApplicationDB.updateApplication", "Application", 1, () -> {
+            int version = application.getVersion();
+            try {
+                boolean updated = DataStore.APPLICATIONS.compareAndSet(
+                    row -> row.isNumeric(ProjectApplicationFileIndex.ID.getIndex())
+                        && row.getInt(ProjectApplicationFileIndex.ID.getIndex()) == application.getApplicationID(),
+                    version,
+                    row -> populateApplicationRow(
+                        row, 
+                        application.getApplicationID(), 
+                        application.getApplicant(),
+                        application.getProject(), 
+                        application.getApplicationStatus(), 
+                        application.getFlatType()));
+                if (updated) {
+                    application.setVersion(version + 1);
+                }
+            } finally {
+                CACHE.invalidate(application.getApplicationID());
             }
-        }
-        
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            workbook.write(fos);
-        }
-        workbook.close();
+        });
+    }
+
+    /**
+     * Stages an update of an existing application in a transaction.
+     * The application is written when the transaction is committed, if its row is still at the version the application was read at.
+     * @param application The application object containing updated information.
+     * @param transaction The transaction to stage the update in.
+     */
+    public static void updateApplication(Application application, Transaction transaction) {
+        int version = application.getVersion();
+        transaction.update(DataStore.APPLICATIONS,
+            row -> row.isNumeric(ProjectApplicationFileIndex.ID.getIndex())
+                && row.getInt(ProjectApplicationFileIndex.ID.getIndex()) == application.getApplicationID(),
+            version,
+            row -> populateApplicationRow(
+                row,
+                application.getApplicationID(),
+                application.getApplicant(),
+                application.getProject(),
+                application.getApplicationStatus(),
+                application.getFlatType()));
+        transaction.afterCommit(() -> application.setVersion(version + 1));
+        transaction.afterCompletion(() -> CACHE.invalidate(application.getApplicationID()));
+    }
+
+    /**
+     * Reads an application again from its row, dropping the cached instance first,
+     * so that a change that failed on a stale version can be retried on the latest one.
+     * @param applicationID The ID of the application to reload.
+     * @return The application as currently stored, or null if it no longer exists.
+     * @throws IOException If there is an error reading the file.
+     */
+    public static Application reloadApplication(int applicationID) throws IOException {
+        return OperationLog.time("ApplicationDB.reloadApplication", "Application", () -> {
+            CACHE.invalidate(applicationID);
+            TableRow row = DataStore.APPLICATIONS.findByKey(applicationID);
+            return row == null ? null : createApplicationFromRow(row, null, null);
+        });
     }
 
     /**
@@ -94,24 +120,9 @@ public class ApplicationDB {
      * @return true if there are applications for the project, false otherwise.
      */
     public static boolean hasApplicationsForProject(int projectID) throws IOException {
-        try (FileInputStream fis = new FileInputStream(APPLICATION_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; 
-                Cell projectIDCell = row.getCell(ProjectApplicationFileIndex.PROJECT_ID.getIndex());
-                if (projectIDCell == null || projectIDCell.getCellType() == CellType.BLANK) continue;
-
-                if (projectIDCell != null && projectIDCell.getCellType() == CellType.NUMERIC) {
-                    int currentProjectID = (int) projectIDCell.getNumericCellValue();
-                    if (currentProjectID == projectID) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return OperationLog.time("ApplicationDB.hasApplicationsForProject", "Application", () -> {
+            return DataStore.APPLICATIONS.exists(BY_PROJECT, projectID);
+        });
     }
 
     /**
@@ -120,78 +131,95 @@ public class ApplicationDB {
      * @return A list of Application objects for the specified project ID.
      */
     public static List<Application> getApplicationsForProject(int projectID) throws IOException {
+        return OperationLog.time("ApplicationDB.getApplicationsForProject", "Application", () -> {
+            return createApplicationsFromRows(DataStore.APPLICATIONS.findAll(BY_PROJECT, projectID));
+        });
+    }
+
+    /**
+     * Retrieves every application with a given status.
+     * @param status The status of the applications to retrieve.
+     * @return A list of Application objects with the specified status.
+     */
+    public static List<Application> getApplicationsByStatus(String status) throws IOException {
+        return OperationLog.time("ApplicationDB.getApplicationsByStatus", "Application", () -> {
+            return createApplicationsFromRows(DataStore.APPLICATIONS.findAll(BY_STATUS, status));
+        });
+    }
+
+    public static Application getApplicationByNric(String nric) throws IOException {
+        return OperationLog.time("ApplicationDB.getApplicationByNric", "Application", () -> {
+            TableRow row = DataStore.APPLICATIONS.findFirst(BY_NRIC, nric);
+            return row == null ? null : createApplicationFromRow(row, null, null);
+        });
+    }
+
+    /**
+     * Creates Application objects for a list of rows, resolving applicants and projects with one lookup map each.
+     * @param rows The rows to create the Application objects from.
+     * @return A list of Application objects in the order of the rows.
+     */
+    private static List<Application> createApplicationsFromRows(List<TableRow> rows) throws IOException {
         List<Application> applications = new ArrayList<>();
-        try (FileInputStream fis = new FileInputStream(APPLICATION_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-    
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                
-                Cell projectIDCell = row.getCell(ProjectApplicationFileIndex.PROJECT_ID.getIndex());
-                if (projectIDCell == null || projectIDCell.getCellType() == CellType.BLANK) continue;
-                int currentProjectID;
-    
-                // Check the cell type and retrieve the value accordingly
-                if (projectIDCell.getCellType() == CellType.NUMERIC) {
-                    currentProjectID = (int) projectIDCell.getNumericCellValue();
-                } else if (projectIDCell.getCellType() == CellType.STRING) {
-                    currentProjectID = Integer.parseInt(projectIDCell.getStringCellValue());
-                } else {
-                    throw new IllegalStateException("Unexpected cell type for Project ID: " + projectIDCell.getCellType());
-                }
-    
-                if (currentProjectID == projectID) {
-                    applications.add(createApplicationFromRow(row));
-                }
-            }
+        if (rows.isEmpty()) {
+            return applications;
+        }
+        Map<String, Applicant> applicants = getApplicantMap();
+        Map<Integer, Project> projects = ProjectDB.getProjectMap();
+        for (TableRow row : rows) {
+            applications.add(createApplicationFromRow(row, applicants, projects));
         }
         return applications;
     }
 
-    public static Application getApplicationByNric(String nric) throws IOException {
-        try (FileInputStream fis = new FileInputStream(APPLICATION_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                Cell nricCell = row.getCell(ProjectApplicationFileIndex.NRIC.getIndex());
-                if (nricCell == null || nricCell.getCellType() == CellType.BLANK) continue;
+    /**
+     * Reads the project ID of an application row for the project index.
+     * @param row The application row.
+     * @return The project ID, or null if the cell is blank or not a number.
+     */
+    private static Object projectIdOf(TableRow row) {
+        if (row.isBlank(ProjectApplicationFileIndex.PROJECT_ID.getIndex())) {
+            return null;
+        }
+        try {
+            return row.getInt(ProjectApplicationFileIndex.PROJECT_ID.getIndex());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
-                if (nricCell.getCellType() == CellType.STRING && nricCell.getStringCellValue().equals(nric)) {
-                    return createApplicationFromRow(row);
-                }
-            }
+    /**
+     * Retrieves every applicant and officer keyed by NRIC, with applicants taking precedence.
+     * Used to resolve the applicants of many application rows with one pass over each user table.
+     * @return A map of NRIC to Applicant object.
+     */
+    private static Map<String, Applicant> getApplicantMap() throws IOException {
+        Map<String, Applicant> applicants = new HashMap<>(ApplicantDB.getApplicantMap());
+        for (HDBOfficer officer : HDBOfficerDB.getOfficerMap().values()) {
+            applicants.putIfAbsent(officer.getNric(), officer);
         }
-        return null;
+        return applicants;
     }
 
-    private static Application createApplicationFromRow(Row row) throws IOException {
+    /**
+     * Creates an Application object from a row in the table.
+     * @param row The row to create the Application object from.
+     * @param applicants The applicants keyed by NRIC, or null to look the applicant up individually.
+     * @param projects The projects keyed by ID, or null to look the project up individually.
+     * @return The Application object created from the row.
+     * @throws IOException if the applicant or project of the row cannot be found.
+     */
+    private static Application createApplicationFromRow(TableRow row, Map<String, Applicant> applicants, Map<Integer, Project> projects) throws IOException {
         try {
-            Cell idCell = row.getCell(ProjectApplicationFileIndex.ID.getIndex());
-            int applicationID = (idCell != null && idCell.getCellType() == CellType.NUMERIC) 
-                ? (int) idCell.getNumericCellValue() 
+            int applicationID = row.isNumeric(ProjectApplicationFileIndex.ID.getIndex()) 
+                ? row.getInt(ProjectApplicationFileIndex.ID.getIndex()) 
                 : 0;
-
-            Cell nricCell = row.getCell(ProjectApplicationFileIndex.NRIC.getIndex());
-            String nric = (nricCell != null && nricCell.getCellType() == CellType.STRING) 
-                ? nricCell.getStringCellValue() 
-                : "";
-
-            Cell projectIDCell = row.getCell(ProjectApplicationFileIndex.PROJECT_ID.getIndex());
-            int projectID = (projectIDCell != null && projectIDCell.getCellType() == CellType.NUMERIC) 
-                ? (int) projectIDCell.getNumericCellValue() 
+            String nric = row.getString(ProjectApplicationFileIndex.NRIC.getIndex());
+            int projectID = row.isNumeric(ProjectApplicationFileIndex.PROJECT_ID.getIndex()) 
+                ? row.getInt(ProjectApplicationFileIndex.PROJECT_ID.getIndex()) 
                 : 0;
-
-            Cell statusCell = row.getCell(ProjectApplicationFileIndex.STATUS.getIndex());
-            String applicationStatus = (statusCell != null && statusCell.getCellType() == CellType.STRING) 
-                ? statusCell.getStringCellValue() 
-                : "";
-
-            Cell flatTypeCell = row.getCell(ProjectApplicationFileIndex.FLAT_TYPE.getIndex());
-            String flatType = (flatTypeCell != null && flatTypeCell.getCellType() == CellType.STRING) 
-                ? flatTypeCell.getStringCellValue() 
-                : "";
+            String applicationStatus = row.getString(ProjectApplicationFileIndex.STATUS.getIndex());
+            String flatType = row.getString(ProjectApplicationFileIndex.FLAT_TYPE.getIndex());
 
             // Fetch the Applicant object
             Applicant applicant;
@@ -200,14 +228,12 @@ public class ApplicationDB {
                 if (nric == null || nric.trim().isEmpty()) {
                     throw new IOException("Applicant NRIC is missing in application row.");
                 }
-                applicant = ApplicantDB.getApplicantByNRIC(nric);
+                applicant = applicants != null ? applicants.get(nric) : ApplicantDB.getApplicantByNRIC(nric);
+                if (applicant == null && applicants == null) {
+                    applicant = HDBOfficerDB.getOfficerByNRIC(nric);
+                }
                 if (applicant == null) {
-                    Object officer = HDBOfficerDB.getOfficerByNRIC(nric);
-                    if (officer instanceof Applicant) {
-                        applicant = (Applicant) officer;
-                    } else {
-                        throw new IOException("Applicant with NRIC " + nric + " not found.");
-                    }
+                    throw new IOException("Applicant with NRIC " + nric + " not found.");
                 }
             } catch (IOException e) {
                 LoggerUtility.logError("Failed to fetch applicant by NRIC: " + nric, e);
@@ -217,7 +243,7 @@ public class ApplicationDB {
             // Fetch the Project object
             Project project;
             try {
-                project = ProjectDB.getProjectByIdDB(projectID);
+                project = projects != null ? projects.get(projectID) : ProjectDB.getProjectByIdDB(projectID);
                 if (project == null) {
                     throw new IOException("Project with ID " + projectID + " not found.");
                 }
@@ -225,83 +251,69 @@ public class ApplicationDB {
                 throw new IOException("Failed to fetch project by ID: " + projectID, e);
             }
         
-            // Create and return the Application object
-            return new Application(applicant, project, applicationStatus, applicationID, flatType);
+            // An application cached from another version of the row, such as one read while a transaction was
+            // writing the row, is replaced by the row as it is now
+            int version = DataStore.APPLICATIONS.getVersion(row);
+            Application cached = CACHE.get(applicationID);
+            if (cached == null || cached.getVersion() != version) {
+                cached = new Application(applicant, project, applicationStatus, applicationID, flatType);
+                cached.setVersion(version);
+                CACHE.put(applicationID, cached);
+            }
+            // Return a copy of the cached application, linked to the applicant and project instances of this lookup
+            Application application = new Application(cached);
+            application.setApplicant(applicant);
+            application.setProject(project);
+            return application;
         } catch (IOException e) {
-            LoggerUtility.logError("Failed to create application from row: " + row.getRowNum(), e);
+            LoggerUtility.logError("Failed to create application from row", e);
             throw e;
         }
     }
 
     public static List<Application> getAllApplications() throws IOException {
-        List<Application> applications = new ArrayList<>();
-        try (FileInputStream fis = new FileInputStream(APPLICATION_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-    
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; // Skip header row
+        return OperationLog.time("ApplicationDB.getAllApplications", "Application", () -> {
+            List<Application> applications = new ArrayList<>();
+            List<TableRow> rows = DataStore.APPLICATIONS.getRows();
+            if (rows.isEmpty()) {
+                return applications;
+            }
+            // Resolve every row against the same lookups instead of searching the user and project tables per row
+            Map<String, Applicant> applicants = getApplicantMap();
+            Map<Integer, Project> projects = ProjectDB.getProjectMap();
+            for (TableRow row : rows) {
                 try {
                     // Create an Application object from the row and add it to the list
-                    applications.add(createApplicationFromRow(row));
+                    applications.add(createApplicationFromRow(row, applicants, projects));
                 } catch (Exception e) {
-                    LoggerUtility.logError("Failed to process row: " + row.getRowNum(), e);
+                    LoggerUtility.logError("Failed to process application row", e);
                 }
             }
-        }
-        return applications;
+            return applications;
+        });
     }
 
     public static void deleteApplicationbyProj(Project project) throws IOException {
-        File file = new File(APPLICATION_FILEPATH);
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
+        OperationLog.run("ApplicationDB.deleteApplicationbyProj", "Application", -1, () -> {
             int projectID = project.getProjectID();
-            List<Integer> rowsToDelete = new ArrayList<>();
-
-            // Collect row indices to delete (skip header)
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                Cell projectIDCell = row.getCell(ProjectApplicationFileIndex.PROJECT_ID.getIndex());
-                if (projectIDCell == null || projectIDCell.getCellType() == CellType.BLANK) continue;
-                int currentProjectID = (int) projectIDCell.getNumericCellValue();
-                if (currentProjectID == projectID) {
-                    rowsToDelete.add(i);
-                }
-            }
-
-            // Delete rows in reverse order to avoid shifting issues
-            for (int i = rowsToDelete.size() - 1; i >= 0; i--) {
-                int rowIndex = rowsToDelete.get(i);
-                Row rowToRemove = sheet.getRow(rowIndex);
-                if (rowToRemove != null) {
-                    sheet.removeRow(rowToRemove);
-                    // Shift rows up if not last row
-                    if (rowIndex < sheet.getLastRowNum()) {
-                        sheet.shiftRows(rowIndex + 1, sheet.getLastRowNum(), -1);
-                    }
-                }
-            }
-
-            // Save changes
-            try (FileOutputStream fos = new FileOutputStream(file)) {
-                workbook.write(fos);
+            try {
+                DataStore.APPLICATIONS.delete(BY_PROJECT, projectID);
+                LoggerUtility.logInfo("Deleted all applications for Project ID: " + projectID);
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to delete applications for Project ID: " + project.getProjectID(), e);
+                throw new IOException(e);
+            } finally {
+                CACHE.clear();
             }
-            LoggerUtility.logInfo("Deleted all applications for Project ID: " + projectID);
-        } catch (IOException e) {
-            LoggerUtility.logError("Failed to delete applications for Project ID: " + project.getProjectID(), e);
-            throw new IOException(e);
-        }
+        });
     }
 
-    private static void populateApplicationRow(Row row, int applicationID,Applicant applicant, Project project, String status, String flatType) {
-        row.createCell(ProjectApplicationFileIndex.ID.getIndex()).setCellValue(applicationID); // Using row number as ID
-        row.createCell(ProjectApplicationFileIndex.NRIC.getIndex()).setCellValue(applicant.getNric());
-        row.createCell(ProjectApplicationFileIndex.PROJECT_ID.getIndex()).setCellValue(project.getProjectID());
-        row.createCell(ProjectApplicationFileIndex.STATUS.getIndex()).setCellValue(status);
-        row.createCell(ProjectApplicationFileIndex.FLAT_TYPE.getIndex()).setCellValue(flatType);
-        row.createCell(ProjectApplicationFileIndex.DATE.getIndex()).setCellValue(new Date());
+    private static void populateApplicationRow(TableRow row, int applicationID,Applicant applicant, Project project, String status, String flatType) {
+        row.set(ProjectApplicationFileIndex.ID.getIndex(), applicationID);
+        row.set(ProjectApplicationFileIndex.NRIC.getIndex(), applicant.getNric());
+        row.set(ProjectApplicationFileIndex.PROJECT_ID.getIndex(), project.getProjectID());
+        row.set(ProjectApplicationFileIndex.STATUS.getIndex(), status);
+        row.set(ProjectApplicationFileIndex.FLAT_TYPE.getIndex(), flatType);
+        row.set(ProjectApplicationFileIndex.DATE.getIndex(), new Date());
     }
 }
\ No newline at end of file
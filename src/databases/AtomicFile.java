@@ -0,0 +1,65 @@
+package databases;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import enums.CostMetric;
+import utilities.MetricsRegistry;
+
+/**
+ * AtomicFile class replaces files so that a crash never leaves a partially written file behind.
+ * The new content is written to a temporary file next to the target, synced to disk, and then renamed over the target,
+ * so the target always holds either its old or its new content.
+ * The bytes written are counted in MetricsRegistry.
+ */
+final class AtomicFile {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private AtomicFile() {}
+
+    /**
+     * Writes the content of a file to a stream.
+     */
+    interface Content {
+        /**
+         * @param out The stream to write to. It is flushed and closed by AtomicFile, so it must not be closed here.
+         * @throws IOException if there is an error writing the content.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Replaces a file with new content.
+     * @param filePath The path of the file to replace or create.
+     * @param content The content to write.
+     * @throws IOException if the content cannot be written or the file cannot be replaced. The target is unchanged.
+     */
+    static void write(String filePath, Content content) throws IOException {
+        Path target = Paths.get(filePath);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try {
+            try (FileOutputStream fileOut = new FileOutputStream(temp.toFile())) {
+                OutputStream out = new BufferedOutputStream(fileOut);
+                content.writeTo(out);
+                out.flush();
+                fileOut.getFD().sync();
+                MetricsRegistry.addCost(CostMetric.BYTES_WRITTEN, fileOut.getChannel().position());
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package databases;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BinaryStorageEngine class keeps each table in a compact columnar binary file named after the table.
+ * After a short header (sheet name, column names, row and column counts) the file holds one block per column:
+ * a type tag per row, a dictionary of the distinct strings in the column, and then the string indexes,
+ * numbers and dates of the column in row order.
+ * Columns such as status and flat type repeat a few values, so the dictionary stores each of them once.
+ * Files are replaced atomically, so a crash while writing leaves the previous file intact.
+ */
+public class BinaryStorageEngine implements StorageEngine {
+    private static final int MAGIC = 0x42544F43; // "BTOC"
+    private static final short VERSION = 1;
+    private static final String EXTENSION = ".btc";
+
+    private static final byte BLANK = 0;
+    private static final byte STRING = 1;
+    private static final byte NUMBER = 2;
+    private static final byte DATE = 3;
+
+    private final String directory;
+
+    /**
+     * Constructor for BinaryStorageEngine
+     * @param directory The directory holding the binary files.
+     */
+    public BinaryStorageEngine(String directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public TableData read(String tableName, int width) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(describe(tableName))))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not a supported binary table file: " + describe(tableName));
+            }
+            String sheetName = readString(in);
+            int headerCount = in.readInt();
+            List<String> header = new ArrayList<>(headerCount);
+            for (int i = 0; i < headerCount; i++) {
+                header.add(readString(in));
+            }
+            int rowCount = in.readInt();
+            int columnCount = in.readInt();
+
+            List<TableRow> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                rows.add(new TableRow(Math.max(width, columnCount)));
+            }
+            for (int c = 0; c < columnCount; c++) {
+                readColumn(in, rows, c);
+            }
+            return new TableData(sheetName, header, rows);
+        }
+    }
+
+    @Override
+    public void write(String tableName, TableData data) throws IOException {
+        List<TableRow> rows = data.getRows();
+        int columnCount = data.getWidth();
+        AtomicFile.write(describe(tableName), stream -> {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeString(out, data.getSheetName());
+            out.writeInt(data.getHeader().size());
+            for (String name : data.getHeader()) {
+                writeString(out, name);
+            }
+            out.writeInt(rows.size());
+            out.writeInt(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                writeColumn(out, rows, c);
+            }
+            out.flush();
+        });
+    }
+
+    @Override
+    public boolean exists(String tableName) {
+        return new File(describe(tableName)).isFile();
+    }
+
+    @Override
+    public long lastModified(String tableName) {
+        return new File(describe(tableName)).lastModified();
+    }
+
+    @Override
+    public String describe(String tableName) {
+        return directory + "/" + tableName + EXTENSION;
+    }
+
+    private static void writeColumn(DataOutputStream out, List<TableRow> rows, int column) throws IOException {
+        byte[] tags = new byte[rows.size()];
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> dictionaryValues = new ArrayList<>();
+        for (int r = 0; r < rows.size(); r++) {
+            Object value = rows.get(r).get(column);
+            if (value instanceof Double) {
+                tags[r] = NUMBER;
+            }
+            else if (value instanceof Date) {
+                tags[r] = DATE;
+            }
+            else if (value != null) {
+                tags[r] = STRING;
+                if (dictionary.putIfAbsent(value.toString(), dictionaryValues.size()) == null) {
+                    dictionaryValues.add(value.toString());
+                }
+            }
+            else {
+                tags[r] = BLANK;
+            }
+        }
+
+        out.write(tags);
+        out.writeInt(dictionaryValues.size());
+        for (String value : dictionaryValues) {
+            writeString(out, value);
+        }
+        int indexBytes = indexBytes(dictionaryValues.size());
+        for (int r = 0; r < rows.size(); r++) {
+            Object value = rows.get(r).get(column);
+            switch (tags[r]) {
+                case STRING:
+                    writeIndex(out, dictionary.get(value.toString()), indexBytes);
+                    break;
+                case NUMBER:
+                    out.writeDouble((Double) value);
+                    break;
+                case DATE:
+                    out.writeLong(((Date) value).getTime());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void readColumn(DataInputStream in, List<TableRow> rows, int column) throws IOException {
+        byte[] tags = new byte[rows.size()];
+        in.readFully(tags);
+        int dictionarySize = in.readInt();
+        String[] dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = readString(in);
+        }
+        int indexBytes = indexBytes(dictionarySize);
+        for (int r = 0; r < rows.size(); r++) {
+            Object value;
+            switch (tags[r]) {
+                case STRING:
+                    value = dictionary[readIndex(in, indexBytes)];
+                    break;
+                case NUMBER:
+                    value = in.readDouble();
+                    break;
+                case DATE:
+                    value = new Date(in.readLong());
+                    break;
+                case BLANK:
+                    value = null;
+                    break;
+                default:
+                    throw new IOException("Corrupt binary table: unknown cell tag " + tags[r]);
+            }
+            if (column < rows.get(r).getWidth()) {
+                rows.get(r).set(column, value);
+            }
+        }
+    }
+
+    private static int indexBytes(int dictionarySize) {
+        if (dictionarySize <= 0xFF) return 1;
+        if (dictionarySize <= 0xFFFF) return 2;
+        return 4;
+    }
+
+    private static void writeIndex(DataOutputStream out, int index, int indexBytes) throws IOException {
+        if (indexBytes == 1) out.writeByte(index);
+        else if (indexBytes == 2) out.writeShort(index);
+        else out.writeInt(index);
+    }
+
+    private static int readIndex(DataInputStream in, int indexBytes) throws IOException {
+        if (indexBytes == 1) return in.readUnsignedByte();
+        if (indexBytes == 2) return in.readUnsignedShort();
+        return in.readInt();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package databases;
+
+import java.util.Date;
+
+/**
+ * CellCodec class encodes single cell values as text that keeps their type.
+ * Strings are prefixed with S, numbers with N and dates with D (as epoch milliseconds),
+ * and blank cells are encoded as an empty string.
+ * Tabs, line breaks and backslashes in strings are escaped so an encoded cell never spans a field or line.
+ */
+class CellCodec {
+    private CellCodec() {}
+
+    /**
+     * Encodes a cell value.
+     * @param value The String, Double or Date value of the cell, or null if it is blank.
+     * @return The encoded cell.
+     */
+    static String encode(Object value) {
+        if (value instanceof Double) {
+            return "N" + value;
+        }
+        if (value instanceof Date) {
+            return "D" + ((Date) value).getTime();
+        }
+        if (value != null) {
+            return "S" + escape(value.toString());
+        }
+        return "";
+    }
+
+    /**
+     * Decodes a cell value.
+     * @param cell The encoded cell.
+     * @return The String, Double or Date value of the cell, or null if it is blank.
+     * @throws IllegalArgumentException if the cell is not a valid encoding.
+     */
+    static Object decode(String cell) {
+        if (cell == null || cell.isEmpty()) {
+            return null;
+        }
+        String body = cell.substring(1);
+        switch (cell.charAt(0)) {
+            case 'N':
+                return Double.parseDouble(body);
+            case 'D':
+                return new Date(Long.parseLong(body));
+            case 'S':
+                return unescape(body);
+            default:
+                throw new IllegalArgumentException("Unknown cell type: " + cell.charAt(0));
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
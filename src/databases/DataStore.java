@@ -0,0 +1,152 @@
+package databases;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import enums.EnquiryFileIndex;
+import enums.OfficerRegistrationFileIndex;
+import enums.ProjectApplicationFileIndex;
+import enums.ProjectListFileIndex;
+import enums.UserFileIndex;
+import utilities.LoggerUtility;
+import utilities.MetricsRegistry;
+
+/**
+ * DataStore class holds the in-memory tables backing every DB class.
+ * Each table is loaded once through the storage engine selected in StorageConfig,
+ * and the DB classes serve their reads from these tables.
+ */
+public class DataStore {
+    private static final StorageConfig CONFIG = StorageConfig.load();
+    private static final StorageEngine ENGINE = CONFIG.createEngine();
+
+    public static final List<String> TABLE_NAMES = List.of(
+        "ApplicantList", "OfficerList", "ManagerList", "ProjectList",
+        "ProjectApplication", "ProjectEnquiry", "OfficerRegistration"
+    );
+
+    public static final DataTable APPLICANTS = openTable(ENGINE, "ApplicantList");
+    public static final DataTable OFFICERS = openTable(ENGINE, "OfficerList");
+    public static final DataTable MANAGERS = openTable(ENGINE, "ManagerList");
+    public static final DataTable PROJECTS = openTable(ENGINE, "ProjectList");
+    public static final DataTable APPLICATIONS = openTable(ENGINE, "ProjectApplication");
+    public static final DataTable ENQUIRIES = openTable(ENGINE, "ProjectEnquiry");
+    public static final DataTable REGISTRATIONS = openTable(ENGINE, "OfficerRegistration");
+
+    private static final List<DataTable> TABLES = List.of(
+        APPLICANTS, OFFICERS, MANAGERS, PROJECTS, APPLICATIONS, ENQUIRIES, REGISTRATIONS
+    );
+
+    static final TransactionLog TRANSACTION_LOG = new TransactionLog(CONFIG.getDirectory());
+
+    // ID sequences of the tables whose rows are numbered, kept in counter files next to the data files
+    static final IdSequence PROJECT_IDS = openSequence(PROJECTS, ProjectListFileIndex.PROJECT_ID.getIndex());
+    static final IdSequence APPLICATION_IDS = openSequence(APPLICATIONS, ProjectApplicationFileIndex.ID.getIndex());
+    static final IdSequence ENQUIRY_IDS = openSequence(ENQUIRIES, EnquiryFileIndex.ID.getIndex());
+    static final IdSequence REGISTRATION_IDS = openSequence(REGISTRATIONS, OfficerRegistrationFileIndex.ID.getIndex());
+
+    static {
+        for (DataTable table : TABLES) {
+            MetricsRegistry.registerGauge("table." + table.getName() + ".rows", table::getRowCount);
+            MetricsRegistry.registerGauge("table." + table.getName() + ".journal.entries", table::getJournalEntryCount);
+        }
+    }
+
+    /**
+     * Creates the table of a given name on a storage engine.
+     * Every table records its changes in a write-ahead journal next to the data files, keyed by its ID or NRIC column.
+     * Projects and applications are also versioned, so that concurrent bookings cannot overwrite each other.
+     * @param engine The storage engine to read and write the table with.
+     * @param name The name of the table, one of TABLE_NAMES.
+     * @return A DataTable that is loaded on first use.
+     * @throws IllegalArgumentException if the name is not a known table.
+     */
+    static DataTable openTable(StorageEngine engine, String name) {
+        switch (name) {
+            case "ApplicantList":
+            case "OfficerList":
+            case "ManagerList":
+                return new DataTable(engine, name, UserFileIndex.values().length,
+                    UserFileIndex.NRIC.getIndex(), journalPath(name));
+            case "ProjectList":
+                return new DataTable(engine, name, ProjectListFileIndex.values().length,
+                    ProjectListFileIndex.PROJECT_ID.getIndex(), ProjectListFileIndex.VERSION.getIndex(), journalPath(name));
+            case "ProjectApplication":
+                return new DataTable(engine, name, ProjectApplicationFileIndex.values().length,
+                    ProjectApplicationFileIndex.ID.getIndex(), ProjectApplicationFileIndex.VERSION.getIndex(), journalPath(name));
+            case "ProjectEnquiry":
+                return new DataTable(engine, name, EnquiryFileIndex.values().length,
+                    EnquiryFileIndex.ID.getIndex(), journalPath(name));
+            case "OfficerRegistration":
+                return new DataTable(engine, name, OfficerRegistrationFileIndex.values().length,
+                    OfficerRegistrationFileIndex.ID.getIndex(), journalPath(name));
+            default:
+                throw new IllegalArgumentException("Unknown table: " + name);
+        }
+    }
+
+    /**
+     * Creates every table on a storage engine.
+     * @param engine The storage engine to read and write the tables with.
+     * @return The tables in the order of TABLE_NAMES.
+     */
+    static List<DataTable> openTables(StorageEngine engine) {
+        List<DataTable> tables = new ArrayList<>();
+        for (String name : TABLE_NAMES) {
+            tables.add(openTable(engine, name));
+        }
+        return tables;
+    }
+
+    private static IdSequence openSequence(DataTable table, int idColumn) {
+        return new IdSequence(CONFIG.getDirectory(), table, idColumn, CONFIG.getSequenceBlockSize());
+    }
+
+    private static String journalPath(String name) {
+        return CONFIG.getDirectory() + "/" + name + ".journal";
+    }
+
+    /**
+     * @return the storage settings the tables were opened with
+     */
+    static StorageConfig getConfig() {
+        return CONFIG;
+    }
+
+    /**
+     * Loads every table into memory, replaying the changes left in their journals,
+     * and then writes any committed transaction that had not reached every table.
+     * Tables that fail to load are logged and loaded again on first use.
+     */
+    public static void loadAll() {
+        for (DataTable table : TABLES) {
+            try {
+                table.load();
+            } catch (IOException e) {
+                System.err.println("Failed to load data file: " + table.getLocation());
+            }
+        }
+        try {
+            TRANSACTION_LOG.recover(TABLES);
+        } catch (IOException e) {
+            LoggerUtility.logError("Failed to recover transactions", e);
+            System.err.println("Failed to recover unfinished transactions. Contact admin if error persist.");
+        }
+        LoggerUtility.logInfo("Loaded " + TABLES.size() + " tables into memory with the " + CONFIG.getEngineName() + " storage engine");
+    }
+
+    /**
+     * Compacts the journal of every table into storage.
+     * Failures are logged and the journal is kept, so its rows are replayed on the next load.
+     */
+    public static void compactAll() {
+        for (DataTable table : TABLES) {
+            try {
+                table.compact();
+            } catch (IOException e) {
+                System.err.println("Failed to compact data file: " + table.getLocation());
+            }
+        }
+    }
+}
@@ -0,0 +1,936 @@
+package databases;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import enums.CostMetric;
+import utilities.LoggerUtility;
+import utilities.MetricsRegistry;
+
+/**
+ * DataTable class keeps a stored table in memory as a list of TableRow objects.
+ * The table is read once through its StorageEngine, every read is served from memory, and every write is applied
+ * to memory first and then written through to storage.
+ * If writing fails, the in-memory change is reverted so that memory and storage stay in sync.
+ * Tables created with a write-ahead journal record each insert, update and delete in the journal instead of
+ * rewriting storage, and compact the journal into storage once it holds COMPACT_THRESHOLD entries.
+ * Journaled rows are identified by their key column; a change to a row whose key is blank, shared with another
+ * row or itself changed is written straight to storage instead.
+ * Secondary indexes created with createIndex are kept up to date with every change to the rows.
+ * Deletes mark the matching rows with tombstones and remove them all in one pass over the table, followed by
+ * one journal entry or one write of the table, however many rows match.
+ * Tables are safe for concurrent sessions: reads share a read lock and writes take the write lock.
+ * Rows are never changed once other threads can see them; an update replaces the row with a changed copy,
+ * so rows returned by reads stay consistent. Reading and writing the files of a table also takes the
+ * striped lock of its location, so tables opened twice on the same files never write them at once.
+ * Tables created with a version column count the changes to each row in that column: every update increments it,
+ * and compareAndSet only updates a row that is still at the version the caller read, so that concurrent
+ * sessions writing back stale copies of a row fail instead of overwriting each other.
+ * Existence checks, counts and reads of a few columns go through existsWhere, countWhere and selectColumns,
+ * which read the cells in place under the read lock instead of copying the rows for the caller to turn into objects.
+ * Loads, writes and the rows scanned by reads and writes are counted in MetricsRegistry.
+ */
+public class DataTable {
+    private static final int COMPACT_THRESHOLD = 100;
+    private static final StripedLock FILE_LOCKS = new StripedLock(16);
+    private static final String VERSION_HEADER = "Version";
+
+    private final StorageEngine engine;
+    private final String name;
+    private final int width;
+    private final int keyColumn;
+    private final int versionColumn;
+    private final TableJournal journal;
+    private final List<TableRow> rows = new ArrayList<>();
+    private final List<TableIndex> indexes = new ArrayList<>();
+    private final TableIndex keyIndex;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private String sheetName = "Sheet1";
+    private List<String> header = new ArrayList<>();
+    private volatile boolean loaded = false;
+    // When the table was last read from or written to storage by this table
+    private volatile long storedModified = -1;
+
+    /**
+     * Constructor for DataTable
+     * @param engine The storage engine the table is read from and written to.
+     * @param name The name of the table, such as "ProjectList".
+     * @param width The number of columns described by the file index enum of the table.
+     * @param keyColumn The column identifying each row, such as its ID or NRIC.
+     * @param journalPath The path of the write-ahead journal, or null to write every change straight to storage.
+     */
+    public DataTable(StorageEngine engine, String name, int width, int keyColumn, String journalPath) {
+        this(engine, name, width, keyColumn, -1, journalPath);
+    }
+
+    /**
+     * Constructor for DataTable with a version column
+     * @param engine The storage engine the table is read from and written to.
+     * @param name The name of the table, such as "ProjectList".
+     * @param width The number of columns described by the file index enum of the table.
+     * @param keyColumn The column identifying each row, such as its ID or NRIC.
+     * @param versionColumn The column counting the changes to each row, or -1 if rows are not versioned.
+     * @param journalPath The path of the write-ahead journal, or null to write every change straight to storage.
+     */
+    public DataTable(StorageEngine engine, String name, int width, int keyColumn, int versionColumn, String journalPath) {
+        this.engine = engine;
+        this.name = name;
+        this.width = width;
+        this.keyColumn = keyColumn;
+        this.versionColumn = versionColumn;
+        this.journal = journalPath != null ? new TableJournal(journalPath) : null;
+        this.keyIndex = createIndex(row -> row.get(keyColumn));
+    }
+
+    /**
+     * @return the name of the table
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return where the table is stored, as described by its storage engine
+     */
+    public String getLocation() {
+        return engine.describe(name);
+    }
+
+    /**
+     * @return the number of rows in memory, 0 if the table has not been loaded yet
+     */
+    int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of changes in the journal that have not been compacted into storage
+     */
+    int getJournalEntryCount() {
+        return journal != null ? journal.getEntryCount() : 0;
+    }
+
+    /**
+     * Creates a hash index over a key of the rows, built from the rows currently loaded.
+     * @param keyOf The function extracting the indexed key from a row, returning null for rows that should not be indexed.
+     * @return The index, to be passed to findAll and findFirst.
+     */
+    public TableIndex createIndex(Function<TableRow, Object> keyOf) {
+        lock.writeLock().lock();
+        try {
+            TableIndex index = new TableIndex(keyOf);
+            index.rebuild(rows);
+            indexes.add(index);
+            return index;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the table from storage, replacing anything currently held in memory.
+     * Changes still in the journal are replayed over the stored rows.
+     * Blank rows are skipped.
+     * @throws IOException if there is an error reading the table.
+     */
+    public void load() throws IOException {
+        lock.writeLock().lock();
+        ReentrantLock fileLock = fileLock();
+        try {
+            TableData data = engine.read(name, width);
+            sheetName = data.getSheetName();
+            header = new ArrayList<>(data.getHeader());
+            // Files written before the table was versioned have no version column; their rows start at version 0
+            if (versionColumn >= 0 && !header.isEmpty() && header.size() <= versionColumn) {
+                while (header.size() <= versionColumn) {
+                    header.add("");
+                }
+                header.set(versionColumn, VERSION_HEADER);
+            }
+            rows.clear();
+            rows.addAll(data.getRows());
+            if (journal != null) {
+                journal.replay(rows, keyColumn, Math.max(width, header.size()));
+            }
+            rebuildIndexes();
+            storedModified = engine.lastModified(name);
+            loaded = true;
+            MetricsRegistry.addCost(CostMetric.TABLE_LOADS, 1);
+            MetricsRegistry.add("storage.rows.read", rows.size());
+        } catch (IOException e) {
+            LoggerUtility.logError("Failed to load table from: " + getLocation(), e);
+            throw e;
+        } finally {
+            fileLock.unlock();
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if the stored table has been written by something other than this table since it was loaded,
+     * such as a data file edited by hand or replaced by another program.
+     * @return true if the table is loaded and storage holds a newer version, false otherwise or if the engine cannot tell.
+     */
+    public boolean isChangedInStorage() {
+        long modified = engine.lastModified(name);
+        return loaded && modified >= 0 && modified != storedModified;
+    }
+
+    /**
+     * Retrieves a snapshot of the rows in the table, loading the table on first use.
+     * @return A list of the rows in stored order.
+     * @throws IOException if there is an error reading the table.
+     */
+    public List<TableRow> getRows() throws IOException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, rows.size());
+            return new ArrayList<>(rows);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves a snapshot of the whole table, including its header.
+     * @return The sheet name, header and rows of the table.
+     * @throws IOException if there is an error reading the table.
+     */
+    public TableData snapshot() throws IOException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, rows.size());
+            return new TableData(sheetName, header, new ArrayList<>(rows));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the first row matching a predicate.
+     * @param match The predicate to match rows against.
+     * @return The first matching row, or null if none matches.
+     * @throws IOException if there is an error reading the table.
+     */
+    public TableRow findFirst(Predicate<TableRow> match) throws IOException {
+        ensureLoaded();
+        lock.readLock().lock();
+        int scanned = 0;
+        try {
+            for (TableRow row : rows) {
+                scanned++;
+                if (match.test(row)) {
+                    return row;
+                }
+            }
+            return null;
+        } finally {
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, scanned);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the row with a given value in the key column of the table, such as an ID, using the key index.
+     * Numbers are compared as Double, the way TableRow stores them.
+     * @param key The key to look up.
+     * @return The first row with the key, or null if none has it.
+     * @throws IOException if there is an error reading the table.
+     */
+    public TableRow findByKey(Object key) throws IOException {
+        return findFirst(keyIndex, cellValueOf(key));
+    }
+
+    /**
+     * Retrieves every row with a given key in an index.
+     * @param index An index created on this table.
+     * @param key The key to look up.
+     * @return A list of the matching rows, empty if none match.
+     * @throws IOException if there is an error reading the table.
+     */
+    public List<TableRow> findAll(TableIndex index, Object key) throws IOException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return index.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the first row with a given key in an index.
+     * @param index An index created on this table.
+     * @param key The key to look up.
+     * @return The first matching row, or null if none matches.
+     * @throws IOException if there is an error reading the table.
+     */
+    public TableRow findFirst(TableIndex index, Object key) throws IOException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return index.getFirst(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the rows with a given key in an index.
+     * @param index An index created on this table.
+     * @param key The key to look up.
+     * @return The number of matching rows.
+     * @throws IOException if there is an error reading the table.
+     */
+    public int count(TableIndex index, Object key) throws IOException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return index.count(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if any row has a given key in an index.
+     * @param index An index created on this table.
+     * @param key The key to look up.
+     * @return true if a row has the key, false otherwise.
+     * @throws IOException if there is an error reading the table.
+     */
+    public boolean exists(TableIndex index, Object key) throws IOException {
+        return count(index, key) > 0;
+    }
+
+    /**
+     * Counts the rows whose cell in a column equals a value, without copying any row.
+     * Numbers are compared as Double, the way TableRow stores them. Counts on the key column use the key index.
+     * @param column The index of the column.
+     * @param value The value to match, or null to count the rows where the cell is blank.
+     * @return The number of matching rows.
+     * @throws IOException if there is an error reading the table.
+     */
+    public int countWhere(int column, Object value) throws IOException {
+        ensureLoaded();
+        Object key = cellValueOf(value);
+        lock.readLock().lock();
+        try {
+            if (column == keyColumn && key != null) {
+                return keyIndex.count(key);
+            }
+            int count = 0;
+            for (TableRow row : rows) {
+                if (cellMatches(row, column, key)) {
+                    count++;
+                }
+            }
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, rows.size());
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if any row has a cell in a column equal to a value, stopping at the first match.
+     * Values are compared as in countWhere.
+     * @param column The index of the column.
+     * @param value The value to match, or null to match a blank cell.
+     * @return true if a row matches, false otherwise.
+     * @throws IOException if there is an error reading the table.
+     */
+    public boolean existsWhere(int column, Object value) throws IOException {
+        ensureLoaded();
+        Object key = cellValueOf(value);
+        lock.readLock().lock();
+        int scanned = 0;
+        try {
+            if (column == keyColumn && key != null) {
+                return keyIndex.count(key) > 0;
+            }
+            for (TableRow row : rows) {
+                scanned++;
+                if (cellMatches(row, column, key)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, scanned);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads some columns of every row, without copying the rows.
+     * @param columns The indexes of the columns to read.
+     * @return One array per row in stored order, holding the raw value of each requested column in the order
+     *         requested: a String, Double or Date, or null if the cell is blank.
+     * @throws IOException if there is an error reading the table.
+     */
+    public List<Object[]> selectColumns(int... columns) throws IOException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<Object[]> values = new ArrayList<>(rows.size());
+            for (TableRow row : rows) {
+                Object[] selected = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    selected[i] = row.get(columns[i]);
+                }
+                values.add(selected);
+            }
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, rows.size());
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Creates an empty row with the width of the table.
+     * @return A new TableRow.
+     */
+    public TableRow newRow() {
+        return new TableRow(Math.max(width, header.size()));
+    }
+
+    /**
+     * Appends a row to the table and writes it through to the journal, or to storage if the table has no journal.
+     * @param row The row to append.
+     * @throws IOException if there is an error writing the journal or the table.
+     */
+    public void insert(TableRow row) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            boolean journaled = canJournal(row.get(keyColumn), 0);
+            rows.add(row);
+            try {
+                if (journaled) {
+                    appendToJournal(row);
+                } else {
+                    flush();
+                }
+            } catch (IOException e) {
+                rows.remove(rows.size() - 1);
+                throw e;
+            }
+            for (TableIndex index : indexes) {
+                index.add(row);
+            }
+            compactIfFull();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a row to the table unless a row with the same key in an index is already there.
+     * The check and the append happen under the write lock, so two sessions inserting the same key cannot both succeed.
+     * @param index An index created on this table.
+     * @param row The row to append.
+     * @return true if the row was appended, false if a row with its key already exists.
+     * @throws IOException if there is an error writing the journal or the table.
+     */
+    public boolean insertIfAbsent(TableIndex index, TableRow row) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            Object key = index.keyOf(row);
+            if (key != null && index.count(key) > 0) {
+                return false;
+            }
+            insert(row);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every row into storage and empties the journal.
+     * Does nothing if the table has no journal or the journal is empty.
+     * @throws IOException if there is an error writing the table.
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (journal == null || !loaded || journal.getEntryCount() == 0) {
+                return;
+            }
+            flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change to a copy of the first row matching a predicate, replaces the row with the copy
+     * and writes it through to the journal, or to storage if it cannot be journaled.
+     * @param match The predicate to match rows against.
+     * @param change The change to apply to the matching row.
+     * @return true if a row was updated, false if no row matched.
+     * @throws IOException if there is an error writing the table.
+     */
+    public boolean update(Predicate<TableRow> match, Consumer<TableRow> change) throws IOException {
+        return update(match, -1, change);
+    }
+
+    /**
+     * Updates the first row matching a predicate only if it is still at the version the caller read,
+     * so that a change based on a stale copy of the row cannot overwrite a newer one.
+     * @param match The predicate to match rows against.
+     * @param expectedVersion The version of the row the change is based on.
+     * @param change The change to apply to the matching row.
+     * @return true if a row was updated, false if no row matched.
+     * @throws StaleVersionException if the matching row has been changed since the expected version. Nothing is written.
+     * @throws IOException if there is an error writing the table.
+     */
+    public boolean compareAndSet(Predicate<TableRow> match, int expectedVersion, Consumer<TableRow> change) throws IOException {
+        if (versionColumn < 0) {
+            throw new IllegalStateException("Table is not versioned: " + name);
+        }
+        return update(match, expectedVersion, change);
+    }
+
+    /**
+     * @return true if the rows of this table carry a version
+     */
+    boolean isVersioned() {
+        return versionColumn >= 0;
+    }
+
+    /**
+     * Retrieves the version of a row, the number of times it has been changed.
+     * @param row A row of this table.
+     * @return The version of the row, or 0 if the table is not versioned or the row has never been changed.
+     */
+    public int getVersion(TableRow row) {
+        return versionColumn >= 0 && row.isNumeric(versionColumn) ? row.getInt(versionColumn) : 0;
+    }
+
+    private boolean update(Predicate<TableRow> match, int expectedVersion, Consumer<TableRow> change) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            for (int i = 0; i < rows.size(); i++) {
+                TableRow row = rows.get(i);
+                if (match.test(row)) {
+                    MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, i + 1);
+                    checkVersion(row, expectedVersion);
+                    TableRow changed = row.copy();
+                    change.accept(changed);
+                    incrementVersion(row, changed);
+                    Object key = row.get(keyColumn);
+                    rows.set(i, changed);
+                    try {
+                        if (canJournal(key, 1) && Objects.equals(key, changed.get(keyColumn))) {
+                            appendToJournal(changed);
+                        } else {
+                            flush();
+                        }
+                    } catch (IOException e) {
+                        rows.set(i, row);
+                        throw e;
+                    }
+                    reindex(row, changed);
+                    compactIfFull();
+                    return true;
+                }
+            }
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, rows.size());
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every row matching a predicate and writes the table through to storage once.
+     * @param match The predicate to match rows against.
+     * @return The number of rows removed.
+     * @throws IOException if there is an error writing the table.
+     */
+    public int delete(Predicate<TableRow> match) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, rows.size());
+            BitSet tombstones = new BitSet(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                if (match.test(rows.get(i))) {
+                    tombstones.set(i);
+                }
+            }
+            return deleteMarked(tombstones);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every row with a given key in an index and writes the table through to storage once.
+     * Only the rows found in the index are tested, so the cost of finding them does not grow with the table.
+     * @param index An index created on this table.
+     * @param key The key of the rows to remove.
+     * @return The number of rows removed.
+     * @throws IOException if there is an error writing the table.
+     */
+    public int delete(TableIndex index, Object key) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            List<TableRow> matches = index.get(key);
+            if (matches.isEmpty()) {
+                return 0;
+            }
+            Set<TableRow> doomed = Collections.newSetFromMap(new IdentityHashMap<>());
+            doomed.addAll(matches);
+            BitSet tombstones = new BitSet(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                if (doomed.contains(rows.get(i))) {
+                    tombstones.set(i);
+                }
+            }
+            return deleteMarked(tombstones);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the rows marked with a tombstone in a single pass over the table, then records the deletion once:
+     * one journal entry for every removed key, or one write of the table if any of them cannot be journaled.
+     * Must be called with the write lock held.
+     * @param tombstones The positions of the rows to remove.
+     * @return The number of rows removed.
+     * @throws IOException if there is an error writing the table. The rows are put back.
+     */
+    private int deleteMarked(BitSet tombstones) throws IOException {
+        int removed = tombstones.cardinality();
+        if (removed == 0) {
+            return 0;
+        }
+        List<TableRow> before = new ArrayList<>(rows);
+        List<Object> keys = new ArrayList<>(removed);
+        boolean journaled = journal != null;
+        for (int i = tombstones.nextSetBit(0); i >= 0; i = tombstones.nextSetBit(i + 1)) {
+            Object key = rows.get(i).get(keyColumn);
+            keys.add(key);
+            journaled = journaled && canJournal(key, 1);
+        }
+        // Move the surviving rows down over the tombstones, then cut off the tail
+        int kept = 0;
+        for (int i = 0; i < before.size(); i++) {
+            if (!tombstones.get(i)) {
+                rows.set(kept++, before.get(i));
+            }
+        }
+        rows.subList(kept, rows.size()).clear();
+        ReentrantLock fileLock = fileLock();
+        try {
+            if (journaled) {
+                journal.appendDelete(keys);
+            } else {
+                flush();
+            }
+        } catch (IOException e) {
+            rows.clear();
+            rows.addAll(before);
+            throw e;
+        } finally {
+            fileLock.unlock();
+        }
+        rebuildIndexes();
+        compactIfFull();
+        return removed;
+    }
+
+    /**
+     * @return the write lock of the table, held by a transaction from applying its updates until they are written or reverted
+     */
+    ReentrantReadWriteLock.WriteLock writeLock() {
+        return lock.writeLock();
+    }
+
+    /**
+     * Applies the staged updates of a transaction to copies of the matching rows and puts the copies
+     * in place of the rows in memory, without writing them.
+     * The transaction holds the write lock of this table until it has written or reverted the updates.
+     * @param updates The staged updates, in order.
+     * @return Each changed row paired with the row it replaced.
+     * @throws IOException if there is an error loading the table.
+     * @throws StaleVersionException if an update expects an older version of its row. The updates already applied are reverted.
+     * @throws IllegalStateException if an update matches no row. The updates already applied are reverted.
+     * @throws RuntimeException if a change refuses its row, such as when no unit is left to take. The updates already applied are reverted.
+     */
+    List<TableRow[]> applyUpdates(List<Transaction.Update> updates) throws IOException {
+        ensureLoaded();
+        List<TableRow[]> applied = new ArrayList<>();
+        for (Transaction.Update update : updates) {
+            int position = -1;
+            for (int i = 0; i < rows.size(); i++) {
+                if (update.match.test(rows.get(i))) {
+                    position = i;
+                    break;
+                }
+            }
+            MetricsRegistry.addCost(CostMetric.ROWS_SCANNED, position < 0 ? rows.size() : position + 1);
+            if (position < 0) {
+                revertInMemory(applied);
+                throw new IllegalStateException("No row to update in: " + getLocation());
+            }
+            TableRow row = rows.get(position);
+            try {
+                checkVersion(row, update.expectedVersion);
+            } catch (StaleVersionException e) {
+                revertInMemory(applied);
+                throw e;
+            }
+            TableRow changed = row.copy();
+            try {
+                update.change.accept(changed);
+            } catch (RuntimeException e) {
+                revertInMemory(applied);
+                throw e;
+            }
+            incrementVersion(row, changed);
+            rows.set(position, changed);
+            applied.add(new TableRow[] { changed, row });
+        }
+        return applied;
+    }
+
+    /**
+     * Writes rows changed by a transaction to the journal in one append, or to storage if any of them cannot be journaled.
+     * @param applied The changed rows paired with the rows they replaced.
+     * @throws IOException if there is an error writing the journal or the table. The changed rows stay in memory.
+     */
+    void writeUpdates(List<TableRow[]> applied) throws IOException {
+        persistUpdates(applied);
+        for (TableRow[] change : applied) {
+            reindex(change[1], change[0]);
+        }
+    }
+
+    /**
+     * Puts back the rows replaced by a transaction.
+     * @param applied The changed rows paired with the rows they replaced.
+     * @param written Whether the changes were already written, in which case the restored rows are written as well.
+     * @throws IOException if there is an error writing the restored rows.
+     */
+    void revertUpdates(List<TableRow[]> applied, boolean written) throws IOException {
+        revertInMemory(applied);
+        if (written) {
+            List<TableRow[]> reverted = new ArrayList<>();
+            for (int i = applied.size() - 1; i >= 0; i--) {
+                reindex(applied.get(i)[0], applied.get(i)[1]);
+                reverted.add(new TableRow[] { applied.get(i)[1], applied.get(i)[0] });
+            }
+            persistUpdates(reverted);
+        }
+    }
+
+    private void persistUpdates(List<TableRow[]> applied) throws IOException {
+        List<TableRow> changed = new ArrayList<>();
+        boolean journaled = journal != null;
+        for (TableRow[] change : applied) {
+            Object key = change[1].get(keyColumn);
+            journaled = journaled && canJournal(key, 1) && Objects.equals(key, change[0].get(keyColumn));
+            changed.add(change[0]);
+        }
+        if (journaled) {
+            ReentrantLock fileLock = fileLock();
+            try {
+                journal.appendAll(changed);
+            } finally {
+                fileLock.unlock();
+            }
+        } else {
+            flush();
+        }
+        compactIfFull();
+    }
+
+    private void revertInMemory(List<TableRow[]> applied) {
+        // Latest change first, so a row changed twice ends up as it was before the first change
+        for (int i = applied.size() - 1; i >= 0; i--) {
+            TableRow changed = applied.get(i)[0];
+            for (int position = 0; position < rows.size(); position++) {
+                if (rows.get(position) == changed) {
+                    rows.set(position, applied.get(i)[1]);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes rows recovered from the transaction log over the rows with the same key, and writes the table
+     * through to storage if any row changed.
+     * The log may hold a record whose transaction did reach the tables, if the record could not be deleted,
+     * so a row already at or past the version of the recovered row is left alone: it holds this change or
+     * a later one, which the record must not undo. Transactions only change existing rows, so a
+     * recovered row whose key is no longer in the table was deleted since and is not added back.
+     * @param recovered The rows as they were committed.
+     * @throws IOException if there is an error writing the table.
+     */
+    void redo(List<TableRow> recovered) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            boolean changed = false;
+            for (TableRow row : recovered) {
+                Object key = row.get(keyColumn);
+                int position = key == null ? -1 : rows.indexOf(keyIndex.getFirst(key));
+                if (position < 0 || getVersion(rows.get(position)) >= getVersion(row)) {
+                    continue;
+                }
+                rows.set(position, row);
+                changed = true;
+            }
+            if (!changed) {
+                return;
+            }
+            rebuildIndexes();
+            flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a change to the row with a given key can be recorded in the journal,
+     * which needs the key to identify exactly one row when the journal is replayed.
+     * @param key The key of the changed row.
+     * @param expectedRows The number of rows that have the key before the change: 0 for an insert, 1 otherwise.
+     * @return true if the change can be journaled, false if it must be written straight to storage.
+     */
+    private boolean canJournal(Object key, int expectedRows) {
+        return journal != null && key != null && keyIndex.count(key) == expectedRows;
+    }
+
+    /**
+     * Converts a value to the form TableRow stores it in, so that it can be compared with cells.
+     */
+    private static Object cellValueOf(Object value) {
+        return value instanceof Number ? (Object) ((Number) value).doubleValue() : value;
+    }
+
+    private static boolean cellMatches(TableRow row, int column, Object value) {
+        return value == null ? row.isBlank(column) : value.equals(row.get(column));
+    }
+
+    /**
+     * Checks that a row is still at the version a change is based on.
+     * @param row The row about to be changed.
+     * @param expectedVersion The version the change is based on, or -1 to change the row at any version.
+     * @throws StaleVersionException if the row is at another version.
+     */
+    private void checkVersion(TableRow row, int expectedVersion) throws StaleVersionException {
+        if (expectedVersion >= 0 && getVersion(row) != expectedVersion) {
+            throw new StaleVersionException(getLocation(), row.get(keyColumn), expectedVersion, getVersion(row));
+        }
+    }
+
+    private void incrementVersion(TableRow row, TableRow changed) {
+        if (versionColumn >= 0) {
+            changed.set(versionColumn, getVersion(row) + 1);
+        }
+    }
+
+    private void compactIfFull() {
+        if (journal != null && journal.getEntryCount() >= COMPACT_THRESHOLD) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // The changes are safe in the journal, so compaction is retried on the next write
+                LoggerUtility.logError("Failed to compact journal into: " + getLocation(), e);
+            }
+        }
+    }
+
+    private void rebuildIndexes() {
+        for (TableIndex index : indexes) {
+            index.rebuild(rows);
+        }
+    }
+
+    /**
+     * Replaces a row with its changed copy in every index.
+     * @param row The row that was replaced.
+     * @param changed The changed copy that replaced it.
+     */
+    private void reindex(TableRow row, TableRow changed) {
+        for (TableIndex index : indexes) {
+            index.replace(row, changed);
+        }
+    }
+
+    private void appendToJournal(TableRow row) throws IOException {
+        ReentrantLock fileLock = fileLock();
+        try {
+            journal.append(row);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Takes the striped lock guarding the files of this table.
+     * @return The lock, already locked, to be unlocked by the caller.
+     */
+    private ReentrantLock fileLock() {
+        ReentrantLock fileLock = FILE_LOCKS.forKey(getLocation());
+        fileLock.lock();
+        return fileLock;
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    /**
+     * Writes the header and every row currently in memory to storage.
+     * @throws IOException if there is an error writing the table.
+     */
+    private void flush() throws IOException {
+        ReentrantLock fileLock = fileLock();
+        try {
+            engine.write(name, new TableData(sheetName, header, rows));
+            storedModified = engine.lastModified(name);
+            MetricsRegistry.addCost(CostMetric.TABLE_WRITES, 1);
+            // Storage now holds every change, including those that were only in the journal
+            if (journal != null) {
+                journal.clear();
+            }
+        } catch (IOException e) {
+            LoggerUtility.logError("Failed to write table to: " + getLocation(), e);
+            throw e;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,631 @@
+package databases;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import enums.ApplicationStatus;
+import enums.EnquiryFileIndex;
+import enums.FlatTypeName;
+import enums.MaritalStatus;
+import enums.OfficerRegisterationStatus;
+import enums.OfficerRegistrationFileIndex;
+import enums.ProjectApplicationFileIndex;
+import enums.ProjectListFileIndex;
+import enums.ProjectVisibility;
+import enums.UserFileIndex;
+
+/**
+ * DatasetGenerator class writes a synthetic dataset of every table for load testing.
+ * Usage: java databases.DatasetGenerator [-engine xlsx|binary] [-seed n] directory applicants
+ * Every row follows the column layout of its file index enum, every NRIC carries a valid check letter,
+ * and every reference points at an existing row: applications and enquiries name existing applicants and projects,
+ * projects name existing managers, and the officers of a project are exactly those with a successful registration for it.
+ * Projects are spread over rounds of application periods, so no manager handles two projects in the same period,
+ * and the status of each application follows the period of its project: mostly pending while it is open,
+ * mostly booked or unsuccessful once it has closed.
+ * Excel files are written with a streaming SXSSFWorkbook that keeps only SXSSF_WINDOW rows in memory,
+ * so millions of rows can be written in a small heap. Other engines are given each table whole.
+ * Every value is derived from the seed and the row number, so the same seed always writes the same dataset.
+ */
+public class DatasetGenerator {
+    public static final int MAX_APPLICANTS = 7000000;
+    private static final int SXSSF_WINDOW = 100;
+    private static final String SHEET_NAME = "Sheet1";
+    private static final String PASSWORD = "password";
+    private static final long DAY_MILLIS = 24L * 3600 * 1000;
+
+    // NRIC numbers of each kind of user come from separate ranges, so that no NRIC is used twice
+    private static final int OFFICER_NUMBER_BASE = 7000000;
+    private static final int MANAGER_NUMBER_BASE = 8500000;
+    private static final int[] NRIC_WEIGHTS = { 2, 7, 6, 5, 4, 3, 2 };
+    private static final String NRIC_CHECK_LETTERS = "JZIHGFEDCBA";
+
+    // Project rounds: the application periods in days from today. Each manager has one project per round
+    private static final int[][] ROUND_PERIODS = { { -200, -110 }, { -30, 60 }, { 100, 190 }, { 230, 320 } };
+    private static final int CLOSED_ROUND = 0;
+    private static final int OPEN_ROUND = 1;
+    private static final int OFFICER_SLOTS = 10;
+
+    // Seeds of the tables, so that the rows of each table are drawn independently
+    private static final int APPLICANT_SEED = 1;
+    private static final int OFFICER_SEED = 2;
+    private static final int MANAGER_SEED = 3;
+    private static final int PROJECT_SEED = 4;
+    private static final int APPLICATION_SEED = 5;
+    private static final int ENQUIRY_SEED = 6;
+    private static final int REGISTRATION_SEED = 7;
+
+    private static final List<String> USER_HEADER = List.of("Name", "NRIC", "Age", "Marital Status", "Password");
+    private static final List<String> PROJECT_HEADER = List.of("Project ID", "Project Name", "Neighborhood",
+        "Type 1", "Number of units for Type 1", "Selling price for Type 1", "Type 2", "Number of units for Type 2",
+        "Selling price for Type 2", "Application opening date", "Application closing date", "Manager",
+        "Officer Slot", "Officer", "Visibility", "Version");
+    private static final List<String> APPLICATION_HEADER = List.of("Application ID", "Project ID", "Applicant NRIC",
+        "Application Status", "Flat Type", "Date", "Version");
+    private static final List<String> ENQUIRY_HEADER = List.of("ID", "NRIC", "PROJECT ID", "ENQUIRY", "REPLY",
+        "ENQUIRY_DATE", "REPLY_DATE");
+    private static final List<String> REGISTRATION_HEADER = List.of("Officer Registration ID", "NRIC", "Project ID",
+        "Registration Status", "Date");
+
+    private static final String[] FIRST_NAMES = { "John", "Sarah", "Grace", "James", "Rachel", "Michael", "Jessica",
+        "Daniel", "Emily", "David", "Wei Ling", "Ahmad", "Priya", "Kumar", "Siti", "Jun Jie", "Hui Min", "Farah" };
+    private static final String[] SURNAMES = { "Tan", "Lim", "Lee", "Ng", "Wong", "Goh", "Chua", "Koh", "Teo",
+        "Ong", "Rahman", "Ismail", "Nair", "Singh", "Pillai" };
+    private static final String[] NEIGHBORHOODS = { "Yishun", "Tampines", "Bedok", "Simei", "Pasir Ris", "Punggol",
+        "Sengkang", "Woodlands", "Jurong West", "Toa Payoh", "Bukit Batok", "Queenstown" };
+    private static final String[] PROJECT_SUFFIXES = { "Breeze", "Vista", "Grove", "Residences", "Heights", "Court",
+        "Edge", "Green" };
+
+    private final long seed;
+    private final int applicantCount;
+    private final int officerCount;
+    private final int managerCount;
+    private final int projectCount;
+    private final int enquiryCount;
+    private final long today;
+    private final int currentYear;
+    private int applicationCount;
+    private int registrationCount;
+
+    /**
+     * A user drawn from its row number: the columns of the user and whether they may apply for a flat.
+     */
+    private static class Person {
+        String name;
+        String nric;
+        int age;
+        boolean married;
+    }
+
+    /**
+     * Receives the rows of a table in order.
+     */
+    private interface RowSink extends Closeable {
+        void add(TableRow row) throws IOException;
+    }
+
+    /**
+     * Constructor for DatasetGenerator
+     * Officers, managers, projects and enquiries are scaled from the number of applicants.
+     * @param applicantCount The number of applicants, at most MAX_APPLICANTS.
+     * @param seed The seed every value is derived from.
+     * @throws IllegalArgumentException if the number of applicants is not between 1 and MAX_APPLICANTS.
+     */
+    public DatasetGenerator(int applicantCount, long seed) {
+        if (applicantCount < 1 || applicantCount > MAX_APPLICANTS) {
+            throw new IllegalArgumentException("Number of applicants must be between 1 and " + MAX_APPLICANTS + ": " + applicantCount);
+        }
+        this.seed = seed;
+        this.applicantCount = applicantCount;
+        this.projectCount = Math.max(10, applicantCount / 100);
+        this.officerCount = Math.max(10, applicantCount / 50);
+        this.managerCount = (projectCount + ROUND_PERIODS.length - 1) / ROUND_PERIODS.length;
+        this.enquiryCount = Math.max(1, applicantCount / 2);
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        this.today = calendar.getTimeInMillis();
+        this.currentYear = calendar.get(Calendar.YEAR);
+    }
+
+    /**
+     * Writes every table through a storage engine, replacing any table of the same name.
+     * @param engine The engine to write the tables with.
+     * @throws IOException if a table cannot be written.
+     */
+    public void generate(StorageEngine engine) throws IOException {
+        writeUsers(engine, "ApplicantList", APPLICANT_SEED, applicantCount);
+        writeUsers(engine, "OfficerList", OFFICER_SEED, officerCount);
+        writeUsers(engine, "ManagerList", MANAGER_SEED, managerCount);
+
+        // Registrations decide the officers of each project, so they are drawn before the projects are written
+        List<int[]> registrations = drawRegistrations();
+        writeProjects(engine, officersOfProjects(registrations));
+        writeRegistrations(engine, registrations);
+        writeApplications(engine);
+        writeEnquiries(engine);
+    }
+
+    /**
+     * Builds an NRIC with its check letter.
+     * @param prefix The first letter, S for people born before 2000 and T from 2000.
+     * @param number The seven digits of the NRIC.
+     * @return The NRIC, such as S0000001I.
+     */
+    public static String nric(char prefix, int number) {
+        String digits = String.format("%07d", number);
+        int sum = prefix == 'T' || prefix == 'G' ? 4 : 0;
+        for (int i = 0; i < NRIC_WEIGHTS.length; i++) {
+            sum += (digits.charAt(i) - '0') * NRIC_WEIGHTS[i];
+        }
+        return prefix + digits + NRIC_CHECK_LETTERS.charAt(sum % 11);
+    }
+
+    /**
+     * @param index The row number of the applicant, from 0.
+     * @return the NRIC of the applicant
+     */
+    public String getApplicantNric(int index) {
+        return person(APPLICANT_SEED, index).nric;
+    }
+
+    /**
+     * @param index The row number of the officer, from 0.
+     * @return the NRIC of the officer
+     */
+    public String getOfficerNric(int index) {
+        return person(OFFICER_SEED, index).nric;
+    }
+
+    /**
+     * @param index The row number of the manager, from 0.
+     * @return the NRIC of the manager
+     */
+    public String getManagerNric(int index) {
+        return person(MANAGER_SEED, index).nric;
+    }
+
+    /**
+     * @param index The row number of the manager, from 0.
+     * @return the name of the manager, which is unique
+     */
+    public String getManagerName(int index) {
+        return person(MANAGER_SEED, index).name;
+    }
+
+    /**
+     * @param projectID The ID of the project, from 1.
+     * @return the name of the project, which is unique
+     */
+    public String getProjectName(int projectID) {
+        // The same draws as writeProjects
+        SplittableRandom random = rowRandom(PROJECT_SEED, projectID);
+        return NEIGHBORHOODS[random.nextInt(NEIGHBORHOODS.length)] + " "
+            + PROJECT_SUFFIXES[random.nextInt(PROJECT_SUFFIXES.length)] + " " + projectID;
+    }
+
+    /**
+     * @return the number of applicants
+     */
+    public int getApplicantCount() {
+        return applicantCount;
+    }
+
+    /**
+     * @return the number of officers
+     */
+    public int getOfficerCount() {
+        return officerCount;
+    }
+
+    /**
+     * @return the number of managers
+     */
+    public int getManagerCount() {
+        return managerCount;
+    }
+
+    /**
+     * @return the number of projects, whose IDs run from 1
+     */
+    public int getProjectCount() {
+        return projectCount;
+    }
+
+    /**
+     * @return the number of enquiries, whose IDs run from 1
+     */
+    public int getEnquiryCount() {
+        return enquiryCount;
+    }
+
+    /**
+     * @return the number of applications written by generate, whose IDs run from 1
+     */
+    public int getApplicationCount() {
+        return applicationCount;
+    }
+
+    /**
+     * @return the number of officer registrations written by generate, whose IDs run from 1
+     */
+    public int getRegistrationCount() {
+        return registrationCount;
+    }
+
+    private void writeUsers(StorageEngine engine, String tableName, int tableSeed, int count) throws IOException {
+        try (RowSink sink = openSink(engine, tableName, USER_HEADER)) {
+            for (int i = 0; i < count; i++) {
+                Person person = person(tableSeed, i);
+                TableRow row = new TableRow(UserFileIndex.values().length);
+                row.set(UserFileIndex.NAME.getIndex(), person.name);
+                row.set(UserFileIndex.NRIC.getIndex(), person.nric);
+                row.set(UserFileIndex.AGE.getIndex(), person.age);
+                row.set(UserFileIndex.MARITAL_STATUS.getIndex(),
+                    person.married ? MaritalStatus.MARRIED.getStatus() : MaritalStatus.SINGLE.getStatus());
+                row.set(UserFileIndex.PASSWORD.getIndex(), PASSWORD);
+                sink.add(row);
+            }
+        }
+    }
+
+    /**
+     * Draws the officer registrations as {officer index, project ID, status ordinal, days before opening} rows.
+     * Every officer registers for a project in one round, and some also for a project of the next round,
+     * whose period does not overlap. A project never has more successful registrations than officer slots.
+     */
+    private List<int[]> drawRegistrations() {
+        List<int[]> registrations = new ArrayList<>();
+        int[] successful = new int[projectCount + 1];
+        for (int officer = 0; officer < officerCount; officer++) {
+            SplittableRandom random = rowRandom(REGISTRATION_SEED, officer);
+            int projectID = 1 + officer % projectCount;
+            int roll = random.nextInt(100);
+            OfficerRegisterationStatus status = roll < 60 ? OfficerRegisterationStatus.SUCESSFUL
+                : roll < 90 ? OfficerRegisterationStatus.PENDING : OfficerRegisterationStatus.UNSUCCESSFUL;
+            if (status == OfficerRegisterationStatus.SUCESSFUL && successful[projectID] >= OFFICER_SLOTS) {
+                status = OfficerRegisterationStatus.UNSUCCESSFUL;
+            }
+            if (status == OfficerRegisterationStatus.SUCESSFUL) {
+                successful[projectID]++;
+            }
+            registrations.add(new int[] { officer, projectID, status.ordinal(), 1 + random.nextInt(30) });
+
+            int nextProjectID = projectID + managerCount;
+            if (random.nextInt(100) < 30 && nextProjectID <= projectCount) {
+                registrations.add(new int[] { officer, nextProjectID, OfficerRegisterationStatus.PENDING.ordinal(),
+                    1 + random.nextInt(30) });
+            }
+        }
+        return registrations;
+    }
+
+    private String[] officersOfProjects(List<int[]> registrations) {
+        String[] officers = new String[projectCount + 1];
+        for (int[] registration : registrations) {
+            if (registration[2] == OfficerRegisterationStatus.SUCESSFUL.ordinal()) {
+                String nric = getOfficerNric(registration[0]);
+                int projectID = registration[1];
+                officers[projectID] = officers[projectID] == null ? nric : officers[projectID] + ", " + nric;
+            }
+        }
+        return officers;
+    }
+
+    private void writeProjects(StorageEngine engine, String[] officers) throws IOException {
+        try (RowSink sink = openSink(engine, "ProjectList", PROJECT_HEADER)) {
+            for (int projectID = 1; projectID <= projectCount; projectID++) {
+                SplittableRandom random = rowRandom(PROJECT_SEED, projectID);
+                int round = roundOf(projectID);
+                TableRow row = new TableRow(ProjectListFileIndex.values().length);
+                row.set(ProjectListFileIndex.PROJECT_ID.getIndex(), projectID);
+                String neighborhood = NEIGHBORHOODS[random.nextInt(NEIGHBORHOODS.length)];
+                String suffix = PROJECT_SUFFIXES[random.nextInt(PROJECT_SUFFIXES.length)];
+                row.set(ProjectListFileIndex.NAME.getIndex(), neighborhood + " " + suffix + " " + projectID);
+                row.set(ProjectListFileIndex.NEIGHBORHOOD.getIndex(), neighborhood);
+                row.set(ProjectListFileIndex.TYPE_1.getIndex(), FlatTypeName.TWO_ROOM.getflatTypeName());
+                row.set(ProjectListFileIndex.TYPE_1_UNITS.getIndex(), 20 + random.nextInt(180));
+                row.set(ProjectListFileIndex.TYPE_1_PRICE.getIndex(), 150000 + random.nextInt(150) * 1000);
+                if (random.nextInt(100) < 90) {
+                    row.set(ProjectListFileIndex.TYPE_2.getIndex(), FlatTypeName.THREE_ROOM.getflatTypeName());
+                    row.set(ProjectListFileIndex.TYPE_2_UNITS.getIndex(), 20 + random.nextInt(280));
+                    row.set(ProjectListFileIndex.TYPE_2_PRICE.getIndex(), 300000 + random.nextInt(250) * 1000);
+                }
+                row.set(ProjectListFileIndex.OPENING_DATE.getIndex(), new Date(openingOf(round)));
+                row.set(ProjectListFileIndex.CLOSING_DATE.getIndex(), new Date(closingOf(round)));
+                row.set(ProjectListFileIndex.MANAGER.getIndex(), getManagerNric((projectID - 1) % managerCount));
+                row.set(ProjectListFileIndex.OFFICER_SLOT.getIndex(), OFFICER_SLOTS);
+                row.set(ProjectListFileIndex.OFFICERS.getIndex(), officers[projectID] == null ? "" : officers[projectID]);
+                int visibleChance = round == OPEN_ROUND ? 90 : round == CLOSED_ROUND ? 50 : 30;
+                row.set(ProjectListFileIndex.VISIBILITY.getIndex(), random.nextInt(100) < visibleChance
+                    ? ProjectVisibility.VISIBILE.getvisibility() : ProjectVisibility.HIDDEN.getvisibility());
+                row.set(ProjectListFileIndex.VERSION.getIndex(), 0);
+                sink.add(row);
+            }
+        }
+    }
+
+    private void writeRegistrations(StorageEngine engine, List<int[]> registrations) throws IOException {
+        OfficerRegisterationStatus[] statuses = OfficerRegisterationStatus.values();
+        try (RowSink sink = openSink(engine, "OfficerRegistration", REGISTRATION_HEADER)) {
+            int id = 0;
+            for (int[] registration : registrations) {
+                id++;
+                int projectID = registration[1];
+                long opening = openingOf(roundOf(projectID));
+                TableRow row = new TableRow(OfficerRegistrationFileIndex.values().length);
+                row.set(OfficerRegistrationFileIndex.ID.getIndex(), id);
+                row.set(OfficerRegistrationFileIndex.NRIC.getIndex(), getOfficerNric(registration[0]));
+                row.set(OfficerRegistrationFileIndex.PROJECT.getIndex(), projectID);
+                row.set(OfficerRegistrationFileIndex.STATUS.getIndex(), statuses[registration[2]].getStatus());
+                // Officers register in the weeks before the period opens, but never in the future
+                long registered = Math.min(today, opening - registration[3] * DAY_MILLIS);
+                row.set(OfficerRegistrationFileIndex.DATE.getIndex(), new Date(registered));
+                sink.add(row);
+            }
+            registrationCount = id;
+        }
+    }
+
+    /**
+     * Writes one application for most applicants who are eligible: singles from 35 for a 2-Room flat,
+     * and married applicants from 21 for either flat type. Applications are only made to projects whose period
+     * has opened, and their status follows whether that period is still open.
+     */
+    private void writeApplications(StorageEngine engine) throws IOException {
+        int appliedProjects = Math.min(projectCount, managerCount * (OPEN_ROUND + 1));
+        try (RowSink sink = openSink(engine, "ProjectApplication", APPLICATION_HEADER)) {
+            int id = 0;
+            for (int i = 0; i < applicantCount; i++) {
+                Person applicant = person(APPLICANT_SEED, i);
+                boolean eligible = applicant.married ? applicant.age >= 21 : applicant.age >= 35;
+                SplittableRandom random = rowRandom(APPLICATION_SEED, i);
+                if (!eligible || random.nextInt(100) >= 70) {
+                    continue;
+                }
+                id++;
+                int projectID = 1 + random.nextInt(appliedProjects);
+                boolean open = roundOf(projectID) == OPEN_ROUND;
+                long opening = openingOf(roundOf(projectID));
+                long applied = opening + (long) (random.nextDouble() * (Math.min(today, closingOf(roundOf(projectID))) - opening));
+                boolean threeRoom = applicant.married && hasThreeRoom(projectID) && random.nextInt(100) < 60;
+
+                TableRow row = new TableRow(ProjectApplicationFileIndex.values().length);
+                row.set(ProjectApplicationFileIndex.ID.getIndex(), id);
+                row.set(ProjectApplicationFileIndex.PROJECT_ID.getIndex(), projectID);
+                row.set(ProjectApplicationFileIndex.NRIC.getIndex(), applicant.nric);
+                row.set(ProjectApplicationFileIndex.STATUS.getIndex(), applicationStatus(random.nextInt(100), open).getStatus());
+                row.set(ProjectApplicationFileIndex.FLAT_TYPE.getIndex(), threeRoom
+                    ? FlatTypeName.THREE_ROOM.getflatTypeName() : FlatTypeName.TWO_ROOM.getflatTypeName());
+                row.set(ProjectApplicationFileIndex.DATE.getIndex(), new Date(applied));
+                row.set(ProjectApplicationFileIndex.VERSION.getIndex(), 0);
+                sink.add(row);
+            }
+            applicationCount = id;
+        }
+    }
+
+    private static ApplicationStatus applicationStatus(int roll, boolean open) {
+        if (open) {
+            return roll < 50 ? ApplicationStatus.PENDING
+                : roll < 70 ? ApplicationStatus.SUCESSFUL
+                : roll < 80 ? ApplicationStatus.UNSUCCESSFUL
+                : roll < 90 ? ApplicationStatus.BOOKED
+                : roll < 95 ? ApplicationStatus.WITHDRAWAL_PENDING
+                : roll < 98 ? ApplicationStatus.WITHDRAWAL_SUCCESSFUL
+                : ApplicationStatus.WITHDRAWAL_UNSUCCESSFUL;
+        }
+        return roll < 10 ? ApplicationStatus.SUCESSFUL
+            : roll < 45 ? ApplicationStatus.UNSUCCESSFUL
+            : roll < 90 ? ApplicationStatus.BOOKED
+            : roll < 97 ? ApplicationStatus.WITHDRAWAL_SUCCESSFUL
+            : ApplicationStatus.WITHDRAWAL_UNSUCCESSFUL;
+    }
+
+    private void writeEnquiries(StorageEngine engine) throws IOException {
+        int enquiredProjects = Math.min(projectCount, managerCount * (OPEN_ROUND + 1));
+        try (RowSink sink = openSink(engine, "ProjectEnquiry", ENQUIRY_HEADER)) {
+            for (int id = 1; id <= enquiryCount; id++) {
+                SplittableRandom random = rowRandom(ENQUIRY_SEED, id);
+                int projectID = 1 + random.nextInt(enquiredProjects);
+                boolean open = roundOf(projectID) == OPEN_ROUND;
+                long opening = openingOf(roundOf(projectID));
+                long asked = opening + (long) (random.nextDouble() * (Math.min(today, closingOf(roundOf(projectID))) - opening));
+
+                TableRow row = new TableRow(EnquiryFileIndex.values().length);
+                row.set(EnquiryFileIndex.ID.getIndex(), id);
+                row.set(EnquiryFileIndex.NRIC.getIndex(), getApplicantNric(random.nextInt(applicantCount)));
+                row.set(EnquiryFileIndex.PROJECT_ID.getIndex(), projectID);
+                row.set(EnquiryFileIndex.ENQUIRY.getIndex(), "Is the " + FlatTypeName.values()[random.nextInt(2)].getflatTypeName()
+                    + " flat of project " + projectID + " still available? (" + id + ")");
+                row.set(EnquiryFileIndex.ENQUIRY_DATE.getIndex(), new Date(asked));
+                if (random.nextInt(100) < (open ? 40 : 90)) {
+                    row.set(EnquiryFileIndex.REPLY.getIndex(), "Please refer to the project page for the latest availability.");
+                    row.set(EnquiryFileIndex.REPLY_DATE.getIndex(), new Date(Math.min(today, asked + (1 + random.nextInt(7)) * DAY_MILLIS)));
+                }
+                sink.add(row);
+            }
+        }
+    }
+
+    private Person person(int tableSeed, int index) {
+        SplittableRandom random = rowRandom(tableSeed, index);
+        Person person = new Person();
+        if (tableSeed == APPLICANT_SEED) {
+            person.age = 18 + random.nextInt(58);
+        } else {
+            person.age = 25 + random.nextInt(38);
+        }
+        person.married = random.nextInt(100) < (person.age < 30 ? 35 : 70);
+        person.name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + SURNAMES[random.nextInt(SURNAMES.length)];
+        int number = index;
+        if (tableSeed == OFFICER_SEED) {
+            number += OFFICER_NUMBER_BASE;
+        } else if (tableSeed == MANAGER_SEED) {
+            number += MANAGER_NUMBER_BASE;
+            // Managers are looked up by name, so their names must be unique
+            person.name += " " + (index + 1);
+        }
+        person.nric = nric(currentYear - person.age < 2000 ? 'S' : 'T', number);
+        return person;
+    }
+
+    private int roundOf(int projectID) {
+        return (projectID - 1) / managerCount;
+    }
+
+    private long openingOf(int round) {
+        return today + ROUND_PERIODS[round][0] * DAY_MILLIS;
+    }
+
+    private long closingOf(int round) {
+        return today + ROUND_PERIODS[round][1] * DAY_MILLIS;
+    }
+
+    private boolean hasThreeRoom(int projectID) {
+        SplittableRandom random = rowRandom(PROJECT_SEED, projectID);
+        // Follow the draws of writeProjects up to the choice of a second flat type
+        random.nextInt(NEIGHBORHOODS.length);
+        random.nextInt(PROJECT_SUFFIXES.length);
+        random.nextInt(180);
+        random.nextInt(150);
+        return random.nextInt(100) < 90;
+    }
+
+    /**
+     * Creates the generator of the values of one row, mixing the seed, the table and the row number,
+     * so that any row can be drawn again without drawing the rows before it.
+     */
+    private SplittableRandom rowRandom(int tableSeed, long index) {
+        long mixed = seed ^ (tableSeed * 0x9E3779B97F4A7C15L) ^ (index * 0xBF58476D1CE4E5B9L);
+        return new SplittableRandom(mixed);
+    }
+
+    private static RowSink openSink(StorageEngine engine, String tableName, List<String> header) throws IOException {
+        if (engine instanceof XlsxStorageEngine) {
+            return new SxssfSink(engine.describe(tableName), header);
+        }
+        List<TableRow> rows = new ArrayList<>();
+        return new RowSink() {
+            @Override
+            public void add(TableRow row) {
+                rows.add(row);
+            }
+
+            @Override
+            public void close() throws IOException {
+                engine.write(tableName, new TableData(SHEET_NAME, header, rows));
+            }
+        };
+    }
+
+    /**
+     * Writes the rows of a table to an Excel file as they arrive, flushing all but the last SXSSF_WINDOW rows
+     * to a compressed temporary file. The Excel file is replaced atomically when the sink is closed.
+     */
+    private static class SxssfSink implements RowSink {
+        private final String filePath;
+        private final SXSSFWorkbook workbook;
+        private final Sheet sheet;
+        private final CellStyle dateCellStyle;
+        private int rowNum;
+
+        SxssfSink(String filePath, List<String> header) {
+            this.filePath = filePath;
+            this.workbook = new SXSSFWorkbook(SXSSF_WINDOW);
+            workbook.setCompressTempFiles(true);
+            this.sheet = workbook.createSheet(SHEET_NAME);
+            this.dateCellStyle = XlsxStorageEngine.createDateCellStyle(workbook);
+            Row headerRow = sheet.createRow(rowNum++);
+            for (int i = 0; i < header.size(); i++) {
+                headerRow.createCell(i).setCellValue(header.get(i));
+            }
+        }
+
+        @Override
+        public void add(TableRow tableRow) {
+            Row row = sheet.createRow(rowNum++);
+            for (int i = 0; i < tableRow.getWidth(); i++) {
+                XlsxStorageEngine.writeCellValue(row, i, tableRow.get(i), dateCellStyle);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                AtomicFile.write(filePath, workbook::write);
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        String engineName = StorageConfig.XLSX;
+        long seed = 42;
+        List<String> positional = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-engine") && i + 1 < args.length) {
+                    engineName = args[++i].toLowerCase();
+                } else if (args[i].equals("-seed") && i + 1 < args.length) {
+                    seed = Long.parseLong(args[++i]);
+                } else {
+                    positional.add(args[i]);
+                }
+            }
+            if (positional.size() != 2) {
+                throw new IllegalArgumentException("Expected a directory and a number of applicants");
+            }
+            String directory = positional.get(0);
+            int applicants = Integer.parseInt(positional.get(1));
+            StorageEngine engine;
+            if (engineName.equals(StorageConfig.XLSX)) {
+                engine = new XlsxStorageEngine(directory);
+            } else if (engineName.equals(StorageConfig.BINARY)) {
+                engine = new BinaryStorageEngine(directory);
+            } else {
+                throw new IllegalArgumentException("Only the xlsx and binary engines can be generated: " + engineName);
+            }
+            for (String tableName : DataStore.TABLE_NAMES) {
+                // Never overwrite a real dataset by mistake
+                if (engine.exists(tableName)) {
+                    System.err.println("Table already exists, choose an empty directory: " + engine.describe(tableName));
+                    System.exit(1);
+                }
+            }
+            new File(directory).mkdirs();
+
+            long start = System.nanoTime();
+            DatasetGenerator generator = new DatasetGenerator(applicants, seed);
+            generator.generate(engine);
+            System.out.printf("Generated %d applicants, %d officers, %d managers, %d projects, %d applications, "
+                    + "%d enquiries and %d registrations in %.1f s: %s%n",
+                generator.getApplicantCount(), generator.getOfficerCount(), generator.getManagerCount(),
+                generator.getProjectCount(), generator.getApplicationCount(), generator.getEnquiryCount(),
+                generator.getRegistrationCount(), (System.nanoTime() - start) / 1e9, directory);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java databases.DatasetGenerator [-engine xlsx|binary] [-seed n] directory applicants");
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Failed to generate dataset: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package databases;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.util.List;
+import java.util.Map;
 
 import enums.EnquiryFileIndex;
 import models.Enquiry;
@@ -17,129 +15,70 @@ import utilities.LoggerUtility;
  * EnquiryDB class handles the database operations for the Enquiry entity.
  * It provides methods to create, read, update, and delete enquiries in an Excel file.
  * It also includes helper methods to convert between Enquiry objects and Excel rows.
+ * Reads are served from the in-memory table in DataStore and writes are written through to the file.
  */
 
 public class EnquiryDB {
-    private static final String ENQUIRY_FILEPATH = "resources/data/ProjectEnquiry.xlsx";
 
     /**
-     * Helper function to get numeric cell value from a cell.
-     * Handles both numeric and string types.
-     * @param cell The cell to retrieve the value from.
-     * @return The numeric value of the cell.
-     * @throws IllegalArgumentException if the cell is null or not numeric/string.
-     */
-    private static double getNumericCellValue(Cell cell) {
-        if (cell == null) {
-            throw new IllegalArgumentException("Cell is null");
-        }
-        if (cell.getCellType() == CellType.NUMERIC) {
-            return cell.getNumericCellValue();
-        } else if (cell.getCellType() == CellType.STRING) {
-            try {
-                return Double.parseDouble(cell.getStringCellValue().trim());
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Expected numeric value but found string: " + cell.getStringCellValue());
-            }
-        } else {
-            throw new IllegalArgumentException("Unexpected cell type: " + cell.getCellType());
-        }
-    }
-
-    /**
-     * Helper function to get string cell value from a cell.
-     * Handles null and non-string types.
-     * @param cell The cell to retrieve the value from.
-     * @return The string value of the cell.
-     * @throws IllegalArgumentException if the cell is null or not string.
-     */
-
-    private static String getStringCellValue(Cell cell) {
-        if (cell == null || cell.getCellType() != CellType.STRING) {
-            return ""; // Return an empty string if the cell is null or not a string
-        }
-        return cell.getStringCellValue();
-    }
-    
-    /**
-     * Helper function to get date cell value from a cell.
-     * Handles null and non-date types.
-     * @param cell The cell to retrieve the value from.
-     * @return The date value of the cell.
-     * @throws IllegalArgumentException if the cell is null or not a date.
-     */
-
-    private static Date getDateCellValue(Cell cell) {
-        if (cell == null || cell.getCellType() != CellType.NUMERIC || !DateUtil.isCellDateFormatted(cell)) {
-            return null; 
-        }
-        return cell.getDateCellValue();
-    }
-
-    /**
-     * Helper function to create an Enquiry object from a row in the Excel sheet.
+     * Helper function to create an Enquiry object from a row in the table.
      * @param row The row to create the Enquiry object from.
+     * @param projects The projects keyed by ID, used to resolve the project of the enquiry.
      * @return The Enquiry object created from the row.
      * @throws IOException if there is an error reading the cell values.
      */
-    private static Enquiry createEnquiryFromRow(Row row) throws IOException {
+    private static Enquiry createEnquiryFromRow(TableRow row, Map<Integer, Project> projects) throws IOException {
         if (row == null) {
             throw new IllegalArgumentException("Row is null");
         }
+        if (row.isBlank(EnquiryFileIndex.ID.getIndex()) || row.isBlank(EnquiryFileIndex.PROJECT_ID.getIndex())) {
+            throw new IllegalArgumentException("Cell is null");
+        }
     
-        int enquiryID = (int) getNumericCellValue(row.getCell(EnquiryFileIndex.ID.getIndex()));
-        String nric = getStringCellValue(row.getCell(EnquiryFileIndex.NRIC.getIndex()));
-        int projectID = (int) getNumericCellValue(row.getCell(EnquiryFileIndex.PROJECT_ID.getIndex()));
-        Project project = ProjectDB.getProjectByIdDB(projectID); // Use ProjectDB to fetch the project
+        int enquiryID = row.getInt(EnquiryFileIndex.ID.getIndex());
+        String nric = row.getString(EnquiryFileIndex.NRIC.getIndex());
+        int projectID = row.getInt(EnquiryFileIndex.PROJECT_ID.getIndex());
+        Project project = projects.get(projectID);
     
         if (project == null) {
             LoggerUtility.logInfo("Project with ID " + projectID + " not found for enquiry ID: " + enquiryID);
             return null; 
         }
     
-        String enquiry = getStringCellValue(row.getCell(EnquiryFileIndex.ENQUIRY.getIndex()));
-        String reply = getStringCellValue(row.getCell(EnquiryFileIndex.REPLY.getIndex()));
-        Date enquiryDate = getDateCellValue(row.getCell(EnquiryFileIndex.ENQUIRY_DATE.getIndex()));
-        Date replyDate = getDateCellValue(row.getCell(EnquiryFileIndex.REPLY_DATE.getIndex()));
-    
+        String enquiry = row.getString(EnquiryFileIndex.ENQUIRY.getIndex());
+        String reply = row.getString(EnquiryFileIndex.REPLY.getIndex());
+        Date enquiryDate = row.getDate(EnquiryFileIndex.ENQUIRY_DATE.getIndex());
+        Date replyDate = row.getDate(EnquiryFileIndex.REPLY_DATE.getIndex());
         return new Enquiry(enquiryID, nric, project, enquiry, reply, enquiryDate, replyDate);
     }
 
     /**
-     * Helper function to populate a row in the Excel sheet with Enquiry data.
+     * Helper function to populate a row in the table with Enquiry data.
      * @param row The row to populate with Enquiry data.
      * @param enquiry The Enquiry object containing the data to populate the row.
      * @throws NumberFormatException if there is an error converting cell values.
      */
-    private static void populateEnquiryRow(Row row, Enquiry enquiry) throws NumberFormatException {
+    private static void populateEnquiryRow(TableRow row, Enquiry enquiry) throws NumberFormatException {
         if (enquiry.getEnquiryID() != 0) {
-            row.createCell(EnquiryFileIndex.ID.getIndex()).setCellValue(enquiry.getEnquiryID());
+            row.set(EnquiryFileIndex.ID.getIndex(), enquiry.getEnquiryID());
         }
         if (enquiry.getNric() != null && !enquiry.getNric().isEmpty()) {
-            row.createCell(EnquiryFileIndex.NRIC.getIndex()).setCellValue(enquiry.getNric());
+            row.set(EnquiryFileIndex.NRIC.getIndex(), enquiry.getNric());
         }
         if (enquiry.getProject() != null) {
-            row.createCell(EnquiryFileIndex.PROJECT_ID.getIndex()).setCellValue(enquiry.getProject().getProjectID());
+            row.set(EnquiryFileIndex.PROJECT_ID.getIndex(), enquiry.getProject().getProjectID());
         }
         if (enquiry.getEnquiry() != null && !enquiry.getEnquiry().isEmpty()) {
-            row.createCell(EnquiryFileIndex.ENQUIRY.getIndex()).setCellValue(enquiry.getEnquiry());
+            row.set(EnquiryFileIndex.ENQUIRY.getIndex(), enquiry.getEnquiry());
         }
         if (enquiry.getReply() != null && !enquiry.getReply().isEmpty()) {
-            row.createCell(EnquiryFileIndex.REPLY.getIndex()).setCellValue(enquiry.getReply());
+            row.set(EnquiryFileIndex.REPLY.getIndex(), enquiry.getReply());
         }
-        Workbook workbook = row.getSheet().getWorkbook();
-        CellStyle dateCellStyle = workbook.createCellStyle();
-        dateCellStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-MM-dd HH:mm:ss")); //Date formatter
-
         if (enquiry.getEnquiryDate() != null) {
-            Cell enquiryDateCell = row.createCell(EnquiryFileIndex.ENQUIRY_DATE.getIndex());
-            enquiryDateCell.setCellValue(enquiry.getEnquiryDate());
-            enquiryDateCell.setCellStyle(dateCellStyle);
+            row.set(EnquiryFileIndex.ENQUIRY_DATE.getIndex(), enquiry.getEnquiryDate());
         }
         if (enquiry.getReplyDate() != null) {
-            Cell replyDateCell = row.createCell(EnquiryFileIndex.REPLY_DATE.getIndex());
-            replyDateCell.setCellValue(enquiry.getReplyDate());
-            replyDateCell.setCellStyle(dateCellStyle);
+            row.set(EnquiryFileIndex.REPLY_DATE.getIndex(), enquiry.getReplyDate());
         }
     }
 
@@ -149,28 +88,19 @@ public class EnquiryDB {
      * @return true if the enquiry was created successfully, false otherwise.
      */
     public static boolean createEnquiry(Enquiry enquiry) throws IOException, NumberFormatException {
-        try (FileInputStream fileStreamIn = new FileInputStream(ENQUIRY_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Row lastRow = sheet.getRow(sheet.getLastRowNum());
-            if (lastRow == null || lastRow.getCell(EnquiryFileIndex.ID.getIndex()) == null) {
-                enquiry.setEnquiryID(1); 
-            } else {
-                enquiry.setEnquiryID((int) lastRow.getCell(EnquiryFileIndex.ID.getIndex()).getNumericCellValue() + 1);
-            }
-            int newRowNum = sheet.getLastRowNum() + 1;
-            Row row = sheet.createRow(newRowNum);
-            populateEnquiryRow(row, enquiry);
-
-            try (FileOutputStream fileOut = new FileOutputStream(ENQUIRY_FILEPATH)) {
-                workbook.write(fileOut);
+        return OperationLog.time("EnquiryDB.createEnquiry", "Enquiry", () -> {
+            try {
+                enquiry.setEnquiryID(DataStore.ENQUIRY_IDS.next());
+                TableRow row = DataStore.ENQUIRIES.newRow();
+                populateEnquiryRow(row, enquiry);
+                DataStore.ENQUIRIES.insert(row);
+                LoggerUtility.logInfo("Created new enquiry ID: " + enquiry.getEnquiryID());
+                return true;
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to create enquiry for user: " + enquiry.getNric(), e);
+                throw e;
             }
-            LoggerUtility.logInfo("Created new enquiry ID: " + enquiry.getEnquiryID());
-            return true;
-        } catch (IOException e) {
-            LoggerUtility.logError("Failed to create enquiry for user: " + enquiry.getNric(), e);
-            throw e;
-        }
+        });
     }
 
     /**
@@ -179,29 +109,27 @@ public class EnquiryDB {
      * @throws IOException if there is an error reading the file.
      */
     public static ArrayList<Enquiry> getAllEnquiries() throws IOException {
-        ArrayList<Enquiry> enquiries = new ArrayList<>();
-    
-        try (FileInputStream fileStreamIn = new FileInputStream(ENQUIRY_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-    
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; // Skip header row
-                if (row.getCell(EnquiryFileIndex.ID.getIndex()) == null) continue; // Skip empty rows
-                try {
-                    Enquiry enquiry = createEnquiryFromRow(row);
-                    if (enquiry != null) { // Only add valid enquiries
-                        enquiries.add(enquiry);
+        return OperationLog.time("EnquiryDB.getAllEnquiries", "Enquiry", () -> {
+            ArrayList<Enquiry> enquiries = new ArrayList<>();
+            try {
+                Map<Integer, Project> projects = ProjectDB.getProjectMap();
+                for (TableRow row : DataStore.ENQUIRIES.getRows()) {
+                    if (row.isBlank(EnquiryFileIndex.ID.getIndex())) continue; // Skip empty rows
+                    try {
+                        Enquiry enquiry = createEnquiryFromRow(row, projects);
+                        if (enquiry != null) { // Only add valid enquiries
+                            enquiries.add(enquiry);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        LoggerUtility.logInfo("Skipping invalid enquiry row - " + e.getMessage());
                     }
-                } catch (IllegalArgumentException e) {
-                    LoggerUtility.logInfo("Skipping invalid row: " + row.getRowNum() + " - " + e.getMessage());
                 }
+                return enquiries;
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to retrieve enquiries from database", e);
+                throw e;
             }
-            return enquiries;
-        } catch (IOException e) {
-            LoggerUtility.logError("Failed to retrieve enquiries from database", e);
-            throw e;
-        }
+        });
     }
 
     /**
@@ -211,55 +139,52 @@ public class EnquiryDB {
      * @throws IOException if there is an error reading the file.
      */
     public static ArrayList<Enquiry> getEnquiriesByNricDB(String nric) throws IOException, NumberFormatException {
-        ArrayList<Enquiry> enquiries = new ArrayList<>();
-        
-        try (FileInputStream fileStreamIn = new FileInputStream(ENQUIRY_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; // Skip header
-                if (row.getCell(EnquiryFileIndex.NRIC.getIndex()).getStringCellValue().equals(nric)){
-                    enquiries.add(createEnquiryFromRow(row));
+        return OperationLog.time("EnquiryDB.getEnquiriesByNricDB", "Enquiry", () -> {
+            ArrayList<Enquiry> enquiries = new ArrayList<>();
+            Map<Integer, Project> projects = ProjectDB.getProjectMap();
+            for (TableRow row : DataStore.ENQUIRIES.getRows()) {
+                if (row.getString(EnquiryFileIndex.NRIC.getIndex()).equals(nric)){
+                    enquiries.add(createEnquiryFromRow(row, projects));
                 }
             }
-        }
-        return enquiries;
+            return enquiries;
+        });
     }
 
     /**
-     * Retrieves all enquiries for a specific project ID from the Excel file.
-     * @param projectID The project ID to filter enquiries by.
-     * @return An ArrayList of Enquiry objects for the specified project ID.
-     * @throws IOException if there is an error reading the file.
+     * Updates an existing enquiry in the Excel file.
+     * @param enquiry The Enquiry object containing the updated data.
+     * @return true if the enquiry was updated successfully, false if it was not found.
+     * @throws IOException if there is an error writing the file.
      */
     public static boolean updateEnquiry(Enquiry enquiry) throws IOException, NumberFormatException {
-        try (FileInputStream fileStreamIn = new FileInputStream(ENQUIRY_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            int rowToUpdate = -1;
-
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                if (row.getCell(EnquiryFileIndex.ID.getIndex()) == null || row.getCell(EnquiryFileIndex.ID.getIndex()).getCellType() != CellType.NUMERIC) continue;
-                if ((int) row.getCell(EnquiryFileIndex.ID.getIndex()).getNumericCellValue() == enquiry.getEnquiryID()){
-                    rowToUpdate = row.getRowNum();
-                    break;
-                }
-            }
-
-            if (rowToUpdate != -1) {
-                Row row = sheet.getRow(rowToUpdate);
-                populateEnquiryRow(row, enquiry);
+        return OperationLog.time("EnquiryDB.updateEnquiry", "Enquiry", () -> {
+            return DataStore.ENQUIRIES.update(
+                row -> row.isNumeric(EnquiryFileIndex.ID.getIndex())
+                    && row.getInt(EnquiryFileIndex.ID.getIndex()) == enquiry.getEnquiryID(),
+                row -> populateEnquiryRow(row, enquiry));
+        });
+    }
 
-                try (FileOutputStream fileOut = new FileOutputStream(ENQUIRY_FILEPATH)) {
-                    workbook.write(fileOut);
-                }
-                return true;
+    /**
+     * Deletes every enquiry about a project from the Excel file, writing the file once.
+     * @param projectID The ID of the project whose enquiries are to be deleted.
+     * @return The number of enquiries deleted.
+     * @throws IOException if there is an error reading or writing the file.
+     */
+    public static int deleteEnquiriesByProject(int projectID) throws IOException {
+        return OperationLog.time("EnquiryDB.deleteEnquiriesByProject", "Enquiry", () -> {
+            try {
+                int deleted = DataStore.ENQUIRIES.delete(
+                    row -> row.isNumeric(EnquiryFileIndex.PROJECT_ID.getIndex())
+                        && row.getInt(EnquiryFileIndex.PROJECT_ID.getIndex()) == projectID);
+                LoggerUtility.logInfo("Deleted " + deleted + " enquiries for Project ID: " + projectID);
+                return deleted;
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to delete enquiries for Project ID: " + projectID, e);
+                throw e;
             }
-            return false;
-        }
-    
+        });
     }
 
     /**
@@ -269,38 +194,21 @@ public class EnquiryDB {
      * @throws IOException if there is an error reading or writing the file.
      */
     public static boolean deleteEnquiryByID(int ID) throws IOException, NumberFormatException {
-        try (FileInputStream fileStreamIn = new FileInputStream(ENQUIRY_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            int rowToDelete = -1;
-
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; // Skip header
-                if (row.getCell(EnquiryFileIndex.ID.getIndex()) == null || row.getCell(EnquiryFileIndex.ID.getIndex()).getCellType() != CellType.NUMERIC) continue;
-                if ((int) row.getCell(EnquiryFileIndex.ID.getIndex()).getNumericCellValue() == ID){
-                    rowToDelete = row.getRowNum();
-                    break;
-                }
-            }
-
-            if (rowToDelete != -1) {
-                sheet.removeRow(sheet.getRow(rowToDelete));
-                // Shift rows up to fill the gap
-                if (rowToDelete < sheet.getLastRowNum()) {
-                    sheet.shiftRows(rowToDelete + 1, sheet.getLastRowNum(), -1);
-                }
-
-                try (FileOutputStream fileOut = new FileOutputStream(ENQUIRY_FILEPATH)) {
-                    workbook.write(fileOut);
+        return OperationLog.time("EnquiryDB.deleteEnquiryByID", "Enquiry", () -> {
+            try {
+                int deleted = DataStore.ENQUIRIES.delete(
+                    row -> row.isNumeric(EnquiryFileIndex.ID.getIndex())
+                        && row.getInt(EnquiryFileIndex.ID.getIndex()) == ID);
+                if (deleted > 0) {
+                    LoggerUtility.logInfo("Deleted enquiry ID: " + ID);
+                    return true;
                 }
-                LoggerUtility.logInfo("Deleted enquiry ID: " + ID);
-                return true;
+                return false;
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to delete enquiry ID: " + ID, e);
+                throw e;
             }
-            return false;
-        } catch (IOException e) {
-            LoggerUtility.logError("Failed to delete enquiry ID: " + ID, e);
-            throw e;
-        }
+        });
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package databases;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import utilities.MetricsRegistry;
+
+/**
+ * EntityCache class is a bounded map from an entity key (project ID, NRIC, application ID, ...)
+ * to the model object built from the row of that key.
+ * DB classes copy the cached instance instead of parsing the row again for every lookup,
+ * and invalidate the key whenever the row behind it is written.
+ * The cached instance itself is never handed out: models are mutable and sessions on other threads
+ * look up the same keys, so every caller gets its own copy.
+ * When the cache is full the least recently used entry is evicted.
+ * A named cache reports its size as a gauge and counts its hits and misses in MetricsRegistry.
+ * @param <K> The type of the entity key.
+ * @param <V> The type of the model object.
+ */
+public class EntityCache<K, V> {
+    private final LinkedHashMap<K, V> entries;
+    private final String hitsCounter;
+    private final String missesCounter;
+
+    /**
+     * Constructor for EntityCache
+     * @param maxSize The maximum number of entries kept before the least recently used one is evicted.
+     */
+    public EntityCache(int maxSize) {
+        this(null, maxSize);
+    }
+
+    /**
+     * Constructor for EntityCache with metrics
+     * @param name The name the metrics of the cache are reported under, such as "Project", or null to report none.
+     * @param maxSize The maximum number of entries kept before the least recently used one is evicted.
+     */
+    public EntityCache(String name, int maxSize) {
+        this.hitsCounter = name != null ? "cache." + name + ".hits" : null;
+        this.missesCounter = name != null ? "cache." + name + ".misses" : null;
+        if (name != null) {
+            MetricsRegistry.registerGauge("cache." + name + ".size", this::size);
+        }
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the cached instance for a key.
+     * @param key The entity key.
+     * @return The cached instance, or null if the key is not cached.
+     */
+    public V get(K key) {
+        V value;
+        synchronized (this) {
+            value = entries.get(key);
+        }
+        if (hitsCounter != null) {
+            MetricsRegistry.increment(value != null ? hitsCounter : missesCounter);
+        }
+        return value;
+    }
+
+    /**
+     * Stores the instance for a key.
+     * @param key The entity key.
+     * @param value The model object to cache.
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Stores the instance for a key unless another one was cached in the meantime,
+     * so that concurrent sessions hydrating the same row all copy the same instance.
+     * @param key The entity key.
+     * @param value The model object to cache.
+     * @return The cached instance: the given value, or the one already cached for the key.
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V cached = entries.putIfAbsent(key, value);
+        return cached != null ? cached : value;
+    }
+
+    /**
+     * Removes the instance for a key so that the next lookup rebuilds it from its row.
+     * @param key The entity key.
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every cached instance.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of cached instances
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
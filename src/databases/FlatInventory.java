@@ -0,0 +1,220 @@
+package databases;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import enums.ProjectListFileIndex;
+
+/**
+ * FlatInventory class keeps the remaining units of every flat type of a project in atomic counters.
+ * A project's counters are read from its row on first use. take reserves a unit with a compare-and-set loop,
+ * so bookings on any number of threads never wait for each other to find out whether a unit is left, and never
+ * take a unit that is not there.
+ * The unit is written in the same transaction as the booking that takes it: the transaction takes one unit off
+ * the count stored in the project row, whatever the row holds by then, and the unit is given back to the counter
+ * if the transaction does not commit. Bookings committing at the same time are group committed by Transaction,
+ * so the project row is written once per batch of bookings rather than once per booking.
+ * A committed booking only marks its project as changed in ProjectDB, since it changes nothing but units. The stored count is therefore always the units left after every committed
+ * booking, and the counters are the stored count less the bookings still being written.
+ * An edit of a project changes the counters by the difference it makes to the stored units, rather than reading
+ * them again from the row, so that units reserved by bookings still being written are not lost.
+ */
+public class FlatInventory {
+    // Counters keyed by project ID; loading and edits of the same project go through the map one at a time
+    private static final Map<Integer, Counters> COUNTERS = new ConcurrentHashMap<>();
+
+    /**
+     * The counters of one project.
+     */
+    private static class Counters {
+        // Version of the project row the counters were read from
+        final int version;
+        // Remaining units keyed by upper case flat type name
+        final Map<String, AtomicInteger> units = new ConcurrentHashMap<>();
+
+        Counters(int version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * Reserves one unit of a flat type of a project and stages taking it off the project row in a transaction.
+     * The unit is given back if the transaction is rolled back or fails to commit.
+     * @param projectID The ID of the project.
+     * @param flatType The name of the flat type.
+     * @param transaction The transaction of the booking.
+     * @return true if a unit was reserved, false if the project has no unit of the flat type left. Nothing is staged then.
+     * @throws IOException if the project cannot be read.
+     */
+    public static boolean take(int projectID, String flatType, Transaction transaction) throws IOException {
+        if (!reserve(projectID, flatType)) {
+            return false;
+        }
+        AtomicBoolean committed = new AtomicBoolean(false);
+        transaction.update(DataStore.PROJECTS,
+            row -> row.isNumeric(ProjectListFileIndex.PROJECT_ID.getIndex())
+                && row.getInt(ProjectListFileIndex.PROJECT_ID.getIndex()) == projectID,
+            row -> takeFromRow(row, flatType));
+        transaction.afterCommit(() -> {
+            committed.set(true);
+            ProjectDB.unitsChanged(projectID);
+        });
+        transaction.afterCompletion(() -> {
+            if (!committed.get()) {
+                release(projectID, flatType);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Takes one unit of a flat type of a project off its counter, if there is one left.
+     * @return true if a unit was taken, false if the project has no unit of the flat type left.
+     */
+    private static boolean reserve(int projectID, String flatType) throws IOException {
+        AtomicInteger counter = counterOf(projectID, flatType);
+        if (counter == null) {
+            return false;
+        }
+        while (true) {
+            int remaining = counter.get();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (counter.compareAndSet(remaining, remaining - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a unit taken with reserve, when the booking it was taken for was not saved.
+     */
+    private static void release(int projectID, String flatType) {
+        Counters counters = COUNTERS.get(projectID);
+        AtomicInteger counter = counters == null ? null : counters.units.get(normalise(flatType));
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+    }
+
+    /**
+     * Changes the counters of a project by the difference an edit made to its stored units.
+     * Counters read from the row after the edit already hold the edited units and are left alone.
+     * @param projectID The ID of the project.
+     * @param editedVersion The version of the row the edit was based on.
+     * @param storedUnits The units stored in the row before the edit, keyed by flat type name.
+     * @param editedUnits The units stored by the edit, keyed by flat type name.
+     */
+    static void edited(int projectID, int editedVersion, Map<String, Integer> storedUnits, Map<String, Integer> editedUnits) {
+        COUNTERS.computeIfPresent(projectID, (id, counters) -> {
+            if (counters.version > editedVersion) {
+                return counters;
+            }
+            Set<String> flatTypes = new HashSet<>(storedUnits.keySet());
+            flatTypes.addAll(editedUnits.keySet());
+            for (String flatType : flatTypes) {
+                Integer edited = editedUnits.get(flatType);
+                AtomicInteger counter = counters.units.get(flatType);
+                if (edited == null) {
+                    counters.units.remove(flatType);
+                } else if (counter == null) {
+                    counters.units.put(flatType, new AtomicInteger(edited));
+                } else {
+                    counter.addAndGet(edited - storedUnits.getOrDefault(flatType, 0));
+                }
+            }
+            return counters;
+        });
+    }
+
+    /**
+     * Drops the counters of a project, such as after it has been deleted.
+     * @param projectID The ID of the project.
+     */
+    public static void reset(int projectID) {
+        COUNTERS.remove(projectID);
+    }
+
+    /**
+     * Reads the units stored in a project row.
+     * @param row The row of the project.
+     * @return The units of each flat type of the project, keyed by upper case flat type name.
+     */
+    static Map<String, Integer> unitsOf(TableRow row) {
+        Map<String, Integer> units = new HashMap<>();
+        readUnits(units, row, ProjectListFileIndex.TYPE_1, ProjectListFileIndex.TYPE_1_UNITS);
+        readUnits(units, row, ProjectListFileIndex.TYPE_2, ProjectListFileIndex.TYPE_2_UNITS);
+        return units;
+    }
+
+    private static AtomicInteger counterOf(int projectID, String flatType) throws IOException {
+        Counters counters;
+        try {
+            counters = COUNTERS.computeIfAbsent(projectID, id -> {
+                try {
+                    TableRow row = DataStore.PROJECTS.findByKey(projectID);
+                    if (row == null) {
+                        return null;
+                    }
+                    Counters loaded = new Counters(DataStore.PROJECTS.getVersion(row));
+                    for (Map.Entry<String, Integer> units : unitsOf(row).entrySet()) {
+                        loaded.units.put(units.getKey(), new AtomicInteger(units.getValue()));
+                    }
+                    return loaded;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return counters == null ? null : counters.units.get(normalise(flatType));
+    }
+
+    private static void readUnits(Map<String, Integer> units, TableRow row,
+                                  ProjectListFileIndex typeColumn, ProjectListFileIndex unitsColumn) {
+        if (!row.isBlank(typeColumn.getIndex())) {
+            int stored = row.isNumeric(unitsColumn.getIndex()) ? row.getInt(unitsColumn.getIndex()) : 0;
+            units.putIfAbsent(normalise(row.getString(typeColumn.getIndex())), stored);
+        }
+    }
+
+    /**
+     * Takes one unit of a flat type off the count stored in a project row.
+     * @throws IllegalStateException if the project no longer has the flat type or has no unit of it left,
+     *         which fails the transaction.
+     */
+    private static void takeFromRow(TableRow row, String flatType) {
+        if (takeFromRow(row, flatType, ProjectListFileIndex.TYPE_1, ProjectListFileIndex.TYPE_1_UNITS)
+            || takeFromRow(row, flatType, ProjectListFileIndex.TYPE_2, ProjectListFileIndex.TYPE_2_UNITS)) {
+            return;
+        }
+        throw new IllegalStateException("No unit of " + flatType + " left in project "
+            + row.getInt(ProjectListFileIndex.PROJECT_ID.getIndex()));
+    }
+
+    private static boolean takeFromRow(TableRow row, String flatType,
+                                       ProjectListFileIndex typeColumn, ProjectListFileIndex unitsColumn) {
+        if (row.isBlank(typeColumn.getIndex()) || !normalise(row.getString(typeColumn.getIndex())).equals(normalise(flatType))) {
+            return false;
+        }
+        int stored = row.isNumeric(unitsColumn.getIndex()) ? row.getInt(unitsColumn.getIndex()) : 0;
+        if (stored <= 0) {
+            return false;
+        }
+        row.set(unitsColumn.getIndex(), stored - 1);
+        return true;
+    }
+
+    private static String normalise(String flatType) {
+        return flatType.trim().toUpperCase();
+    }
+}
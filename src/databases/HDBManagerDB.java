@@ -2,27 +2,25 @@ package databases;
 
 import models.HDBManager;
 import enums.UserFileIndex;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.ss.usermodel.Cell;
+import java.util.HashMap;
 
 /**
  * HDBManagerDB.java
  * This class is responsible for managing the HDBManager database.
+ * Reads are served from the in-memory table in DataStore and writes are written through to the file.
  */
 
 public class HDBManagerDB {
-    private static final String MANAGER_FILEPATH = "resources/data/ManagerList.xlsx";
+    // Canonical HDBManager instances keyed by NRIC
+    private static final EntityCache<String, HDBManager> CACHE = new EntityCache<>("HDBManager", 256);
+    // Index of the table by normalised NRIC, kept up to date by the table on every write
+    private static final TableIndex BY_NRIC = DataStore.MANAGERS.createIndex(UserDirectory::nricOf);
 
     /**
      * getManagerByNRIC(String nric)
      * This method retrieves a HDBManager object from the database using the NRIC.
-     * It reads the NRIC from the file and checks if it matches the provided NRIC.
+     * It reads the NRIC from the table and checks if it matches the provided NRIC.
      * @param nric The NRIC of the HDBManager to retrieve.
      * @return HDBManager object if found, null otherwise.
      * @throws IOException if there is an error reading the file.
@@ -31,65 +29,70 @@ public class HDBManagerDB {
      */
 
     public static HDBManager getManagerByNRIC(String nric) throws IOException, NumberFormatException {
-        try (FileInputStream fileStreamIn = new FileInputStream(MANAGER_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                // Skip header
-                if (row.getRowNum() == 0) continue;
-
-                // Read the user details from the row
-                String fileNric = row.getCell(UserFileIndex.NRIC.getIndex()).getStringCellValue();
-
-                // Check if NRIC match
-                if (fileNric.equals(nric)) {
-                    String name = row.getCell(UserFileIndex.NAME.getIndex()).getStringCellValue();
-                    String maritalStatus = row.getCell(UserFileIndex.MARITAL_STATUS.getIndex()).getStringCellValue();
-                    String filePassword = row.getCell(UserFileIndex.PASSWORD.getIndex()).getStringCellValue();
-                    // !! Propogate any NumberFormatException to calling method
-                    int age = (int) row.getCell(UserFileIndex.AGE.getIndex()).getNumericCellValue();
-
-                    return new HDBManager(name, nric, age, maritalStatus, filePassword);
-                }
-            } 
-        }
-    return null;
+        return OperationLog.time("HDBManagerDB.getManagerByNRIC", "HDBManager", () -> {
+            // Check if NRIC match
+            TableRow row = DataStore.MANAGERS.findFirst(BY_NRIC, UserDirectory.normalise(nric));
+            return row == null ? null : createManagerFromRow(row);
+        });
     }
     
     /**
      * getManagerByName(String name)
      * This method retrieves a HDBManager object from the database using the name.
-     * It reads the name from the file and checks if it matches the provided name.
+     * It reads the name from the table and checks if it matches the provided name.
      * @param name The name of the HDBManager to retrieve.
      * @return HDBManager object if found, null otherwise.
      * @throws IOException if there is an error reading the file.
      * @throws NumberFormatException if there is an error converting the age from the file.
      */
     public static HDBManager getManagerbyName(String name) throws IOException, NumberFormatException {
-        try (FileInputStream fileStreamIn = new FileInputStream(MANAGER_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                // Skip header
-                if (row.getRowNum() == 0) continue;
+        return OperationLog.time("HDBManagerDB.getManagerbyName", "HDBManager", () -> {
+            TableRow row = DataStore.MANAGERS.findFirst(
+                r -> r.getString(UserFileIndex.NAME.getIndex()).equals(name));
+            // No results
+            return row == null ? null : createManagerFromRow(row);
+        });
+    }
 
-                // Read the user details from the row
-                String fileName = row.getCell(UserFileIndex.NAME.getIndex()).getStringCellValue();
+    /**
+     * getManagerMap()
+     * This method retrieves every HDBManager keyed by NRIC in a single pass over the table.
+     * @return A HashMap of NRIC to HDBManager object.
+     * @throws IOException if there is an error reading the file.
+     * @throws NumberFormatException if there is an error converting the age from the file.
+     */
+    public static HashMap<String, HDBManager> getManagerMap() throws IOException, NumberFormatException {
+        return OperationLog.time("HDBManagerDB.getManagerMap", "HDBManager", () -> {
+            HashMap<String, HDBManager> managers = new HashMap<>();
+            for (TableRow row : DataStore.MANAGERS.getRows()) {
+                HDBManager manager = createManagerFromRow(row);
+                managers.putIfAbsent(manager.getNric(), manager);
+            }
+            return managers;
+        });
+    }
 
-                // Check if NRIC match
-                if (fileName.equals(name)) {
-                    String nric = row.getCell(UserFileIndex.NRIC.getIndex()).getStringCellValue();
-                    String maritalStatus = row.getCell(UserFileIndex.MARITAL_STATUS.getIndex()).getStringCellValue();
-                    String filePassword = row.getCell(UserFileIndex.PASSWORD.getIndex()).getStringCellValue();
-                    // !! Propogate any NumberFormatException to calling method
-                    int age = (int) row.getCell(UserFileIndex.AGE.getIndex()).getNumericCellValue();
+    /**
+     * Drops every cached HDBManager, such as after the file has been changed outside the program.
+     */
+    static void invalidateAll() {
+        CACHE.clear();
+    }
 
-                    return new HDBManager(name, nric, age, maritalStatus, filePassword);
-                }
-            } 
+    private static HDBManager createManagerFromRow(TableRow row) {
+        String nric = row.getString(UserFileIndex.NRIC.getIndex());
+        HDBManager cached = CACHE.get(nric);
+        if (cached != null) {
+            return new HDBManager(cached);
         }
-    // No results
-    return null;
+        String name = row.getString(UserFileIndex.NAME.getIndex());
+        String maritalStatus = row.getString(UserFileIndex.MARITAL_STATUS.getIndex());
+        String filePassword = row.getString(UserFileIndex.PASSWORD.getIndex());
+        // !! Propogate any NumberFormatException to calling method
+        int age = row.getInt(UserFileIndex.AGE.getIndex());
+
+        HDBManager manager = new HDBManager(name, nric, age, maritalStatus, filePassword);
+        return new HDBManager(CACHE.putIfAbsent(nric, manager));
     }
 
     /** 
@@ -101,62 +104,36 @@ public class HDBManagerDB {
      * @throws IOException if there is an error reading or writing the file.
      */
     public static boolean saveUser(HDBManager manager) throws IOException {
-        try (FileInputStream fis = new FileInputStream(MANAGER_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            boolean found = false;
-
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                String fileNric = row.getCell(UserFileIndex.NRIC.getIndex()).getStringCellValue();
-                if (fileNric.equals(manager.getNric())) {
-                    row.getCell(UserFileIndex.PASSWORD.getIndex()).setCellValue(manager.getPassword());
-                    found = true;
-                    break;
-                }
-            }
-
-            if (found) {
-                try (FileOutputStream fos = new FileOutputStream(MANAGER_FILEPATH)) {
-                    workbook.write(fos);
-                    return true;
-                }
+        return OperationLog.time("HDBManagerDB.saveUser", "HDBManager", () -> {
+            try {
+                return DataStore.MANAGERS.update(
+                    row -> row.getString(UserFileIndex.NRIC.getIndex()).equals(manager.getNric()),
+                    row -> row.set(UserFileIndex.PASSWORD.getIndex(), manager.getPassword()));
+            } finally {
+                CACHE.invalidate(manager.getNric());
             }
-            return false;
-        }
+        });
     }
 
     /** 
      * updateManagerPassword(String nric, String newPassword)
      * This method updates the password of the HDBManager in the database.
-     * It reads the NRIC from the file and checks if it matches the provided NRIC.
+     * It reads the NRIC from the table and checks if it matches the provided NRIC.
      * @param nric The NRIC of the HDBManager to update.
      * @param newPassword The new password to set.
      * @throws IOException if there is an error reading or writing the file.
      */
 
     public static void updateManagerPassword(String nric, String newPassword) throws IOException {
-        try (FileInputStream fis = new FileInputStream(MANAGER_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; 
-
-                Cell nricCell = row.getCell(0); 
-                if (nricCell != null && nricCell.getStringCellValue().equals(nric)) {
-                    Cell passwordCell = row.getCell(1); 
-                    if (passwordCell == null) {
-                        passwordCell = row.createCell(1);
-                    }
-                    passwordCell.setCellValue(newPassword);
-                    break;
-                }
+        OperationLog.run("HDBManagerDB.updateManagerPassword", "HDBManager", 1, () -> {
+            try {
+                DataStore.MANAGERS.update(
+                    row -> row.getString(UserFileIndex.NRIC.getIndex()).equals(nric),
+                    row -> row.set(UserFileIndex.PASSWORD.getIndex(), newPassword));
+            } finally {
+                CACHE.invalidate(nric);
             }
-            try (FileOutputStream fos = new FileOutputStream(MANAGER_FILEPATH)) {
-                workbook.write(fos);
-            }
-        }
+        });
     }
     
 }
\ No newline at end of file
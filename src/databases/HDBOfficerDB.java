@@ -2,26 +2,25 @@ package databases;
 
 import models.HDBOfficer;
 import enums.UserFileIndex;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Row; 
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.util.HashMap;
 
 /**
  * HDBOfficerDB.java
  * This class is responsible for managing the HDBOfficer database.
+ * Reads are served from the in-memory table in DataStore and writes are written through to the file.
  */
 
 public class HDBOfficerDB {
-    private static final String MANAGER_FILEPATH = "resources/data/OfficerList.xlsx";
+    // Canonical HDBOfficer instances keyed by NRIC
+    private static final EntityCache<String, HDBOfficer> CACHE = new EntityCache<>("HDBOfficer", 256);
+    // Index of the table by normalised NRIC, kept up to date by the table on every write
+    private static final TableIndex BY_NRIC = DataStore.OFFICERS.createIndex(UserDirectory::nricOf);
 
     /**
      * getOfficerByNRIC(String nric)
      * This method retrieves a HDBOfficer object from the database using the NRIC.
-     * It reads the NRIC from the file and checks if it matches the provided NRIC.
+     * It reads the NRIC from the table and checks if it matches the provided NRIC.
      * @param nric The NRIC of the HDBOfficer to retrieve.
      * @return HDBOfficer object if found, null otherwise.
      * @throws IOException if there is an error reading the file.
@@ -30,30 +29,53 @@ public class HDBOfficerDB {
      */
 
     public static HDBOfficer getOfficerByNRIC(String nric) throws IOException, NumberFormatException {
-        try (FileInputStream fileStreamIn = new FileInputStream(MANAGER_FILEPATH);
-        Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                // Skip header
-                if (row.getRowNum() == 0) continue;
+        return OperationLog.time("HDBOfficerDB.getOfficerByNRIC", "HDBOfficer", () -> {
+            // Check if NRIC match
+            TableRow row = DataStore.OFFICERS.findFirst(BY_NRIC, UserDirectory.normalise(nric));
+            // No results
+            return row == null ? null : createOfficerFromRow(row);
+        });
+    }
 
-                // Read the user details from the row
-                String fileNric = row.getCell(UserFileIndex.NRIC.getIndex()).getStringCellValue();
+    /**
+     * getOfficerMap()
+     * This method retrieves every HDBOfficer keyed by NRIC in a single pass over the table.
+     * @return A HashMap of NRIC to HDBOfficer object.
+     * @throws IOException if there is an error reading the file.
+     * @throws NumberFormatException if there is an error converting the age from the file.
+     */
+    public static HashMap<String, HDBOfficer> getOfficerMap() throws IOException, NumberFormatException {
+        return OperationLog.time("HDBOfficerDB.getOfficerMap", "HDBOfficer", () -> {
+            HashMap<String, HDBOfficer> officers = new HashMap<>();
+            for (TableRow row : DataStore.OFFICERS.getRows()) {
+                HDBOfficer officer = createOfficerFromRow(row);
+                officers.putIfAbsent(officer.getNric(), officer);
+            }
+            return officers;
+        });
+    }
 
-                // Check if NRIC match
-                if (fileNric.equals(nric)) {
-                    String name = row.getCell(UserFileIndex.NAME.getIndex()).getStringCellValue();
-                    String maritalStatus = row.getCell(UserFileIndex.MARITAL_STATUS.getIndex()).getStringCellValue();
-                    String filePassword = row.getCell(UserFileIndex.PASSWORD.getIndex()).getStringCellValue();
-                    // !! Propogate any NumberFormatException to calling method
-                    int age = (int) row.getCell(UserFileIndex.AGE.getIndex()).getNumericCellValue();
+    /**
+     * Drops every cached HDBOfficer, such as after the file has been changed outside the program.
+     */
+    static void invalidateAll() {
+        CACHE.clear();
+    }
 
-                    return new HDBOfficer(name, nric, age, maritalStatus, filePassword);
-                }
-            } 
+    private static HDBOfficer createOfficerFromRow(TableRow row) {
+        String nric = row.getString(UserFileIndex.NRIC.getIndex());
+        HDBOfficer cached = CACHE.get(nric);
+        if (cached != null) {
+            return new HDBOfficer(cached);
         }
-    // No results
-    return null;
+        String name = row.getString(UserFileIndex.NAME.getIndex());
+        String maritalStatus = row.getString(UserFileIndex.MARITAL_STATUS.getIndex());
+        String filePassword = row.getString(UserFileIndex.PASSWORD.getIndex());
+        // !! Propogate any NumberFormatException to calling method
+        int age = row.getInt(UserFileIndex.AGE.getIndex());
+
+        HDBOfficer officer = new HDBOfficer(name, nric, age, maritalStatus, filePassword);
+        return new HDBOfficer(CACHE.putIfAbsent(nric, officer));
     }
 
     /**
@@ -66,28 +88,14 @@ public class HDBOfficerDB {
      */
 
     public static boolean saveUser(HDBOfficer officer) throws IOException {
-        try (FileInputStream fis = new FileInputStream(MANAGER_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            boolean found = false;
-
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                String fileNric = row.getCell(UserFileIndex.NRIC.getIndex()).getStringCellValue();
-                if (fileNric.equals(officer.getNric())) {
-                    row.getCell(UserFileIndex.PASSWORD.getIndex()).setCellValue(officer.getPassword());
-                    found = true;
-                    break;
-                }
+        return OperationLog.time("HDBOfficerDB.saveUser", "HDBOfficer", () -> {
+            try {
+                return DataStore.OFFICERS.update(
+                    row -> row.getString(UserFileIndex.NRIC.getIndex()).equals(officer.getNric()),
+                    row -> row.set(UserFileIndex.PASSWORD.getIndex(), officer.getPassword()));
+            } finally {
+                CACHE.invalidate(officer.getNric());
             }
-
-            if (found) {
-                try (FileOutputStream fos = new FileOutputStream(MANAGER_FILEPATH)) {
-                    workbook.write(fos);
-                    return true;
-                }
-            }
-            return false;
-        }
+        });
     }
 }
\ No newline at end of file
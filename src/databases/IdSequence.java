@@ -0,0 +1,131 @@
+package databases;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import utilities.LoggerUtility;
+import utilities.MetricsRegistry;
+
+/**
+ * IdSequence class hands out the IDs of new rows of one table, such as project or application IDs.
+ * The highest ID reserved so far is kept in a small counter file next to the data files. IDs are reserved in blocks:
+ * a session takes the next blockSize IDs by raising the counter once, then hands them out from memory, so most IDs
+ * cost no file access at all. The counter only ever grows, so an ID is never handed out twice, even after the row
+ * holding it is deleted. IDs left in a block when the program exits are skipped.
+ * The counter file is locked while a block is reserved, so sessions in other processes sharing the data files
+ * reserve separate blocks. The first reservation of a session also starts the counter past the highest ID already
+ * in the table, so tables written without a counter file, or by older versions, never get a duplicate ID.
+ */
+class IdSequence {
+    private static final String SUFFIX = ".sequence";
+
+    private final String name;
+    private final Path file;
+    private final DataTable table;
+    private final int idColumn;
+    private final int blockSize;
+    // Next ID to hand out and the last ID of the block reserved by this session
+    private long next = 1;
+    private long limit = 0;
+    private boolean checkedTable = false;
+
+    /**
+     * Constructor for IdSequence
+     * @param directory The directory holding the counter file.
+     * @param table The table whose rows get the IDs.
+     * @param idColumn The column of the table holding the ID.
+     * @param blockSize The number of IDs reserved at a time.
+     */
+    IdSequence(String directory, DataTable table, int idColumn, int blockSize) {
+        this.name = table.getName();
+        this.file = Paths.get(directory, name + SUFFIX);
+        this.table = table;
+        this.idColumn = idColumn;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * Retrieves the next ID, reserving a new block when the current one is used up.
+     * @return An ID no other call, session or earlier run has been given.
+     * @throws IOException if a new block cannot be reserved in the counter file.
+     */
+    synchronized int next() throws IOException {
+        if (next > limit) {
+            reserveBlock();
+        }
+        return (int) next++;
+    }
+
+    /**
+     * Raises the counter in the file by one block, holding the file lock so that other processes wait.
+     */
+    private void reserveBlock() throws IOException {
+        long highest = checkedTable ? 0 : highestIdInTable();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (RandomAccessFile access = new RandomAccessFile(file.toFile(), "rw");
+             FileChannel channel = access.getChannel()) {
+            FileLock lock = channel.lock();
+            try {
+                long counter = readCounter(channel);
+                if (counter < 0) {
+                    highest = highestIdInTable();
+                }
+                // Never below this session's own block, whatever the file says
+                long reserved = Math.max(Math.max(counter, highest), limit);
+                ByteBuffer content = ByteBuffer.wrap(Long.toString(reserved + blockSize).getBytes(StandardCharsets.UTF_8));
+                channel.truncate(0);
+                channel.write(content, 0);
+                channel.force(true);
+                next = reserved + 1;
+                limit = reserved + blockSize;
+            } finally {
+                lock.release();
+            }
+        }
+        checkedTable = true;
+        MetricsRegistry.increment("sequence." + name + ".blocks");
+    }
+
+    /**
+     * @return the counter in the file, 0 if the file is new, or -1 if the file cannot be understood
+     */
+    private long readCounter(FileChannel channel) throws IOException {
+        ByteBuffer content = ByteBuffer.allocate((int) Math.min(channel.size(), 32));
+        channel.read(content, 0);
+        String value = new String(content.array(), 0, content.position(), StandardCharsets.UTF_8).trim();
+        if (value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LoggerUtility.logError("Corrupt ID counter file, continuing from the highest ID in the table: " + file, e);
+            return -1;
+        }
+    }
+
+    private long highestIdInTable() throws IOException {
+        long highest = 0;
+        for (Object[] values : table.selectColumns(idColumn)) {
+            if (values[0] instanceof Double) {
+                highest = Math.max(highest, ((Double) values[0]).longValue());
+            } else if (values[0] instanceof String) {
+                try {
+                    highest = Math.max(highest, (long) Double.parseDouble(((String) values[0]).trim()));
+                } catch (NumberFormatException e) {
+                    // Not an ID
+                }
+            }
+        }
+        return highest;
+    }
+}
@@ -0,0 +1,272 @@
+package databases;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * JdbcStorageEngine class keeps each table in an embedded SQL database reached through JDBC,
+ * such as H2 ("jdbc:h2:file:resources/data/bto") or SQLite ("jdbc:sqlite:resources/data/bto.db").
+ * The driver of the configured database must be on the classpath.
+ * Each table is stored as a SQL table of the same name with a row_num column and one column per cell (c0, c1, ...).
+ * Columns holding only numbers or only dates get a numeric or timestamp type; other columns are text, and
+ * columns that mix types store cells encoded with CellCodec. The header and column types are kept in STORAGE_COLUMNS.
+ */
+public class JdbcStorageEngine implements StorageEngine {
+    private static final String CATALOG_TABLE = "STORAGE_COLUMNS";
+    private static final String TEXT = "TEXT";
+    private static final String NUMBER = "NUMBER";
+    private static final String DATE = "DATE";
+    private static final String MIXED = "MIXED";
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    /**
+     * Constructor for JdbcStorageEngine
+     * @param url The JDBC URL of the database.
+     * @param user The database user, or null if the database needs none.
+     * @param password The database password, or null if the database needs none.
+     */
+    public JdbcStorageEngine(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    @Override
+    public TableData read(String tableName, int width) throws IOException {
+        try (Connection connection = connect()) {
+            List<String> header = new ArrayList<>();
+            List<String> types = new ArrayList<>();
+            String sheetName = "Sheet1";
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT column_index, header, column_type, sheet_name FROM " + CATALOG_TABLE
+                    + " WHERE table_name = ? ORDER BY column_index")) {
+                select.setString(1, tableName);
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        header.add(result.getString(2));
+                        types.add(result.getString(3));
+                        sheetName = result.getString(4);
+                    }
+                }
+            }
+            if (types.isEmpty()) {
+                throw new IOException("Table not found in database: " + describe(tableName));
+            }
+
+            List<TableRow> rows = new ArrayList<>();
+            try (Statement select = connection.createStatement();
+                 ResultSet result = select.executeQuery("SELECT * FROM " + tableName + " ORDER BY row_num")) {
+                while (result.next()) {
+                    TableRow row = new TableRow(Math.max(width, types.size()));
+                    for (int c = 0; c < types.size(); c++) {
+                        row.set(c, readCell(result, "c" + c, types.get(c)));
+                    }
+                    rows.add(row);
+                }
+            }
+            // Only the real column names belong in the header; the catalog keeps one entry per stored column
+            while (!header.isEmpty() && header.get(header.size() - 1) == null) {
+                header.remove(header.size() - 1);
+            }
+            return new TableData(sheetName, header, rows);
+        } catch (SQLException e) {
+            throw new IOException("Failed to read table from database: " + describe(tableName), e);
+        }
+    }
+
+    @Override
+    public void write(String tableName, TableData data) throws IOException {
+        int columnCount = data.getWidth();
+        List<String> types = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            types.add(columnType(data.getRows(), c));
+        }
+
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(false);
+            try {
+                createCatalog(connection);
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DROP TABLE IF EXISTS " + tableName);
+                    StringBuilder create = new StringBuilder("CREATE TABLE " + tableName + " (row_num INTEGER");
+                    for (int c = 0; c < columnCount; c++) {
+                        create.append(", c").append(c).append(' ').append(sqlType(types.get(c)));
+                    }
+                    statement.executeUpdate(create.append(')').toString());
+                }
+
+                StringBuilder insert = new StringBuilder("INSERT INTO " + tableName + " VALUES (?");
+                for (int c = 0; c < columnCount; c++) {
+                    insert.append(", ?");
+                }
+                try (PreparedStatement statement = connection.prepareStatement(insert.append(')').toString())) {
+                    int rowNum = 0;
+                    for (TableRow row : data.getRows()) {
+                        statement.setInt(1, rowNum++);
+                        for (int c = 0; c < columnCount; c++) {
+                            writeCell(statement, c + 2, row.get(c), types.get(c));
+                        }
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM " + CATALOG_TABLE + " WHERE table_name = ?")) {
+                    delete.setString(1, tableName);
+                    delete.executeUpdate();
+                }
+                try (PreparedStatement catalog = connection.prepareStatement(
+                        "INSERT INTO " + CATALOG_TABLE + " VALUES (?, ?, ?, ?, ?)")) {
+                    for (int c = 0; c < columnCount; c++) {
+                        catalog.setString(1, tableName);
+                        catalog.setInt(2, c);
+                        catalog.setString(3, c < data.getHeader().size() ? data.getHeader().get(c) : null);
+                        catalog.setString(4, types.get(c));
+                        catalog.setString(5, data.getSheetName());
+                        catalog.addBatch();
+                    }
+                    catalog.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to write table to database: " + describe(tableName), e);
+        }
+    }
+
+    @Override
+    public boolean exists(String tableName) throws IOException {
+        try (Connection connection = connect()) {
+            if (!tableExists(connection, CATALOG_TABLE)) {
+                return false;
+            }
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT COUNT(*) FROM " + CATALOG_TABLE + " WHERE table_name = ?")) {
+                select.setString(1, tableName);
+                try (ResultSet result = select.executeQuery()) {
+                    return result.next() && result.getInt(1) > 0;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to check table in database: " + describe(tableName), e);
+        }
+    }
+
+    @Override
+    public long lastModified(String tableName) {
+        // Rows are changed in place by SQL, which leaves no modification time to compare
+        return -1;
+    }
+
+    @Override
+    public String describe(String tableName) {
+        return url + "#" + tableName;
+    }
+
+    private Connection connect() throws SQLException {
+        return user == null ? DriverManager.getConnection(url) : DriverManager.getConnection(url, user, password);
+    }
+
+    private static void createCatalog(Connection connection) throws SQLException {
+        if (tableExists(connection, CATALOG_TABLE)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE " + CATALOG_TABLE + " (table_name VARCHAR(255), column_index INTEGER, "
+                + "header VARCHAR(255), column_type VARCHAR(16), sheet_name VARCHAR(255))");
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        // Databases differ in the case they store unquoted names in, so check both
+        for (String name : new String[] { tableName, tableName.toLowerCase(), tableName.toUpperCase() }) {
+            try (ResultSet result = metaData.getTables(null, null, name, null)) {
+                if (result.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String columnType(List<TableRow> rows, int column) {
+        String type = null;
+        for (TableRow row : rows) {
+            Object value = row.get(column);
+            if (value == null) continue;
+            String valueType = value instanceof Double ? NUMBER : value instanceof Date ? DATE : TEXT;
+            if (type == null) {
+                type = valueType;
+            } else if (!type.equals(valueType)) {
+                return MIXED;
+            }
+        }
+        return type == null ? TEXT : type;
+    }
+
+    private static String sqlType(String type) {
+        switch (type) {
+            case NUMBER:
+                return "DOUBLE PRECISION";
+            case DATE:
+                return "TIMESTAMP";
+            default:
+                return "VARCHAR(32767)";
+        }
+    }
+
+    private static void writeCell(PreparedStatement statement, int index, Object value, String type) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, NUMBER.equals(type) ? Types.DOUBLE : DATE.equals(type) ? Types.TIMESTAMP : Types.VARCHAR);
+            return;
+        }
+        switch (type) {
+            case NUMBER:
+                statement.setDouble(index, (Double) value);
+                break;
+            case DATE:
+                statement.setTimestamp(index, new Timestamp(((Date) value).getTime()));
+                break;
+            case MIXED:
+                statement.setString(index, CellCodec.encode(value));
+                break;
+            default:
+                statement.setString(index, value.toString());
+                break;
+        }
+    }
+
+    private static Object readCell(ResultSet result, String column, String type) throws SQLException {
+        switch (type) {
+            case NUMBER:
+                double number = result.getDouble(column);
+                return result.wasNull() ? null : number;
+            case DATE:
+                Timestamp timestamp = result.getTimestamp(column);
+                return timestamp == null ? null : new Date(timestamp.getTime());
+            case MIXED:
+                return CellCodec.decode(result.getString(column));
+            default:
+                return result.getString(column);
+        }
+    }
+}
@@ -1,31 +1,32 @@
 package databases;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import models.HDBOfficer;
 import models.OfficerRegistration;
 import models.Project;
-
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import models.RegistrationClashIndex;
 
 import enums.OfficerRegistrationFileIndex;
+import utilities.LoggerUtility;
 
 
 /**
  * OfficerRegistrationDB.java
  * This class is responsible for managing the Officer Registration database.
+ * Reads are served from the in-memory table in DataStore and writes are written through to the file.
  */
 
 public class OfficerRegistrationDB {
-    private static final String REGISTRATION_FILEPATH = "resources/data/OfficerRegistration.xlsx";
+    // Clash index over every registration and project, dropped after any of them changes
+    private static volatile RegistrationClashIndex clashIndex;
+    // Counts the changes, so that an index built from data read before a change is not kept
+    private static final AtomicLong GENERATION = new AtomicLong();
 
     /**
      * createOfficerRegistration(HDBOfficer officer, Project project, String registrationStatus)
@@ -39,26 +40,17 @@ public class OfficerRegistrationDB {
      */
 
     public static OfficerRegistration createOfficerRegistration(HDBOfficer officer, Project project, String registrationStatus) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(REGISTRATION_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Row lastRow = sheet.getRow(sheet.getLastRowNum());
-            int registrationID;
-            if (lastRow == null || lastRow.getCell(OfficerRegistrationFileIndex.ID.getIndex()) == null) {
-                registrationID = 1; // Start with ID 1 if no valid last row exists
-            } else {
-                registrationID  = (int) lastRow.getCell(OfficerRegistrationFileIndex.ID.getIndex()).getNumericCellValue() + 1;
-            }
-            int newRowNum = sheet.getLastRowNum() + 1;
-            Row row = sheet.createRow(newRowNum);
+        return OperationLog.time("OfficerRegistrationDB.createOfficerRegistration", "OfficerRegistration", () -> {
+            int registrationID = DataStore.REGISTRATION_IDS.next();
+            TableRow row = DataStore.REGISTRATIONS.newRow();
             populateRegistrationRow(row, registrationID, officer, project, registrationStatus);
-            // Save the changes to the file
-            try (FileOutputStream fos = new FileOutputStream(REGISTRATION_FILEPATH)) {
-                workbook.write(fos);
+            try {
+                DataStore.REGISTRATIONS.insert(row);
+            } finally {
+                invalidateClashIndex();
             }
-            workbook.close();
             return new OfficerRegistration(registrationID, officer, project, registrationStatus);
-        }
+        });
     }
 
     /**
@@ -70,138 +62,129 @@ public class OfficerRegistrationDB {
      */
 
     public static ArrayList<OfficerRegistration> getAllOfficerRegistrations() throws IOException {
-        ArrayList<OfficerRegistration> officerRegistrations = new ArrayList<>();
-    
-        try (FileInputStream fileStreamIn = new FileInputStream(REGISTRATION_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-    
-            for (Row row : sheet) {
-                // Skip header row
-                if (row.getRowNum() == 0) continue;
-    
-                int registrationId = (int) row.getCell(OfficerRegistrationFileIndex.ID.getIndex()).getNumericCellValue();
-                String officerNric = row.getCell(OfficerRegistrationFileIndex.NRIC.getIndex()).getStringCellValue();
-                int projectId = (int) row.getCell(OfficerRegistrationFileIndex.PROJECT.getIndex()).getNumericCellValue();
-                String status = row.getCell(OfficerRegistrationFileIndex.STATUS.getIndex()).getStringCellValue();
-    
-                HDBOfficer officer = HDBOfficerDB.getOfficerByNRIC(officerNric);
-                Project project = Project.getProjectByIdDB(projectId);
-                
-                OfficerRegistration registration = new OfficerRegistration(registrationId, officer, project, status);
-                officerRegistrations.add(registration);                    
-                }
+        return OperationLog.time("OfficerRegistrationDB.getAllOfficerRegistrations", "OfficerRegistration", () -> {
+            ArrayList<OfficerRegistration> officerRegistrations = new ArrayList<>();
+            List<TableRow> rows = DataStore.REGISTRATIONS.getRows();
+            if (rows.isEmpty()) {
+                return officerRegistrations;
+            }
+            HashMap<String, HDBOfficer> officers = HDBOfficerDB.getOfficerMap();
+            HashMap<Integer, Project> projects = ProjectDB.getProjectMap();
+            for (TableRow row : rows) {
+                int registrationId = row.getInt(OfficerRegistrationFileIndex.ID.getIndex());
+                String officerNric = row.getString(OfficerRegistrationFileIndex.NRIC.getIndex());
+                int projectId = row.getInt(OfficerRegistrationFileIndex.PROJECT.getIndex());
+                String status = row.getString(OfficerRegistrationFileIndex.STATUS.getIndex());
+
+                HDBOfficer officer = officers.get(officerNric);
+                Project project = projects.get(projectId);
+
+                officerRegistrations.add(new OfficerRegistration(registrationId, officer, project, status));
             }
             return officerRegistrations;
-        }
+        });
+    }
     
 
     /**
-     * getOfficerRegistrationByID(int registrationID)
-     * This method retrieves an officer registration entry by its ID.
-     * It reads the file, iterates through the rows, and returns the matching OfficerRegistration object.
-     * @param registrationID The ID of the officer registration to retrieve.
-     * @return OfficerRegistration object if found, null otherwise.
-     * @throws IOException if there is an error reading the file.
+     * updateOfficerRegistration(int registrationID, String newStatus)
+     * This method updates the status of an officer registration entry by its ID.
+     * @param registrationID The ID of the officer registration to update.
+     * @param newStatus The new status of the registration.
+     * @throws IOException if there is an error writing the file.
+     * @throws IllegalArgumentException if no registration matches the ID.
      */
     public static void updateOfficerRegistration(int registrationID, String newStatus) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(REGISTRATION_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-    
-            Sheet sheet = workbook.getSheetAt(0);
-    
-            // Iterate through the rows to find the matching registration ID
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; // Skip header row
-    
-                // Retrieve the registration ID from the row
-                int rowRegistrationID = (int) row.getCell(OfficerRegistrationFileIndex.ID.getIndex()).getNumericCellValue();
-    
-                // Check if the registration ID matches
-                if (rowRegistrationID == registrationID) {
-                    // Update the status in the row
-                    Cell statusCell = row.getCell(OfficerRegistrationFileIndex.STATUS.getIndex());
-                    if (statusCell == null) {
-                        statusCell = row.createCell(OfficerRegistrationFileIndex.STATUS.getIndex());
-                    }
-                    statusCell.setCellValue(newStatus);
-    
-                    // Save the changes to the file
-                    try (FileOutputStream fileOut = new FileOutputStream(REGISTRATION_FILEPATH)) {
-                        workbook.write(fileOut);
-                    }
-                    return;
-                }
+        OperationLog.run("OfficerRegistrationDB.updateOfficerRegistration", "OfficerRegistration", 1, () -> {
+            boolean updated;
+            try {
+                updated = DataStore.REGISTRATIONS.update(
+                    row -> row.getInt(OfficerRegistrationFileIndex.ID.getIndex()) == registrationID,
+                    row -> row.set(OfficerRegistrationFileIndex.STATUS.getIndex(), newStatus));
+            } finally {
+                invalidateClashIndex();
             }
-    
+
             // If no matching registration ID is found, throw an exception
-            throw new IllegalArgumentException("No matching registration found for ID: " + registrationID);
-        }
+            if (!updated) {
+                throw new IllegalArgumentException("No matching registration found for ID: " + registrationID);
+            }
+        });
     }
 
     /**
      * deleteOfficerRegistrationByProjID(Project project)
      * This method deletes officer registrations associated with a specific project ID.
-     * It reads the file, identifies the rows to delete, and removes them from the sheet.
+     * It identifies the rows to delete and removes them from the table in a single write.
      * @param project The Project object whose registrations are to be deleted.
      * @return void
      * @throws IOException if there is an error reading or writing the file.
      */
 
     public static void deleteOfficerRegistrationByProjID(Project project) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(REGISTRATION_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
+        OperationLog.run("OfficerRegistrationDB.deleteOfficerRegistrationByProjID", "OfficerRegistration", -1, () -> {
             int projectIdToDelete = project.getProjectID();
-
-            // Collect row indices to delete (skip header)
-            ArrayList<Integer> rowsToDelete = new ArrayList<>();
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                int rowProjectId = (int) row.getCell(OfficerRegistrationFileIndex.PROJECT.getIndex()).getNumericCellValue();
-                if (rowProjectId == projectIdToDelete) {
-                    rowsToDelete.add(row.getRowNum());
-                }
+            try {
+                DataStore.REGISTRATIONS.delete(
+                    row -> row.getInt(OfficerRegistrationFileIndex.PROJECT.getIndex()) == projectIdToDelete);
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to delete officer registrations for Project ID: " + projectIdToDelete, e);
+                throw e;
+            } finally {
+                invalidateClashIndex();
             }
+        });
+    }
 
-            // Delete rows in reverse order to avoid shifting issues
-            for (int i = rowsToDelete.size() - 1; i >= 0; i--) {
-                int rowIndex = rowsToDelete.get(i);
-                int lastRowNum = sheet.getLastRowNum();
-                if (rowIndex >= 0 && rowIndex <= lastRowNum) {
-                    sheet.removeRow(sheet.getRow(rowIndex));
-                    // Shift rows up if not the last row
-                    if (rowIndex < lastRowNum) {
-                        sheet.shiftRows(rowIndex + 1, lastRowNum, -1);
-                    }
+    /**
+     * getClashIndex()
+     * This method retrieves the clash index over every registration and project, building it on first use after a change.
+     * @return A RegistrationClashIndex over all registrations and projects.
+     * @throws IOException if there is an error reading the files.
+     */
+    public static RegistrationClashIndex getClashIndex() throws IOException {
+        return OperationLog.time("OfficerRegistrationDB.getClashIndex", "OfficerRegistration", () -> {
+            RegistrationClashIndex index = clashIndex;
+            if (index != null) {
+                return index;
+            }
+            long generation = GENERATION.get();
+            index = new RegistrationClashIndex(ProjectDB.getAllProjects(), getAllOfficerRegistrations());
+            // Kept only if nothing changed while it was built; otherwise the next call builds it again
+            synchronized (OfficerRegistrationDB.class) {
+                if (GENERATION.get() == generation) {
+                    clashIndex = index;
                 }
             }
+            return index;
+        });
+    }
 
-            // Save changes
-            try (FileOutputStream fos = new FileOutputStream(REGISTRATION_FILEPATH)) {
-                workbook.write(fos);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }        
+    /**
+     * Drops the clash index, after a registration or the application window of a project has changed.
+     */
+    static void invalidateClashIndex() {
+        synchronized (OfficerRegistrationDB.class) {
+            GENERATION.incrementAndGet();
+            clashIndex = null;
+        }
     }
 
     /**
-     * populateRegistrationRow(Row row, int registrationID, HDBOfficer officer, Project project, String status)
+     * populateRegistrationRow(TableRow row, int registrationID, HDBOfficer officer, Project project, String status)
      * This method populates a row with officer registration details.
      * It sets the values for ID, NRIC, project ID, status, and date.
-     * @param row The Row object to populate.
+     * @param row The TableRow object to populate.
      * @param registrationID The ID of the registration.
      * @param officer The HDBOfficer object associated with the registration.
      * @param project The Project object associated with the registration.
      * @param status The status of the registration.
      */
-    private static void populateRegistrationRow(Row row, int registrationID, HDBOfficer officer, Project project, String status) {
-        row.createCell(OfficerRegistrationFileIndex.ID.getIndex()).setCellValue(registrationID); // Using row number as ID
-        row.createCell(OfficerRegistrationFileIndex.NRIC.getIndex()).setCellValue(officer.getNric());
-        row.createCell(OfficerRegistrationFileIndex.PROJECT.getIndex()).setCellValue(project.getProjectID());
-        row.createCell(OfficerRegistrationFileIndex.STATUS.getIndex()).setCellValue(status);
-        row.createCell(OfficerRegistrationFileIndex.DATE.getIndex()).setCellValue(new Date());
+    private static void populateRegistrationRow(TableRow row, int registrationID, HDBOfficer officer, Project project, String status) {
+        row.set(OfficerRegistrationFileIndex.ID.getIndex(), registrationID);
+        row.set(OfficerRegistrationFileIndex.NRIC.getIndex(), officer.getNric());
+        row.set(OfficerRegistrationFileIndex.PROJECT.getIndex(), project.getProjectID());
+        row.set(OfficerRegistrationFileIndex.STATUS.getIndex(), status);
+        row.set(OfficerRegistrationFileIndex.DATE.getIndex(), new Date());
     }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package databases;
+
+import java.util.Collection;
+import java.util.Map;
+
+import enums.CostMetric;
+import utilities.LoggerUtility;
+import utilities.MetricsRegistry;
+
+/**
+ * OperationLog class times the calls of the DB classes and logs one structured record per call,
+ * with the name of the call, the entity it works on, the number of rows it returned or wrote and the elapsed nanoseconds.
+ * The records go to the operation log of LoggerUtility, which LogAnalyzer summarises into latency percentiles per call.
+ * Each call is also recorded in the timer of its name in MetricsRegistry and counted as a DB call of the current action.
+ * Only the outermost call on a thread is timed: calls made from inside a timed call, such as getProjectMap reading
+ * getAllProjects, run untimed, so that each call of a caller is logged and counted once.
+ * Calls that only work in memory, such as staging a change in a transaction, are not timed at all.
+ */
+final class OperationLog {
+    // Depth of the timed calls running on each thread
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private OperationLog() {}
+
+    /**
+     * The body of a call that returns a result.
+     * @param <T> The type of the result.
+     * @param <E> The checked exception the call may throw.
+     */
+    interface Operation<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * The body of a call that returns nothing.
+     * @param <E> The checked exception the call may throw.
+     */
+    interface VoidOperation<E extends Exception> {
+        void call() throws E;
+    }
+
+    /**
+     * Runs and logs a call that returns a result. The row count is the size of a returned collection or map,
+     * 1 for a returned object or true, and 0 for null or false. Inside another timed call it only runs the call.
+     * @param operation The name of the call, such as "ProjectDB.getAllProjects".
+     * @param entity The entity the call works on, such as "Project".
+     * @param body The body of the call.
+     * @return The result of the call.
+     * @throws E if the call fails. The failure is logged too.
+     */
+    static <T, E extends Exception> T time(String operation, String entity, Operation<T, E> body) throws E {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0 || !isTiming()) {
+            return body.call();
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        T result = null;
+        depth[0]++;
+        try {
+            result = body.call();
+            succeeded = true;
+            return result;
+        } finally {
+            depth[0]--;
+            record(operation, entity, succeeded ? rowsOf(result) : -1, System.nanoTime() - start, succeeded);
+        }
+    }
+
+    /**
+     * Runs and logs a call that returns nothing. Inside another timed call it only runs the call.
+     * @param operation The name of the call, such as "ApplicationDB.updateApplication".
+     * @param entity The entity the call works on, such as "Application".
+     * @param rows The number of rows the call writes, or -1 if it is not known in advance.
+     * @param body The body of the call.
+     * @throws E if the call fails. The failure is logged too.
+     */
+    static <E extends Exception> void run(String operation, String entity, long rows, VoidOperation<E> body) throws E {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0 || !isTiming()) {
+            body.call();
+            return;
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        depth[0]++;
+        try {
+            body.call();
+            succeeded = true;
+        } finally {
+            depth[0]--;
+            record(operation, entity, succeeded ? rows : -1, System.nanoTime() - start, succeeded);
+        }
+    }
+
+    private static boolean isTiming() {
+        return LoggerUtility.isLoggingOperations() || MetricsRegistry.isEnabled();
+    }
+
+    private static void record(String operation, String entity, long rows, long elapsedNanos, boolean succeeded) {
+        if (LoggerUtility.isLoggingOperations()) {
+            LoggerUtility.logOperation(operation, entity, rows, elapsedNanos, succeeded);
+        }
+        MetricsRegistry.recordNanos(operation, elapsedNanos);
+        MetricsRegistry.addCost(CostMetric.DB_CALLS, 1);
+        if (!succeeded) {
+            MetricsRegistry.increment("db.failures");
+        }
+    }
+
+    private static long rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Boolean) {
+            return (Boolean) result ? 1 : 0;
+        }
+        return 1;
+    }
+}
@@ -4,43 +4,72 @@ import models.*;
 import utilities.LoggerUtility;
 import enums.ProjectListFileIndex;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 /**
  * ProjectDB class handles the database operations for the Project entity.
  * It provides methods to create, read, update, and delete Project in an Excel file.
  * It also includes helper methods to convert between Project objects and Excel rows.
+ * Reads are served from the in-memory table in DataStore and writes are written through to the file.
  */
 public class ProjectDB {
-    private static final String PROJECT_FILEPATH = "resources/data/ProjectList.xlsx";
+    // Canonical Project instances keyed by project ID
+    private static final EntityCache<Integer, Project> CACHE = new EntityCache<>("Project", 1024);
+    // Projects keyed by trimmed upper case name, so that two projects cannot be created with the same name
+    private static final TableIndex BY_NAME = DataStore.PROJECTS.createIndex(
+        row -> row.isBlank(ProjectListFileIndex.NAME.getIndex()) ? null : normaliseName(row.getString(ProjectListFileIndex.NAME.getIndex())));
+    // Query engine over every project, rebuilt after any project changes
+    private static ProjectQueryEngine queryEngine;
+    // Projects whose units have changed since the query engine last read them, swapped into it on its next use
+    private static final Set<Integer> CHANGED_UNITS = ConcurrentHashMap.newKeySet();
+    // Eligibility engine over every project, told about each changed project instead of being rebuilt
+    private static EligibilityEngine eligibilityEngine;
 
     /**
-     * createProjectFromRow(Row row)
-     * This method creates a Project object from a given row in the Excel sheet.
+     * createProjectFromRow(TableRow row)
+     * This method creates a Project object from a given row in the table,
+     * looking up the project manager individually.
+     * @param row The row from which to create the Project object.
+     * @return A Project object created from the row data.
+     */
+    private static Project createProjectFromRow(TableRow row) {
+        return createProjectFromRow(row, null);
+    }
+
+    /**
+     * createProjectFromRow(TableRow row, Map<String, HDBManager> managers)
+     * This method creates a Project object from a given row in the table.
      * It extracts the necessary fields from the row and returns a Project object.
      * @param row The row from which to create the Project object.
+     * @param managers The managers keyed by NRIC, or null to look the manager up individually.
      * @return A Project object created from the row data.
      * @throws IllegalArgumentException if the row does not contain valid data.
      */
-    private static Project createProjectFromRow(Row row) {
+    private static Project createProjectFromRow(TableRow row, Map<String, HDBManager> managers) {
         try {
             // Extract PROJECT_ID
-            Cell projectIDCell = row.getCell(ProjectListFileIndex.PROJECT_ID.getIndex());
-            if (projectIDCell == null || projectIDCell.getCellType() != CellType.NUMERIC) {
-                throw new IllegalArgumentException("Missing or invalid PROJECT_ID in row " + row.getRowNum());
+            if (!row.isNumeric(ProjectListFileIndex.PROJECT_ID.getIndex())) {
+                throw new IllegalArgumentException("Missing or invalid PROJECT_ID in row");
+            }
+            int projectID = row.getInt(ProjectListFileIndex.PROJECT_ID.getIndex());
+            // A project cached from another version of the row is built again from the row as it is now
+            Project cached = CACHE.get(projectID);
+            if (cached != null && cached.getVersion() == DataStore.PROJECTS.getVersion(row)) {
+                return new Project(cached);
             }
-            int projectID = (int) projectIDCell.getNumericCellValue();
     
-            String projectName = getStringCellValue(row, ProjectListFileIndex.NAME.getIndex());
-            String neighborhood = getStringCellValue(row, ProjectListFileIndex.NEIGHBORHOOD.getIndex());
+            String projectName = row.getString(ProjectListFileIndex.NAME.getIndex()).trim();
+            String neighborhood = row.getString(ProjectListFileIndex.NEIGHBORHOOD.getIndex()).trim();
     
             // Flat Type 1
-            String type1Name = getStringCellValue(row, ProjectListFileIndex.TYPE_1.getIndex());
+            String type1Name = row.getString(ProjectListFileIndex.TYPE_1.getIndex()).trim();
             int type1Units = getNumericCellValue(row, ProjectListFileIndex.TYPE_1_UNITS.getIndex());
             double type1Price = getNumericCellValue(row, ProjectListFileIndex.TYPE_1_PRICE.getIndex());
             FlatType type1 = new FlatType(type1Name, type1Units, type1Price);
@@ -49,26 +78,27 @@ public class ProjectDB {
             flatTypes.add(type1);
     
             // Flat Type 2 if exists
-            Cell type2Cell = row.getCell(ProjectListFileIndex.TYPE_2.getIndex());
-            if (type2Cell != null && !type2Cell.getStringCellValue().isBlank()) {
-                String type2Name = type2Cell.getStringCellValue().trim();
+            if (!row.isBlank(ProjectListFileIndex.TYPE_2.getIndex())) {
+                String type2Name = row.getString(ProjectListFileIndex.TYPE_2.getIndex()).trim();
                 int type2Units = getNumericCellValue(row, ProjectListFileIndex.TYPE_2_UNITS.getIndex());
                 double type2Price = getNumericCellValue(row, ProjectListFileIndex.TYPE_2_PRICE.getIndex());
                 flatTypes.add(new FlatType(type2Name, type2Units, type2Price));
             }
     
-            Date openingDate = getDateCellValue(row, ProjectListFileIndex.OPENING_DATE.getIndex());
-            Date closingDate = getDateCellValue(row, ProjectListFileIndex.CLOSING_DATE.getIndex());
+            Date openingDate = row.getDate(ProjectListFileIndex.OPENING_DATE.getIndex());
+            Date closingDate = row.getDate(ProjectListFileIndex.CLOSING_DATE.getIndex());
     
-            String managerNRIC = getStringCellValue(row, ProjectListFileIndex.MANAGER.getIndex());
-            HDBManager manager = (HDBManager) HDBManager.findUserByNricDB(managerNRIC);
+            String managerNRIC = row.getString(ProjectListFileIndex.MANAGER.getIndex()).trim();
+            HDBManager manager = managers != null
+                ? managers.get(managerNRIC)
+                : (HDBManager) HDBManager.findUserByNricDB(managerNRIC);
     
             int officerSlots = getNumericCellValue(row, ProjectListFileIndex.OFFICER_SLOT.getIndex());
     
             // Handle visibility
-            boolean visibility = "Visible".equalsIgnoreCase(getStringCellValue(row, ProjectListFileIndex.VISIBILITY.getIndex()));
+            boolean visibility = "Visible".equalsIgnoreCase(row.getString(ProjectListFileIndex.VISIBILITY.getIndex()).trim());
     
-            return new Project(
+            Project project = new Project(
                 projectID,
                 projectName,
                 manager,
@@ -79,120 +109,88 @@ public class ProjectDB {
                 officerSlots,
                 visibility
             );
+            project.setVersion(DataStore.PROJECTS.getVersion(row));
+            CACHE.put(projectID, project);
+            return new Project(project);
         } catch (Exception e) {
             System.err.println("Error creating project from row: " + e.getMessage());
             return null;
         }
     }
     
-    /**
-     * getStringCellValue(Row row, int cellIndex)
-     * This method retrieves the string value from a cell in the given row.
-     * @param row The row from which to retrieve the cell value.
-     * @param cellIndex The index of the cell to retrieve.
-     * @return The string value of the cell, or an empty string if the cell is null or not a string.
-     * @throws IllegalArgumentException if the cell index is invalid.
-     */
-    private static String getStringCellValue(Row row, int cellIndex) {
-        Cell cell = row.getCell(cellIndex);
-        return (cell != null && cell.getCellType() == CellType.STRING) ? cell.getStringCellValue().trim() : "";
-    }
-    
-    private static int getNumericCellValue(Row row, int cellIndex) {
-        Cell cell = row.getCell(cellIndex);
-        return (cell != null && cell.getCellType() == CellType.NUMERIC) ? (int) cell.getNumericCellValue() : 0;
-    }
-    
-    private static Date getDateCellValue(Row row, int cellIndex) {
-        Cell cell = row.getCell(cellIndex);
-        return (cell != null && cell.getCellType() == CellType.NUMERIC) ? cell.getDateCellValue() : null;
+    private static int getNumericCellValue(TableRow row, int cellIndex) {
+        return row.isNumeric(cellIndex) ? row.getInt(cellIndex) : 0;
     }
 
-    private static void populateProjectRow(Row row, Project project) {
-        row.createCell(ProjectListFileIndex.PROJECT_ID.getIndex()).setCellValue(project.getProjectID());
+    private static void populateProjectRow(TableRow row, Project project) {
+        row.set(ProjectListFileIndex.PROJECT_ID.getIndex(), project.getProjectID());
 
-        row.createCell(ProjectListFileIndex.NAME.getIndex()).setCellValue(project.getProjectName());
-        row.createCell(ProjectListFileIndex.NEIGHBORHOOD.getIndex()).setCellValue(project.getNeighborhood());
+        row.set(ProjectListFileIndex.NAME.getIndex(), project.getProjectName());
+        row.set(ProjectListFileIndex.NEIGHBORHOOD.getIndex(), project.getNeighborhood());
 
         FlatType type1 = project.getFlatTypes().get(0);
-        row.createCell(ProjectListFileIndex.TYPE_1.getIndex()).setCellValue(type1.getFlatType());
-        row.createCell(ProjectListFileIndex.TYPE_1_UNITS.getIndex()).setCellValue(type1.getNumFlats());
-        row.createCell(ProjectListFileIndex.TYPE_1_PRICE.getIndex()).setCellValue(type1.getPricePerFlat());
+        row.set(ProjectListFileIndex.TYPE_1.getIndex(), type1.getFlatType());
+        row.set(ProjectListFileIndex.TYPE_1_UNITS.getIndex(), type1.getNumFlats());
+        row.set(ProjectListFileIndex.TYPE_1_PRICE.getIndex(), type1.getPricePerFlat());
 
         if (project.getFlatTypes().size() > 1) {
             FlatType type2 = project.getFlatTypes().get(1);
-            row.createCell(ProjectListFileIndex.TYPE_2.getIndex()).setCellValue(type2.getFlatType());
-            row.createCell(ProjectListFileIndex.TYPE_2_UNITS.getIndex()).setCellValue(type2.getNumFlats());
-            row.createCell(ProjectListFileIndex.TYPE_2_PRICE.getIndex()).setCellValue(type2.getPricePerFlat());
+            row.set(ProjectListFileIndex.TYPE_2.getIndex(), type2.getFlatType());
+            row.set(ProjectListFileIndex.TYPE_2_UNITS.getIndex(), type2.getNumFlats());
+            row.set(ProjectListFileIndex.TYPE_2_PRICE.getIndex(), type2.getPricePerFlat());
+        } else {
+            row.set(ProjectListFileIndex.TYPE_2.getIndex(), null);
+            row.set(ProjectListFileIndex.TYPE_2_UNITS.getIndex(), null);
+            row.set(ProjectListFileIndex.TYPE_2_PRICE.getIndex(), null);
         }
 
-        row.createCell(ProjectListFileIndex.OPENING_DATE.getIndex()).setCellValue(project.getApplicationOpeningDate());
-        row.createCell(ProjectListFileIndex.CLOSING_DATE.getIndex()).setCellValue(project.getApplicationClosingDate());
+        row.set(ProjectListFileIndex.OPENING_DATE.getIndex(), project.getApplicationOpeningDate());
+        row.set(ProjectListFileIndex.CLOSING_DATE.getIndex(), project.getApplicationClosingDate());
 
 
-        row.createCell(ProjectListFileIndex.MANAGER.getIndex()).setCellValue(
+        row.set(ProjectListFileIndex.MANAGER.getIndex(),
             project.getProjectManager() != null ? project.getProjectManager().getName() : "N/A");
 
-        row.createCell(ProjectListFileIndex.OFFICER_SLOT.getIndex()).setCellValue(project.getOfficerSlots());
-        row.createCell(ProjectListFileIndex.VISIBILITY.getIndex()).setCellValue(
+        row.set(ProjectListFileIndex.OFFICER_SLOT.getIndex(), project.getOfficerSlots());
+        row.set(ProjectListFileIndex.VISIBILITY.getIndex(),
             project.getProjectVisibility() ? "Visible" : "Hidden");
     }
 
     /**
      * createProject(Project project)
      * This method creates a new project in the Excel file.
-     * It checks if the project already exists and if not, adds it to the file.
+     * It checks if a project of the same name, ignoring case, already exists and if not, adds it to the file.
+     * The check and the insert are one step under the write lock of the table, so concurrent sessions
+     * creating the same name cannot both succeed.
      * @param project The Project object to create.
      * @return true if the project was created successfully, false if it already exists.
      */
     public static boolean createProject(Project project) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(PROJECT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-    
-            // Check if project already exists
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; // Skip header row
-                Cell nameCell = row.getCell(ProjectListFileIndex.NAME.getIndex());
-                if (nameCell != null && nameCell.getCellType() == CellType.STRING &&
-                    nameCell.getStringCellValue().equalsIgnoreCase(project.getProjectName())) {
-                    return false; // Project already exists
-                }
-            }
-    
+        return OperationLog.time("ProjectDB.createProject", "Project", () -> {
+            int previousID = project.getProjectID();
+            try {
+                project.setProjectID(DataStore.PROJECT_IDS.next());
 
-            int newRowNum = sheet.getLastRowNum() + 1;
-            while (newRowNum >= 0 && isRowEmpty(sheet.getRow(newRowNum))) {
-                newRowNum--;
-            }
-            newRowNum++; 
-    
-
-            int projectID = 1;
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; 
-                Cell idCell = row.getCell(ProjectListFileIndex.PROJECT_ID.getIndex());
-                if (idCell != null && idCell.getCellType() == CellType.NUMERIC) {
-                    projectID = Math.max(projectID, (int) idCell.getNumericCellValue() + 1);
+                TableRow row = DataStore.PROJECTS.newRow();
+                populateProjectRow(row, project);
+                if (!DataStore.PROJECTS.insertIfAbsent(BY_NAME, row)) {
+                    // Project already exists; the ID taken for it is skipped
+                    project.setProjectID(previousID);
+                    return false;
                 }
+                LoggerUtility.logInfo("Created new project: " + project.getProjectName());
+                return true;
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to create project: " + project.getProjectName(), e);
+                throw e;
+            } finally {
+                invalidate(project.getProjectID());
             }
-    
-            project.setProjectID(projectID);
-    
-
-            Row row = sheet.createRow(newRowNum);
-            populateProjectRow(row, project);
-    
+        });
+    }
 
-            try (FileOutputStream fileOut = new FileOutputStream(PROJECT_FILEPATH)) {
-                workbook.write(fileOut);
-            }
-            LoggerUtility.logInfo("Created new project: " + project.getProjectName());
-            return true;
-        } catch (IOException e) {
-            LoggerUtility.logError("Failed to create project: " + project.getProjectName(), e);
-            throw e;
-        }
+    private static String normaliseName(String projectName) {
+        return projectName.trim().toUpperCase();
     }
 
     /**
@@ -203,69 +201,57 @@ public class ProjectDB {
      * @throws IOException if there is an error reading the file.
      */
     public static ArrayList<Project> getAllProjects() throws IOException {
-        ArrayList<Project> projects = new ArrayList<>();
-        try (FileInputStream fileStreamIn = new FileInputStream(PROJECT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; 
-    
-                // Check if the row is empty
-                if (isRowEmpty(row)) break;
-    
-                try {
-                    Project project = createProjectFromRow(row);
-                    if (project != null) {
-                        projects.add(project);
+        return OperationLog.time("ProjectDB.getAllProjects", "Project", () -> {
+            ArrayList<Project> projects = new ArrayList<>();
+            try {
+                HashMap<String, HDBManager> managers = HDBManagerDB.getManagerMap();
+                for (TableRow row : DataStore.PROJECTS.getRows()) {
+                    try {
+                        Project project = createProjectFromRow(row, managers);
+                        if (project != null) {
+                            projects.add(project);
+                        }
+                    } catch (Exception e) {
+                        LoggerUtility.logError("Failed to create project from row", e);
                     }
-                } catch (Exception e) {
-                    LoggerUtility.logError("Failed to create project from row " + row.getRowNum(), e);
                 }
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to read projects from file", e);
+                throw e;
             }
-        } catch (IOException e) {
-            LoggerUtility.logError("Failed to read projects from file", e);
-            throw e;
-        }
-        return projects;
+            return projects;
+        });
     }
-    
+
     /**
-     * isRowEmpty(Row row)
-     * This method checks if a given row is empty.
-     * It iterates through the cells in the row and checks if they are all blank or null.
-     * @param row The row to check.
-     * @return true if the row is empty, false otherwise.
+     * getProjectMap()
+     * This method retrieves every project keyed by its ID.
+     * It is used to resolve the projects of many rows at once instead of looking each one up separately.
+     * @return A HashMap of project ID to Project object.
+     * @throws IOException if there is an error reading the file.
      */
-    private static boolean isRowEmpty(Row row) {
-        if (row == null) return true; 
-        for (Cell cell : row) {
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                return false; 
+    public static HashMap<Integer, Project> getProjectMap() throws IOException {
+        return OperationLog.time("ProjectDB.getProjectMap", "Project", () -> {
+            HashMap<Integer, Project> projects = new HashMap<>();
+            for (Project project : getAllProjects()) {
+                projects.put(project.getProjectID(), project);
             }
-        }
-        return true; 
+            return projects;
+        });
     }
 
     /**
      * getProjectsById(int id)
      * This method retrieves a project by its ID from the Excel file.
-     * It reads the file and checks each row for the matching ID.
+     * It looks the row up by ID in the key index of the table.
      *  @param id The ID of the project to retrieve.
      *  @return A Project object if found, null otherwise.
      * @throws IOException if there is an error reading the file.
      */
     public static Project getProjectsById(int id) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(PROJECT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; // Skip header
-                if ((int) row.getCell(ProjectListFileIndex.PROJECT_ID.getIndex()).getNumericCellValue() == id) {
-                    return createProjectFromRow(row);
-                }
-            }
-        }
-        return null;
+        return OperationLog.time("ProjectDB.getProjectsById", "Project", () -> {
+            return getProjectByIdDB(id);
+        });
     }
 
     /**
@@ -278,161 +264,241 @@ public class ProjectDB {
      * @throws IllegalArgumentException if the project name is invalid.
      */
     public static Project getProjectByName(String projectName) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(PROJECT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                if (row.getCell(ProjectListFileIndex.NAME.getIndex()).getStringCellValue().equalsIgnoreCase(projectName)) {
-                    return createProjectFromRow(row);
-                }
-            }
-        }
-        return null;
+        return OperationLog.time("ProjectDB.getProjectByName", "Project", () -> {
+            TableRow row = DataStore.PROJECTS.findFirst(
+                r -> r.getString(ProjectListFileIndex.NAME.getIndex()).equalsIgnoreCase(projectName));
+            return row == null ? null : createProjectFromRow(row);
+        });
     }
 
     /**
      * updateProject(Project project)
      * This method updates an existing project in the Excel file.
-     * It finds the project by its ID and updates the corresponding row with new data.
+     * It finds the project by its ID and updates the corresponding row with new data,
+     * but only if the row is still at the version the project was read at.
+     * Bookings write their units to the row, so an edit based on counts from before a booking fails as stale.
+     * On success the project moves to the new version of the row, and the inventory counters change by the
+     * difference the edit made to the stored units.
      * @param project The Project object with updated data.
      * @return true if the project was updated successfully, false if not found.
+     * @throws StaleVersionException if another session has updated the project since it was read.
      * @throws IOException if there is an error reading or writing the file.
      */
     public static boolean updateProject(Project project) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(PROJECT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-    
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; // Skip header
-    
-                // Use PROJECT_ID to find the correct row
-                int rowProjectID = (int) row.getCell(ProjectListFileIndex.PROJECT_ID.getIndex()).getNumericCellValue();
-                if (rowProjectID == project.getProjectID()) {
-                    // Update the row
-                    populateProjectRow(row, project);
-    
-                    try (FileOutputStream fileOut = new FileOutputStream(PROJECT_FILEPATH)) {
-                        workbook.write(fileOut);
-                    }
-                    return true;
+        return OperationLog.time("ProjectDB.updateProject", "Project", () -> {
+            int version = project.getVersion();
+            Map<String, Integer> storedUnits = new HashMap<>();
+            Map<String, Integer> editedUnits = new HashMap<>();
+            // Use PROJECT_ID to find the correct row
+            try {
+                boolean updated = DataStore.PROJECTS.compareAndSet(
+                    row -> row.getInt(ProjectListFileIndex.PROJECT_ID.getIndex()) == project.getProjectID(),
+                    version,
+                    row -> {
+                        storedUnits.putAll(FlatInventory.unitsOf(row));
+                        populateProjectRow(row, project);
+                        editedUnits.putAll(FlatInventory.unitsOf(row));
+                    });
+                if (updated) {
+                    project.setVersion(version + 1);
+                    FlatInventory.edited(project.getProjectID(), version, storedUnits, editedUnits);
+                }
+                return updated;
+            } finally {
+                invalidate(project.getProjectID());
+            }
+        });
+    }
+
+    /**
+     * reloadProject(int projectID)
+     * This method reads a project again from its row, dropping the cached instance first,
+     * so that a change that failed on a stale version can be retried on the latest one.
+     * @param projectID The ID of the project to reload.
+     * @return The project as currently stored, or null if it no longer exists.
+     * @throws IOException if there is an error reading the file.
+     */
+    public static Project reloadProject(int projectID) throws IOException {
+        return OperationLog.time("ProjectDB.reloadProject", "Project", () -> {
+            invalidate(projectID);
+            return getProjectByIdDB(projectID);
+        });
+    }
+
+    /**
+     * invalidateProject(int projectID)
+     * This method drops the cached instance of a project so that the next lookup rebuilds it from its row.
+     * It is used when a caller has changed a project instance without saving the change.
+     * @param projectID The ID of the project to invalidate.
+     */
+    public static void invalidateProject(int projectID) {
+        invalidate(projectID);
+    }
+
+    /**
+     * getQueryEngine()
+     * This method retrieves a query engine over every project, building it on first use after a change.
+     * Projects whose units alone have changed are read again and swapped into the engine instead.
+     * @return A ProjectQueryEngine over all projects.
+     * @throws IOException if there is an error reading the file.
+     */
+    public static synchronized ProjectQueryEngine getQueryEngine() throws IOException {
+        return OperationLog.time("ProjectDB.getQueryEngine", "Project", () -> {
+            for (Iterator<Integer> iterator = CHANGED_UNITS.iterator(); queryEngine != null && iterator.hasNext(); ) {
+                int projectID = iterator.next();
+                // Unmarked before reading, so a booking completing while the project is read marks it again
+                iterator.remove();
+                Project project;
+                try {
+                    project = getProjectByIdDB(projectID);
+                } catch (IOException e) {
+                    CHANGED_UNITS.add(projectID);
+                    throw e;
+                }
+                if (project == null || !queryEngine.replaceProject(project)) {
+                    queryEngine = null;
                 }
             }
+            if (queryEngine == null) {
+                CHANGED_UNITS.clear();
+                queryEngine = new ProjectQueryEngine(getAllProjects());
+            }
+            return queryEngine;
+        });
+    }
+
+    /**
+     * getEligibilityEngine()
+     * This method retrieves the eligibility engine over every project, building it on first use.
+     * Changed projects are read again by the engine itself on its next query.
+     * @return An EligibilityEngine over all projects.
+     * @throws IOException if there is an error reading the file.
+     */
+    public static synchronized EligibilityEngine getEligibilityEngine() throws IOException {
+        return OperationLog.time("ProjectDB.getEligibilityEngine", "Project", () -> {
+            if (eligibilityEngine == null) {
+                eligibilityEngine = new EligibilityEngine(getAllProjects(), ProjectDB::getProjectByIdDB);
+            }
+            return eligibilityEngine;
+        });
+    }
+
+    /**
+     * unitsChanged(int projectID)
+     * This method drops the cached instance of a project whose units have been changed by a booking, and marks it
+     * in the query and eligibility engines so that only that project is read again.
+     * Bookings change nothing but units, so the indexes of the engines and the registration clash index are kept.
+     * @param projectID The ID of the project.
+     */
+    static synchronized void unitsChanged(int projectID) {
+        CACHE.invalidate(projectID);
+        if (queryEngine != null) {
+            CHANGED_UNITS.add(projectID);
+        }
+        if (eligibilityEngine != null) {
+            eligibilityEngine.markChanged(projectID);
         }
-        return false; 
+    }
+
+    private static synchronized void invalidate(int projectID) {
+        CACHE.invalidate(projectID);
+        queryEngine = null;
+        if (eligibilityEngine != null) {
+            eligibilityEngine.markChanged(projectID);
+        }
+        OfficerRegistrationDB.invalidateClashIndex();
     }
 
     /**
      * deleteProject(Project project)
      * This method deletes a project from the Excel file.
-     * It finds the project by its ID and removes the corresponding row from the file.
+     * It finds the project by its name and removes the corresponding row from the file, along with the
+     * enquiries, applications and officer registrations of the project, writing each file once.
+     * If the rows of the project cannot be deleted from one of those tables, the project is kept, so that the
+     * delete can be retried without leaving rows that point to a missing project.
      * @param project The Project object to delete.
      * @return true if the project was deleted successfully, false if not found.
      * @throws IOException if there is an error reading or writing the file.
      */
     public static boolean deleteProject(Project project) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(PROJECT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-    
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                if (row.getCell(ProjectListFileIndex.NAME.getIndex()).getStringCellValue().equalsIgnoreCase(project.getProjectName())) {
-                    int rowToDelete = row.getRowNum();
-                    int projectID = (int) row.getCell(ProjectListFileIndex.PROJECT_ID.getIndex()).getNumericCellValue();
-    
-                    
-                    EnquiryDB.getAllEnquiries().stream()
-                        .filter(enquiry -> enquiry.getProject().getProjectID() == projectID)
-                        .forEach(enquiry -> {
-                            try {
-                                EnquiryDB.deleteEnquiryByID(enquiry.getEnquiryID());
-                            } catch (IOException e) {
-                                LoggerUtility.logError("Failed to delete enquiry linked to project: " + project.getProjectName(), e);
-                            }
-                        });
-    
-                    
-                    try {
-                        ApplicationDB.deleteApplicationbyProj(project);
-                    } catch (IOException e) {
-                        LoggerUtility.logError("Failed to delete applications linked to project: " + project.getProjectName(), e);
-                    }
-    
-                    
-                    try {
-                        OfficerRegistrationDB.deleteOfficerRegistrationByProjID((project));
-                    } catch (IOException e) {
-                        LoggerUtility.logError("Failed to delete officer registrations linked to project: " + project.getProjectName(), e);
-                    }
-    
-                    sheet.removeRow(row);
-                    if (rowToDelete < sheet.getLastRowNum()) {
-                        sheet.shiftRows(rowToDelete + 1, sheet.getLastRowNum(), -1);
-                    }
-    
-                    try (FileOutputStream fileOut = new FileOutputStream(PROJECT_FILEPATH)) {
-                        workbook.write(fileOut);
-                    }
-                    LoggerUtility.logInfo("Deleted project: " + project.getProjectName());
-                    return true;
+        return OperationLog.time("ProjectDB.deleteProject", "Project", () -> {
+            try {
+                TableRow projectRow = DataStore.PROJECTS.findFirst(
+                    row -> row.getString(ProjectListFileIndex.NAME.getIndex()).equalsIgnoreCase(project.getProjectName()));
+                if (projectRow == null) {
+                    return false;
+                }
+                int projectID = projectRow.getInt(ProjectListFileIndex.PROJECT_ID.getIndex());
+
+                // Each linked table removes all of the project's rows in one pass and one write
+                try {
+                    EnquiryDB.deleteEnquiriesByProject(projectID);
+                } catch (IOException e) {
+                    LoggerUtility.logError("Failed to delete enquiries linked to project: " + project.getProjectName(), e);
+                    throw e;
+                }
+
+                try {
+                    ApplicationDB.deleteApplicationbyProj(project);
+                } catch (IOException e) {
+                    LoggerUtility.logError("Failed to delete applications linked to project: " + project.getProjectName(), e);
+                    throw e;
+                }
+
+                try {
+                    OfficerRegistrationDB.deleteOfficerRegistrationByProjID((project));
+                } catch (IOException e) {
+                    LoggerUtility.logError("Failed to delete officer registrations linked to project: " + project.getProjectName(), e);
+                    throw e;
                 }
+
+                try {
+                    DataStore.PROJECTS.delete(row -> row == projectRow);
+                } finally {
+                    FlatInventory.reset(projectID);
+                    invalidate(projectID);
+                }
+                LoggerUtility.logInfo("Deleted project: " + project.getProjectName());
+                return true;
+            } catch (IOException e) {
+                LoggerUtility.logError("Failed to delete project: " + project.getProjectName(), e);
+                throw e;
             }
-        } catch (IOException e) {
-            LoggerUtility.logError("Failed to delete project: " + project.getProjectName(), e);
-            throw e;
-        }
-        return false;
+        });
     }
 
     public static ArrayList<Project> getProjectsByManager(String managerNric) throws IOException {
-        ArrayList<Project> projects = new ArrayList<>();
-    
-        try (FileInputStream fis = new FileInputStream("resources/data/ProjectList.xlsx");
-             Workbook workbook = new XSSFWorkbook(fis)) {
-    
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; 
-    
-                String projectManagerNric = row.getCell(ProjectListFileIndex.MANAGER.getIndex()).getStringCellValue().trim();
-    
+        return OperationLog.time("ProjectDB.getProjectsByManager", "Project", () -> {
+            ArrayList<Project> projects = new ArrayList<>();
+            HashMap<String, HDBManager> managers = HDBManagerDB.getManagerMap();
+            for (TableRow row : DataStore.PROJECTS.getRows()) {
+                String projectManagerNric = row.getString(ProjectListFileIndex.MANAGER.getIndex()).trim();
                 if (projectManagerNric.equals(managerNric)) {
-                    projects.add(createProjectFromRow(row));
+                    projects.add(createProjectFromRow(row, managers));
                 }
             }
-        }
-        return projects;
+            return projects;
+        });
     }
 
     /**
      * getProjectByIdDB(int projectID)
      * This method retrieves a project by its ID from the Excel file.
-     * It reads the file and checks each row for the matching ID.
+     * It looks the row up by ID in the key index of the table.
      * @param projectID The ID of the project to retrieve.
      * @return A Project object if found, null otherwise.
      * @throws IOException if there is an error reading the file.
      */
     public static Project getProjectByIdDB(int projectID) throws IOException {
-        try (FileInputStream fileStreamIn = new FileInputStream(PROJECT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fileStreamIn)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue; 
-                Cell idCell = row.getCell(ProjectListFileIndex.PROJECT_ID.getIndex());
-                if (idCell != null && idCell.getCellType() == CellType.NUMERIC) {
-                    int id = (int) idCell.getNumericCellValue();
-                    if (id == projectID) {
-                        return createProjectFromRow(row);
-                    }
-                }
+        return OperationLog.time("ProjectDB.getProjectByIdDB", "Project", () -> {
+            try {
+                TableRow row = DataStore.PROJECTS.findByKey(projectID);
+                return row == null ? null : createProjectFromRow(row);
+            } catch (IOException e) {
+                LoggerUtility.logError("Error retrieving project with ID: " + projectID, e);
+                throw e;
             }
-        } catch (IOException e) {
-            LoggerUtility.logError("Error retrieving project with ID: " + projectID, e);
-            throw e;
-        }
-        return null; // Return null if no project matches the given ID
+        });
     }
 
     /**
@@ -444,60 +510,23 @@ public class ProjectDB {
      * @throws IOException if there is an error reading or writing the file.
      */
     public static void addOfficerNRICToExcel(int projectID, String officerNRIC) throws IOException {
-        try (FileInputStream fis = new FileInputStream(PROJECT_FILEPATH);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-    
-            Sheet sheet = workbook.getSheetAt(0);
-            int columnIdx = -1;
-            int projectRowIdx = -1;
-    
-            Row headerRow = sheet.getRow(0);
-            for (Cell cell : headerRow) {
-                if (cell.getStringCellValue().equalsIgnoreCase("Officer")) {
-                    columnIdx = cell.getColumnIndex();
-                    break;
-                }
-            }
-    
-            for (Row row : sheet) {
-                Cell cell = row.getCell(ProjectListFileIndex.PROJECT_ID.getIndex());
-                if (cell != null) {
-                    int cellProjectID = -1;
-                    if (cell.getCellType() == CellType.NUMERIC) {
-                        cellProjectID = (int) cell.getNumericCellValue();
-                    } else if (cell.getCellType() == CellType.STRING) {
-                        try {
-                            cellProjectID = Integer.parseInt(cell.getStringCellValue());
-                        } catch (NumberFormatException e) {
-                            continue;
-                        }
-                    }
-    
-                    if (cellProjectID == projectID) {
-                        projectRowIdx = row.getRowNum();
-                        break;
-                    }
-                }
+        OperationLog.run("ProjectDB.addOfficerNRICToExcel", "Project", 1, () -> {
+            int columnIdx = ProjectListFileIndex.OFFICERS.getIndex();
+            boolean updated;
+            try {
+                updated = DataStore.PROJECTS.update(
+                    row -> row.getInt(ProjectListFileIndex.PROJECT_ID.getIndex()) == projectID,
+                    row -> {
+                        String existingValue = row.getString(columnIdx);
+                        String newValue = existingValue.isEmpty() ? officerNRIC : existingValue + ", " + officerNRIC;
+                        row.set(columnIdx, newValue);
+                    });
+            } finally {
+                invalidate(projectID);
             }
-    
-            if (columnIdx == -1 || projectRowIdx == -1) {
+            if (!updated) {
                 throw new IOException("Column or Project ID not found in the Excel sheet.");
             }
-    
-            Row projectRow = sheet.getRow(projectRowIdx);
-            Cell cell = projectRow.getCell(columnIdx);
-            if (cell == null) {
-                cell = projectRow.createCell(columnIdx);
-            }
-            String existingValue = cell.getStringCellValue();
-            String newValue = existingValue.isEmpty() ? officerNRIC : existingValue + ", " + officerNRIC;
-            cell.setCellValue(newValue);
-    
-            try (FileOutputStream fos = new FileOutputStream(PROJECT_FILEPATH)) {
-                workbook.write(fos);
-            }
-        } catch (IOException e) {
-            throw e;
-        }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package databases;
+
+import java.io.IOException;
+
+/**
+ * StaleVersionException is thrown when a versioned update is based on a row that another session has changed since it was read.
+ * Nothing is written when it is thrown, so the caller can read the row again and retry its change.
+ */
+public class StaleVersionException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int expectedVersion;
+    private final int actualVersion;
+
+    /**
+     * Constructor for StaleVersionException
+     * @param location Where the table of the row is stored.
+     * @param key The key of the row.
+     * @param expectedVersion The version the update was based on.
+     * @param actualVersion The version the row is at.
+     */
+    public StaleVersionException(String location, Object key, int expectedVersion, int actualVersion) {
+        super("Row " + key + " in " + location + " is at version " + actualVersion + ", not " + expectedVersion);
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    /**
+     * @return the version the update was based on
+     */
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    /**
+     * @return the version the row is at
+     */
+    public int getActualVersion() {
+        return actualVersion;
+    }
+}
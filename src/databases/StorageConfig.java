@@ -0,0 +1,103 @@
+package databases;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * StorageConfig class reads the storage settings from resources/storage.properties.
+ * Every setting can be overridden with a system property of the same name, for example -Dstorage.engine=binary.
+ * Settings:
+ * storage.engine - xlsx (default), binary or jdbc
+ * storage.directory - the directory of the data files and journals (default resources/data)
+ * storage.jdbc.url, storage.jdbc.user, storage.jdbc.password - the database used by the jdbc engine
+ * storage.sequence.block - the number of IDs a session reserves at a time for new rows (default 20)
+ */
+public class StorageConfig {
+    private static final String CONFIG_FILEPATH = "resources/storage.properties";
+
+    public static final String XLSX = "xlsx";
+    public static final String BINARY = "binary";
+    public static final String JDBC = "jdbc";
+
+    private final Properties properties;
+
+    private StorageConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the storage settings. A missing config file leaves every setting at its default.
+     * @return The storage settings.
+     */
+    public static StorageConfig load() {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(CONFIG_FILEPATH)) {
+            properties.load(in);
+        } catch (IOException e) {
+            // No config file, use the defaults
+        }
+        return new StorageConfig(properties);
+    }
+
+    private String get(String key, String defaultValue) {
+        String value = System.getProperty(key, properties.getProperty(key));
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * @return the name of the configured storage engine
+     */
+    public String getEngineName() {
+        return get("storage.engine", XLSX);
+    }
+
+    /**
+     * @return the directory of the data files and journals
+     */
+    public String getDirectory() {
+        return get("storage.directory", "resources/data");
+    }
+
+    /**
+     * @return the number of IDs reserved at a time for new rows, at least 1
+     */
+    public int getSequenceBlockSize() {
+        try {
+            return Math.max(1, Integer.parseInt(get("storage.sequence.block", "20")));
+        } catch (NumberFormatException e) {
+            return 20;
+        }
+    }
+
+    /**
+     * Creates the configured storage engine.
+     * @return The storage engine named by storage.engine.
+     */
+    public StorageEngine createEngine() {
+        return createEngine(getEngineName());
+    }
+
+    /**
+     * Creates a storage engine by name, using the configured directory and database settings.
+     * @param engineName The name of the engine: xlsx, binary or jdbc.
+     * @return The storage engine.
+     * @throws IllegalArgumentException if the engine name is not recognised.
+     */
+    public StorageEngine createEngine(String engineName) {
+        switch (engineName.toLowerCase()) {
+            case XLSX:
+                return new XlsxStorageEngine(getDirectory());
+            case BINARY:
+                return new BinaryStorageEngine(getDirectory());
+            case JDBC:
+                return new JdbcStorageEngine(
+                    get("storage.jdbc.url", "jdbc:h2:file:./" + getDirectory() + "/bto"),
+                    get("storage.jdbc.user", null),
+                    get("storage.jdbc.password", null));
+            default:
+                throw new IllegalArgumentException("Unknown storage engine: " + engineName);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package databases;
+
+import java.io.IOException;
+
+/**
+ * StorageEngine interface defines how the in-memory tables are read from and written to storage.
+ * Each table is identified by a name such as "ProjectList", and an engine decides
+ * where and in which format the table is kept.
+ * Implementations: XlsxStorageEngine, BinaryStorageEngine and JdbcStorageEngine.
+ */
+public interface StorageEngine {
+    /**
+     * Reads every row of a table.
+     * @param tableName The name of the table.
+     * @param width The minimum number of columns of each row.
+     * @return The header, sheet name and rows of the table.
+     * @throws IOException if the table does not exist or cannot be read.
+     */
+    TableData read(String tableName, int width) throws IOException;
+
+    /**
+     * Replaces the stored contents of a table.
+     * @param tableName The name of the table.
+     * @param data The header, sheet name and rows to store.
+     * @throws IOException if the table cannot be written.
+     */
+    void write(String tableName, TableData data) throws IOException;
+
+    /**
+     * Checks if a table has been stored.
+     * @param tableName The name of the table.
+     * @return true if the table exists, false otherwise.
+     * @throws IOException if the storage cannot be checked.
+     */
+    boolean exists(String tableName) throws IOException;
+
+    /**
+     * Retrieves when a table was last written, so that changes made outside the program can be detected.
+     * @param tableName The name of the table.
+     * @return The time the table was last written in milliseconds, 0 if it does not exist, or -1 if the engine cannot tell.
+     */
+    long lastModified(String tableName);
+
+    /**
+     * Describes where a table is stored, for log and error messages.
+     * @param tableName The name of the table.
+     * @return A file path or location of the table.
+     */
+    String describe(String tableName);
+}
@@ -0,0 +1,59 @@
+package databases;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * StorageMigration class copies every table from one storage engine to another.
+ * Usage: java databases.StorageMigration [source-engine] target-engine
+ * The source defaults to the configured storage.engine. Engine names are xlsx, binary and jdbc.
+ * Journaled rows are compacted into the source first, so the target receives every row.
+ * After migrating, set storage.engine to the target in resources/storage.properties.
+ */
+public class StorageMigration {
+
+    /**
+     * Copies every table from the source engine to the target engine, checking the row count of each copy.
+     * @param source The engine to read the tables from.
+     * @param target The engine to write the tables to.
+     * @throws IOException if a table cannot be read, written, or does not match after copying.
+     */
+    public static void migrate(StorageEngine source, StorageEngine target) throws IOException {
+        List<DataTable> tables = DataStore.openTables(source);
+        for (DataTable table : tables) {
+            table.load();
+            table.compact();
+            TableData data = table.snapshot();
+            target.write(table.getName(), data);
+
+            int copied = target.read(table.getName(), data.getWidth()).getRows().size();
+            if (copied != data.getRows().size()) {
+                throw new IOException("Row count mismatch after copying " + table.getName()
+                    + ": expected " + data.getRows().size() + ", found " + copied);
+            }
+            System.out.println("Migrated " + copied + " rows: " + source.describe(table.getName())
+                + " -> " + target.describe(table.getName()));
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java databases.StorageMigration [source-engine] target-engine");
+            System.exit(1);
+        }
+        StorageConfig config = DataStore.getConfig();
+        String sourceName = args.length == 2 ? args[0] : config.getEngineName();
+        String targetName = args[args.length - 1];
+        if (sourceName.equalsIgnoreCase(targetName)) {
+            System.err.println("Source and target engine are the same: " + sourceName);
+            System.exit(1);
+        }
+        try {
+            migrate(config.createEngine(sourceName), config.createEngine(targetName));
+            System.out.println("Migration complete. Set storage.engine=" + targetName + " to use the new storage.");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Migration failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package databases;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StripedLock class maps keys, such as the path of a data file, onto a fixed set of locks.
+ * Work on the same key always takes the same lock, while work on different keys usually runs in parallel,
+ * without keeping a lock object for every key ever seen.
+ */
+class StripedLock {
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Constructor for StripedLock
+     * @param stripeCount The number of locks the keys are spread over.
+     */
+    StripedLock(int stripeCount) {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @param key The key to lock.
+     * @return the lock guarding the key
+     */
+    ReentrantLock forKey(Object key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+}
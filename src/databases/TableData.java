@@ -0,0 +1,58 @@
+package databases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TableData class holds the full contents of a table as passed between a DataTable and a StorageEngine:
+ * the name of the sheet, the header row and the data rows.
+ */
+public class TableData {
+    private final String sheetName;
+    private final List<String> header;
+    private final List<TableRow> rows;
+
+    /**
+     * Constructor for TableData
+     * @param sheetName The name of the sheet the table is kept in.
+     * @param header The column names of the table.
+     * @param rows The data rows of the table, in order.
+     */
+    public TableData(String sheetName, List<String> header, List<TableRow> rows) {
+        this.sheetName = sheetName;
+        this.header = new ArrayList<>(header);
+        this.rows = rows;
+    }
+
+    /**
+     * @return the name of the sheet the table is kept in
+     */
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * @return the column names of the table
+     */
+    public List<String> getHeader() {
+        return header;
+    }
+
+    /**
+     * @return the data rows of the table
+     */
+    public List<TableRow> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of columns, the larger of the header width and the widest row
+     */
+    public int getWidth() {
+        int width = header.size();
+        for (TableRow row : rows) {
+            width = Math.max(width, row.getWidth());
+        }
+        return width;
+    }
+}
@@ -0,0 +1,99 @@
+package databases;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * TableIndex class is an in-memory hash index over one key of the rows of a DataTable.
+ * The table keeps its indexes up to date on every load, insert, update and delete,
+ * so lookups by key take O(1) to find the matching rows instead of scanning the table.
+ * Rows whose key is null are not indexed. Rows with the same key are listed in the order they gained that key.
+ */
+public class TableIndex {
+    private final Function<TableRow, Object> keyOf;
+    private final Map<Object, List<TableRow>> entries = new HashMap<>();
+
+    /**
+     * Constructor for TableIndex
+     * @param keyOf The function extracting the indexed key from a row.
+     */
+    TableIndex(Function<TableRow, Object> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    /**
+     * Extracts the indexed key of a row.
+     * @param row The row to read the key from.
+     * @return The key of the row, or null if the row is not indexed.
+     */
+    Object keyOf(TableRow row) {
+        return keyOf.apply(row);
+    }
+
+    void add(TableRow row) {
+        Object key = keyOf(row);
+        if (key != null) {
+            entries.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+        }
+    }
+
+    void remove(TableRow row, Object key) {
+        if (key == null) {
+            return;
+        }
+        List<TableRow> rows = entries.get(key);
+        if (rows != null) {
+            rows.removeIf(indexed -> indexed == row);
+            if (rows.isEmpty()) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Replaces a row with its changed copy, keeping its place among the rows with the same key
+     * unless the key itself changed.
+     * @param row The row currently indexed.
+     * @param changed The row replacing it.
+     */
+    void replace(TableRow row, TableRow changed) {
+        Object key = keyOf(row);
+        Object changedKey = keyOf(changed);
+        if (key != null && key.equals(changedKey)) {
+            List<TableRow> rows = entries.get(key);
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i) == row) {
+                    rows.set(i, changed);
+                    return;
+                }
+            }
+        }
+        remove(row, key);
+        add(changed);
+    }
+
+    void rebuild(List<TableRow> rows) {
+        entries.clear();
+        for (TableRow row : rows) {
+            add(row);
+        }
+    }
+
+    List<TableRow> get(Object key) {
+        List<TableRow> rows = entries.get(key);
+        return rows == null ? new ArrayList<>() : new ArrayList<>(rows);
+    }
+
+    int count(Object key) {
+        List<TableRow> rows = entries.get(key);
+        return rows == null ? 0 : rows.size();
+    }
+
+    TableRow getFirst(Object key) {
+        List<TableRow> rows = entries.get(key);
+        return rows == null ? null : rows.get(0);
+    }
+}
@@ -0,0 +1,182 @@
+package databases;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import enums.CostMetric;
+import utilities.MetricsRegistry;
+
+/**
+ * TableJournal class is the write-ahead journal of a DataTable, holding the changes that have not yet been
+ * compacted into storage.
+ * Each change is one line: an inserted or updated row is written as its tab separated cells encoded with CellCodec,
+ * and deleted rows are written as a "-" followed by their encoded keys.
+ * Rows are identified by the value in their key column, so replaying the journal over storage that already
+ * holds its changes, as left by a crash between compacting and clearing the journal, changes nothing.
+ * Every append is synced to disk before it returns.
+ */
+public class TableJournal {
+    private static final String DELETE = "-";
+
+    private final File file;
+    private int entryCount = 0;
+
+    /**
+     * Constructor for TableJournal
+     * @param filePath The path of the journal file.
+     */
+    public TableJournal(String filePath) {
+        this.file = new File(filePath);
+    }
+
+    /**
+     * @return the number of rows appended since the journal was last cleared
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Appends an inserted or updated row to the end of the journal.
+     * @param row The row as it is after the change.
+     * @throws IOException if there is an error writing the journal.
+     */
+    public void append(TableRow row) throws IOException {
+        write(encode(row));
+    }
+
+    /**
+     * Appends several inserted or updated rows in a single synced write.
+     * @param rows The rows as they are after the change.
+     * @throws IOException if there is an error writing the journal.
+     */
+    public void appendAll(List<TableRow> rows) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) lines.append('\n');
+            lines.append(encode(rows.get(i)));
+        }
+        write(lines.toString());
+        entryCount += rows.size() - 1;
+    }
+
+    /**
+     * Appends the deletion of a group of rows as a single entry, so that either all or none of them are replayed.
+     * @param keys The key values of the deleted rows.
+     * @throws IOException if there is an error writing the journal.
+     */
+    public void appendDelete(List<Object> keys) throws IOException {
+        StringBuilder line = new StringBuilder(DELETE);
+        for (Object key : keys) {
+            line.append('\t').append(CellCodec.encode(key));
+        }
+        write(line.toString());
+    }
+
+    /**
+     * Applies every change in the journal to rows read from storage, in the order they were appended.
+     * A row replaces the first row with the same key or is added at the end if there is none, and a deletion
+     * removes the first row with each key. Rows without a key are always added.
+     * A partially written last line, left by a crash during an append, is ignored.
+     * @param rows The rows read from storage, changed in place.
+     * @param keyColumn The column holding the key of each row.
+     * @param width The number of columns of each row.
+     * @throws IOException if there is an error reading the journal.
+     */
+    public void replay(List<TableRow> rows, int keyColumn, int width) throws IOException {
+        entryCount = 0;
+        if (!file.exists()) {
+            return;
+        }
+        Map<Object, TableRow> rowsByKey = new HashMap<>();
+        for (TableRow row : rows) {
+            if (row.get(keyColumn) != null) {
+                rowsByKey.putIfAbsent(row.get(keyColumn), row);
+            }
+        }
+        Set<TableRow> deleted = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        String[] lines = Files.readString(file.toPath(), StandardCharsets.UTF_8).split("\n", -1);
+        // The last element is empty when the journal ends in a newline, and a partial entry otherwise
+        for (int i = 0; i < lines.length - 1; i++) {
+            if (lines[i].isEmpty()) continue;
+            try {
+                String[] cells = lines[i].split("\t", -1);
+                if (cells[0].equals(DELETE)) {
+                    for (int c = 1; c < cells.length; c++) {
+                        TableRow row = rowsByKey.remove(CellCodec.decode(cells[c]));
+                        if (row != null) {
+                            deleted.add(row);
+                        }
+                    }
+                } else {
+                    TableRow row = decode(cells, width);
+                    Object key = row.get(keyColumn);
+                    TableRow existing = key == null ? null : rowsByKey.get(key);
+                    if (existing != null) {
+                        existing.restore(row);
+                    } else {
+                        rows.add(row);
+                        if (key != null) {
+                            rowsByKey.put(key, row);
+                        }
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            entryCount++;
+        }
+        if (!deleted.isEmpty()) {
+            rows.removeIf(deleted::contains);
+        }
+    }
+
+    /**
+     * Empties the journal once its changes have been written into storage.
+     * @throws IOException if the journal cannot be truncated.
+     */
+    public void clear() throws IOException {
+        if (file.exists()) {
+            new FileOutputStream(file, false).close();
+        }
+        entryCount = 0;
+    }
+
+    private void write(String line) throws IOException {
+        byte[] bytes = (line + '\n').getBytes(StandardCharsets.UTF_8);
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(bytes);
+            out.getFD().sync();
+        }
+        entryCount++;
+        MetricsRegistry.addCost(CostMetric.JOURNAL_APPENDS, 1);
+        MetricsRegistry.addCost(CostMetric.BYTES_WRITTEN, bytes.length);
+    }
+
+    static String encode(TableRow row) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < row.getWidth(); i++) {
+            if (i > 0) line.append('\t');
+            line.append(CellCodec.encode(row.get(i)));
+        }
+        return line.toString();
+    }
+
+    static TableRow decode(String[] cells, int width) {
+        TableRow row = new TableRow(Math.max(width, cells.length));
+        for (int i = 0; i < cells.length; i++) {
+            row.set(i, CellCodec.decode(cells[i]));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,165 @@
+package databases;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * TableRow class holds the cell values of a single row of an in-memory table.
+ * Cells are stored as String, Double or Date values (or null for blank cells),
+ * and the typed getters convert between them the same way the Excel helpers did.
+ */
+public class TableRow {
+    private final Object[] cells;
+
+    /**
+     * Constructor for TableRow
+     * @param width The number of columns in the row.
+     */
+    public TableRow(int width) {
+        this.cells = new Object[width];
+    }
+
+    private TableRow(Object[] cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * @return the number of columns in the row
+     */
+    public int getWidth() {
+        return cells.length;
+    }
+
+    /**
+     * Retrieves the raw value of a cell.
+     * @param index The index of the column.
+     * @return The String, Double or Date value of the cell, or null if it is blank.
+     */
+    public Object get(int index) {
+        return index < cells.length ? cells[index] : null;
+    }
+
+    /**
+     * Sets the value of a cell. Numbers are stored as Double so that every numeric cell
+     * is read back the same way regardless of how it was written.
+     * @param index The index of the column.
+     * @param value The String, Number or Date value to store, or null to blank the cell.
+     */
+    public void set(int index, Object value) {
+        if (value instanceof Number) {
+            value = ((Number) value).doubleValue();
+        }
+        else if (value instanceof Date) {
+            value = new Date(((Date) value).getTime());
+        }
+        cells[index] = value;
+    }
+
+    /**
+     * Retrieves the string value of a cell.
+     * @param index The index of the column.
+     * @return The string value of the cell, or an empty string if the cell is blank or not a string.
+     */
+    public String getString(int index) {
+        Object value = get(index);
+        return value instanceof String ? (String) value : "";
+    }
+
+    /**
+     * Retrieves the numeric value of a cell.
+     * Handles both numeric and string cells.
+     * @param index The index of the column.
+     * @return The numeric value of the cell, or 0 if the cell is blank.
+     * @throws NumberFormatException if the cell holds a string that is not a number.
+     */
+    public double getDouble(int index) {
+        Object value = get(index);
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof Date) {
+            return DateUtil.getExcelDate((Date) value);
+        }
+        if (value instanceof String && !((String) value).isBlank()) {
+            return Double.parseDouble(((String) value).trim());
+        }
+        return 0;
+    }
+
+    /**
+     * Retrieves the integer value of a cell.
+     * @param index The index of the column.
+     * @return The integer value of the cell, or 0 if the cell is blank.
+     * @throws NumberFormatException if the cell holds a string that is not a number.
+     */
+    public int getInt(int index) {
+        return (int) getDouble(index);
+    }
+
+    /**
+     * Retrieves the date value of a cell.
+     * Numeric cells without a date format are converted from their Excel serial value.
+     * @param index The index of the column.
+     * @return The date value of the cell, or null if the cell is blank or not a date.
+     */
+    public Date getDate(int index) {
+        Object value = get(index);
+        if (value instanceof Date) {
+            return new Date(((Date) value).getTime());
+        }
+        if (value instanceof Double) {
+            return DateUtil.getJavaDate((Double) value);
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a cell is numeric.
+     * @param index The index of the column.
+     * @return true if the cell holds a number, false otherwise.
+     */
+    public boolean isNumeric(int index) {
+        return get(index) instanceof Double;
+    }
+
+    /**
+     * Checks if a cell is blank.
+     * @param index The index of the column.
+     * @return true if the cell is null or an empty string, false otherwise.
+     */
+    public boolean isBlank(int index) {
+        Object value = get(index);
+        return value == null || (value instanceof String && ((String) value).isBlank());
+    }
+
+    /**
+     * Checks if every cell in the row is blank.
+     * @return true if the row is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < cells.length; i++) {
+            if (!isBlank(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a copy of the row so that it can be restored if a write fails.
+     * @return A new TableRow with the same cell values.
+     */
+    public TableRow copy() {
+        return new TableRow(Arrays.copyOf(cells, cells.length));
+    }
+
+    /**
+     * Replaces the cell values of this row with those of another row.
+     * @param other The row to copy the values from.
+     */
+    void restore(TableRow other) {
+        System.arraycopy(other.cells, 0, cells, 0, Math.min(cells.length, other.cells.length));
+    }
+}
@@ -0,0 +1,371 @@
+package databases;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import utilities.LoggerUtility;
+import utilities.MetricsRegistry;
+
+/**
+ * Transaction class groups row updates across several tables so that they are written together or not at all.
+ * Updates are only staged until commit, which locks every table involved, applies the updates in memory,
+ * records the changed rows in the TransactionLog and then writes each table once.
+ * Transactions over different tables commit in parallel; those sharing a table wait for each other.
+ * Transactions over the same tables that commit at the same time are group committed: one of their threads takes
+ * every transaction waiting, applies them in turn, records them in one TransactionLog record and writes each table
+ * once, writing a row changed by several of them only once. While a batch is written the next one gathers, so
+ * concurrent bookings of a project write its row once per batch rather than once per booking.
+ * A transaction whose updates fail is rolled back alone; if a batch cannot be written, every transaction in it fails.
+ * If an update matches no row or a table cannot be written, every change is rolled back in memory and in storage.
+ * Updates staged with an expected version fail the whole transaction with a StaleVersionException
+ * if their row has been changed since it was read.
+ * Only versioned tables can be changed, so that recovery can tell whether a logged row is already in its table.
+ * Usage:
+ *     Transaction transaction = new Transaction();
+ *     FlatInventory.take(projectID, flatType, transaction);
+ *     ApplicationDB.updateApplication(application, transaction);
+ *     transaction.commit();
+ */
+public class Transaction {
+    private final TransactionLog log;
+    private final Map<DataTable, List<Update>> updates = new LinkedHashMap<>();
+    private final List<Runnable> commitActions = new ArrayList<>();
+    private final List<Runnable> completionActions = new ArrayList<>();
+    private boolean completed = false;
+    // Set by the thread committing the batch of this transaction, before finished
+    private boolean written = false;
+    private Exception failure;
+    // Guarded by the commit queue of the transaction
+    private boolean finished = false;
+
+    // Transactions waiting to commit, keyed by their tables and log
+    private static final Map<List<Object>, CommitQueue> QUEUES = new ConcurrentHashMap<>();
+
+    /**
+     * The transactions waiting to commit over one set of tables. One thread at a time takes every transaction
+     * waiting and commits them as a batch; the others wait until their batch has been committed.
+     */
+    private static class CommitQueue {
+        final List<Transaction> pending = new ArrayList<>();
+        boolean committing = false;
+    }
+
+    /**
+     * A staged update of the first row matching a predicate, at any version if expectedVersion is -1.
+     */
+    static class Update {
+        final Predicate<TableRow> match;
+        final int expectedVersion;
+        final Consumer<TableRow> change;
+
+        Update(Predicate<TableRow> match, int expectedVersion, Consumer<TableRow> change) {
+            this.match = match;
+            this.expectedVersion = expectedVersion;
+            this.change = change;
+        }
+    }
+
+    /**
+     * Constructor for Transaction, logging to the transaction log of the DataStore tables.
+     */
+    public Transaction() {
+        this(DataStore.TRANSACTION_LOG);
+    }
+
+    /**
+     * Constructor for Transaction
+     * @param log The redo log recording the transaction before its tables are written.
+     */
+    Transaction(TransactionLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Stages an update of the first row of a table matching a predicate.
+     * @param table The table to update.
+     * @param match The predicate to match rows against.
+     * @param change The change to apply to the matching row.
+     * @throws IllegalStateException if the transaction has already been committed or rolled back.
+     * @throws IllegalArgumentException if the table is not versioned.
+     */
+    public void update(DataTable table, Predicate<TableRow> match, Consumer<TableRow> change) {
+        stage(table, new Update(match, -1, change));
+    }
+
+    /**
+     * Stages an update of the first row of a versioned table matching a predicate,
+     * to be applied only if the row is still at the version the change is based on.
+     * @param table The versioned table to update.
+     * @param match The predicate to match rows against.
+     * @param expectedVersion The version of the row the change is based on.
+     * @param change The change to apply to the matching row.
+     * @throws IllegalStateException if the transaction has already been committed or rolled back.
+     * @throws IllegalArgumentException if the table is not versioned.
+     */
+    public void update(DataTable table, Predicate<TableRow> match, int expectedVersion, Consumer<TableRow> change) {
+        stage(table, new Update(match, expectedVersion, change));
+    }
+
+    private void stage(DataTable table, Update update) {
+        if (completed) {
+            throw new IllegalStateException("Transaction has already completed");
+        }
+        if (!table.isVersioned()) {
+            throw new IllegalArgumentException("Transactions can only change versioned tables: " + table.getName());
+        }
+        updates.computeIfAbsent(table, k -> new ArrayList<>()).add(update);
+    }
+
+    /**
+     * Registers an action to run only once the transaction has been committed,
+     * such as advancing the version of the entities that were written.
+     * @param action The action to run.
+     */
+    public void afterCommit(Runnable action) {
+        commitActions.add(action);
+    }
+
+    /**
+     * Registers an action to run once the transaction has been committed or rolled back,
+     * such as dropping cached entities built from the updated rows.
+     * @param action The action to run.
+     */
+    public void afterCompletion(Runnable action) {
+        completionActions.add(action);
+    }
+
+    /**
+     * Applies and writes every staged update, together with the transactions over the same tables committing at the same time.
+     * @throws StaleVersionException if a row was changed since the version an update expects. Nothing is changed.
+     * @throws IOException if the transaction could not be written. Nothing is changed in memory or storage.
+     * @throws IllegalStateException if a staged update matches no row, or the transaction has already completed.
+     */
+    public void commit() throws IOException {
+        if (completed) {
+            throw new IllegalStateException("Transaction has already completed");
+        }
+        completed = true;
+        try {
+            List<DataTable> tables = new ArrayList<>(updates.keySet());
+            // Lock the tables in name order, so transactions over the same tables cannot deadlock
+            tables.sort(Comparator.comparing(DataTable::getName));
+            commitInBatch(tables);
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            for (Runnable action : commitActions) {
+                action.run();
+            }
+        } finally {
+            complete();
+        }
+    }
+
+    /**
+     * Discards every staged update.
+     */
+    public void rollback() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        updates.clear();
+        complete();
+    }
+
+    /**
+     * Waits until this transaction has been committed in a batch, committing the batch on this thread
+     * if no other thread is committing over the same tables. Sets written or failure.
+     */
+    private void commitInBatch(List<DataTable> tables) {
+        List<Object> key = new ArrayList<>(tables);
+        key.add(log);
+        CommitQueue queue = QUEUES.computeIfAbsent(key, k -> new CommitQueue());
+        boolean interrupted = false;
+        synchronized (queue) {
+            queue.pending.add(this);
+        }
+        while (true) {
+            List<Transaction> batch;
+            synchronized (queue) {
+                while (!finished && queue.committing) {
+                    try {
+                        queue.wait();
+                    } catch (InterruptedException e) {
+                        // The batch holding this transaction may already be written, so wait for its outcome
+                        interrupted = true;
+                    }
+                }
+                if (finished) {
+                    break;
+                }
+                queue.committing = true;
+                batch = new ArrayList<>(queue.pending);
+                queue.pending.clear();
+            }
+            try {
+                commitLocked(tables, 0, batch);
+            } catch (IOException | RuntimeException e) {
+                for (Transaction transaction : batch) {
+                    if (!transaction.written && transaction.failure == null) {
+                        transaction.failure = e;
+                    }
+                }
+            } finally {
+                synchronized (queue) {
+                    for (Transaction transaction : batch) {
+                        if (!transaction.written && transaction.failure == null) {
+                            transaction.failure = new IOException("Transaction was not committed");
+                        }
+                        transaction.finished = true;
+                    }
+                    queue.committing = false;
+                    queue.notifyAll();
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void commitLocked(List<DataTable> tables, int next, List<Transaction> batch) throws IOException {
+        if (next < tables.size()) {
+            tables.get(next).writeLock().lock();
+            try {
+                commitLocked(tables, next + 1, batch);
+            } finally {
+                tables.get(next).writeLock().unlock();
+            }
+            return;
+        }
+
+        // Apply each transaction in turn, rolling back only the one whose updates fail
+        Map<DataTable, List<TableRow[]>> batchApplied = new LinkedHashMap<>();
+        List<Transaction> applied = new ArrayList<>();
+        for (Transaction transaction : batch) {
+            Map<DataTable, List<TableRow[]>> own = new LinkedHashMap<>();
+            try {
+                for (Map.Entry<DataTable, List<Update>> entry : transaction.updates.entrySet()) {
+                    own.put(entry.getKey(), entry.getKey().applyUpdates(entry.getValue()));
+                }
+            } catch (IOException | RuntimeException e) {
+                List<Map.Entry<DataTable, List<TableRow[]>>> tablesApplied = new ArrayList<>(own.entrySet());
+                Collections.reverse(tablesApplied);
+                for (Map.Entry<DataTable, List<TableRow[]>> entry : tablesApplied) {
+                    entry.getKey().revertUpdates(entry.getValue(), false);
+                }
+                transaction.failure = e;
+                continue;
+            }
+            for (Map.Entry<DataTable, List<TableRow[]>> entry : own.entrySet()) {
+                batchApplied.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+            }
+            applied.add(transaction);
+        }
+        if (applied.isEmpty()) {
+            return;
+        }
+        Map<DataTable, List<TableRow[]>> merged = new LinkedHashMap<>();
+        for (Map.Entry<DataTable, List<TableRow[]>> entry : batchApplied.entrySet()) {
+            merged.put(entry.getKey(), merge(entry.getValue()));
+        }
+        writeBatch(merged, applied.get(0).log);
+        for (Transaction transaction : applied) {
+            transaction.written = true;
+        }
+        MetricsRegistry.increment("transaction.batches");
+        MetricsRegistry.add("transaction.commits", applied.size());
+    }
+
+    /**
+     * Merges the changes of a row changed by several transactions of a batch into one change, from the row
+     * before the batch to the row after it, so that each row is logged and written once.
+     * @param applied The changed rows paired with the rows they replaced, in the order they were applied.
+     * @return The merged changes, in the order each row was first changed.
+     */
+    private static List<TableRow[]> merge(List<TableRow[]> applied) {
+        List<TableRow[]> merged = new ArrayList<>();
+        // Position in merged of the latest version of each changed row
+        Map<TableRow, Integer> positions = new IdentityHashMap<>();
+        for (TableRow[] change : applied) {
+            Integer position = positions.remove(change[1]);
+            if (position == null) {
+                position = merged.size();
+                merged.add(change);
+            } else {
+                merged.set(position, new TableRow[] { change[0], merged.get(position)[1] });
+            }
+            positions.put(change[0], position);
+        }
+        return merged;
+    }
+
+    /**
+     * Records the changes of a batch in the transaction log and writes each table once.
+     * @throws IOException if the batch could not be written. Every change is rolled back in memory and storage.
+     */
+    private static void writeBatch(Map<DataTable, List<TableRow[]>> applied, TransactionLog log) throws IOException {
+        List<DataTable> written = new ArrayList<>();
+        File record = null;
+        try {
+            Map<DataTable, List<TableRow>> changedRows = new LinkedHashMap<>();
+            for (Map.Entry<DataTable, List<TableRow[]>> entry : applied.entrySet()) {
+                List<TableRow> rows = new ArrayList<>();
+                for (TableRow[] change : entry.getValue()) {
+                    rows.add(change[0]);
+                }
+                changedRows.put(entry.getKey(), rows);
+            }
+            record = log.write(changedRows);
+
+            for (Map.Entry<DataTable, List<TableRow[]>> entry : applied.entrySet()) {
+                entry.getKey().writeUpdates(entry.getValue());
+                written.add(entry.getKey());
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Map.Entry<DataTable, List<TableRow[]>> entry : applied.entrySet()) {
+                try {
+                    entry.getKey().revertUpdates(entry.getValue(), written.contains(entry.getKey()));
+                } catch (IOException revertError) {
+                    LoggerUtility.logError("Failed to roll back transaction in: " + entry.getKey().getLocation(), revertError);
+                }
+            }
+            clearLog(log, record);
+            throw e;
+        }
+        clearLog(log, record);
+    }
+
+    private static void clearLog(TransactionLog log, File record) {
+        if (record == null) {
+            return;
+        }
+        try {
+            log.clear(record);
+        } catch (IOException e) {
+            // The record is replayed on the next load, which skips every row already at or past its logged version,
+            // so the rows written here and any later changes to them are kept
+            LoggerUtility.logError("Failed to clear transaction log, it will be replayed on the next load: " + record, e);
+        }
+    }
+
+    private void complete() {
+        for (Runnable action : completionActions) {
+            action.run();
+        }
+    }
+}
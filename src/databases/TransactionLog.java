@@ -0,0 +1,154 @@
+package databases;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import utilities.LoggerUtility;
+
+/**
+ * TransactionLog class is the redo log that makes a Transaction atomic across tables.
+ * Before any table is written, every row changed by the transaction is written to a record file of its own
+ * as one line holding the table name and the encoded row, followed by a COMMIT line, in a single synced write.
+ * The record is deleted once every table has been written. If the program stops before that, the committed rows
+ * are written into their tables again when the tables are next loaded; a record without its COMMIT line
+ * never reached any table and is ignored. Logged rows are only written again if their table holds an older
+ * version of them, so a record left behind after its tables were written cannot undo later changes.
+ * Each transaction has its own record, so concurrent transactions never remove each other's records.
+ */
+public class TransactionLog {
+    private static final String COMMIT = "COMMIT";
+    private static final String PREFIX = "transaction-";
+    private static final String SUFFIX = ".journal";
+
+    private final File directory;
+    // Record numbers start from the clock so they keep increasing across restarts
+    private final AtomicLong nextRecord = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    /**
+     * Constructor for TransactionLog
+     * @param directory The directory holding the record files.
+     */
+    public TransactionLog(String directory) {
+        this.directory = new File(directory);
+    }
+
+    /**
+     * Writes the rows of a transaction followed by its COMMIT line to a new record.
+     * @param changes The changed rows of each table, as they are after the transaction.
+     * @return The record, to be passed to clear once every table has been written.
+     * @throws IOException if there is an error writing the record.
+     */
+    File write(Map<DataTable, List<TableRow>> changes) throws IOException {
+        StringBuilder record = new StringBuilder();
+        for (Map.Entry<DataTable, List<TableRow>> entry : changes.entrySet()) {
+            for (TableRow row : entry.getValue()) {
+                record.append(entry.getKey().getName()).append('\t').append(TableJournal.encode(row)).append('\n');
+            }
+        }
+        record.append(COMMIT).append('\n');
+        File file = new File(directory, PREFIX + nextRecord.incrementAndGet() + SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(record.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        return file;
+    }
+
+    /**
+     * Deletes the record of a transaction once every table it changed has been written, or once it has been
+     * rolled back. A record that cannot be deleted is emptied instead, since a record without its COMMIT line
+     * is ignored on recovery.
+     * @param record The record returned by write.
+     * @throws IOException if the record can neither be deleted nor emptied.
+     */
+    void clear(File record) throws IOException {
+        try {
+            Files.deleteIfExists(record.toPath());
+        } catch (IOException e) {
+            try (FileOutputStream out = new FileOutputStream(record)) {
+                out.getFD().sync();
+            } catch (IOException emptyError) {
+                e.addSuppressed(emptyError);
+                throw e;
+            }
+            LoggerUtility.logError("Emptied transaction record that could not be deleted: " + record, e);
+        }
+    }
+
+    /**
+     * Writes the rows of every committed transaction still in the log into their tables, oldest first,
+     * then deletes the records.
+     * Tables must already be loaded, so that the logged rows replace the rows with the same key.
+     * @param tables The tables the log may refer to.
+     * @throws IOException if there is an error reading a record or writing a table.
+     */
+    public void recover(List<DataTable> tables) throws IOException {
+        File[] records = directory.listFiles((dir, fileName) -> fileName.startsWith(PREFIX) && fileName.endsWith(SUFFIX));
+        if (records == null || records.length == 0) {
+            return;
+        }
+        Arrays.sort(records, Comparator.comparingLong(TransactionLog::recordNumber));
+        Map<String, DataTable> tablesByName = new LinkedHashMap<>();
+        for (DataTable table : tables) {
+            tablesByName.put(table.getName(), table);
+        }
+
+        Map<DataTable, List<TableRow>> committed = new LinkedHashMap<>();
+        for (File record : records) {
+            readCommitted(record, tablesByName, committed);
+        }
+        for (Map.Entry<DataTable, List<TableRow>> entry : committed.entrySet()) {
+            entry.getKey().redo(entry.getValue());
+        }
+        for (File record : records) {
+            clear(record);
+        }
+    }
+
+    private static long recordNumber(File record) {
+        String fileName = record.getName();
+        try {
+            return Long.parseLong(fileName.substring(PREFIX.length(), fileName.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static void readCommitted(File record, Map<String, DataTable> tablesByName,
+                                      Map<DataTable, List<TableRow>> committed) throws IOException {
+        Map<DataTable, List<TableRow>> pending = new LinkedHashMap<>();
+        String[] lines = Files.readString(record.toPath(), StandardCharsets.UTF_8).split("\n", -1);
+        // The last element is empty when the log ends in a newline, and part of an unfinished record otherwise
+        for (int i = 0; i < lines.length - 1; i++) {
+            if (lines[i].equals(COMMIT)) {
+                for (Map.Entry<DataTable, List<TableRow>> entry : pending.entrySet()) {
+                    committed.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+                }
+                pending.clear();
+                continue;
+            }
+            int separator = lines[i].indexOf('\t');
+            DataTable table = separator < 0 ? null : tablesByName.get(lines[i].substring(0, separator));
+            if (table == null) {
+                LoggerUtility.logInfo("Skipping unknown table in transaction log: " + lines[i]);
+                continue;
+            }
+            try {
+                TableRow row = TableJournal.decode(lines[i].substring(separator + 1).split("\t", -1), table.newRow().getWidth());
+                pending.computeIfAbsent(table, k -> new ArrayList<>()).add(row);
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+        }
+    }
+}
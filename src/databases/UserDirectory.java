@@ -0,0 +1,200 @@
+package databases;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import enums.UserFileIndex;
+import enums.UserRole;
+import models.User;
+import utilities.LoggerUtility;
+
+/**
+ * UserDirectory class finds the user of an NRIC across the applicant, officer and manager tables in one lookup.
+ * It maps every normalised NRIC to the role the user logs in as, and each user table keeps a hash index by normalised NRIC
+ * that the profile of the user is built from, so a login takes two hash lookups instead of a scan of each table.
+ * An NRIC listed under several roles resolves to the first of applicant, officer and manager.
+ * The directory is built from the tables on first use. Lookups check at most every RELOAD_CHECK_MILLIS whether a user file
+ * has been changed outside the program; only a changed file is read again, and only the NRICs it added or removed are remapped.
+ */
+public class UserDirectory {
+    private static final long RELOAD_CHECK_MILLIS = 1000;
+
+    // Role of every user, keyed by normalised NRIC
+    private static final Map<String, UserRole> ROLES = new ConcurrentHashMap<>();
+    private static final AtomicLong NEXT_CHECK = new AtomicLong();
+    private static volatile boolean built = false;
+
+    /**
+     * Retrieves the user of an NRIC, whatever their role.
+     * @param nric The NRIC of the user, in any case.
+     * @return The Applicant, HDBOfficer or HDBManager of the NRIC, or null if no user has it.
+     * @throws IOException if a user table cannot be read.
+     * @throws NumberFormatException if the age of the user is not a number.
+     */
+    public static User findUser(String nric) throws IOException, NumberFormatException {
+        String key = normalise(nric);
+        UserRole role = getRole(key);
+        if (role == null) {
+            return null;
+        }
+        switch (role) {
+            case APPLICANT:
+                return ApplicantDB.getApplicantByNRIC(key);
+            case OFFICER:
+                return HDBOfficerDB.getOfficerByNRIC(key);
+            default:
+                return HDBManagerDB.getManagerByNRIC(key);
+        }
+    }
+
+    /**
+     * Retrieves the role an NRIC logs in as.
+     * @param nric The NRIC of the user, in any case.
+     * @return The role of the user, or null if no user has the NRIC.
+     * @throws IOException if a user table cannot be read.
+     */
+    public static UserRole getRole(String nric) throws IOException {
+        if (!built) {
+            build();
+        }
+        reloadIfDue();
+        return ROLES.get(normalise(nric));
+    }
+
+    /**
+     * Normalises an NRIC for lookups, so that NRICs typed in any case or with surrounding spaces match.
+     * @param nric The NRIC to normalise.
+     * @return The trimmed upper case NRIC, or an empty string if it is null.
+     */
+    public static String normalise(String nric) {
+        return nric == null ? "" : nric.trim().toUpperCase();
+    }
+
+    /**
+     * Extracts the normalised NRIC of a row of a user table, for the NRIC index of the table.
+     * @param row A row of the applicant, officer or manager table.
+     * @return The normalised NRIC, or null if the row has none.
+     */
+    static Object nricOf(TableRow row) {
+        return row.isBlank(UserFileIndex.NRIC.getIndex()) ? null : normalise(row.getString(UserFileIndex.NRIC.getIndex()));
+    }
+
+    /**
+     * Reads every user file changed outside the program again and remaps the NRICs it added or removed.
+     * Cached users of a changed file are dropped, so that edited profiles and passwords take effect.
+     * @throws IOException if a changed file cannot be read. The previous users of the file are kept.
+     */
+    public static synchronized void reload() throws IOException {
+        if (!built) {
+            build();
+            return;
+        }
+        for (UserRole role : UserRole.values()) {
+            DataTable table = tableOf(role);
+            if (!table.isChangedInStorage()) {
+                continue;
+            }
+            Set<String> before = nricsOf(table);
+            table.load();
+            invalidateCache(role);
+            Set<String> after = nricsOf(table);
+
+            int added = 0;
+            int removed = 0;
+            for (String key : after) {
+                if (!before.contains(key)) {
+                    remap(key);
+                    added++;
+                }
+            }
+            for (String key : before) {
+                if (!after.contains(key)) {
+                    remap(key);
+                    removed++;
+                }
+            }
+            LoggerUtility.logInfo("Reloaded " + table.getLocation() + ": " + added + " users added, " + removed + " removed");
+        }
+    }
+
+    private static synchronized void build() throws IOException {
+        if (built) {
+            return;
+        }
+        // Roles are listed in order of precedence, so the first role to claim an NRIC keeps it
+        for (UserRole role : UserRole.values()) {
+            for (String key : nricsOf(tableOf(role))) {
+                ROLES.putIfAbsent(key, role);
+            }
+        }
+        NEXT_CHECK.set(System.currentTimeMillis() + RELOAD_CHECK_MILLIS);
+        built = true;
+    }
+
+    private static void reloadIfDue() {
+        long now = System.currentTimeMillis();
+        long due = NEXT_CHECK.get();
+        // Only the thread that moves the next check forward checks the files
+        if (now < due || !NEXT_CHECK.compareAndSet(due, now + RELOAD_CHECK_MILLIS)) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException e) {
+            LoggerUtility.logError("Failed to reload user files, keeping the users already loaded", e);
+        }
+    }
+
+    /**
+     * Maps an NRIC to the first role whose table lists it, or removes it if no table does.
+     */
+    private static void remap(String key) throws IOException {
+        for (UserRole role : UserRole.values()) {
+            if (tableOf(role).findFirst(row -> key.equals(nricOf(row))) != null) {
+                ROLES.put(key, role);
+                return;
+            }
+        }
+        ROLES.remove(key);
+    }
+
+    private static Set<String> nricsOf(DataTable table) throws IOException {
+        Set<String> nrics = new HashSet<>();
+        for (TableRow row : table.getRows()) {
+            Object key = nricOf(row);
+            if (key != null) {
+                nrics.add((String) key);
+            }
+        }
+        return nrics;
+    }
+
+    private static DataTable tableOf(UserRole role) {
+        switch (role) {
+            case APPLICANT:
+                return DataStore.APPLICANTS;
+            case OFFICER:
+                return DataStore.OFFICERS;
+            default:
+                return DataStore.MANAGERS;
+        }
+    }
+
+    private static void invalidateCache(UserRole role) {
+        switch (role) {
+            case APPLICANT:
+                ApplicantDB.invalidateAll();
+                break;
+            case OFFICER:
+                HDBOfficerDB.invalidateAll();
+                break;
+            default:
+                HDBManagerDB.invalidateAll();
+                break;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package databases;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * XlsxStorageEngine class keeps each table as the first sheet of an Excel file named after the table.
+ * Files are read with XlsxStreamReader and written as a new XSSFWorkbook, replacing the old file atomically.
+ */
+public class XlsxStorageEngine implements StorageEngine {
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final String EXTENSION = ".xlsx";
+
+    private final String directory;
+
+    /**
+     * Constructor for XlsxStorageEngine
+     * @param directory The directory holding the Excel files.
+     */
+    public XlsxStorageEngine(String directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public TableData read(String tableName, int width) throws IOException {
+        XlsxStreamReader reader = new XlsxStreamReader(describe(tableName), width);
+        List<TableRow> rows = new ArrayList<>();
+        reader.read(rows::add);
+        return new TableData(reader.getSheetName(), reader.getHeader(), rows);
+    }
+
+    @Override
+    public void write(String tableName, TableData data) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet(data.getSheetName());
+            CellStyle dateCellStyle = createDateCellStyle(workbook);
+
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < data.getHeader().size(); i++) {
+                headerRow.createCell(i).setCellValue(data.getHeader().get(i));
+            }
+            int rowNum = 1;
+            for (TableRow tableRow : data.getRows()) {
+                Row row = sheet.createRow(rowNum++);
+                for (int i = 0; i < tableRow.getWidth(); i++) {
+                    writeCellValue(row, i, tableRow.get(i), dateCellStyle);
+                }
+            }
+
+            AtomicFile.write(describe(tableName), workbook::write);
+        }
+    }
+
+    @Override
+    public boolean exists(String tableName) {
+        return new File(describe(tableName)).isFile();
+    }
+
+    @Override
+    public long lastModified(String tableName) {
+        return new File(describe(tableName)).lastModified();
+    }
+
+    @Override
+    public String describe(String tableName) {
+        return directory + "/" + tableName + EXTENSION;
+    }
+
+    /**
+     * Creates the cell style dates are written with.
+     * @param workbook The workbook to create the style in.
+     * @return The date cell style.
+     */
+    static CellStyle createDateCellStyle(Workbook workbook) {
+        CellStyle dateCellStyle = workbook.createCellStyle();
+        dateCellStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(DATE_FORMAT));
+        return dateCellStyle;
+    }
+
+    /**
+     * Writes a cell of a row, leaving it out if the value is null.
+     * @param row The row to write the cell in.
+     * @param index The index of the column.
+     * @param value The String, Double or Date value of the cell.
+     * @param dateCellStyle The style of date cells, from createDateCellStyle.
+     */
+    static void writeCellValue(Row row, int index, Object value, CellStyle dateCellStyle) {
+        if (value == null) {
+            return;
+        }
+        Cell cell = row.createCell(index);
+        if (value instanceof Double) {
+            cell.setCellValue((Double) value);
+        }
+        else if (value instanceof Date) {
+            cell.setCellValue((Date) value);
+            cell.setCellStyle(dateCellStyle);
+        }
+        else {
+            cell.setCellValue(value.toString());
+        }
+    }
+}
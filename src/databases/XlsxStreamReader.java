@@ -0,0 +1,169 @@
+package databases;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * XlsxStreamReader class reads the first sheet of an Excel file with POI's event API.
+ * The sheet XML is parsed with SAX and each row is handed to the caller as soon as it ends,
+ * so the workbook is never built in memory the way XSSFWorkbook builds it.
+ * Cell values are produced the same way ExcelTable used to read them: String, Double, Date or null.
+ */
+public class XlsxStreamReader {
+    private final String filePath;
+    private final int width;
+    private String sheetName = "Sheet1";
+    private List<String> header = new ArrayList<>();
+
+    /**
+     * Constructor for XlsxStreamReader
+     * @param filePath The path of the Excel file to read.
+     * @param width The minimum number of columns of each row passed to the caller.
+     */
+    public XlsxStreamReader(String filePath, int width) {
+        this.filePath = filePath;
+        this.width = width;
+    }
+
+    /**
+     * @return the name of the sheet read by the last call to read
+     */
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * @return the header row read by the last call to read
+     */
+    public List<String> getHeader() {
+        return header;
+    }
+
+    /**
+     * Streams every non-blank row after the header to a consumer.
+     * @param rowConsumer The consumer receiving each row in file order.
+     * @throws IOException if the file cannot be opened or is not a valid Excel file.
+     */
+    public void read(Consumer<TableRow> rowConsumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(filePath, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IOException("No sheet found in file: " + filePath);
+            }
+            try (InputStream sheet = sheets.next()) {
+                sheetName = sheets.getSheetName();
+                header = new ArrayList<>();
+                TypedValueFormatter formatter = new TypedValueFormatter();
+                RowHandler rowHandler = new RowHandler(formatter, rowConsumer);
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, rowHandler, formatter, false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to parse Excel file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Collects the cells of the row being parsed and passes the row on when it ends.
+     */
+    private class RowHandler implements SheetContentsHandler {
+        private final TypedValueFormatter formatter;
+        private final Consumer<TableRow> rowConsumer;
+        private TableRow current;
+        private boolean isHeader;
+        private int nextColumn;
+
+        RowHandler(TypedValueFormatter formatter, Consumer<TableRow> rowConsumer) {
+            this.formatter = formatter;
+            this.rowConsumer = rowConsumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            isHeader = rowNum == 0;
+            current = isHeader ? null : new TableRow(Math.max(width, header.size()));
+            nextColumn = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? nextColumn : new CellReference(cellReference).getCol();
+            nextColumn = column + 1;
+            Object value = formatter.takeValue(formattedValue);
+            if (isHeader) {
+                while (header.size() < column) header.add("");
+                header.add(value instanceof String ? (String) value : "");
+            }
+            else if (column < current.getWidth()) {
+                current.set(column, value);
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!isHeader && !current.isEmpty()) {
+                rowConsumer.accept(current);
+            }
+            current = null;
+        }
+    }
+
+    /**
+     * DataFormatter that remembers the raw value of the numeric cell it was last asked to format.
+     * XSSFSheetXMLHandler only reports formatted text, so this is how numbers and dates keep their type.
+     */
+    private static class TypedValueFormatter extends DataFormatter {
+        private Object pendingValue;
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                pendingValue = DateUtil.getJavaDate(value);
+            } else {
+                pendingValue = value;
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+
+        /**
+         * Retrieves the typed value of the cell just reported and resets the remembered value.
+         * @param formattedValue The text reported for the cell.
+         * @return The number or date if the cell was numeric, otherwise the text, or null if it is empty.
+         */
+        Object takeValue(String formattedValue) {
+            Object value = pendingValue;
+            pendingValue = null;
+            if (value != null) {
+                return value;
+            }
+            return formattedValue == null || formattedValue.isEmpty() ? null : formattedValue;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package enums;
+
+/**
+ * This enum represents the storage costs counted for every action, such as rows scanned and bytes written
+ */
+
+public enum CostMetric {
+    DB_CALLS("db.calls"),
+    ROWS_SCANNED("storage.rows.scanned"),
+    TABLE_LOADS("storage.table.loads"),
+    TABLE_WRITES("storage.table.writes"),
+    JOURNAL_APPENDS("storage.journal.appends"),
+    BYTES_WRITTEN("storage.bytes.written");
+
+    private final String metricName;
+
+    CostMetric(String metricName){
+        this.metricName = metricName;
+    }
+    public String getMetricName() {
+        return metricName;
+    }
+}
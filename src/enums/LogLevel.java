@@ -0,0 +1,21 @@
+package enums;
+
+/**
+ * This enum represents the levels of log entries, from the most to the least detailed
+ */
+
+public enum LogLevel {
+    DEBUG("DEBUG"),
+    INFO("INFO"),
+    WARNING("WARNING"),
+    ERROR("ERROR");
+
+    private final String level;
+
+    LogLevel(String level){
+        this.level = level;
+    }
+    public String getLevel() {
+        return level;
+    }
+}
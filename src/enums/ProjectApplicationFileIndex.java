@@ -10,7 +10,8 @@ public enum ProjectApplicationFileIndex {
     NRIC(2),
     STATUS(3),
     FLAT_TYPE(4),
-    DATE(5);
+    DATE(5),
+    VERSION(6);
 
     private final int index;
 
@@ -19,7 +19,8 @@ public enum ProjectListFileIndex {
     MANAGER(11),
     OFFICER_SLOT(12),
     OFFICERS(13),
-    VISIBILITY(14);
+    VISIBILITY(14),
+    VERSION(15);
 
     private final int index;
 
@@ -0,0 +1,20 @@
+package enums;
+
+/**
+ * This enum represents the roles a user can log in as, in the order an NRIC listed under several roles is resolved
+ */
+
+public enum UserRole {
+    APPLICANT("Applicant"),
+    OFFICER("HDB Officer"),
+    MANAGER("HDB Manager");
+
+    private final String role;
+
+    UserRole(String role){
+        this.role = role;
+    }
+    public String getRole() {
+        return role;
+    }
+}
@@ -1,5 +1,6 @@
 package models;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -27,6 +28,16 @@ public class Applicant extends User {
 		this.enquiries = null;
 	}
 
+	/**
+	 * Copy constructor for Applicant
+	 * @param other The applicant to copy
+	 */
+	public Applicant(Applicant other) {
+		super(other);
+		this.projectApplication = other.projectApplication;
+		this.enquiries = other.enquiries == null ? null : new ArrayList<>(other.enquiries);
+	}
+
 	public Application getApplication() {
 		return projectApplication;
 	}
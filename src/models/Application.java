@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.List;
 
 import databases.ApplicationDB;
+import databases.Transaction;
 
 /**
  * The Application class represents an application made by an applicant for a project.
@@ -18,6 +19,8 @@ public class Application {
 	private String applicationStatus;
 	private int applicationID;
 	private String flatType;
+	// Version of the stored row this application was read at, checked when the application is written back
+	private int version;
 
 	/**
 	 * 
@@ -34,6 +37,16 @@ public class Application {
 		this.flatType = flatType;
 	}
 
+	/**
+	 * Copy constructor for Application
+	 * The copy refers to the same applicant and project as the original.
+	 * @param other The application to copy
+	 */
+	public Application(Application other) {
+		this(other.applicant, other.project, other.applicationStatus, other.applicationID, other.flatType);
+		this.version = other.version;
+	}
+
 	/**
 	 * 
 	 * @param applicant
@@ -45,6 +58,15 @@ public class Application {
 		ApplicationDB.updateApplication(applicantion);
 	}
 
+	/**
+	 * Stages an update of the application in a transaction.
+	 * @param application The application to update.
+	 * @param transaction The transaction to stage the update in.
+	 */
+	public static void updateApplicationDB(Application application, Transaction transaction) {
+		ApplicationDB.updateApplication(application, transaction);
+	}
+
 	/**
 	 * 
 	 * @param applicant
@@ -66,6 +88,17 @@ public class Application {
 		return ApplicationDB.getApplicationByNric(nric);
 	}
 
+	/**
+	 * Retrieve the latest saved state of an application, reading it again even if it is cached.
+	 * Used to retry a change after another session has updated the application.
+	 * @param applicationID The ID of the application.
+	 * @return The application, or null if it no longer exists.
+	 * @throws IOException
+	 */
+	public static Application reloadApplicationDB(int applicationID) throws IOException {
+		return ApplicationDB.reloadApplication(applicationID);
+	}
+
 	/**
 	 * 
 	 * @param applicationID
@@ -75,6 +108,16 @@ public class Application {
 		return ApplicationDB.getAllApplications();
 	}
 
+	/**
+	 * Retrieve every application with a given status from the database.
+	 * @param status The status of the applications to retrieve.
+	 * @return A list of applications with the status.
+	 * @throws IOException
+	 */
+	public static List<Application> getApplicationsByStatusDB(String status) throws IOException {
+		return ApplicationDB.getApplicationsByStatus(status);
+	}
+
 	/**
 	 * 
 	 * @param applicationID
@@ -120,6 +163,13 @@ public class Application {
 		return this.flatType;
 	}
 
+	/**
+	 * @return the version of the stored row this application was read at
+	 */
+	public int getVersion() {
+		return this.version;
+	}
+
 
 	/**
 	 * 
@@ -160,4 +210,12 @@ public class Application {
 	public void setFlatType(String flatType) {
 		this.flatType = flatType;
 	}
+
+	/**
+	 * 
+	 * @param version
+	 */
+	public void setVersion(int version) {
+		this.version = version;
+	}
 }
\ No newline at end of file
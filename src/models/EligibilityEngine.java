@@ -0,0 +1,259 @@
+package models;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import enums.FlatTypeName;
+import enums.MaritalStatus;
+
+/**
+ * EligibilityEngine class answers which projects an applicant may apply for, and for which flat types.
+ * The rules are kept in RULES, one per marital status and minimum age:
+ * - single applicants aged 35 and above may apply for 2-room flats,
+ * - married applicants aged 21 and above may apply for 2-room and 3-room flats.
+ * An applicant younger than every rule of their marital status is not eligible at all, and a marital status
+ * without rules is eligible for nothing.
+ * For every rule the engine keeps the open projects, visible and still before their closing date, each narrowed to
+ * the flat types of the rule and sorted by name, so a query is a lookup of the applicant's rule and a copy of its list.
+ * A changed project is marked with markChanged and only that project is read again on the next query.
+ * Projects whose closing date passes drop out on the first query after it.
+ */
+public class EligibilityEngine {
+    private static final List<Rule> RULES = List.of(
+        new Rule(MaritalStatus.SINGLE.getStatus(), 35, FlatTypeName.TWO_ROOM.getflatTypeName()),
+        new Rule(MaritalStatus.MARRIED.getStatus(), 21, FlatTypeName.TWO_ROOM.getflatTypeName(), FlatTypeName.THREE_ROOM.getflatTypeName())
+    );
+    // Same order as Project.sortProjectByName, with the ID to order projects of the same name consistently
+    private static final Comparator<Project> BY_NAME = Comparator
+        .comparing(Project::getProjectName, String.CASE_INSENSITIVE_ORDER)
+        .thenComparingInt(Project::getProjectID);
+
+    /**
+     * Reads the latest version of a project.
+     */
+    public interface ProjectLoader {
+        /**
+         * @param projectID The ID of the project.
+         * @return The project as currently stored, or null if it no longer exists.
+         * @throws IOException if the project cannot be read.
+         */
+        Project load(int projectID) throws IOException;
+    }
+
+    /**
+     * The flat types open to applicants of one marital status from a minimum age.
+     */
+    private static class Rule {
+        final String maritalStatus;
+        final int minAge;
+        final List<String> flatTypes;
+
+        Rule(String maritalStatus, int minAge, String... flatTypes) {
+            this.maritalStatus = maritalStatus;
+            this.minAge = minAge;
+            this.flatTypes = List.of(flatTypes);
+        }
+    }
+
+    private final ProjectLoader loader;
+    // Open projects narrowed to the flat types of each rule, sorted by name, indexed like RULES
+    private final List<List<Project>> offers = new ArrayList<>();
+    // Narrowed copy of each open project for each rule it has flat types for, keyed by project ID
+    private final Map<Integer, Project[]> offersByProject = new HashMap<>();
+    // Closing time of each open project, keyed by project ID
+    private final Map<Integer, Long> closingTimes = new HashMap<>();
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+    // Earliest closing date of the open projects, after which the engine drops closed projects
+    private long nextClosing = Long.MAX_VALUE;
+
+    /**
+     * Constructor for EligibilityEngine
+     * @param projects Every project. The projects themselves are not changed.
+     * @param loader Reads changed projects again on the next query.
+     */
+    public EligibilityEngine(Collection<Project> projects, ProjectLoader loader) {
+        this.loader = loader;
+        for (int i = 0; i < RULES.size(); i++) {
+            offers.add(new ArrayList<>());
+        }
+        long now = System.currentTimeMillis();
+        for (Project project : projects) {
+            Project[] projectOffers = add(project, now);
+            for (int i = 0; projectOffers != null && i < projectOffers.length; i++) {
+                if (projectOffers[i] != null) {
+                    offers.get(i).add(projectOffers[i]);
+                }
+            }
+        }
+        for (List<Project> ruleOffers : offers) {
+            ruleOffers.sort(BY_NAME);
+        }
+    }
+
+    /**
+     * Marks a project as changed, created or deleted, so that it is read again on the next query.
+     * @param projectID The ID of the project.
+     */
+    public void markChanged(int projectID) {
+        changed.add(projectID);
+    }
+
+    /**
+     * Retrieves the projects an applicant may apply for, each narrowed to the flat types open to the applicant.
+     * @param maritalStatus The marital status of the applicant.
+     * @param age The age of the applicant.
+     * @param excludedProjectIDs The IDs of projects to leave out, such as those an officer is registered for, or null.
+     * @return Copies of the projects sorted by name, which callers may change freely, or null if the applicant is
+     *         too young for every rule of their marital status.
+     * @throws IOException if a changed project cannot be read. It is read again on the next query.
+     */
+    public synchronized ArrayList<Project> getApplicableProjects(String maritalStatus, int age, Set<Integer> excludedProjectIDs) throws IOException {
+        int rule = ruleOf(maritalStatus, age);
+        if (rule == -1) {
+            return null;
+        }
+        ArrayList<Project> applicable = new ArrayList<>();
+        if (rule == -2) {
+            return applicable;
+        }
+        refresh();
+        for (Project offer : offers.get(rule)) {
+            if (excludedProjectIDs == null || !excludedProjectIDs.contains(offer.getProjectID())) {
+                applicable.add(new Project(offer));
+            }
+        }
+        return applicable;
+    }
+
+    /**
+     * Finds the rule of an applicant: the rule of their marital status with the highest minimum age they have reached.
+     * @return The index of the rule in RULES, -1 if the applicant is too young for every rule of their marital status,
+     *         or -2 if their marital status has no rules.
+     */
+    private static int ruleOf(String maritalStatus, int age) {
+        int match = -2;
+        for (int i = 0; i < RULES.size(); i++) {
+            Rule rule = RULES.get(i);
+            if (!rule.maritalStatus.equals(maritalStatus)) {
+                continue;
+            }
+            if (age >= rule.minAge && (match < 0 || rule.minAge > RULES.get(match).minAge)) {
+                match = i;
+            } else if (match == -2) {
+                match = -1;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Reads the changed projects again and drops projects that have closed since the last query.
+     */
+    private void refresh() throws IOException {
+        long now = System.currentTimeMillis();
+        if (now >= nextClosing) {
+            List<Integer> closed = new ArrayList<>();
+            for (Map.Entry<Integer, Long> closing : closingTimes.entrySet()) {
+                if (closing.getValue() <= now) {
+                    closed.add(closing.getKey());
+                }
+            }
+            for (int projectID : closed) {
+                remove(projectID);
+            }
+            nextClosing = Long.MAX_VALUE;
+            for (long closingTime : closingTimes.values()) {
+                nextClosing = Math.min(nextClosing, closingTime);
+            }
+        }
+
+        for (Iterator<Integer> iterator = changed.iterator(); iterator.hasNext(); ) {
+            int projectID = iterator.next();
+            // Unmarked before reading, so a change made while the project is read marks it again
+            iterator.remove();
+            Project project;
+            try {
+                project = loader.load(projectID);
+            } catch (IOException e) {
+                changed.add(projectID);
+                throw e;
+            }
+            remove(projectID);
+            Project[] projectOffers = project == null ? null : add(project, now);
+            if (projectOffers == null) {
+                continue;
+            }
+            for (int i = 0; i < projectOffers.length; i++) {
+                if (projectOffers[i] != null) {
+                    List<Project> ruleOffers = offers.get(i);
+                    int position = Collections.binarySearch(ruleOffers, projectOffers[i], BY_NAME);
+                    ruleOffers.add(position < 0 ? -position - 1 : position, projectOffers[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Narrows an open project to the flat types of each rule and records the copies in offersByProject.
+     * The copies are not added to the rule lists, so that callers can append or insert them in order.
+     * @return The copy of the project for each rule, null where the rule has none of its flat types,
+     *         or null if the project is closed or has no flat type of any rule.
+     */
+    private Project[] add(Project project, long now) {
+        if (!isOpen(project, now)) {
+            return null;
+        }
+        Project[] projectOffers = new Project[RULES.size()];
+        boolean any = false;
+        for (int i = 0; i < RULES.size(); i++) {
+            List<FlatType> flatTypes = new ArrayList<>();
+            for (FlatType flatType : project.getFlatTypes()) {
+                if (RULES.get(i).flatTypes.contains(flatType.getFlatType())) {
+                    flatTypes.add(flatType);
+                }
+            }
+            if (!flatTypes.isEmpty()) {
+                Project offer = new Project(project);
+                offer.setFlatTypes(flatTypes);
+                projectOffers[i] = offer;
+                any = true;
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        long closingTime = project.getApplicationClosingDate().getTime();
+        offersByProject.put(project.getProjectID(), projectOffers);
+        closingTimes.put(project.getProjectID(), closingTime);
+        nextClosing = Math.min(nextClosing, closingTime);
+        return projectOffers;
+    }
+
+    private void remove(int projectID) {
+        closingTimes.remove(projectID);
+        Project[] projectOffers = offersByProject.remove(projectID);
+        if (projectOffers == null) {
+            return;
+        }
+        for (int i = 0; i < projectOffers.length; i++) {
+            if (projectOffers[i] != null) {
+                offers.get(i).remove(projectOffers[i]);
+            }
+        }
+    }
+
+    private static boolean isOpen(Project project, long now) {
+        Date closingDate = project.getApplicationClosingDate();
+        return project.getProjectVisibility() && closingDate != null && closingDate.getTime() > now;
+    }
+}
@@ -32,6 +32,16 @@ public class FlatType {
         this.pricePerFlat = pricePerFlat;
     }
 
+    /**
+     * Copy constructor for FlatType
+     * @param other The flat type to copy
+     */
+    public FlatType(FlatType other) {
+        this.flatType = other.flatType;
+        this.numFlats = other.numFlats;
+        this.pricePerFlat = other.pricePerFlat;
+    }
+
     /**
      * Constructor for FlatType with default price
      * @param flatType The type of flat (e.g., "2-bedroom", "3-bedroom")
@@ -128,33 +138,33 @@ public class FlatType {
      */
     public void addFlatType(ArrayList<FlatType> flatTypes) {
         System.out.print("Enter Flat Type Name (e.g., 2-Room, 3-Room): ");
-        String flatTypeName = ScannerUtility.SCANNER.nextLine();
+        String flatTypeName = ScannerUtility.getScanner().nextLine();
 
         int numUnits;
         while (true) {
             System.out.print("Enter Number of Units: ");
-            if (ScannerUtility.SCANNER.hasNextInt()) {
-                numUnits = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+            if (ScannerUtility.getScanner().hasNextInt()) {
+                numUnits = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
                 if (numUnits > 0) break; // Valid input
                 else System.out.println("[ERROR] Number of units must be greater than 0.");
             } else {
                 System.out.println("[ERROR] Please enter a valid number.");
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
             }
         }
 
         double pricePerFlat;
         while (true) {
             System.out.print("Enter Price per Flat: ");
-            if (ScannerUtility.SCANNER.hasNextDouble()) {
-                pricePerFlat = ScannerUtility.SCANNER.nextDouble();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+            if (ScannerUtility.getScanner().hasNextDouble()) {
+                pricePerFlat = ScannerUtility.getScanner().nextDouble();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
                 if (pricePerFlat > 0) break; // Valid input
                 else System.out.println("[ERROR] Price per flat must be greater than 0.");
             } else {
                 System.out.println("[ERROR] Please enter a valid price.");
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
             }
         }
 
@@ -186,30 +196,30 @@ public class FlatType {
         int indexToEdit;
         while (true) {
             System.out.print("Enter the index of the Flat Type to edit (1-based): ");
-            if (ScannerUtility.SCANNER.hasNextInt()) {
-                indexToEdit = ScannerUtility.SCANNER.nextInt() - 1;
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+            if (ScannerUtility.getScanner().hasNextInt()) {
+                indexToEdit = ScannerUtility.getScanner().nextInt() - 1;
+                ScannerUtility.getScanner().nextLine(); // Consume newline
                 if (indexToEdit >= 0 && indexToEdit < flatTypes.size()) break; // Valid index
                 else System.out.println("[ERROR] Invalid index. Please try again.");
             } else {
                 System.out.println("[ERROR] Please enter a valid index.");
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
             }
         }
     
         FlatType flatType = flatTypes.get(indexToEdit);
     
         System.out.print("Enter new Flat Type Name (current: " + flatType.getFlatType() + "): ");
-        String newFlatTypeName = ScannerUtility.SCANNER.nextLine();
+        String newFlatTypeName = ScannerUtility.getScanner().nextLine();
         if (!newFlatTypeName.isBlank()) {
             flatType.setFlatType(newFlatTypeName);
         }
     
         while (true) {
             System.out.print("Enter new Number of Units (current: " + flatType.getNumFlats() + "): ");
-            if (ScannerUtility.SCANNER.hasNextInt()) {
-                int newNumUnits = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+            if (ScannerUtility.getScanner().hasNextInt()) {
+                int newNumUnits = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
                 if (newNumUnits > 0) {
                     flatType.setNumFlats(newNumUnits);
                     break;
@@ -218,15 +228,15 @@ public class FlatType {
                 }
             } else {
                 System.out.println("[ERROR] Please enter a valid number.");
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
             }
         }
     
         while (true) {
             System.out.print("Enter new Price per Flat (current: $" + flatType.getPricePerFlat() + "): ");
-            if (ScannerUtility.SCANNER.hasNextDouble()) {
-                double newPricePerFlat = ScannerUtility.SCANNER.nextDouble();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+            if (ScannerUtility.getScanner().hasNextDouble()) {
+                double newPricePerFlat = ScannerUtility.getScanner().nextDouble();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
                 if (newPricePerFlat > 0) {
                     flatType.setPricePerFlat(newPricePerFlat);
                     break;
@@ -235,7 +245,7 @@ public class FlatType {
                 }
             } else {
                 System.out.println("[ERROR] Please enter a valid price.");
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
             }
         }
     
@@ -268,9 +278,9 @@ public class FlatType {
         int indexToRemove;
         while (true) {
             System.out.print("Enter the index of the Flat Type to remove (1-based): ");
-            if (ScannerUtility.SCANNER.hasNextInt()) {
-                indexToRemove = ScannerUtility.SCANNER.nextInt() - 1;
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+            if (ScannerUtility.getScanner().hasNextInt()) {
+                indexToRemove = ScannerUtility.getScanner().nextInt() - 1;
+                ScannerUtility.getScanner().nextLine(); // Consume newline
                 if (indexToRemove >= 0 && indexToRemove < flatTypes.size()) {
                     FlatType removedFlatType = flatTypes.remove(indexToRemove);
                     LoggerUtility.logInfo("Removed Flat Type: " + removedFlatType.getFlatType());
@@ -281,7 +291,7 @@ public class FlatType {
                 }
             } else {
                 System.out.println("[ERROR] Please enter a valid index.");
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
             }
         }
     }
@@ -24,6 +24,15 @@ public class HDBManager extends User {
         super(name, nric, age, maritalStatus, password);
     }
 
+    /**
+     * Copy constructor for HDBManager
+     * @param other The manager to copy
+     */
+    public HDBManager(HDBManager other) {
+        super(other);
+        this.ManagedProjects = other.ManagedProjects == null ? null : new ArrayList<>(other.ManagedProjects);
+    }
+
     /**
      * Retrieve the list of projects managed by the HDBManager based on their NRIC.
      * 
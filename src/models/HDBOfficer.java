@@ -20,6 +20,15 @@ public class HDBOfficer extends Applicant {
 		super(name, nric, age, maritalStatus, password);
 	}
 
+	/**
+	 * Copy constructor for HDBOfficer
+	 * @param other The officer to copy
+	 */
+	public HDBOfficer(HDBOfficer other) {
+		super(other);
+		this.officerRegistrations = other.officerRegistrations == null ? null : new ArrayList<>(other.officerRegistrations);
+	}
+
 	/**
 	 * Constructor for HDBOfficer
 	 * 
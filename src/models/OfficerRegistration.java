@@ -27,6 +27,15 @@ public class OfficerRegistration {
         this.registrationStatus = registrationStatus;
     }
 
+    /**
+     * Copy constructor for OfficerRegistration
+     * The copy refers to the same officer and project as the original.
+     * @param other The registration to copy
+     */
+    public OfficerRegistration(OfficerRegistration other) {
+        this(other.officerRegistrationID, other.officer, other.project, other.registrationStatus);
+    }
+
     /**
      * 
      * @param officer
@@ -137,4 +146,15 @@ public class OfficerRegistration {
     public static void updateOfficerApplicationStatusDB(int registrationID, String status) throws IOException {
         OfficerRegistrationDB.updateOfficerRegistration(registrationID, status);
         }
+
+    /**
+     * Retrieve the index of clashing application windows over every registration and project.
+     * 
+     * @return The clash index, rebuilt on first use after a registration or project changes.
+     * @throws IOException If there is an error retrieving the data from the database.
+     */
+
+    public static RegistrationClashIndex getClashIndexDB() throws IOException {
+        return OfficerRegistrationDB.getClashIndex();
+    }
 }
\ No newline at end of file
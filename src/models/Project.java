@@ -5,10 +5,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import databases.ApplicationDB;
 import databases.ProjectDB;
-import enums.FilterIndex;
 /**
  * Project class representing a project in the system.
  */
@@ -23,6 +23,8 @@ public class Project {
     private Date applicationOpeningDate;
     private Date applicationClosingDate;
     private int officerSlots;
+    // Version of the stored row this project was read at, checked when the project is written back
+    private int version;
 
     /**
      * Constructor for Project
@@ -50,6 +52,27 @@ public class Project {
         this.projectVisibility = visibility;
     }
 
+    /**
+     * Copy constructor for Project
+     * The copy has its own flat types and manager, so narrowing or editing it does not change the original project.
+     * @param other The project to copy
+     */
+    public Project(Project other) {
+        this(other.projectID, other.projectName,
+             other.projectManager == null ? null : new HDBManager(other.projectManager), other.neighborhood,
+             copyFlatTypes(other.flatTypes), other.applicationOpeningDate, other.applicationClosingDate,
+             other.officerSlots, other.projectVisibility);
+        this.version = other.version;
+    }
+
+    private static List<FlatType> copyFlatTypes(List<FlatType> flatTypes) {
+        List<FlatType> copies = new ArrayList<>(flatTypes.size());
+        for (FlatType flatType : flatTypes) {
+            copies.add(new FlatType(flatType));
+        }
+        return copies;
+    }
+
     // Static methods for database operations
 
     /**
@@ -91,8 +114,33 @@ public class Project {
         return ProjectDB.getProjectsByManager(hdbManagerID);
     }
 
+    /**
+     * Retrieve the open projects an applicant may apply for, each narrowed to the flat types open to the applicant.
+     * The projects are looked up in the eligibility engine, which keeps them precomputed for every eligibility rule.
+     * @param maritalStatus The marital status of the applicant.
+     * @param age The age of the applicant.
+     * @param excludedProjectIDs The IDs of projects to leave out, or null.
+     * @return Copies of the projects sorted by name, or null if the applicant is too young to apply.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static ArrayList<Project> getApplicableProjectsDB(String maritalStatus, int age, Set<Integer> excludedProjectIDs) throws IOException {
+        return ProjectDB.getEligibilityEngine().getApplicableProjects(maritalStatus, age, excludedProjectIDs);
+    }
+
+    /**
+     * Retrieve the latest saved state of a project, reading it again even if it is cached.
+     * Used to retry a change after another session has updated the project.
+     * @param projectID The ID of the project.
+     * @return The project, or null if it no longer exists.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static Project reloadProjectDB(int projectID) throws IOException {
+        return ProjectDB.reloadProject(projectID);
+    }
+
     /**
      * Update an existing project in the database.
+     * The update fails with a StaleVersionException if another session has saved the project since it was read.
      * @param updatedProject The updated project object.
      * @throws IOException If an I/O error occurs.
      */
@@ -128,50 +176,14 @@ public class Project {
         return ProjectDB.deleteProject(project);
     }
 
+    /**
+     * Filter projects in place based on the FilterIndex filters.
+     * Projects are narrowed to copies holding only the flat types that match the price range and flat type filters.
+     * @param projects A list of projects to filter.
+     * @param filters A list of filters, indexed by FilterIndex.
+     */
     public static void filterProject(ArrayList<Project> projects,  List<String> filters){
-        ArrayList<Project> filteredProjects = new ArrayList<Project>();
-        for (Project project : projects){
-            // Check if filter is "" then check its filter content, skip if doesnt fit
-            if (!filters.get(FilterIndex.PROJECT_NAME.getIndex()).isEmpty() && !project.getProjectName().toLowerCase().contains(filters.get(FilterIndex.PROJECT_NAME.getIndex()).toLowerCase())){
-                continue;
-            }
-            else if (!filters.get(FilterIndex.NEIGHBOURHOOD.getIndex()).isEmpty() && !project.getNeighborhood().toLowerCase().contains(filters.get(FilterIndex.NEIGHBOURHOOD.getIndex()).toLowerCase())){
-                continue;
-            }
-            else {
-                // Check if price range is met
-                String priceStartStr = filters.get(FilterIndex.PRICE_START.getIndex());
-                String priceEndStr = filters.get(FilterIndex.PRICE_END.getIndex());
-                
-                if (!priceStartStr.isEmpty() || !priceEndStr.isEmpty()) {
-                    double priceStart = priceStartStr.isEmpty() ? Double.MIN_VALUE : Double.parseDouble(priceStartStr);
-                    double priceEnd = priceEndStr.isEmpty() ? Double.MAX_VALUE : Double.parseDouble(priceEndStr);
-					List<FlatType> filteredFlatTypes = new ArrayList<FlatType>();                    
-                    for (FlatType flatType : project.getFlatTypes()) {
-                        double price = flatType.getPricePerFlat();
-                        if (price >= priceStart && price <= priceEnd) {
-                            filteredFlatTypes.add(flatType);
-                        }
-                    }
-                    if (filteredFlatTypes.size() == 0) continue;
-                    project.setFlatTypes(filteredFlatTypes);
-                }
-                // Check flat type
-                if (!filters.get(FilterIndex.FLAT_TYPE.getIndex()).isEmpty()){
-                    List<FlatType> filteredFlatTypes = new ArrayList<FlatType>();                    
-                    for (FlatType flatType : project.getFlatTypes()) {
-                        if (flatType.getFlatType().equals(filters.get(FilterIndex.FLAT_TYPE.getIndex()))) {
-                            filteredFlatTypes.add(flatType);
-                        }
-                    }
-                    if (filteredFlatTypes.size() == 0) continue;
-                    project.setFlatTypes(filteredFlatTypes);
-                }
-
-                // Matches all criterias
-                filteredProjects.add(project);
-            }
-        }
+        ArrayList<Project> filteredProjects = new ProjectQueryEngine(projects).query(filters, ProjectQueryEngine.SortOrder.NONE);
         projects.clear();
         projects.addAll(filteredProjects);
     }
@@ -183,32 +195,18 @@ public class Project {
      * @return A list of filtered projects.
      */
     public static List<Project> getFilteredProjectsDB(List<String> filters) {
-        List<Project> allProjects;
+        List<Project> matchingProjects;
         try {
-            allProjects = ProjectDB.getAllProjects();
+            matchingProjects = ProjectDB.getQueryEngine().search(filters);
         } catch (IOException e) {
             throw new RuntimeException("Failed to fetch all projects from the database", e);
         }
         List<Project> filteredProjects = new ArrayList<>();
-
-        for (Project project : allProjects) {
-            if (!project.getProjectVisibility()) {
-                continue; 
-            }
-            if (filters != null && !filters.isEmpty()) {
-                boolean matchesAllFilters = true;
-                for (String filter : filters) {
-                    if (!project.matchesFilter(filter)) {
-                        matchesAllFilters = false;
-                        break;
-                    }
-                }
-                if (!matchesAllFilters) continue;
+        for (Project project : matchingProjects) {
+            if (project.getProjectVisibility()) {
+                filteredProjects.add(project);
             }
-
-            filteredProjects.add(project);
         }
-
         return filteredProjects;
     }
     
@@ -271,18 +269,6 @@ public class Project {
         }
     }
 
-    /**
-     * Check if the project matches a specific filter.
-     * @param filter The filter to check against.
-     * @return True if the project matches the filter, false otherwise.
-     */
-    private boolean matchesFilter(String filter) {
-        String lowerFilter = filter.toLowerCase();
-        return this.neighborhood.toLowerCase().contains(lowerFilter) ||
-               this.projectName.toLowerCase().contains(lowerFilter) ||
-               this.flatTypes.stream().anyMatch(ft -> ft.toString().toLowerCase().contains(lowerFilter));
-    }
-
     /**
      * Add an officer's name to the ManagerList for this project.
      * 
@@ -337,6 +323,13 @@ public class Project {
         return officerSlots;
     }
 
+    /**
+     * @return the version of the stored row this project was read at
+     */
+    public int getVersion() {
+        return version;
+    }
+
     public void setProjectID(int projectID) {
         this.projectID = projectID;
     }
@@ -373,6 +366,10 @@ public class Project {
         this.officerSlots = officerSlots;
     }
 
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Project{" +
@@ -0,0 +1,464 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import enums.FilterIndex;
+
+/**
+ * ProjectQueryEngine class answers the project filters (FilterIndex) and sort orders over a fixed list of projects.
+ * It is built once per list and then queried as often as needed, using:
+ * - an n-gram index (1 to 3 characters) over the lowercased project names,
+ * - an inverted index from lowercased neighbourhood to projects,
+ * - a price index per flat type, sorted by price, plus one over every flat type for sorting by price.
+ * Each query starts from the most selective filter and checks the remaining filters only on its matches.
+ * Price and flat type filters apply per flat type: a project matches if one of its flat types passes both,
+ * and the project is returned as a copy narrowed to those flat types, as Project.filterProject always did.
+ * Every project returned is a copy, so callers may change it without changing the indexed projects,
+ * which ProjectDB shares between sessions.
+ * A project whose units change, such as after a booking, is swapped in with replaceProject without rebuilding the indexes.
+ */
+public class ProjectQueryEngine {
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * The orders a query result can be returned in.
+     */
+    public enum SortOrder {
+        NONE, NAME, NEIGHBOURHOOD, PRICE_ASCENDING, PRICE_DESCENDING
+    }
+
+    private final List<Project> projects;
+    private final String[] names;
+    private final String[] neighbourhoods;
+    private final String[] flatTexts;
+    // Position of each project in the list keyed by project ID, or -1 for an ID listed more than once
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private final int[] nameRank;
+    private final int[] neighbourhoodRank;
+    private final Map<String, List<Integer>> nameGrams = new HashMap<>();
+    private final Map<String, List<Integer>> neighbourhoodIndex = new LinkedHashMap<>();
+    private final Map<String, List<PriceEntry>> priceIndex = new HashMap<>();
+    private final List<PriceEntry> allPrices = new ArrayList<>();
+
+    /**
+     * A flat type of a project, keyed by the position of the project in the list.
+     */
+    private static class PriceEntry {
+        final double price;
+        final int position;
+        final int flatIndex;
+        // Replaced, with the same type and price, when the units of the project change
+        FlatType flatType;
+
+        PriceEntry(double price, int position, int flatIndex, FlatType flatType) {
+            this.price = price;
+            this.position = position;
+            this.flatIndex = flatIndex;
+            this.flatType = flatType;
+        }
+    }
+
+    /**
+     * The filters of one query, parsed and lowercased once.
+     */
+    private static class Criteria {
+        String name = "";
+        String neighbourhood = "";
+        String flatType = "";
+        double priceStart = -Double.MAX_VALUE;
+        double priceEnd = Double.MAX_VALUE;
+        boolean filtersFlats = false;
+    }
+
+    /**
+     * Constructor for ProjectQueryEngine
+     * @param projects The projects to index. The list is copied; the projects themselves are not changed.
+     */
+    public ProjectQueryEngine(List<Project> projects) {
+        this.projects = new ArrayList<>(projects);
+        int size = this.projects.size();
+        names = new String[size];
+        neighbourhoods = new String[size];
+        flatTexts = new String[size];
+
+        for (int position = 0; position < size; position++) {
+            Project project = this.projects.get(position);
+            positions.merge(project.getProjectID(), position, (first, duplicate) -> -1);
+            names[position] = project.getProjectName().toLowerCase();
+            neighbourhoods[position] = project.getNeighborhood().toLowerCase();
+
+            addNameGrams(names[position], position);
+            neighbourhoodIndex.computeIfAbsent(neighbourhoods[position], k -> new ArrayList<>()).add(position);
+            List<FlatType> flatTypes = project.getFlatTypes();
+            StringBuilder flatText = new StringBuilder();
+            for (int flatIndex = 0; flatIndex < flatTypes.size(); flatIndex++) {
+                FlatType flatType = flatTypes.get(flatIndex);
+                flatText.append(flatType.toString().toLowerCase()).append('\n');
+                PriceEntry entry = new PriceEntry(flatType.getPricePerFlat(), position, flatIndex, flatType);
+                priceIndex.computeIfAbsent(flatType.getFlatType(), k -> new ArrayList<>()).add(entry);
+                allPrices.add(entry);
+            }
+            flatTexts[position] = flatText.toString();
+        }
+
+        // Stable sorts, so entries with equal prices stay in list order
+        Comparator<PriceEntry> byPrice = Comparator.comparingDouble(entry -> entry.price);
+        for (List<PriceEntry> entries : priceIndex.values()) {
+            entries.sort(byPrice);
+        }
+        allPrices.sort(byPrice);
+
+        nameRank = rank(size, (a, b) -> this.projects.get(a).getProjectName().compareToIgnoreCase(this.projects.get(b).getProjectName()));
+        neighbourhoodRank = rank(size, (a, b) -> this.projects.get(a).getNeighborhood().compareToIgnoreCase(this.projects.get(b).getNeighborhood()));
+    }
+
+    /**
+     * Retrieves the projects matching the filters, in the requested order.
+     * Sorting by price returns one entry per matching flat type, as Project.sortProjectByPrice does.
+     * @param filters The filters, indexed by FilterIndex. Empty strings are not applied.
+     * @param order The order to return the projects in. NONE keeps the order of the indexed list.
+     * @return A new list of copies of the matching projects.
+     */
+    public synchronized ArrayList<Project> query(List<String> filters, SortOrder order) {
+        Criteria criteria = parse(filters);
+        Map<Integer, List<FlatType>> matches = match(criteria);
+        ArrayList<Project> results = new ArrayList<>();
+
+        if (order == SortOrder.PRICE_ASCENDING || order == SortOrder.PRICE_DESCENDING) {
+            List<PriceEntry> entries = new ArrayList<>();
+            for (PriceEntry entry : allPrices) {
+                List<FlatType> flatTypes = matches.get(entry.position);
+                if (flatTypes != null && flatTypes.contains(entry.flatType)) {
+                    entries.add(entry);
+                }
+            }
+            if (order == SortOrder.PRICE_DESCENDING) {
+                entries.sort(Comparator.comparingDouble((PriceEntry entry) -> entry.price).reversed());
+            }
+            for (PriceEntry entry : entries) {
+                results.add(copyOf(entry.position, Collections.singletonList(entry.flatType)));
+            }
+            return results;
+        }
+
+        List<Integer> positions = new ArrayList<>(matches.keySet());
+        if (order == SortOrder.NAME) {
+            positions.sort(Comparator.comparingInt(position -> nameRank[position]));
+        } else if (order == SortOrder.NEIGHBOURHOOD) {
+            positions.sort(Comparator.comparingInt(position -> neighbourhoodRank[position]));
+        } else {
+            Collections.sort(positions);
+        }
+        for (int position : positions) {
+            results.add(copyOf(position, criteria.filtersFlats ? matches.get(position) : null));
+        }
+        return results;
+    }
+
+    /**
+     * Counts the projects matching the filters without building the result list.
+     * @param filters The filters, indexed by FilterIndex. Empty strings are not applied.
+     * @return The number of matching projects.
+     */
+    public synchronized int count(List<String> filters) {
+        return match(parse(filters)).size();
+    }
+
+    /**
+     * Retrieves the projects matching every search term, where a term matches if it appears in the
+     * project name, the neighbourhood or the description of one of the flat types, ignoring case.
+     * @param terms The search terms. A null or empty list matches every project.
+     * @return A new list of copies of the matching projects in the order of the indexed list.
+     */
+    public synchronized ArrayList<Project> search(List<String> terms) {
+        ArrayList<Project> results = new ArrayList<>();
+        List<String> lowerTerms = new ArrayList<>();
+        if (terms != null) {
+            for (String term : terms) {
+                lowerTerms.add(term.toLowerCase());
+            }
+        }
+        for (int position = 0; position < projects.size(); position++) {
+            boolean matchesAllTerms = true;
+            for (String term : lowerTerms) {
+                if (!names[position].contains(term) && !neighbourhoods[position].contains(term)
+                        && !flatTexts[position].contains(term)) {
+                    matchesAllTerms = false;
+                    break;
+                }
+            }
+            if (matchesAllTerms) {
+                results.add(copyOf(position, null));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Replaces an indexed project with a newer version of it, when only the units of its flat types have changed.
+     * The name, neighbourhood and price indexes are kept, since none of them depends on units.
+     * @param project The newer version of the project. It is not copied, so the caller must not change it afterwards.
+     * @return true if the project was replaced, false if it is not indexed or its name, neighbourhood, flat types
+     *         or prices have changed, in which case the engine has to be built again.
+     */
+    public synchronized boolean replaceProject(Project project) {
+        Integer position = positions.get(project.getProjectID());
+        if (position == null || position < 0) {
+            return false;
+        }
+        Project indexed = projects.get(position);
+        List<FlatType> indexedFlatTypes = indexed.getFlatTypes();
+        List<FlatType> flatTypes = project.getFlatTypes();
+        if (!indexed.getProjectName().equals(project.getProjectName())
+                || !indexed.getNeighborhood().equals(project.getNeighborhood())
+                || indexedFlatTypes.size() != flatTypes.size()) {
+            return false;
+        }
+        StringBuilder flatText = new StringBuilder();
+        for (int flatIndex = 0; flatIndex < flatTypes.size(); flatIndex++) {
+            FlatType before = indexedFlatTypes.get(flatIndex);
+            FlatType after = flatTypes.get(flatIndex);
+            if (!before.getFlatType().equals(after.getFlatType()) || before.getPricePerFlat() != after.getPricePerFlat()) {
+                return false;
+            }
+            flatText.append(after.toString().toLowerCase()).append('\n');
+        }
+        projects.set(position, project);
+        flatTexts[position] = flatText.toString();
+        for (PriceEntry entry : allPrices) {
+            if (entry.position == position) {
+                entry.flatType = flatTypes.get(entry.flatIndex);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a copy of the project at a position, narrowed to copies of the given flat types, or with all of its
+     *         flat types if flatTypes is null
+     */
+    private Project copyOf(int position, List<FlatType> flatTypes) {
+        Project copy = new Project(projects.get(position));
+        if (flatTypes != null) {
+            List<FlatType> copies = new ArrayList<>(flatTypes.size());
+            for (FlatType flatType : flatTypes) {
+                copies.add(new FlatType(flatType));
+            }
+            copy.setFlatTypes(copies);
+        }
+        return copy;
+    }
+
+    private static Criteria parse(List<String> filters) {
+        Criteria criteria = new Criteria();
+        if (filters == null || filters.size() < FilterIndex.values().length) {
+            return criteria;
+        }
+        criteria.name = filters.get(FilterIndex.PROJECT_NAME.getIndex()).toLowerCase();
+        criteria.neighbourhood = filters.get(FilterIndex.NEIGHBOURHOOD.getIndex()).toLowerCase();
+        criteria.flatType = filters.get(FilterIndex.FLAT_TYPE.getIndex());
+        String priceStart = filters.get(FilterIndex.PRICE_START.getIndex());
+        String priceEnd = filters.get(FilterIndex.PRICE_END.getIndex());
+        if (!priceStart.isEmpty()) {
+            criteria.priceStart = Double.parseDouble(priceStart);
+        }
+        if (!priceEnd.isEmpty()) {
+            criteria.priceEnd = Double.parseDouble(priceEnd);
+        }
+        criteria.filtersFlats = !priceStart.isEmpty() || !priceEnd.isEmpty() || !criteria.flatType.isEmpty();
+        return criteria;
+    }
+
+    /**
+     * Finds the matching projects, starting from the filter with the fewest candidates.
+     * @param criteria The parsed filters.
+     * @return The positions of the matching projects, each with its flat types that pass the flat filters.
+     */
+    private Map<Integer, List<FlatType>> match(Criteria criteria) {
+        List<Integer> nameCandidates = criteria.name.isEmpty() ? null : nameCandidates(criteria.name);
+        List<Integer> neighbourhoodCandidates = criteria.neighbourhood.isEmpty() ? null : neighbourhoodCandidates(criteria.neighbourhood);
+        int flatCount = criteria.filtersFlats ? countFlatCandidates(criteria) : Integer.MAX_VALUE;
+
+        int nameCount = nameCandidates == null ? Integer.MAX_VALUE : nameCandidates.size();
+        int neighbourhoodCount = neighbourhoodCandidates == null ? Integer.MAX_VALUE : neighbourhoodCandidates.size();
+
+        Map<Integer, List<FlatType>> matches = new LinkedHashMap<>();
+        if (criteria.filtersFlats && flatCount <= nameCount && flatCount <= neighbourhoodCount) {
+            // Seed from the price index, then check the text filters on the matching projects only
+            for (PriceEntry entry : flatCandidates(criteria)) {
+                if (matchesText(entry.position, criteria)) {
+                    matches.computeIfAbsent(entry.position, k -> new ArrayList<>()).add(entry.flatType);
+                }
+            }
+            return matches;
+        }
+
+        List<Integer> seed;
+        if (nameCandidates == null && neighbourhoodCandidates == null) {
+            seed = new ArrayList<>();
+            for (int position = 0; position < projects.size(); position++) {
+                seed.add(position);
+            }
+        } else {
+            seed = nameCount <= neighbourhoodCount ? nameCandidates : neighbourhoodCandidates;
+        }
+        for (int position : seed) {
+            if (!matchesText(position, criteria)) {
+                continue;
+            }
+            List<FlatType> flatTypes = projects.get(position).getFlatTypes();
+            if (criteria.filtersFlats) {
+                flatTypes.removeIf(flatType -> !matchesFlat(flatType, criteria));
+                if (flatTypes.isEmpty()) {
+                    continue;
+                }
+            }
+            matches.put(position, flatTypes);
+        }
+        return matches;
+    }
+
+    private boolean matchesText(int position, Criteria criteria) {
+        return names[position].contains(criteria.name) && neighbourhoods[position].contains(criteria.neighbourhood);
+    }
+
+    private static boolean matchesFlat(FlatType flatType, Criteria criteria) {
+        return flatType.getPricePerFlat() >= criteria.priceStart
+            && flatType.getPricePerFlat() <= criteria.priceEnd
+            && (criteria.flatType.isEmpty() || flatType.getFlatType().equals(criteria.flatType));
+    }
+
+    /**
+     * Finds the projects whose name may contain the filter, using the n-gram index.
+     * Filters up to GRAM_LENGTH characters are answered exactly; longer filters return the projects
+     * having every trigram of the filter, which matchesText then confirms.
+     */
+    private List<Integer> nameCandidates(String filter) {
+        if (filter.length() <= GRAM_LENGTH) {
+            return nameGrams.getOrDefault(filter, Collections.emptyList());
+        }
+        List<List<Integer>> postings = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= filter.length(); i++) {
+            List<Integer> posting = nameGrams.get(filter.substring(i, i + GRAM_LENGTH));
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(List::size));
+        List<Integer> candidates = postings.get(0);
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates = intersect(candidates, postings.get(i));
+        }
+        return candidates;
+    }
+
+    private List<Integer> neighbourhoodCandidates(String filter) {
+        List<Integer> candidates = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> entry : neighbourhoodIndex.entrySet()) {
+            if (entry.getKey().contains(filter)) {
+                candidates.addAll(entry.getValue());
+            }
+        }
+        Collections.sort(candidates);
+        return candidates;
+    }
+
+    private int countFlatCandidates(Criteria criteria) {
+        int count = 0;
+        for (List<PriceEntry> entries : flatTypeLists(criteria)) {
+            count += Math.max(0, upperBound(entries, criteria.priceEnd) - lowerBound(entries, criteria.priceStart));
+        }
+        return count;
+    }
+
+    private List<PriceEntry> flatCandidates(Criteria criteria) {
+        List<PriceEntry> candidates = new ArrayList<>();
+        for (List<PriceEntry> entries : flatTypeLists(criteria)) {
+            int from = lowerBound(entries, criteria.priceStart);
+            int to = upperBound(entries, criteria.priceEnd);
+            if (from < to) {
+                candidates.addAll(entries.subList(from, to));
+            }
+        }
+        // Project order, and each project's flat types in their own order
+        candidates.sort(Comparator.comparingInt((PriceEntry entry) -> entry.position).thenComparingInt(entry -> entry.flatIndex));
+        return candidates;
+    }
+
+    private List<List<PriceEntry>> flatTypeLists(Criteria criteria) {
+        if (criteria.flatType.isEmpty()) {
+            return new ArrayList<>(priceIndex.values());
+        }
+        List<PriceEntry> entries = priceIndex.get(criteria.flatType);
+        return entries == null ? Collections.emptyList() : Collections.singletonList(entries);
+    }
+
+    private void addNameGrams(String name, int position) {
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            for (int i = 0; i + length <= name.length(); i++) {
+                List<Integer> posting = nameGrams.computeIfAbsent(name.substring(i, i + length), k -> new ArrayList<>());
+                if (posting.isEmpty() || posting.get(posting.size() - 1) != position) {
+                    posting.add(position);
+                }
+            }
+        }
+    }
+
+    private static List<Integer> intersect(List<Integer> a, List<Integer> b) {
+        List<Integer> result = new ArrayList<>();
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            int compare = Integer.compare(a.get(i), b.get(j));
+            if (compare == 0) {
+                result.add(a.get(i));
+                i++;
+                j++;
+            } else if (compare < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /** Index of the first entry priced at or above the price. */
+    private static int lowerBound(List<PriceEntry> entries, double price) {
+        int low = 0, high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).price < price) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    /** Index after the last entry priced at or below the price. */
+    private static int upperBound(List<PriceEntry> entries, double price) {
+        int low = 0, high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).price <= price) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    private static int[] rank(int size, Comparator<Integer> comparator) {
+        List<Integer> order = new ArrayList<>();
+        for (int position = 0; position < size; position++) {
+            order.add(position);
+        }
+        order.sort(comparator);
+        int[] ranks = new int[size];
+        for (int i = 0; i < size; i++) {
+            ranks[order.get(i)] = i;
+        }
+        return ranks;
+    }
+}
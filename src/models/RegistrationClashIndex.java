@@ -0,0 +1,191 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import enums.OfficerRegisterationStatus;
+import utilities.IntervalTree;
+
+/**
+ * RegistrationClashIndex class answers which application windows clash for officer registrations.
+ * An officer may not handle two projects whose application windows overlap, so pending and successful registrations
+ * block every project whose window overlaps theirs. The index keeps:
+ * - one interval tree over the application windows of every project,
+ * - one interval tree per officer over the windows of the projects of their pending and successful registrations,
+ * - the IDs of every project each officer has registered for, whatever the status.
+ * Registrable projects are found by querying the project tree with each of the officer's active windows, so the cost
+ * grows with the clashes found rather than with projects times registrations. Windows include both their dates.
+ * The index is built from a snapshot of projects and registrations and does not change; build a new one after a change.
+ * The index is shared between sessions, so the projects and registrations it returns are copies.
+ */
+public class RegistrationClashIndex {
+    private final List<Project> projects;
+    private final IntervalTree<Project> projectWindows;
+    // Active registrations keyed by upper case officer NRIC
+    private final Map<String, IntervalTree<OfficerRegistration>> activeWindows = new HashMap<>();
+    private final Map<String, Set<Integer>> registeredProjectIDs = new HashMap<>();
+
+    /**
+     * Constructor for RegistrationClashIndex
+     * @param projects Every project.
+     * @param registrations Every officer registration.
+     */
+    public RegistrationClashIndex(List<Project> projects, List<OfficerRegistration> registrations) {
+        this.projects = new ArrayList<>();
+        for (Project project : projects) {
+            if (hasWindow(project)) {
+                this.projects.add(project);
+            }
+        }
+        this.projectWindows = new IntervalTree<>(this.projects, RegistrationClashIndex::startOf, RegistrationClashIndex::endOf);
+
+        Map<String, List<OfficerRegistration>> active = new HashMap<>();
+        for (OfficerRegistration registration : registrations) {
+            if (registration.getOfficer() == null) {
+                continue;
+            }
+            String nric = keyOf(registration.getOfficer());
+            registeredProjectIDs.computeIfAbsent(nric, key -> new HashSet<>()).add(registration.getProjectID());
+            if (isActive(registration) && hasWindow(registration.getProject())) {
+                active.computeIfAbsent(nric, key -> new ArrayList<>()).add(registration);
+            }
+        }
+        for (Map.Entry<String, List<OfficerRegistration>> entry : active.entrySet()) {
+            activeWindows.put(entry.getKey(), new IntervalTree<>(entry.getValue(),
+                registration -> startOf(registration.getProject()), registration -> endOf(registration.getProject())));
+        }
+    }
+
+    /**
+     * Retrieves the projects an officer can register to handle: visible projects still open for applications, with
+     * officer slots left, that the officer has not applied for or registered for, and whose window does not overlap
+     * the window of a pending or successful registration of the officer.
+     * @param officer The officer.
+     * @param appliedProjectID The ID of the project the officer has applied for as an applicant, or null if none.
+     * @return The registrable projects sorted by name.
+     */
+    public ArrayList<Project> getRegistrableProjects(HDBOfficer officer, Integer appliedProjectID) {
+        String nric = keyOf(officer);
+        Set<Integer> blocked = new HashSet<>(registeredProjectIDs.getOrDefault(nric, Collections.emptySet()));
+        if (appliedProjectID != null) {
+            blocked.add(appliedProjectID);
+        }
+        IntervalTree<OfficerRegistration> windows = activeWindows.get(nric);
+        if (windows != null) {
+            for (OfficerRegistration registration : windows.overlapping(Long.MIN_VALUE, Long.MAX_VALUE)) {
+                for (Project project : projectWindows.overlapping(startOf(registration.getProject()), endOf(registration.getProject()))) {
+                    blocked.add(project.getProjectID());
+                }
+            }
+        }
+
+        Date now = new Date();
+        ArrayList<Project> registrable = new ArrayList<>();
+        for (Project project : projects) {
+            if (project.getProjectVisibility() && project.getApplicationClosingDate().after(now)
+                && project.getOfficerSlots() > 0 && !blocked.contains(project.getProjectID())) {
+                registrable.add(new Project(project));
+            }
+        }
+        Project.sortProjectByName(registrable);
+        return registrable;
+    }
+
+    /**
+     * Retrieves the pending and successful registrations of an officer whose window overlaps the window of a project.
+     * @param officer The officer.
+     * @param project The project the officer wants to register for.
+     * @return The clashing registrations, empty if the officer may take on the project's window.
+     */
+    public List<OfficerRegistration> getClashingRegistrations(HDBOfficer officer, Project project) {
+        IntervalTree<OfficerRegistration> windows = activeWindows.get(keyOf(officer));
+        if (windows == null || !hasWindow(project)) {
+            return new ArrayList<>();
+        }
+        List<OfficerRegistration> clashes = new ArrayList<>();
+        for (OfficerRegistration registration : windows.overlapping(startOf(project), endOf(project))) {
+            if (registration.getProjectID() != project.getProjectID()) {
+                clashes.add(copyOf(registration));
+            }
+        }
+        return clashes;
+    }
+
+    /**
+     * Retrieves the projects whose application window overlaps a period, both dates included.
+     * @param start The first day of the period.
+     * @param end The last day of the period.
+     * @return The overlapping projects in order of opening date.
+     */
+    public List<Project> getProjectsOverlapping(Date start, Date end) {
+        List<Project> overlapping = new ArrayList<>();
+        for (Project project : projectWindows.overlapping(start.getTime(), end.getTime())) {
+            overlapping.add(new Project(project));
+        }
+        return overlapping;
+    }
+
+    /**
+     * Retrieves the conflicts of every officer: each pair of their pending or successful registrations for projects
+     * whose application windows overlap.
+     * @return The pairs of clashing registrations keyed by officer NRIC in alphabetical order, only for officers with conflicts.
+     */
+    public Map<String, List<OfficerRegistration[]>> getAllConflicts() {
+        Map<String, List<OfficerRegistration[]>> conflicts = new TreeMap<>();
+        for (Map.Entry<String, IntervalTree<OfficerRegistration>> entry : activeWindows.entrySet()) {
+            IntervalTree<OfficerRegistration> windows = entry.getValue();
+            if (windows.size() < 2) {
+                continue;
+            }
+            List<OfficerRegistration[]> pairs = new ArrayList<>();
+            for (OfficerRegistration registration : windows.overlapping(Long.MIN_VALUE, Long.MAX_VALUE)) {
+                Project project = registration.getProject();
+                for (OfficerRegistration other : windows.overlapping(startOf(project), endOf(project))) {
+                    // Each pair once, from the registration with the lower ID
+                    if (other.getOfficerRegistrationID() > registration.getOfficerRegistrationID()) {
+                        pairs.add(new OfficerRegistration[] { copyOf(registration), copyOf(other) });
+                    }
+                }
+            }
+            if (!pairs.isEmpty()) {
+                conflicts.put(entry.getKey(), pairs);
+            }
+        }
+        return conflicts;
+    }
+
+    private static OfficerRegistration copyOf(OfficerRegistration registration) {
+        OfficerRegistration copy = new OfficerRegistration(registration);
+        copy.setProject(new Project(registration.getProject()));
+        return copy;
+    }
+
+    private static boolean isActive(OfficerRegistration registration) {
+        String status = registration.getRegistrationStatus();
+        return OfficerRegisterationStatus.PENDING.getStatus().equals(status)
+            || OfficerRegisterationStatus.SUCESSFUL.getStatus().equals(status);
+    }
+
+    private static boolean hasWindow(Project project) {
+        return project != null && project.getApplicationOpeningDate() != null && project.getApplicationClosingDate() != null;
+    }
+
+    private static long startOf(Project project) {
+        return project.getApplicationOpeningDate().getTime();
+    }
+
+    private static long endOf(Project project) {
+        return project.getApplicationClosingDate().getTime();
+    }
+
+    private static String keyOf(User user) {
+        return user.getNric().trim().toUpperCase();
+    }
+}
@@ -7,6 +7,8 @@ import java.util.List;
 import databases.ApplicantDB;
 import databases.HDBManagerDB;
 import databases.HDBOfficerDB;
+import databases.UserDirectory;
+import utilities.PasswordUtility;
 
 /**
  * User class representing a user in the system.
@@ -41,19 +43,29 @@ public class User {
 	}
 
 	/**
-	 * 
-	 * @param nric
-	 * @return User object based on the NRIC provided.
+	 * Copy constructor for User
+	 * The copy has its own filters, so changing one user does not change the other.
+	 * @param other The user to copy
+	 */
+	public User(User other) {
+		this.name = other.name;
+		this.nric = other.nric;
+		this.age = other.age;
+		this.maritalStatus = other.maritalStatus;
+		this.password = other.password;
+		this.filter = new ArrayList<>(other.filter);
+	}
+
+	/**
+	 * Finds the user of an NRIC in the user directory, whatever their role.
+	 * @param nric The NRIC of the user, in any case.
+	 * @return User object based on the NRIC provided, or null if no user has it.
 	 * @throws IOException
 	 * @throws NumberFormatException
 	 */
 
 	public static User findUserByNricDB(String nric) throws IOException, NumberFormatException {
-		User user;
-		user = ApplicantDB.getApplicantByNRIC(nric);
-		if (user == null) user = HDBOfficerDB.getOfficerByNRIC(nric);
-		if (user == null) user = HDBManagerDB.getManagerByNRIC(nric);
-		return user;
+		return UserDirectory.findUser(nric);
 	}
 	
 	/**
@@ -147,14 +159,29 @@ public class User {
 	}
 
 	/**
-	 * Validate the password of the user.
+	 * Validate the password of the user against the stored hash, or the stored plaintext if it has not been hashed yet.
 	 * 
 	 * @param password The password to validate.
 	 * @return true if the password is valid, false otherwise.
 	 */
     
 	public boolean validatePassword(String password) {
-		return this.getPassword().equals(password);
+		return PasswordUtility.verify(password, this.getPassword());
+	}
+
+	/**
+	 * Replace a plaintext or outdated stored password with a new hash, after the password has been validated.
+	 * 
+	 * @param password The validated password of the user.
+	 * @return true if the stored password was replaced, false if it did not need to be.
+	 * @throws IOException
+	 */
+	public boolean upgradePasswordHash(String password) throws IOException {
+		if (!PasswordUtility.needsRehash(this.getPassword())) {
+			return false;
+		}
+		this.setPassword(PasswordUtility.hash(password));
+		return this.saveUserDB();
 	}
 	
 	/**
@@ -169,7 +196,7 @@ public class User {
 		if (!validatePassword(currentPassword)) {
 			return false;
 		}
-		this.setPassword(newPassword);
+		this.setPassword(PasswordUtility.hash(newPassword));
 		this.saveUserDB();
 		return true;
 	}
@@ -0,0 +1,127 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * IntervalTree.java
+ * This utility class finds the items whose closed intervals, such as application windows, overlap a given interval.
+ * The items are sorted by start and kept as an implicit balanced search tree over that order: the middle item of every
+ * range is the root of the range, and each root also keeps the latest end in its range. A query skips every range that
+ * ends before the queried interval starts, and every range that starts after it ends, so a query costs O(log n) per match
+ * instead of a scan of every item, and checking for any overlap costs O(log n).
+ * The tree is built once from its items and does not change; build a new tree when the items change.
+ * @param <T> The type of the items.
+ */
+
+public class IntervalTree<T> {
+    private final List<T> items;
+    private final long[] starts;
+    private final long[] ends;
+    // Latest end among the items of the range each item is the root of
+    private final long[] maxEnds;
+
+    /**
+     * Constructor for IntervalTree
+     * @param items The items to index. Items whose interval ends before it starts are left out.
+     * @param startOf The start of the interval of an item, such as an opening date in milliseconds.
+     * @param endOf The end of the interval of an item, inclusive.
+     */
+    public IntervalTree(List<T> items, ToLongFunction<T> startOf, ToLongFunction<T> endOf) {
+        List<T> sorted = new ArrayList<>();
+        for (T item : items) {
+            if (endOf.applyAsLong(item) >= startOf.applyAsLong(item)) {
+                sorted.add(item);
+            }
+        }
+        sorted.sort(Comparator.comparingLong(startOf));
+        this.items = sorted;
+        int size = sorted.size();
+        starts = new long[size];
+        ends = new long[size];
+        maxEnds = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = startOf.applyAsLong(sorted.get(i));
+            ends[i] = endOf.applyAsLong(sorted.get(i));
+        }
+        Arrays.fill(maxEnds, Long.MIN_VALUE);
+        buildMaxEnds(0, size - 1);
+    }
+
+    /**
+     * @return the number of items in the tree
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Retrieves the items whose interval overlaps an interval, both ends included.
+     * @param start The start of the interval.
+     * @param end The end of the interval.
+     * @return The overlapping items in order of start, empty if none overlap.
+     */
+    public List<T> overlapping(long start, long end) {
+        List<T> matches = new ArrayList<>();
+        collect(0, items.size() - 1, start, end, matches);
+        return matches;
+    }
+
+    /**
+     * Checks if any item overlaps an interval, both ends included.
+     * @param start The start of the interval.
+     * @param end The end of the interval.
+     * @return true if an item overlaps the interval, false otherwise.
+     */
+    public boolean overlapsAny(long start, long end) {
+        return find(0, items.size() - 1, start, end);
+    }
+
+    private long buildMaxEnds(int low, int high) {
+        if (low > high) {
+            return Long.MIN_VALUE;
+        }
+        int middle = (low + high) >>> 1;
+        maxEnds[middle] = Math.max(ends[middle], Math.max(buildMaxEnds(low, middle - 1), buildMaxEnds(middle + 1, high)));
+        return maxEnds[middle];
+    }
+
+    private void collect(int low, int high, long start, long end, List<T> matches) {
+        if (low > high) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        if (maxEnds[middle] < start) {
+            return;
+        }
+        collect(low, middle - 1, start, end, matches);
+        // Items to the right start even later
+        if (starts[middle] > end) {
+            return;
+        }
+        if (ends[middle] >= start) {
+            matches.add(items.get(middle));
+        }
+        collect(middle + 1, high, start, end, matches);
+    }
+
+    private boolean find(int low, int high, long start, long end) {
+        if (low > high) {
+            return false;
+        }
+        int middle = (low + high) >>> 1;
+        if (maxEnds[middle] < start) {
+            return false;
+        }
+        if (find(low, middle - 1, start, end)) {
+            return true;
+        }
+        if (starts[middle] > end) {
+            return false;
+        }
+        return ends[middle] >= start || find(middle + 1, high, start, end);
+    }
+}
@@ -0,0 +1,140 @@
+package utilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LogAnalyzer.java
+ * This utility reads the operation records written by LoggerUtility and prints, for every operation,
+ * how often it ran, how many calls failed, the average rows per call and the p50, p95, p99 and maximum latency.
+ * Usage: java utilities.LogAnalyzer [log file ...]
+ * Without arguments it reads the operation log and its rotated backups, oldest first. Lines that are not operation records are skipped.
+ */
+
+public class LogAnalyzer {
+    private static final Pattern OPERATION = Pattern.compile("\"op\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern NANOS = Pattern.compile("\"nanos\":(\\d+)");
+    private static final Pattern ROWS = Pattern.compile("\"rows\":(\\d+)");
+    private static final Pattern FAILED = Pattern.compile("\"ok\":false");
+    private static final int MAX_BACKUPS = 5;
+
+    /**
+     * The latencies and row counts recorded for one operation.
+     */
+    private static class Samples {
+        long[] nanos = new long[64];
+        int count;
+        int failures;
+        long rows;
+        int rowSamples;
+
+        void add(long elapsed) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsed;
+        }
+    }
+
+    /**
+     * Reads the operation records of the given log files.
+     * @param files The log files to read.
+     * @return The samples of every operation, keyed by operation name in alphabetical order.
+     * @throws IOException if a file cannot be read.
+     */
+    private static Map<String, Samples> read(List<Path> files) throws IOException {
+        Map<String, Samples> operations = new TreeMap<>();
+        for (Path file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Matcher operation = OPERATION.matcher(line);
+                    Matcher nanos = NANOS.matcher(line);
+                    if (!operation.find() || !nanos.find()) {
+                        continue;
+                    }
+                    Samples samples = operations.computeIfAbsent(operation.group(1), name -> new Samples());
+                    samples.add(Long.parseLong(nanos.group(1)));
+                    if (FAILED.matcher(line).find()) {
+                        samples.failures++;
+                    }
+                    Matcher rows = ROWS.matcher(line);
+                    if (rows.find()) {
+                        samples.rows += Long.parseLong(rows.group(1));
+                        samples.rowSamples++;
+                    }
+                }
+            }
+        }
+        return operations;
+    }
+
+    private static double percentileMicros(long[] sortedNanos, int count, double quantile) {
+        // Nearest rank: the smallest sample with at least the quantile of the samples at or below it
+        int rank = (int) Math.ceil(quantile * count);
+        return sortedNanos[Math.max(0, Math.min(count, rank) - 1)] / 1000.0;
+    }
+
+    private static List<Path> defaultFiles() {
+        List<Path> files = new ArrayList<>();
+        Path log = Paths.get(LoggerUtility.OPERATION_LOG);
+        for (int i = MAX_BACKUPS; i >= 1; i--) {
+            Path backup = log.resolveSibling(log.getFileName() + "." + i);
+            if (Files.exists(backup)) {
+                files.add(backup);
+            }
+        }
+        if (Files.exists(log)) {
+            files.add(log);
+        }
+        return files;
+    }
+
+    public static void main(String[] args) {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            files.add(Paths.get(arg));
+        }
+        if (files.isEmpty()) {
+            files = defaultFiles();
+        }
+        if (files.isEmpty()) {
+            System.err.println("No operation log found: " + LoggerUtility.OPERATION_LOG);
+            System.err.println("Usage: java utilities.LogAnalyzer [log file ...]");
+            System.exit(1);
+        }
+
+        Map<String, Samples> operations;
+        try {
+            operations = read(files);
+        } catch (IOException e) {
+            System.err.println("Failed to read log file: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.printf("%-50s %9s %7s %9s %10s %10s %10s %10s%n",
+            "Operation", "Calls", "Failed", "Rows/call", "p50 us", "p95 us", "p99 us", "Max us");
+        for (Map.Entry<String, Samples> entry : operations.entrySet()) {
+            Samples samples = entry.getValue();
+            Arrays.sort(samples.nanos, 0, samples.count);
+            double rowsPerCall = samples.rowSamples == 0 ? 0 : (double) samples.rows / samples.rowSamples;
+            System.out.printf("%-50s %9d %7d %9.1f %10.1f %10.1f %10.1f %10.1f%n", entry.getKey(), samples.count,
+                samples.failures, rowsPerCall,
+                percentileMicros(samples.nanos, samples.count, 0.50),
+                percentileMicros(samples.nanos, samples.count, 0.95),
+                percentileMicros(samples.nanos, samples.count, 0.99),
+                samples.nanos[samples.count - 1] / 1000.0);
+        }
+    }
+}
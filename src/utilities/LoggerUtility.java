@@ -2,36 +2,130 @@ package utilities;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import enums.LogLevel;
 
 /**
  * LoggerUtility.java
  * This utility class provides methods for logging error and info messages to separate log files.
  * It creates a directory for logs if it doesn't exist and handles the creation of log files.
- * It also formats the log messages with timestamps and stack traces for errors.
+ * Every entry is written as one line of JSON with its time, level and thread, and errors also carry their stack trace.
+ * Timed operations, such as the calls of the DB classes, are written to a log of their own with the operation name,
+ * entity, row count and elapsed nanoseconds, for LogAnalyzer to summarise. Set log.operations=false to turn them off.
+ * Logging does not block the caller: entries are put in a lock-free ring buffer, and a background writer
+ * formats them and appends them in batches to log files it keeps open. Entries below the level set by the
+ * log.level system property (INFO by default) are skipped. A log file is rotated to .1, .2, ... when it
+ * would grow past log.max.bytes (10 MB by default). Entries still queued are written when the program exits.
+ * The log files are kept in the log.directory directory (logs by default).
  */
 
 public class LoggerUtility {
-    private static final String LOG_DIR = "logs";
-    private static final String ERROR_LOG = "logs/error.log";
-    private static final String INFO_LOG = "logs/info.log";
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final String LOG_DIR = System.getProperty("log.directory", "logs");
+    private static final String ERROR_LOG = LOG_DIR + "/error.log";
+    private static final String INFO_LOG = LOG_DIR + "/info.log";
+    public static final String OPERATION_LOG = LOG_DIR + "/operations.log";
+    private static final DateTimeFormatter DATE_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final int CAPACITY = 8192; // Must be a power of two
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_BACKUPS = 5;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FULL_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final LogLevel LEVEL = parseLevel(System.getProperty("log.level"));
+    private static final long MAX_BYTES = Long.getLong("log.max.bytes", 10L * 1024 * 1024);
+    private static final boolean LOG_OPERATIONS = !"false".equalsIgnoreCase(System.getProperty("log.operations"));
+
+    // Ring buffer: a slot holding sequence s is free for the entry numbered s, and holds that entry once its sequence is s + 1
+    private static final LogEntry[] SLOTS = new LogEntry[CAPACITY];
+    private static final AtomicLongArray SEQUENCES = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong TAIL = new AtomicLong();
+    private static final AtomicLong WRITTEN = new AtomicLong();
+    // Taken by whoever drains the buffer: the writer thread, or callers once it has stopped
+    private static final Object WRITE_LOCK = new Object();
+    private static long head = 0;
+    private static final LogFile ERROR_FILE = new LogFile(ERROR_LOG);
+    private static final LogFile INFO_FILE = new LogFile(INFO_LOG);
+    private static final LogFile OPERATION_FILE = new LogFile(OPERATION_LOG);
+    private static final Thread WRITER;
+    private static volatile boolean closed = false;
+
+    /**
+     * A log entry as queued by the caller. It is formatted by the writer, off the caller's thread.
+     */
+    private static class LogEntry {
+        final LogLevel level;
+        final long millis;
+        final String thread;
+        final String message;
+        final Exception exception;
+        // Set for timed operations only
+        final String operation;
+        final String entity;
+        final long rows;
+        final long elapsedNanos;
+        final boolean succeeded;
+
+        LogEntry(LogLevel level, String message, Exception exception) {
+            this(level, message, exception, null, null, -1, 0, true);
+        }
+
+        LogEntry(LogLevel level, String message, Exception exception,
+                 String operation, String entity, long rows, long elapsedNanos, boolean succeeded) {
+            this.level = level;
+            this.millis = System.currentTimeMillis();
+            this.thread = Thread.currentThread().getName();
+            this.message = message;
+            this.exception = exception;
+            this.operation = operation;
+            this.entity = entity;
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+            this.succeeded = succeeded;
+        }
+    }
 
     static {
         try {
             File directory = new File(LOG_DIR);
             if (!directory.exists()) {
-                directory.mkdir();
+                directory.mkdirs();
             }
             new File(ERROR_LOG).createNewFile();
             new File(INFO_LOG).createNewFile();
         } catch (IOException e) {
             System.err.println("Failed to initialize logging system: " + e.getMessage());
         }
+        for (int i = 0; i < CAPACITY; i++) {
+            SEQUENCES.set(i, i);
+        }
+        WRITER = new Thread(LoggerUtility::runWriter, "log-writer");
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            closed = true;
+            LockSupport.unpark(WRITER);
+            try {
+                WRITER.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "log-shutdown"));
     }
     /**
      * Logs an error message along with the stack trace of the exception to the error log file.
@@ -40,13 +134,7 @@ public class LoggerUtility {
      */
 
     public static void logError(String message, Exception e) {
-        String logEntry = String.format("[%s] ERROR: %s - %s%nStacktrace: %s%n", 
-            DATE_FORMAT.format(new Date()), 
-            message,
-            e.getMessage(),
-            getStackTraceAsString(e)
-        );
-        writeToLog(ERROR_LOG, logEntry);
+        enqueue(new LogEntry(LogLevel.ERROR, message, e));
     }
 
     /**
@@ -54,17 +142,250 @@ public class LoggerUtility {
      * @param message The informational message to log.
      */
     public static void logInfo(String message) {
-        String logEntry = String.format("[%s] INFO: %s%n", 
-            DATE_FORMAT.format(new Date()), 
-            message
-        );
-        writeToLog(INFO_LOG, logEntry);
+        if (isEnabled(LogLevel.INFO)) {
+            enqueue(new LogEntry(LogLevel.INFO, message, null));
+        }
     }
 
     /**
      * Logs a warning message to the info log file.
      * @param message The warning message to log.
      */
+    public static void logWarning(String message) {
+        if (isEnabled(LogLevel.WARNING)) {
+            enqueue(new LogEntry(LogLevel.WARNING, message, null));
+        }
+    }
+
+    /**
+     * Logs a debug message to the info log file, if debug logging is enabled.
+     * @param message The debug message to log.
+     */
+    public static void logDebug(String message) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            enqueue(new LogEntry(LogLevel.DEBUG, message, null));
+        }
+    }
+
+    /**
+     * Logs a timed operation to the operation log file.
+     * @param operation The name of the operation, such as "ProjectDB.getAllProjects".
+     * @param entity The entity the operation reads or writes, such as "Project".
+     * @param rows The number of rows returned or written, or -1 if it is not known.
+     * @param elapsedNanos How long the operation took, in nanoseconds.
+     * @param succeeded false if the operation failed with an exception.
+     */
+    public static void logOperation(String operation, String entity, long rows, long elapsedNanos, boolean succeeded) {
+        if (LOG_OPERATIONS) {
+            enqueue(new LogEntry(LogLevel.INFO, null, null, operation, entity, rows, elapsedNanos, succeeded));
+        }
+    }
+
+    /**
+     * @return true if timed operations are logged, false if log.operations is set to false
+     */
+    public static boolean isLoggingOperations() {
+        return LOG_OPERATIONS;
+    }
+
+    /**
+     * Checks if entries of a level are logged, so that callers can skip building messages that would be dropped.
+     * @param level The level to check.
+     * @return true if entries of the level are logged, false otherwise.
+     */
+    public static boolean isEnabled(LogLevel level) {
+        return level.compareTo(LEVEL) >= 0;
+    }
+
+    /**
+     * Waits until every entry logged before the call has been written to its log file.
+     */
+    public static void flush() {
+        long target = TAIL.get();
+        while (WRITTEN.get() < target) {
+            if (closed || !WRITER.isAlive()) {
+                drain();
+            } else {
+                LockSupport.unpark(WRITER);
+                LockSupport.parkNanos(FULL_WAIT_NANOS);
+            }
+        }
+    }
+
+    private static LogLevel parseLevel(String level) {
+        if (level != null) {
+            for (LogLevel value : LogLevel.values()) {
+                if (value.getLevel().equalsIgnoreCase(level.trim())) {
+                    return value;
+                }
+            }
+        }
+        return LogLevel.INFO;
+    }
+
+    private static void enqueue(LogEntry entry) {
+        while (!offer(entry)) {
+            // The buffer is full: wake the writer and wait for it to make room, rather than drop the entry
+            if (closed || !WRITER.isAlive()) {
+                drain();
+            } else {
+                LockSupport.unpark(WRITER);
+                LockSupport.parkNanos(FULL_WAIT_NANOS);
+            }
+        }
+        if (closed || !WRITER.isAlive()) {
+            // The writer has stopped, such as during shutdown, so the caller writes its own entry
+            drain();
+        } else if (entry.level == LogLevel.ERROR) {
+            LockSupport.unpark(WRITER);
+        }
+    }
+
+    /**
+     * Claims the next slot of the ring buffer with a compare-and-set and publishes the entry in it.
+     * @return true if the entry was queued, false if the buffer is full.
+     */
+    private static boolean offer(LogEntry entry) {
+        while (true) {
+            long tail = TAIL.get();
+            int index = (int) (tail & (CAPACITY - 1));
+            long sequence = SEQUENCES.get(index);
+            if (sequence == tail) {
+                if (TAIL.compareAndSet(tail, tail + 1)) {
+                    SLOTS[index] = entry;
+                    SEQUENCES.set(index, tail + 1);
+                    return true;
+                }
+            } else if (sequence < tail) {
+                return false;
+            }
+            // Another caller claimed the slot first; try the next one
+        }
+    }
+
+    private static void runWriter() {
+        while (true) {
+            boolean stopping = closed;
+            int written = drain();
+            if (written == 0) {
+                if (stopping) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+        synchronized (WRITE_LOCK) {
+            ERROR_FILE.close();
+            INFO_FILE.close();
+            OPERATION_FILE.close();
+        }
+    }
+
+    /**
+     * Takes up to MAX_BATCH published entries from the ring buffer and appends them to their log files,
+     * one write per file.
+     * @return The number of entries written.
+     */
+    private static int drain() {
+        synchronized (WRITE_LOCK) {
+            StringBuilder errors = new StringBuilder();
+            StringBuilder infos = new StringBuilder();
+            StringBuilder operations = new StringBuilder();
+            int count = 0;
+            while (count < MAX_BATCH) {
+                int index = (int) (head & (CAPACITY - 1));
+                if (SEQUENCES.get(index) != head + 1) {
+                    break;
+                }
+                LogEntry entry = SLOTS[index];
+                SLOTS[index] = null;
+                SEQUENCES.set(index, head + CAPACITY);
+                head++;
+                count++;
+                format(entry, entry.operation != null ? operations : entry.level == LogLevel.ERROR ? errors : infos);
+            }
+            if (count > 0) {
+                ERROR_FILE.append(errors);
+                INFO_FILE.append(infos);
+                OPERATION_FILE.append(operations);
+                WRITTEN.addAndGet(count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Formats an entry as one line of JSON.
+     */
+    private static void format(LogEntry entry, StringBuilder out) {
+        out.append("{\"time\":");
+        appendJson(out, DATE_FORMAT.format(Instant.ofEpochMilli(entry.millis)));
+        out.append(",\"level\":");
+        appendJson(out, entry.level.getLevel());
+        out.append(",\"thread\":");
+        appendJson(out, entry.thread);
+        if (entry.operation != null) {
+            out.append(",\"op\":");
+            appendJson(out, entry.operation);
+            out.append(",\"entity\":");
+            appendJson(out, entry.entity);
+            out.append(",\"rows\":");
+            if (entry.rows >= 0) {
+                out.append(entry.rows);
+            } else {
+                out.append("null");
+            }
+            out.append(",\"nanos\":").append(entry.elapsedNanos).append(",\"ok\":").append(entry.succeeded);
+        } else {
+            out.append(",\"message\":");
+            appendJson(out, entry.message);
+        }
+        if (entry.exception != null) {
+            out.append(",\"exception\":");
+            appendJson(out, entry.exception.getClass().getName() + ": " + entry.exception.getMessage());
+            out.append(",\"stacktrace\":");
+            appendJson(out, getStackTraceAsString(entry.exception));
+        }
+        out.append('}').append(System.lineSeparator());
+    }
+
+    /**
+     * Appends a string as a JSON string literal, escaping quotes, backslashes and control characters.
+     */
+    private static void appendJson(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
 
     private static String getStackTraceAsString(Exception e) {
         StringBuilder sb = new StringBuilder();
@@ -75,19 +396,73 @@ public class LoggerUtility {
     }
 
     /**
-     * Writes a log entry to the specified log file.
-     * @param logFile The log file to write to.
-     * @param message The message to log.
+     * A log file kept open for appending, rotated when it would grow past MAX_BYTES.
+     * Only used while holding WRITE_LOCK.
      */
-    private static synchronized void writeToLog(String logFile, String message) {
-        try {
-            Files.write(
-                Paths.get(logFile), 
-                message.getBytes(), 
-                StandardOpenOption.APPEND
-            );
-        } catch (IOException e) {
-            System.err.println("Failed to write to log file: " + e.getMessage());
+    private static class LogFile {
+        private final Path path;
+        private FileChannel channel;
+        private long size;
+
+        LogFile(String path) {
+            this.path = Paths.get(path);
+        }
+
+        void append(CharSequence text) {
+            if (text.length() == 0) {
+                return;
+            }
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(text.toString());
+            try {
+                if (channel == null) {
+                    open();
+                }
+                if (size > 0 && size + buffer.remaining() > MAX_BYTES) {
+                    rotate();
+                }
+                while (buffer.hasRemaining()) {
+                    size += channel.write(buffer);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to write to log file: " + e.getMessage());
+                close();
+            }
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            size = channel.size();
+        }
+
+        /**
+         * Renames the file to .1, shifting older backups up by one and dropping the oldest, and starts a new file.
+         */
+        private void rotate() throws IOException {
+            close();
+            for (int i = MAX_BACKUPS - 1; i >= 1; i--) {
+                Path backup = backup(i);
+                if (Files.exists(backup)) {
+                    Files.move(backup, backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, backup(1), StandardCopyOption.REPLACE_EXISTING);
+            open();
+        }
+
+        private Path backup(int number) {
+            return path.resolveSibling(path.getFileName() + "." + number);
+        }
+
+        void close() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close log file: " + e.getMessage());
+            }
+            channel = null;
         }
     }
 }
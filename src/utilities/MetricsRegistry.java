@@ -0,0 +1,321 @@
+package utilities;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import enums.CostMetric;
+
+/**
+ * MetricsRegistry.java
+ * This utility class keeps in-process metrics of the running program: counters, gauges, timers and histograms, all by name.
+ * Counters and histograms are updated without locks, so any session can record into them at any time.
+ * Timers and histograms keep log-linear buckets like an HDR histogram: every power of two is split into SUB_BUCKETS
+ * buckets, so percentiles are exact to within 1/SUB_BUCKETS of the value whatever its magnitude.
+ * Controllers run each menu action through action, which times it and records what it cost in storage (DB calls,
+ * rows scanned, tables loaded and written, journal appends and bytes written) into histograms of the action.
+ * Actions wait for user input, so their timers measure the whole interaction; the timers of the DB classes measure the calls.
+ * report formats every metric for the manager dashboard, and dump writes it to metrics.file (logs/metrics.txt by default).
+ * Set metrics.enabled=false to record nothing.
+ */
+
+public class MetricsRegistry {
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("metrics.enabled"));
+    private static final String DUMP_FILE = System.getProperty("metrics.file", "logs/metrics.txt");
+    private static final String ACTION_PREFIX = "action.";
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final DateTimeFormatter DATE_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    // Storage costs of the action running on each thread, indexed by CostMetric ordinal
+    private static final ThreadLocal<long[]> ACTION_COSTS = new ThreadLocal<>();
+    private static final long STARTED = System.currentTimeMillis();
+
+    /**
+     * A distribution of non-negative values in log-linear buckets.
+     */
+    private static class Histogram {
+        // Values below SUB_BUCKETS have a bucket each; above, each power of two has SUB_BUCKETS buckets
+        private final AtomicLongArray buckets = new AtomicLongArray((64 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            long clamped = Math.max(0, value);
+            buckets.incrementAndGet(bucketOf(clamped));
+            count.increment();
+            sum.add(clamped);
+            if (clamped > max.get()) {
+                max.accumulateAndGet(clamped, Math::max);
+            }
+        }
+
+        /**
+         * Retrieves the value below which a fraction of the recorded values fall.
+         * @param quantile The fraction, between 0 and 1.
+         * @return The middle of the bucket holding the value, or 0 if nothing has been recorded.
+         */
+        long percentile(double quantile) {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                total += buckets.get(i);
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(max.get(), middleOf(i));
+                }
+            }
+            return 0;
+        }
+
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+        }
+
+        private static long middleOf(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1;
+            long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+            return lowest + ((1L << shift) >>> 1);
+        }
+    }
+
+    /**
+     * The body of an action run through action.
+     */
+    public interface Action {
+        void run();
+    }
+
+    /**
+     * @return true if metrics are recorded, false if they are turned off
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Adds one to a counter.
+     * @param name The name of the counter, such as "cache.Project.hits".
+     */
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * Adds to a counter.
+     * @param name The name of the counter.
+     * @param delta The amount to add.
+     */
+    public static void add(String name, long delta) {
+        if (!ENABLED) {
+            return;
+        }
+        LongAdder counter = COUNTERS.get(name);
+        if (counter == null) {
+            counter = COUNTERS.computeIfAbsent(name, key -> new LongAdder());
+        }
+        counter.add(delta);
+    }
+
+    /**
+     * Retrieves the value of a counter.
+     * @param name The name of the counter, such as "storage.table.loads".
+     * @return The value of the counter, or 0 if nothing has been added to it.
+     */
+    public static long getCount(String name) {
+        LongAdder counter = COUNTERS.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Adds to the counter of a storage cost, and to the cost of the action running on this thread.
+     * @param metric The storage cost.
+     * @param delta The amount to add.
+     */
+    public static void addCost(CostMetric metric, long delta) {
+        if (!ENABLED) {
+            return;
+        }
+        add(metric.getMetricName(), delta);
+        long[] costs = ACTION_COSTS.get();
+        if (costs != null) {
+            costs[metric.ordinal()] += delta;
+        }
+    }
+
+    /**
+     * Registers a gauge, a value read whenever the metrics are reported, such as the size of a cache.
+     * A gauge registered again under the same name replaces the previous one.
+     * @param name The name of the gauge.
+     * @param value The function reading the current value.
+     */
+    public static void registerGauge(String name, LongSupplier value) {
+        if (ENABLED) {
+            GAUGES.put(name, value);
+        }
+    }
+
+    /**
+     * Records the duration of one call in a timer.
+     * @param name The name of the timer, such as "db.ProjectDB.getAllProjects".
+     * @param nanos The elapsed nanoseconds.
+     */
+    public static void recordNanos(String name, long nanos) {
+        if (ENABLED) {
+            histogramOf(TIMERS, name).record(nanos);
+        }
+    }
+
+    /**
+     * Records a value in a histogram.
+     * @param name The name of the histogram, such as "action.applicant.apply.storage.rows.scanned".
+     * @param value The value to record.
+     */
+    public static void recordValue(String name, long value) {
+        if (ENABLED) {
+            histogramOf(HISTOGRAMS, name).record(value);
+        }
+    }
+
+    /**
+     * Runs an action of a user, such as a menu option, and records its duration and storage costs.
+     * An action run inside another one is recorded on its own and also counts towards the outer action.
+     * @param name The name of the action, such as "manager.applications".
+     * @param body The action to run.
+     */
+    public static void action(String name, Action body) {
+        if (!ENABLED) {
+            body.run();
+            return;
+        }
+        long[] outer = ACTION_COSTS.get();
+        long[] costs = new long[CostMetric.values().length];
+        ACTION_COSTS.set(costs);
+        long start = System.nanoTime();
+        try {
+            body.run();
+        } finally {
+            recordNanos(ACTION_PREFIX + name, System.nanoTime() - start);
+            for (CostMetric metric : CostMetric.values()) {
+                recordValue(ACTION_PREFIX + name + "." + metric.getMetricName(), costs[metric.ordinal()]);
+                if (outer != null) {
+                    outer[metric.ordinal()] += costs[metric.ordinal()];
+                }
+            }
+            ACTION_COSTS.set(outer);
+        }
+    }
+
+    /**
+     * Formats every metric as a table: counters and gauges with their values, timers with their call count and
+     * mean, p50, p95, p99 and maximum in microseconds, and histograms with the same statistics of their values.
+     * @return The report, one metric per line.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        long now = System.currentTimeMillis();
+        report.append(String.format("Metrics at %s, up %d s%n", DATE_FORMAT.format(Instant.ofEpochMilli(now)), (now - STARTED) / 1000));
+        if (!ENABLED) {
+            return report.append("Metrics are turned off (metrics.enabled=false)").append(System.lineSeparator()).toString();
+        }
+
+        report.append(String.format("%n%-60s %14s%n", "Counter", "Value"));
+        for (Map.Entry<String, LongAdder> counter : new TreeMap<>(COUNTERS).entrySet()) {
+            report.append(String.format("%-60s %14d%n", counter.getKey(), counter.getValue().sum()));
+        }
+        report.append(String.format("%n%-60s %14s%n", "Gauge", "Value"));
+        for (Map.Entry<String, LongSupplier> gauge : new TreeMap<>(GAUGES).entrySet()) {
+            long value;
+            try {
+                value = gauge.getValue().getAsLong();
+            } catch (RuntimeException e) {
+                LoggerUtility.logError("Failed to read gauge: " + gauge.getKey(), e);
+                continue;
+            }
+            report.append(String.format("%-60s %14d%n", gauge.getKey(), value));
+        }
+        appendHistograms(report, "Timer (us)", TIMERS, 1000.0);
+        appendHistograms(report, "Histogram", HISTOGRAMS, 1.0);
+        return report.toString();
+    }
+
+    /**
+     * Writes the report of every metric to the dump file, replacing the previous dump.
+     * Failures are logged, since the dump is taken as the program exits.
+     */
+    public static void dump() {
+        if (!ENABLED) {
+            return;
+        }
+        Path file = Paths.get(DUMP_FILE);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, report().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LoggerUtility.logError("Failed to write metrics to: " + DUMP_FILE, e);
+        }
+    }
+
+    /**
+     * @return the file dump writes the metrics to
+     */
+    public static String getDumpFile() {
+        return DUMP_FILE;
+    }
+
+    private static void appendHistograms(StringBuilder report, String title, Map<String, Histogram> histograms, double divisor) {
+        report.append(String.format("%n%-60s %9s %10s %10s %10s %10s %10s%n", title, "Count", "Mean", "p50", "p95", "p99", "Max"));
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.count.sum();
+            if (count == 0) {
+                continue;
+            }
+            report.append(String.format("%-60s %9d %10.1f %10.1f %10.1f %10.1f %10.1f%n", entry.getKey(), count,
+                histogram.sum.sum() / (double) count / divisor,
+                histogram.percentile(0.50) / divisor,
+                histogram.percentile(0.95) / divisor,
+                histogram.percentile(0.99) / divisor,
+                histogram.max.get() / divisor));
+        }
+    }
+
+    private static Histogram histogramOf(Map<String, Histogram> histograms, String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new Histogram());
+        }
+        return histogram;
+    }
+}
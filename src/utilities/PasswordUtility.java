@@ -0,0 +1,183 @@
+package utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import databases.EntityCache;
+
+/**
+ * PasswordUtility.java
+ * This utility class hashes and verifies passwords with salted PBKDF2-HMAC-SHA256 from the JDK.
+ * Hashes are stored as "pbkdf2$iterations$salt$hash" in the password column, so each hash keeps the cost it was made with.
+ * The number of iterations for new hashes is calibrated once by timing a short run of PBKDF2, so that one verification
+ * takes about the target latency (HASH_MILLIS, or the password.hash.millis system property) on the machine it runs on.
+ * Passwords still stored in plaintext are verified as plaintext, so that callers can replace them with a hash on login.
+ * Successful verifications are remembered by a keyed digest of the password, never the password itself, so that
+ * checking the same password against the same hash again skips the cost of hashing.
+ */
+
+public class PasswordUtility {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2";
+    private static final String SEPARATOR = "$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final long HASH_MILLIS = 100;
+    private static final int PROBE_ITERATIONS = 10000;
+    private static final int PROBE_RUNS = 3;
+    private static final int MIN_ITERATIONS = 10000;
+    private static final int MAX_ITERATIONS = 10000000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Key of the verification digests, so that the cache cannot be used to test guesses outside this process
+    private static final byte[] CACHE_KEY = new byte[32];
+    // Digest of the last password verified against each stored hash
+    private static final EntityCache<String, byte[]> VERIFIED = new EntityCache<>(4096);
+    private static volatile int iterations = 0;
+
+    static {
+        RANDOM.nextBytes(CACHE_KEY);
+    }
+
+    /**
+     * Calibrates the number of iterations of new hashes, if it has not been calibrated yet.
+     * The best of PROBE_RUNS timed runs of PROBE_ITERATIONS is scaled up to the target latency.
+     * @return The number of iterations new hashes are made with.
+     */
+    public static synchronized int calibrate() {
+        if (iterations > 0) {
+            return iterations;
+        }
+        long targetMillis = Long.getLong("password.hash.millis", HASH_MILLIS);
+        byte[] salt = new byte[SALT_BYTES];
+        long bestNanos = Long.MAX_VALUE;
+        // The first run also loads the provider, which the later runs do not pay for
+        for (int run = 0; run <= PROBE_RUNS; run++) {
+            long start = System.nanoTime();
+            derive("calibration", salt, PROBE_ITERATIONS);
+            long elapsed = System.nanoTime() - start;
+            if (run > 0) {
+                bestNanos = Math.min(bestNanos, elapsed);
+            }
+        }
+        long scaled = PROBE_ITERATIONS * (targetMillis * 1000000L) / Math.max(1, bestNanos);
+        // Round to a thousand so that hashes made on similar machines share the same cost
+        iterations = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, scaled / 1000 * 1000));
+        LoggerUtility.logInfo("Calibrated password hashing to " + iterations + " PBKDF2 iterations for "
+            + targetMillis + " ms per verification");
+        return iterations;
+    }
+
+    /**
+     * Hashes a password with a new random salt at the calibrated cost.
+     * @param password The password to hash.
+     * @return The hash to store, in the form "pbkdf2$iterations$salt$hash".
+     */
+    public static String hash(String password) {
+        int cost = iterations > 0 ? iterations : calibrate();
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = derive(password, salt, cost);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + SEPARATOR + cost + SEPARATOR + encoder.encodeToString(salt) + SEPARATOR + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against a stored password, which is either a hash made by hash or a legacy plaintext password.
+     * @param password The password entered by the user.
+     * @param stored The password stored for the user.
+     * @return true if the password matches, false otherwise.
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] digest = cacheDigest(stored, password);
+        byte[] verified = VERIFIED.get(stored);
+        if (verified != null && MessageDigest.isEqual(verified, digest)) {
+            return true;
+        }
+
+        String[] parts = stored.split("\\" + SEPARATOR);
+        if (parts.length != 4) {
+            return false;
+        }
+        byte[] expected;
+        byte[] actual;
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            expected = decoder.decode(parts[3]);
+            actual = derive(password, decoder.decode(parts[2]), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException e) {
+            LoggerUtility.logError("Malformed password hash", e);
+            return false;
+        }
+        boolean matches = MessageDigest.isEqual(expected, actual);
+        if (matches) {
+            VERIFIED.put(stored, digest);
+        }
+        return matches;
+    }
+
+    /**
+     * Checks if a stored password is a hash made by hash, rather than a legacy plaintext password.
+     * @param stored The password stored for the user.
+     * @return true if it is a hash, false otherwise.
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX + SEPARATOR);
+    }
+
+    /**
+     * Checks if a stored password should be replaced by a new hash on the next successful login:
+     * plaintext passwords, and hashes made with less than half the calibrated cost, such as on a slower machine.
+     * @param stored The password stored for the user.
+     * @return true if the password should be hashed again, false otherwise.
+     */
+    public static boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\" + SEPARATOR);
+        try {
+            int cost = iterations > 0 ? iterations : calibrate();
+            return parts.length != 4 || Integer.parseInt(parts[1]) < cost / 2;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int cost) {
+        KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, cost, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // PBKDF2WithHmacSHA256 is required of every Java platform
+            throw new IllegalStateException("Password hashing is unavailable", e);
+        }
+    }
+
+    private static byte[] cacheDigest(String stored, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(CACHE_KEY);
+            digest.update(stored.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(password.getBytes(StandardCharsets.UTF_8));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+}
@@ -2,9 +2,15 @@ package utilities;
 import java.util.Scanner;
 
 /**
- * ScannerUtility is a utility class that provides a static Scanner instance for user input.
- * This class is designed to be used throughout the application to avoid creating multiple Scanner instances.
+ * ScannerUtility is a utility class that provides the Scanner for user input.
+ * The Scanner belongs to the Session of the calling thread, so that every session in server mode reads its own input,
+ * and the terminal session shares one Scanner over System.in throughout the application.
  */
 public class ScannerUtility {
-    public static final Scanner SCANNER = new Scanner(System.in);
-}
\ No newline at end of file
+    /**
+     * @return the Scanner reading the input of the current session
+     */
+    public static Scanner getScanner() {
+        return Session.current().getScanner();
+    }
+}
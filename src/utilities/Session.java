@@ -0,0 +1,144 @@
+package utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+/**
+ * Session class holds the input and output of one user session.
+ * The terminal session reads System.in and writes to the original System.out.
+ * In server mode each connection runs in its own thread with its own session, bound to that thread,
+ * and routeSystemOutput sends everything the views print to the session of the printing thread.
+ */
+public class Session implements AutoCloseable {
+    private static final Session CONSOLE = new Session(System.in, System.out);
+    private static final ThreadLocal<Session> CURRENT = new ThreadLocal<>();
+
+    private final Scanner scanner;
+    private final PrintStream output;
+
+    /**
+     * Thrown when a session reads past the end of its input, such as when the client disconnects.
+     * It is an Error so that menu loops catching Exception to re-prompt do not keep reading a closed input.
+     */
+    public static class ClosedError extends Error {
+        private static final long serialVersionUID = 1L;
+
+        public ClosedError() {
+            super("Session input closed");
+        }
+    }
+
+    /**
+     * Constructor for Session
+     * @param input The stream the user's input is read from.
+     * @param output The stream shown to the user. It should flush on every write so that prompts appear at once.
+     */
+    public Session(InputStream input, PrintStream output) {
+        this.scanner = new Scanner(input == System.in ? input : new ClosingInputStream(input));
+        this.output = output;
+    }
+
+    /**
+     * @return the session bound to the current thread, or the terminal session if there is none
+     */
+    public static Session current() {
+        Session session = CURRENT.get();
+        return session != null ? session : CONSOLE;
+    }
+
+    /**
+     * Binds this session to the current thread, so that input and output of the thread use it.
+     */
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Unbinds the session of the current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Replaces System.out with a stream that writes to the session of the calling thread.
+     * Threads without a session keep writing to the original System.out.
+     */
+    public static void routeSystemOutput() {
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                current().output.write(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                current().output.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() {
+                current().output.flush();
+            }
+        }, true));
+    }
+
+    /**
+     * @return the Scanner reading the user's input
+     */
+    public Scanner getScanner() {
+        return scanner;
+    }
+
+    /**
+     * @return the stream shown to the user
+     */
+    public PrintStream getOutput() {
+        return output;
+    }
+
+    @Override
+    public void close() {
+        if (this != CONSOLE) {
+            scanner.close();
+            output.close();
+        }
+    }
+
+    /**
+     * Input stream that throws ClosedError at the end of the input instead of reporting it to the Scanner.
+     */
+    private static class ClosingInputStream extends InputStream {
+        private final InputStream input;
+
+        ClosingInputStream(InputStream input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = input.read();
+            if (b < 0) {
+                throw new ClosedError();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int count = input.read(bytes, offset, length);
+            if (count < 0) {
+                throw new ClosedError();
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -37,10 +37,10 @@ public class ApplicantEnquiryView implements IDisplayResult {
 
         int projectIndex;
         try {
-            projectIndex = ScannerUtility.SCANNER.nextInt() - 1;
-            ScannerUtility.SCANNER.nextLine();
+            projectIndex = ScannerUtility.getScanner().nextInt() - 1;
+            ScannerUtility.getScanner().nextLine();
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -2;
         }
         return projectIndex;
@@ -58,10 +58,10 @@ public class ApplicantEnquiryView implements IDisplayResult {
         System.out.print("Enter an enquiry number to modify (0 to go back): ");
         int enquiryIndex;
         try {
-            enquiryIndex = ScannerUtility.SCANNER.nextInt() - 1;
-            ScannerUtility.SCANNER.nextLine();
+            enquiryIndex = ScannerUtility.getScanner().nextInt() - 1;
+            ScannerUtility.getScanner().nextLine();
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -2;
         }
         return enquiryIndex;
@@ -80,10 +80,10 @@ public class ApplicantEnquiryView implements IDisplayResult {
         System.out.print("Select an option: ");
         int option;
         try {
-            option = ScannerUtility.SCANNER.nextInt();
-            ScannerUtility.SCANNER.nextLine();
+            option = ScannerUtility.getScanner().nextInt();
+            ScannerUtility.getScanner().nextLine();
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -1;
         }
         return option;
@@ -96,7 +96,7 @@ public class ApplicantEnquiryView implements IDisplayResult {
      */
     public String promptNewEnquiryText() {
         System.out.print("Enter your new enquiry (Blank to return): ");
-        return ScannerUtility.SCANNER.nextLine();
+        return ScannerUtility.getScanner().nextLine();
     }
 
     /**
@@ -110,7 +110,7 @@ public class ApplicantEnquiryView implements IDisplayResult {
         System.out.println("=========================================");
         System.out.println("Project name: " + project.getProjectName());
         System.out.print("\nEnter your enquiry (Blank to return): ");
-        String enquiryText = ScannerUtility.SCANNER.nextLine();
+        String enquiryText = ScannerUtility.getScanner().nextLine();
         return enquiryText;
     }
     
@@ -22,11 +22,11 @@ public class ApplicantMainView implements IDisplayResult {
         System.out.print("\nEnter option: ");
 
         try {
-            int option = ScannerUtility.SCANNER.nextInt();
-            ScannerUtility.SCANNER.nextLine();
+            int option = ScannerUtility.getScanner().nextInt();
+            ScannerUtility.getScanner().nextLine();
             return option;
         } catch (Exception e) {
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -1;
         }
     }
@@ -37,11 +37,11 @@ public class ApplicationView implements IDisplayResult {
         }
         System.out.print("\nSelect a project number to enquire or apply (0 to go back): ");
         try {
-            int projectIndex = ScannerUtility.SCANNER.nextInt() - 1;
-            ScannerUtility.SCANNER.nextLine();
+            int projectIndex = ScannerUtility.getScanner().nextInt() - 1;
+            ScannerUtility.getScanner().nextLine();
             return projectIndex;
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -2; // Indicate invalid input
         }
     }
@@ -58,14 +58,14 @@ public class ApplicationView implements IDisplayResult {
                 System.out.println("2. Submit Application");
                 System.out.println("0. Back ");
                 System.out.print("\nSelect action: ");
-                int action = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                int action = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (action >= 0 && action <= 2) {
                     return action;
                 }
                 displayError("Invalid selection. Please try again.");
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 displayError("Invalid selection. Please try again.");
             }
         }
@@ -86,11 +86,11 @@ public class ApplicationView implements IDisplayResult {
         System.out.println("0. Back");
         System.out.print("\nSelect a flat type to apply: ");
         try {
-            int flatTypeIndex = ScannerUtility.SCANNER.nextInt() - 1;
-            ScannerUtility.SCANNER.nextLine();
+            int flatTypeIndex = ScannerUtility.getScanner().nextInt() - 1;
+            ScannerUtility.getScanner().nextLine();
             return flatTypeIndex;
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -2;
         }
     }
@@ -107,13 +107,13 @@ public class ApplicationView implements IDisplayResult {
             System.out.println("2. No");
             System.out.print("\nEnter option: ");
             try {
-                int confirmation = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                int confirmation = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (confirmation == 1) return true;
                 if (confirmation == 2) return false;
                 displayError("Invalid selection. Please try again.");
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 displayError("Invalid selection. Please try again.");
             }
         }
@@ -148,11 +148,11 @@ public class ApplicationView implements IDisplayResult {
         System.out.println("=========================================");
         System.out.print("\nSelect an option: ");
         try {
-            int option = ScannerUtility.SCANNER.nextInt();
-            ScannerUtility.SCANNER.nextLine();
+            int option = ScannerUtility.getScanner().nextInt();
+            ScannerUtility.getScanner().nextLine();
             return option;
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -1;
         }
     }
@@ -163,7 +163,7 @@ public class ApplicationView implements IDisplayResult {
      */
     public String promptProjectNameFilter() {
         System.out.print("\nEnter project name (Nothing to clear filter): ");
-        return ScannerUtility.SCANNER.nextLine();
+        return ScannerUtility.getScanner().nextLine();
     }
     /**
      * Prompt neighbourhood name filter
@@ -171,7 +171,7 @@ public class ApplicationView implements IDisplayResult {
      */
     public String promptNeighbourhoodFilter() {
         System.out.print("\nEnter neighbourhood name (Nothing to clear filter): ");
-        return ScannerUtility.SCANNER.nextLine();
+        return ScannerUtility.getScanner().nextLine();
     }
     /**
      * Prompt minimum price filter
@@ -181,11 +181,11 @@ public class ApplicationView implements IDisplayResult {
         while (true){
         System.out.print("\nEnter minimum price (0 to clear filter): ");
             try {
-                double price = ScannerUtility.SCANNER.nextDouble();
-                ScannerUtility.SCANNER.nextLine();
+                double price = ScannerUtility.getScanner().nextDouble();
+                ScannerUtility.getScanner().nextLine();
                 return price;
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 displayError("Invalid Price. Please try again.");
             }
         }
@@ -198,11 +198,11 @@ public class ApplicationView implements IDisplayResult {
         while (true){
             System.out.print("\nEnter maximum price (0 to clear filter): ");
             try {
-                double price = ScannerUtility.SCANNER.nextDouble();
-                ScannerUtility.SCANNER.nextLine();
+                double price = ScannerUtility.getScanner().nextDouble();
+                ScannerUtility.getScanner().nextLine();
                 return price;
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 displayError("Invalid Price. Please try again.");
             }
         }
@@ -219,14 +219,14 @@ public class ApplicationView implements IDisplayResult {
                 System.out.println("2. 3~ROOM");
                 System.out.println("3. Clear Filter");
                 System.out.print("\nEnter Option: ");
-                int selectedFlat = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                int selectedFlat = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (selectedFlat >= 1 && selectedFlat <= 3) {
                     return selectedFlat;
                 }
                 displayInfo("Invalid option.");
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 displayInfo("Invalid option.");
             }
         }
@@ -242,14 +242,14 @@ public class ApplicationView implements IDisplayResult {
                 System.out.println("1. Ascending");
                 System.out.println("2. Descending");
                 System.out.print("\nEnter Option: ");
-                int order = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                int order = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (order == 1 || order == 2) {
                     return order;
                 }
                 displayError("Invalid selection. Please try again.");
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 displayError("Invalid . Please try again.");
             }
         }
@@ -269,11 +269,11 @@ public class ApplicationView implements IDisplayResult {
         System.out.println("=========================================");
         System.out.print("\nSelect an option: ");
         try {
-            int option = ScannerUtility.SCANNER.nextInt();
-            ScannerUtility.SCANNER.nextLine();
+            int option = ScannerUtility.getScanner().nextInt();
+            ScannerUtility.getScanner().nextLine();
             return option;
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -1;
         }
     }
@@ -307,14 +307,14 @@ public class ApplicationView implements IDisplayResult {
                     System.out.println("Actions:");
                     System.out.println("0. Back");
                     System.out.print("\nEnter Option: ");
-                    option = ScannerUtility.SCANNER.nextInt();
-                    ScannerUtility.SCANNER.nextLine();
+                    option = ScannerUtility.getScanner().nextInt();
+                    ScannerUtility.getScanner().nextLine();
                     if (option == 0) {
                         return 0;
                     }
                     displayError("Invalid option. Please try again");
                 } catch (InputMismatchException e) {
-                    ScannerUtility.SCANNER.nextLine();
+                    ScannerUtility.getScanner().nextLine();
                 }
 
             } else {
@@ -323,14 +323,14 @@ public class ApplicationView implements IDisplayResult {
                     System.out.println("1. Withdraw Application");
                     System.out.println("0. Back");
                     System.out.print("\nEnter Option: ");
-                    option = ScannerUtility.SCANNER.nextInt();
-                    ScannerUtility.SCANNER.nextLine();
+                    option = ScannerUtility.getScanner().nextInt();
+                    ScannerUtility.getScanner().nextLine();
                     if (option == 1 || option == 0) {
                         return option;
                     }
                     displayError("Invalid option. Please try again");
                 } catch (InputMismatchException e) {
-                    ScannerUtility.SCANNER.nextLine();
+                    ScannerUtility.getScanner().nextLine();
                 }
             }
         }
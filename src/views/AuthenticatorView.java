@@ -27,7 +27,7 @@ public class AuthenticatorView implements IDisplayResult {
 
     public String getNric() {
         System.out.print("Enter NRIC: ");
-        return ScannerUtility.SCANNER.nextLine().toUpperCase();
+        return ScannerUtility.getScanner().nextLine().toUpperCase();
     }
     /**
      * Prompt the user for password
@@ -36,7 +36,7 @@ public class AuthenticatorView implements IDisplayResult {
 
     public String getPassword() {
         System.out.print("Enter Password: ");
-        return ScannerUtility.SCANNER.nextLine();
+        return ScannerUtility.getScanner().nextLine();
     }
 
     /**
@@ -46,7 +46,7 @@ public class AuthenticatorView implements IDisplayResult {
 
     public String getNewPassword() {
         System.out.print("Enter New Password: ");
-        return ScannerUtility.SCANNER.nextLine();
+        return ScannerUtility.getScanner().nextLine();
     }
 
     /**
@@ -56,7 +56,7 @@ public class AuthenticatorView implements IDisplayResult {
 
     public String getConfirmPassword() {
         System.out.print("Confirm New Password: ");
-        return ScannerUtility.SCANNER.nextLine();
+        return ScannerUtility.getScanner().nextLine();
     }
 
     /**
@@ -74,6 +74,6 @@ public class AuthenticatorView implements IDisplayResult {
      */
     public String getCurrentPassword() {
         System.out.print("Enter Current Password (Blank to back): ");
-        return ScannerUtility.SCANNER.nextLine();
+        return ScannerUtility.getScanner().nextLine();
     }
 }
\ No newline at end of file
@@ -51,8 +51,8 @@ public class ManagerApplicationView implements IDisplayResult {
             System.out.println("========================================");
             System.out.print("Enter your choice: ");
             try {
-                choice = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+                choice = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
                 switch (choice) {
                     case 1 -> showApplications(getAllOwnedApplications());
                     case 2 -> updatePendingApplicationStatus();
@@ -61,7 +61,7 @@ public class ManagerApplicationView implements IDisplayResult {
                     default -> System.out.println("[ERROR] Invalid choice. Please try again.");
                 }
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 System.out.println("[ERROR] Invalid input. Please enter a number.");
             }
         } while (choice != 0);
@@ -118,15 +118,15 @@ public class ManagerApplicationView implements IDisplayResult {
                 System.out.println("========================================");
                 try {
                 System.out.print("\nEnter option (0 to back): ");
-                status = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                status = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (status == 0){
                     return;
                 }
                 if (status == 1 || status == 2) break;
                     else displayError("Invalid choice");
                 } catch (InputMismatchException e) {
-                    ScannerUtility.SCANNER.nextLine();
+                    ScannerUtility.getScanner().nextLine();
                     displayError("Please enter a valid number.");
                 }
             }
@@ -175,8 +175,8 @@ public class ManagerApplicationView implements IDisplayResult {
 
                     System.out.print("\nEnter option (0 to back): ");
                     int choice;
-                    choice = ScannerUtility.SCANNER.nextInt();
-                    ScannerUtility.SCANNER.nextLine(); // Consume the newline character
+                    choice = ScannerUtility.getScanner().nextInt();
+                    ScannerUtility.getScanner().nextLine(); // Consume the newline character
                     if (choice == 0){
                         return;
                     }
@@ -192,7 +192,7 @@ public class ManagerApplicationView implements IDisplayResult {
                         // No need to change validChoice, loop will continue
                     }
                 catch (InputMismatchException e){
-                    ScannerUtility.SCANNER.nextLine(); // Consume the newline character
+                    ScannerUtility.getScanner().nextLine(); // Consume the newline character
                     displayError("Invalid choice. Please select a valid option.");
                 }
             }
@@ -228,8 +228,8 @@ public class ManagerApplicationView implements IDisplayResult {
             while (true){
                 try {
                     System.out.print("\nSelect project to view: ");
-                    projOption = ScannerUtility.SCANNER.nextInt()-1;
-                    ScannerUtility.SCANNER.nextLine();
+                    projOption = ScannerUtility.getScanner().nextInt()-1;
+                    ScannerUtility.getScanner().nextLine();
                     if (projOption == -1){
                         return null;
                     }
@@ -240,7 +240,7 @@ public class ManagerApplicationView implements IDisplayResult {
                         break;
                     }
                 }catch (InputMismatchException e){
-                    ScannerUtility.SCANNER.nextLine();
+                    ScannerUtility.getScanner().nextLine();
                     displayError("Invalid option. Please try again.");
                 }
             }
@@ -264,8 +264,8 @@ public class ManagerApplicationView implements IDisplayResult {
 
                     System.out.print("\nEnter Application Number (0 to Back): ");
                     
-                    id = ScannerUtility.SCANNER.nextInt() - 1;
-                    ScannerUtility.SCANNER.nextLine();
+                    id = ScannerUtility.getScanner().nextInt() - 1;
+                    ScannerUtility.getScanner().nextLine();
                     if (id == -1){
                         return null;
                     }
@@ -276,7 +276,7 @@ public class ManagerApplicationView implements IDisplayResult {
                         return selectedProjectApplications.get(id);
                     }
                 } catch (InputMismatchException e) {
-                    ScannerUtility.SCANNER.nextLine();
+                    ScannerUtility.getScanner().nextLine();
                     displayError("Invalid Selection. Please try again");
                 }
             }
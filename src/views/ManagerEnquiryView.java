@@ -52,8 +52,8 @@ public class ManagerEnquiryView implements IDisplayResult {
             System.out.println("=========================================");
             System.out.print("Enter your choice: ");
             try {
-                int choice = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine(); // Consume newline
+                int choice = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine(); // Consume newline
 
                 switch (choice) {
                     case 1:
@@ -73,7 +73,7 @@ public class ManagerEnquiryView implements IDisplayResult {
                         displayError("Invalid choice. Please try again.");
                 }
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+                ScannerUtility.getScanner().nextLine(); // Clear invalid input
                 displayError("Invalid input. Please enter a number.");
             }
         }
@@ -98,8 +98,8 @@ public class ManagerEnquiryView implements IDisplayResult {
             System.out.println("           REPLY TO AN ENQUIRY           ");
             System.out.println("=========================================");
             System.out.print("Enter the Enquiry ID to reply to (or 0 to go back): ");
-            int enquiryID = ScannerUtility.SCANNER.nextInt();
-            ScannerUtility.SCANNER.nextLine(); // Consume newline
+            int enquiryID = ScannerUtility.getScanner().nextInt();
+            ScannerUtility.getScanner().nextLine(); // Consume newline
     
             if (enquiryID == 0) {
                 displayInfo("Returning to the previous menu.");
@@ -122,7 +122,7 @@ public class ManagerEnquiryView implements IDisplayResult {
     
             // Prompt user to enter a reply
             System.out.print("Enter your reply: ");
-            String reply = ScannerUtility.SCANNER.nextLine();
+            String reply = ScannerUtility.getScanner().nextLine();
     
             // Send the reply
             controller.replyToEnquiry(selectedEnquiry, reply);
@@ -130,7 +130,7 @@ public class ManagerEnquiryView implements IDisplayResult {
             LoggerUtility.logInfo("Reply sent successfully for Enquiry ID: " + enquiryID);
     
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+            ScannerUtility.getScanner().nextLine(); // Clear invalid input
             displayError("Invalid input. Please enter a valid Enquiry ID.");
         } catch (Exception e) {
             displayError("An error occurred: " + e.getMessage());
@@ -161,8 +161,8 @@ public class ManagerEnquiryView implements IDisplayResult {
     private void viewProjectEnquiries() {
         try {
             System.out.print("Enter Project ID: ");
-            int projectID = ScannerUtility.SCANNER.nextInt();
-            ScannerUtility.SCANNER.nextLine(); // Consume newline
+            int projectID = ScannerUtility.getScanner().nextInt();
+            ScannerUtility.getScanner().nextLine(); // Consume newline
 
             Project project = new Project(
                 projectID,                // Project ID
@@ -179,7 +179,7 @@ public class ManagerEnquiryView implements IDisplayResult {
             displayEnquiries(enquiries);
             LoggerUtility.logInfo("Viewed enquiries for Project ID: " + projectID);
         } catch (InputMismatchException e) {
-            ScannerUtility.SCANNER.nextLine(); // Clear invalid input
+            ScannerUtility.getScanner().nextLine(); // Clear invalid input
             displayError("Invalid input. Please enter a valid Project ID.");
         } catch (Exception e) {
             displayError("An error occurred: " + e.getMessage());
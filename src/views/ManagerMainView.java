@@ -1,5 +1,6 @@
 package views;
 
+import utilities.MetricsRegistry;
 import utilities.ScannerUtility;
 import controllers.ManagerMainController;
 import controllers.ManagerProjectController;
@@ -32,39 +33,43 @@ public class ManagerMainView {
      * Displays the manager menu and handles user input.
      * This method is the main entry point for the manager dashboard.
      * It directs the user to different functionalities based on their choice.
+     * Each option except the metrics dashboard is recorded as an action in MetricsRegistry.
      */
     public void showManagerMenu() {
         int choice;
 
         do {
             printMenuHeader();
-            choice = getValidChoice(0, 4);
+            choice = getValidChoice(0, 7);
 
             switch (choice) {
                 case 1:
-                    handleApplications();
+                    MetricsRegistry.action("manager.applications", this::handleApplications);
                     break;
                 case 2:
-                    handleProjects();
+                    MetricsRegistry.action("manager.projects", this::handleProjects);
                     break;
                 case 3:
-                    handleEnquiries();
+                    MetricsRegistry.action("manager.enquiries", this::handleEnquiries);
                     break;
                 case 4:
-                    handleRegistrations();
+                    MetricsRegistry.action("manager.registrations", this::handleRegistrations);
                     break;
                 case 5:
-                    handleReportGeneration();
-
+                    MetricsRegistry.action("manager.report", this::handleReportGeneration);
+                    break;
                 case 6:
                    AuthenticatorController authenticatorController = new AuthenticatorController();
-                   authenticatorController.handlePasswordChange(loggedInManager);
+                   MetricsRegistry.action("manager.password", () -> authenticatorController.handlePasswordChange(loggedInManager));
+                    break;
+                case 7:
+                    handleMetricsDashboard();
                     break;
                 case 0:
                     System.out.println("Exiting... Thank you!");
                     break;
                 default:
-                    System.out.println("Invalid option. Please choose from 0 to 4.");
+                    System.out.println("Invalid option. Please choose from 0 to 7.");
             }
 
         } while (choice != 0);
@@ -85,6 +90,7 @@ public class ManagerMainView {
         System.out.println("4. Manage Officer Registrations");
         System.out.println("5. Generate Applicant Report");
         System.out.println("6. Change Password");
+        System.out.println("7. View System Metrics");
         System.out.println("0. Logout");
         System.out.println("=========================================");
         System.out.print("Please enter your choice: ");
@@ -99,12 +105,12 @@ public class ManagerMainView {
      */
 
     private int getValidChoice(int min, int max) {
-        while (!ScannerUtility.SCANNER.hasNextInt()) {
+        while (!ScannerUtility.getScanner().hasNextInt()) {
             System.out.print("Invalid input. Please enter a number: ");
-            ScannerUtility.SCANNER.next(); // Clear invalid input
+            ScannerUtility.getScanner().next(); // Clear invalid input
         }
-        int choice = ScannerUtility.SCANNER.nextInt();
-        ScannerUtility.SCANNER.nextLine(); // Consume newline
+        int choice = ScannerUtility.getScanner().nextInt();
+        ScannerUtility.getScanner().nextLine(); // Consume newline
         return choice;
     }
 
@@ -146,6 +152,15 @@ public class ManagerMainView {
         registrationView.showRegistrationMenu(loggedInManager);
     }
 
+    /**
+     * Handles the user's choice for viewing the system metrics.
+     * This method delegates the metrics dashboard to the main controller.
+     */
+
+    private void handleMetricsDashboard() {
+        new ManagerMainController().showMetricsDashboard();
+    }
+
     /**
      * Handles the user's choice for generating applicant reports.
      * This method prompts the user for filters and calls the controller to generate the report.
@@ -154,15 +169,15 @@ public class ManagerMainView {
     private void handleReportGeneration() {
         // Prompt the user for filters
         System.out.print("Enter marital status filter (or leave blank for no filter): ");
-        String maritalStatusFilter = ScannerUtility.SCANNER.nextLine().trim();
+        String maritalStatusFilter = ScannerUtility.getScanner().nextLine().trim();
         maritalStatusFilter = maritalStatusFilter.isEmpty() ? null : maritalStatusFilter;
 
         System.out.print("Enter flat type filter (or leave blank for no filter): ");
-        String flatTypeFilter = ScannerUtility.SCANNER.nextLine().trim();
+        String flatTypeFilter = ScannerUtility.getScanner().nextLine().trim();
         flatTypeFilter = flatTypeFilter.isEmpty() ? null : flatTypeFilter;
 
         System.out.print("Enter project name filter (or leave blank for no filter): ");
-        String projectNameFilter = ScannerUtility.SCANNER.nextLine().trim();
+        String projectNameFilter = ScannerUtility.getScanner().nextLine().trim();
         projectNameFilter = projectNameFilter.isEmpty() ? null : projectNameFilter;
 
         // Call the controller to generate the report
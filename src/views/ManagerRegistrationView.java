@@ -3,8 +3,11 @@ package views;
 import controllers.ManagerRegistrationController;
 import models.HDBManager;
 import models.OfficerRegistration;
+import utilities.ScannerUtility;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -21,7 +24,7 @@ public class ManagerRegistrationView implements IDisplayResult{
      * Initializes the scanner and controller.
      */
     public ManagerRegistrationView() {
-        this.scanner = new Scanner(System.in);
+        this.scanner = ScannerUtility.getScanner();
         this.controller = new ManagerRegistrationController();
     }
 
@@ -37,6 +40,7 @@ public class ManagerRegistrationView implements IDisplayResult{
             System.out.println("1. View All Registrations");
             System.out.println("2. View Pending Registrations");
             System.out.println("3. Update Registration Status");
+            System.out.println("4. View Officer Conflicts");
             System.out.println("0. Exit");
             System.out.println("=========================================");
             System.out.print("Enter your choice: ");
@@ -52,6 +56,9 @@ public class ManagerRegistrationView implements IDisplayResult{
                 case "3":
                     updateRegistrationStatusMenu(manager);
                     break;
+                case "4":
+                    viewRegistrationConflicts();
+                    break;
                 case "0":
                     System.out.println("Exiting Registration Manager...");
                     return;
@@ -166,6 +173,34 @@ public class ManagerRegistrationView implements IDisplayResult{
      * Displays the registrations in a formatted table.
      * @param registrations The list of registrations to display.
      */
+    /**
+     * Displays every officer's pending or successful registrations whose project application windows overlap.
+     */
+    private void viewRegistrationConflicts() {
+        Map<String, List<OfficerRegistration[]>> conflicts = controller.getRegistrationConflicts();
+        if (conflicts.isEmpty()) {
+            System.out.println("No officer has clashing registrations.");
+            return;
+        }
+        System.out.println("\n==========================================================================");
+        System.out.printf("| %-15s | %-20s | %-20s |\n", "Officer NRIC", "Project (Status)", "Clashes With (Status)");
+        System.out.println("==========================================================================");
+        for (Map.Entry<String, List<OfficerRegistration[]>> entry : conflicts.entrySet()) {
+            for (OfficerRegistration[] pair : entry.getValue()) {
+                System.out.printf("| %-15s | %-20s | %-20s |\n",
+                        entry.getKey(),
+                        describeRegistration(pair[0]),
+                        describeRegistration(pair[1]));
+            }
+        }
+        System.out.println("==========================================================================");
+    }
+
+    private String describeRegistration(OfficerRegistration registration) {
+        String name = registration.getProject() != null ? registration.getProject().getProjectName() : "Project " + registration.getProjectID();
+        return name + " (" + registration.getRegistrationStatus() + ")";
+    }
+
     private void displayRegistrations(ArrayList<OfficerRegistration> registrations) {
         System.out.println("\n==========================================================================");
         System.out.printf("| %-5s | %-15s | %-10s | %-15s |\n", "ID", "Officer NRIC", "Project ID", "Status");
@@ -42,8 +42,8 @@ public class OfficerBookingView implements IDisplayResult {
             int option;
             System.out.print("\n" + prompt);
             try {
-                option = ScannerUtility.SCANNER.nextInt() - 1;
-                ScannerUtility.SCANNER.nextLine();
+                option = ScannerUtility.getScanner().nextInt() - 1;
+                ScannerUtility.getScanner().nextLine();
                 if (option == -1) {
                     return option;
                 } else if (option < 0 || option >= applications.size()) {
@@ -53,7 +53,7 @@ public class OfficerBookingView implements IDisplayResult {
                 return option;
             } catch (InputMismatchException e) {
                 displayError("Invalid selection. Please try again.");
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
             }
         }
     }
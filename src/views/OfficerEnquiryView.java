@@ -31,8 +31,8 @@ public class OfficerEnquiryView implements IDisplayResult {
                 System.out.println("0. Exit");
                 System.out.print("\nSelect a project to view enquiries: ");
 
-                int projectIndex = ScannerUtility.SCANNER.nextInt() - 1;
-                ScannerUtility.SCANNER.nextLine(); 
+                int projectIndex = ScannerUtility.getScanner().nextInt() - 1;
+                ScannerUtility.getScanner().nextLine(); 
 
                 if (projectIndex == -1) {
                     return -1;
@@ -40,7 +40,7 @@ public class OfficerEnquiryView implements IDisplayResult {
                 return projectIndex;
             }
             catch(InputMismatchException e){
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 return -2;
             }
         }
@@ -54,13 +54,13 @@ public class OfficerEnquiryView implements IDisplayResult {
     public int promptEnquirySelection(int enquiryCount) {
         try {
             System.out.print("\nEnter an enquiry number to modify (0 to go back): ");
-            int enquiryIndex = ScannerUtility.SCANNER.nextInt() - 1;
-            ScannerUtility.SCANNER.nextLine();
+            int enquiryIndex = ScannerUtility.getScanner().nextInt() - 1;
+            ScannerUtility.getScanner().nextLine();
             if (enquiryIndex == -1) return -1;
             return enquiryIndex;
         }
         catch(InputMismatchException e){
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -2;
         }
         
@@ -72,7 +72,7 @@ public class OfficerEnquiryView implements IDisplayResult {
      */
     public String promptReplyText() {
         System.out.print("Enter your reply enquiry (Blank to back): ");
-        return ScannerUtility.SCANNER.nextLine();
+        return ScannerUtility.getScanner().nextLine();
     }
 
     /**
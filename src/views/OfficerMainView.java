@@ -30,12 +30,12 @@ public class OfficerMainView implements IDisplayResult {
         System.out.print("\nEnter option: ");
 
         try {
-            int option = ScannerUtility.SCANNER.nextInt();
-            ScannerUtility.SCANNER.nextLine();
+            int option = ScannerUtility.getScanner().nextInt();
+            ScannerUtility.getScanner().nextLine();
             return option;
         } catch (Exception e) {
             displayError("Invalid input. Please enter a number.");
-            ScannerUtility.SCANNER.nextLine();
+            ScannerUtility.getScanner().nextLine();
             return -1;
         }
     }
@@ -68,8 +68,8 @@ public class OfficerRegistrationView implements IDisplayResult {
         while (true) {
             System.out.print("\nSelect a project number to register for (0 to go back): ");
             try {
-                int projectIndex = ScannerUtility.SCANNER.nextInt() - 1;
-                ScannerUtility.SCANNER.nextLine();
+                int projectIndex = ScannerUtility.getScanner().nextInt() - 1;
+                ScannerUtility.getScanner().nextLine();
                 if (projectIndex == -1) {
                     return -1;
                 }
@@ -79,7 +79,7 @@ public class OfficerRegistrationView implements IDisplayResult {
                 }
                 return projectIndex;
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 displayError("Invalid selection. Please try again.");
             }
         }
@@ -98,8 +98,8 @@ public class OfficerRegistrationView implements IDisplayResult {
             System.out.println("2. No");
             System.out.print("\nEnter option: ");
             try {
-                confirmation = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                confirmation = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (confirmation == 1) {
                     return true;
                 }
@@ -108,7 +108,7 @@ public class OfficerRegistrationView implements IDisplayResult {
                 }
                 displayError("Invalid selection. Please try again.");
             } catch (InputMismatchException e) {
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 displayError("Invalid selection. Please try again.");
             }
         }
@@ -125,14 +125,14 @@ public class OfficerRegistrationView implements IDisplayResult {
                 System.out.println("Actions:");
                 System.out.println("0. Back");
                 System.out.print("\nEnter Option: ");
-                option = ScannerUtility.SCANNER.nextInt();
-                ScannerUtility.SCANNER.nextLine();
+                option = ScannerUtility.getScanner().nextInt();
+                ScannerUtility.getScanner().nextLine();
                 if (option == 0){
                     return;
                 }
                 System.out.println("Invalid option.");
             } catch (InputMismatchException e){
-                ScannerUtility.SCANNER.nextLine();
+                ScannerUtility.getScanner().nextLine();
                 System.out.println("Invalid option.");
             }
         }
@@ -0,0 +1,338 @@
+package databases;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import controllers.OfficerBookingController;
+import enums.ApplicationStatus;
+import models.Applicant;
+import models.Application;
+import models.FlatType;
+import models.Project;
+import utilities.Session;
+
+/**
+ * BookingStressCheck class checks that concurrent bookings never sell more units than a project has.
+ * Usage: java databases.BookingStressCheck [-engine xlsx|binary] [units] [applications] [edits]
+ * A synthetic dataset is generated in a temporary directory and one flat type of a project is set to the given units.
+ * More successful applications than units are then booked by OFFICERS threads at once, every application by two of
+ * them, while a manager thread adds one unit to the flat type the given number of times.
+ * The check fails if a unit is sold twice, if a booking is reported without being saved or the other way round,
+ * if the stored units ever drop below zero, or if units are left while applications could not book them.
+ * The same checks are repeated in a second JVM after the tables are loaded again from the files,
+ * so that only what was written counts. The real data files are never touched, and the forked JVMs write their
+ * logs in the temporary directory as well.
+ */
+public class BookingStressCheck {
+    private static final int OFFICERS = 8;
+    private static final int DATASET_SIZE = 1000;
+    private static final int PROJECT_ID = 1;
+    private static final String BOOK_FLAG = "--book";
+    private static final String VERIFY_FLAG = "--verify";
+    private static final String EXPECTED_FILE = "booking-stress.properties";
+
+    public static void main(String[] args) {
+        if (args.length > 0 && (args[0].equals(BOOK_FLAG) || args[0].equals(VERIFY_FLAG))) {
+            try {
+                boolean passed = args[0].equals(BOOK_FLAG)
+                    ? book(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]))
+                    : verify();
+                System.exit(passed ? 0 : 1);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                System.err.println("Booking stress check failed: " + e.getMessage());
+                e.printStackTrace();
+                System.exit(1);
+            }
+            return;
+        }
+
+        String engineName = StorageConfig.BINARY;
+        List<Integer> counts = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-engine") && i + 1 < args.length) {
+                    engineName = args[++i].toLowerCase();
+                } else {
+                    counts.add(Integer.parseInt(args[i]));
+                }
+            }
+        } catch (NumberFormatException e) {
+            counts.clear();
+            counts.add(-1);
+        }
+        if (counts.size() > 3 || counts.stream().anyMatch(count -> count < 0)) {
+            System.err.println("Usage: java databases.BookingStressCheck [-engine xlsx|binary] [units] [applications] [edits]");
+            System.exit(1);
+        }
+        if (!engineName.equals(StorageConfig.XLSX) && !engineName.equals(StorageConfig.BINARY)) {
+            System.err.println("Only the xlsx and binary engines can be checked: " + engineName);
+            System.exit(1);
+        }
+        int units = counts.size() > 0 ? counts.get(0) : 100;
+        int applications = counts.size() > 1 ? counts.get(1) : 3 * units;
+        int edits = counts.size() > 2 ? counts.get(2) : units / 2;
+
+        try {
+            Path directory = Files.createTempDirectory("bto-booking-");
+            try {
+                if (fork(engineName, directory, BOOK_FLAG, String.valueOf(units), String.valueOf(applications),
+                        String.valueOf(edits)) != 0
+                    || fork(engineName, directory, VERIFY_FLAG) != 0) {
+                    System.err.println("Booking stress check failed");
+                    System.exit(1);
+                }
+            } finally {
+                deleteDirectory(directory);
+            }
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Failed to run booking stress check: " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Booking stress check passed");
+    }
+
+    /**
+     * Runs one phase of the check in a new JVM on the temporary data directory.
+     * @return The exit code of the JVM.
+     */
+    private static int fork(String engineName, Path directory, String... phase) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(
+            System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+            "-cp", System.getProperty("java.class.path"),
+            "-Dstorage.engine=" + engineName,
+            "-Dstorage.directory=" + directory,
+            "-Dlog.directory=" + directory.resolve("logs"),
+            BookingStressCheck.class.getName()));
+        command.addAll(List.of(phase));
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.forEach(paths::add);
+        }
+        // Children before their directories
+        paths.sort(Comparator.reverseOrder());
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Generates the dataset, books the applications and edits the project at once, and checks the outcome.
+     * Runs in the first forked JVM, whose storage.directory is the temporary directory.
+     * @param units The units of the flat type before the bookings start.
+     * @param applications The number of successful applications for the flat type.
+     * @param edits The number of times a unit is added to the flat type while the bookings run.
+     * @return true if every check passed.
+     */
+    private static boolean book(int units, int applications, int edits) throws IOException, InterruptedException {
+        StorageConfig config = DataStore.getConfig();
+        System.out.println("=== " + units + " units, " + applications + " applications, " + edits + " edits, "
+            + config.getEngineName() + " engine ===");
+        DatasetGenerator generator = new DatasetGenerator(Math.max(DATASET_SIZE, applications), 11);
+        generator.generate(config.createEngine());
+        DataStore.loadAll();
+        // The booking controller prints to System.out; bind a session that discards it
+        Session.routeSystemOutput();
+
+        Project project = ProjectDB.reloadProject(PROJECT_ID);
+        String flatType = project.getFlatTypes().get(0).getFlatType();
+        Project edited = withUnits(project, flatType, units);
+        if (!ProjectDB.updateProject(edited)) {
+            throw new IllegalStateException("Project " + PROJECT_ID + " not found");
+        }
+        Set<Integer> existing = applicationIDs(flatType, null);
+        FlatType applied = edited.getFlatTypes().get(0);
+        for (int i = 0; i < applications; i++) {
+            Applicant applicant = ApplicantDB.getApplicantByNRIC(generator.getApplicantNric(i));
+            ApplicationDB.createApplication(applicant, edited, ApplicationStatus.SUCESSFUL.getStatus(), applied);
+        }
+        Set<Integer> created = applicationIDs(flatType, ApplicationStatus.SUCESSFUL.getStatus());
+        created.removeAll(existing);
+        List<Integer> queue = new ArrayList<>(created);
+
+        // Every application is taken by two officers, who race to book it
+        AtomicInteger nextApplication = new AtomicInteger();
+        AtomicInteger bookings = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int officer = 0; officer < OFFICERS; officer++) {
+            threads.add(new Thread(() -> {
+                OfficerBookingController controller = new OfficerBookingController();
+                try {
+                    start.await();
+                    int index;
+                    while ((index = nextApplication.getAndIncrement()) < 2 * queue.size()) {
+                        Application application = ApplicationDB.reloadApplication(queue.get(index / 2));
+                        if (controller.updateBooking(application)) {
+                            bookings.incrementAndGet();
+                        }
+                    }
+                } catch (IOException | InterruptedException | RuntimeException e) {
+                    errors.incrementAndGet();
+                    e.printStackTrace();
+                }
+            }));
+        }
+        AtomicInteger editsMade = new AtomicInteger();
+        threads.add(new Thread(() -> {
+            try {
+                start.await();
+                while (editsMade.get() < edits) {
+                    Project current = ProjectDB.reloadProject(PROJECT_ID);
+                    try {
+                        if (ProjectDB.updateProject(withUnits(current, flatType, unitsOf(current, flatType) + 1))) {
+                            editsMade.incrementAndGet();
+                        }
+                    } catch (StaleVersionException e) {
+                        // A booking saved the project first; add the unit to the latest count
+                    }
+                }
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                errors.incrementAndGet();
+                e.printStackTrace();
+            }
+        }));
+        long begin = System.nanoTime();
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.printf("Raced %d bookings of %d applications in %.1f ms%n",
+            2 * queue.size(), queue.size(), (System.nanoTime() - begin) / 1e6);
+
+        // Units added after the last race booking are left over; book whatever still can be
+        OfficerBookingController controller = new OfficerBookingController();
+        for (int applicationID : queue) {
+            Application application = ApplicationDB.reloadApplication(applicationID);
+            if (ApplicationStatus.SUCESSFUL.getStatus().equals(application.getApplicationStatus())
+                && controller.updateBooking(application)) {
+                bookings.incrementAndGet();
+            }
+        }
+
+        Properties expected = new Properties();
+        expected.setProperty("flatType", flatType);
+        expected.setProperty("applications", queue.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        expected.setProperty("units", String.valueOf(units + edits));
+        expected.setProperty("bookings", String.valueOf(bookings.get()));
+        try (Writer writer = Files.newBufferedWriter(expectedFile())) {
+            expected.store(writer, "Booking stress check");
+        }
+        boolean passed = errors.get() == 0;
+        if (!passed) {
+            System.out.println("FAIL: " + errors.get() + " threads failed");
+        }
+        return check("In memory", expected) && passed;
+    }
+
+    /**
+     * Loads the tables written by the booking phase and checks them again.
+     * Runs in the second forked JVM, on the same temporary directory.
+     * @return true if every check passed.
+     */
+    private static boolean verify() throws IOException {
+        DataStore.loadAll();
+        Properties expected = new Properties();
+        try (Reader reader = Files.newBufferedReader(expectedFile())) {
+            expected.load(reader);
+        }
+        return check("After reload", expected);
+    }
+
+    /**
+     * Checks the booked applications and the stored units against the bookings reported by the officers.
+     */
+    private static boolean check(String label, Properties expected) throws IOException {
+        String flatType = expected.getProperty("flatType");
+        int units = Integer.parseInt(expected.getProperty("units"));
+        int bookings = Integer.parseInt(expected.getProperty("bookings"));
+        int applications = 0;
+        int booked = 0;
+        for (String applicationID : expected.getProperty("applications").split(",")) {
+            Application application = ApplicationDB.reloadApplication(Integer.parseInt(applicationID));
+            applications++;
+            if (ApplicationStatus.BOOKED.getStatus().equals(application.getApplicationStatus())) {
+                booked++;
+            }
+        }
+        int stored = unitsOf(ProjectDB.reloadProject(PROJECT_ID), flatType);
+
+        List<String> failures = new ArrayList<>();
+        if (booked != bookings) {
+            failures.add(booked + " applications booked but " + bookings + " bookings reported");
+        }
+        if (stored < 0) {
+            failures.add("stored units dropped to " + stored);
+        }
+        if (booked + stored != units) {
+            failures.add(booked + " booked and " + stored + " left of " + units + " units");
+        }
+        if (booked != Math.min(applications, units)) {
+            failures.add(booked + " of " + applications + " applications booked with " + units + " units");
+        }
+        System.out.printf("%s: %d of %d applications booked, %d of %d units left%n",
+            label, booked, applications, stored, units);
+        for (String failure : failures) {
+            System.out.println("FAIL: " + failure);
+        }
+        return failures.isEmpty();
+    }
+
+    private static Set<Integer> applicationIDs(String flatType, String status) throws IOException {
+        Set<Integer> ids = new HashSet<>();
+        for (Application application : ApplicationDB.getApplicationsForProject(PROJECT_ID)) {
+            if (application.getFlatType().equalsIgnoreCase(flatType)
+                && (status == null || status.equals(application.getApplicationStatus()))) {
+                ids.add(application.getApplicationID());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return a copy of a project with the units of one flat type changed, leaving the project itself alone
+     */
+    private static Project withUnits(Project project, String flatType, int units) {
+        Project copy = new Project(project);
+        List<FlatType> flatTypes = new ArrayList<>();
+        for (FlatType type : project.getFlatTypes()) {
+            flatTypes.add(new FlatType(type.getFlatType(),
+                type.getFlatType().equalsIgnoreCase(flatType) ? units : type.getNumFlats(), type.getPricePerFlat()));
+        }
+        copy.setFlatTypes(flatTypes);
+        return copy;
+    }
+
+    private static int unitsOf(Project project, String flatType) {
+        for (FlatType type : project.getFlatTypes()) {
+            if (type.getFlatType().equalsIgnoreCase(flatType)) {
+                return type.getNumFlats();
+            }
+        }
+        throw new IllegalStateException("Project " + project.getProjectID() + " has no " + flatType);
+    }
+
+    private static Path expectedFile() {
+        return Paths.get(DataStore.getConfig().getDirectory(), EXPECTED_FILE);
+    }
+}
@@ -0,0 +1,406 @@
+package databases;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import controllers.ApplicantApplicationController;
+import controllers.AuthenticatorController;
+import controllers.ManagerProjectController;
+import controllers.ManagerRegistrationController;
+import enums.ApplicationStatus;
+import enums.OfficerRegisterationStatus;
+import models.Applicant;
+import models.Application;
+import models.Enquiry;
+import models.HDBManager;
+import models.User;
+import utilities.Session;
+
+/**
+ * DatabaseBenchmark class measures the DB classes and the main controller flows on synthetic datasets.
+ * Usage: java databases.DatabaseBenchmark [-engine xlsx|binary] [size ...]
+ * Each size is the number of applicants in the dataset (default 1000, 10000 and 100000); the other tables are scaled from it.
+ * Every size is generated in a temporary directory and measured in a fresh JVM, so that the static tables of DataStore
+ * start empty and one size cannot warm up the next. The real data files are never touched, and the forked JVMs
+ * write their logs in the temporary directory as well.
+ * Every benchmark is warmed up for WARMUP_MILLIS and then measured for MEASURE_MILLIS, reporting throughput,
+ * latency percentiles and the bytes allocated per operation. Results are also appended to RESULTS_FILE,
+ * so that runs before and after a change can be compared.
+ */
+public class DatabaseBenchmark {
+    private static final long WARMUP_MILLIS = 1000;
+    private static final long MEASURE_MILLIS = 3000;
+    private static final String RESULTS_FILE = "generated_files/benchmark-results.csv";
+    private static final String FORK_FLAG = "--fork";
+    private static final List<Integer> DEFAULT_SIZES = List.of(1000, 10000, 100000);
+
+    // Keeps the result of every measured call reachable, so the JIT cannot drop the call
+    private static volatile Object sink;
+
+    /**
+     * A measured operation.
+     */
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    private static class Benchmark {
+        final String name;
+        final Operation operation;
+
+        Benchmark(String name, Operation operation) {
+            this.name = name;
+            this.operation = operation;
+        }
+    }
+
+    private static class Result {
+        final String name;
+        final long operations;
+        final double opsPerSecond;
+        final double p50Micros;
+        final double p95Micros;
+        final double p99Micros;
+        final double bytesPerOp;
+
+        Result(String name, long operations, double opsPerSecond, double p50Micros, double p95Micros,
+               double p99Micros, double bytesPerOp) {
+            this.name = name;
+            this.operations = operations;
+            this.opsPerSecond = opsPerSecond;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    /**
+     * The generated dataset, whose keys the benchmarks pick from at random.
+     */
+    private static class Dataset {
+        final Random random = new Random(42);
+        final DatasetGenerator generator;
+
+        Dataset(DatasetGenerator generator) {
+            this.generator = generator;
+        }
+
+        String anyApplicantNric() {
+            return generator.getApplicantNric(random.nextInt(generator.getApplicantCount()));
+        }
+
+        String anyOfficerNric() {
+            return generator.getOfficerNric(random.nextInt(generator.getOfficerCount()));
+        }
+
+        String anyManagerNric() {
+            return generator.getManagerNric(random.nextInt(generator.getManagerCount()));
+        }
+
+        String anyManagerName() {
+            return generator.getManagerName(random.nextInt(generator.getManagerCount()));
+        }
+
+        int anyProjectID() {
+            return 1 + random.nextInt(generator.getProjectCount());
+        }
+
+        String anyProjectName() {
+            return generator.getProjectName(anyProjectID());
+        }
+
+        int anyApplicationID() {
+            return 1 + random.nextInt(generator.getApplicationCount());
+        }
+
+        int anyRegistrationID() {
+            return 1 + random.nextInt(generator.getRegistrationCount());
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals(FORK_FLAG)) {
+            try {
+                runSize(Integer.parseInt(args[1]));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Benchmark failed: " + e.getMessage());
+                e.printStackTrace();
+                System.exit(1);
+            }
+            return;
+        }
+
+        String engineName = StorageConfig.XLSX;
+        List<Integer> sizes = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-engine") && i + 1 < args.length) {
+                    engineName = args[++i].toLowerCase();
+                } else {
+                    sizes.add(Integer.parseInt(args[i]));
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: java databases.DatabaseBenchmark [-engine xlsx|binary] [size ...]");
+            System.exit(1);
+        }
+        if (!engineName.equals(StorageConfig.XLSX) && !engineName.equals(StorageConfig.BINARY)) {
+            // The jdbc engine writes to the configured database rather than to a directory, so it could overwrite real data
+            System.err.println("Only the xlsx and binary engines can be benchmarked: " + engineName);
+            System.exit(1);
+        }
+        if (sizes.isEmpty()) {
+            sizes.addAll(DEFAULT_SIZES);
+        }
+
+        for (int size : sizes) {
+            try {
+                if (fork(engineName, size) != 0) {
+                    System.err.println("Benchmark of size " + size + " failed");
+                    System.exit(1);
+                }
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Failed to run benchmark of size " + size + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Runs the benchmarks of one size in a new JVM with its own temporary data directory.
+     * @param engineName The storage engine to generate and read the dataset with.
+     * @param size The number of applicants in the dataset.
+     * @return The exit code of the JVM.
+     */
+    private static int fork(String engineName, int size) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("bto-benchmark-");
+        try {
+            List<String> command = List.of(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"),
+                "-Dstorage.engine=" + engineName,
+                "-Dstorage.directory=" + directory,
+                "-Dlog.directory=" + directory.resolve("logs"),
+                DatabaseBenchmark.class.getName(), FORK_FLAG, String.valueOf(size));
+            return new ProcessBuilder(command).inheritIO().start().waitFor();
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.forEach(paths::add);
+        }
+        // Children before their directories
+        paths.sort(Comparator.reverseOrder());
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Generates the dataset of one size, loads it and runs every benchmark on it.
+     * Runs in the forked JVM, whose storage.directory is the temporary directory of the size.
+     * @param size The number of applicants in the dataset.
+     */
+    private static void runSize(int size) throws IOException {
+        StorageConfig config = DataStore.getConfig();
+        System.out.println("\n=== " + size + " applicants, " + config.getEngineName() + " engine ===");
+
+        long start = System.nanoTime();
+        DatasetGenerator generator = new DatasetGenerator(size, 7);
+        generator.generate(config.createEngine());
+        Dataset dataset = new Dataset(generator);
+        System.out.printf("Generated dataset in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        DataStore.loadAll();
+        System.out.printf("Loaded tables in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        // Views print to System.out; the controller flows bind a session that discards it
+        Session.routeSystemOutput();
+        System.out.printf("%-60s %12s %10s %10s %10s %12s%n", "Benchmark", "ops/s", "p50 us", "p95 us", "p99 us", "B/op");
+        List<Result> results = new ArrayList<>();
+        for (Benchmark benchmark : benchmarks(dataset)) {
+            Result result = measure(benchmark);
+            results.add(result);
+            System.out.printf("%-60s %12.1f %10.1f %10.1f %10.1f %12.0f%n", result.name, result.opsPerSecond,
+                result.p50Micros, result.p95Micros, result.p99Micros, result.bytesPerOp);
+        }
+        appendResults(config.getEngineName(), size, results);
+    }
+
+    private static List<Benchmark> benchmarks(Dataset dataset) throws IOException {
+        List<Benchmark> benchmarks = new ArrayList<>();
+
+        // Reads
+        benchmarks.add(new Benchmark("User.findUserByNricDB",
+            () -> User.findUserByNricDB(dataset.random.nextBoolean() ? dataset.anyApplicantNric() : dataset.anyManagerNric())));
+        benchmarks.add(new Benchmark("ApplicantDB.getApplicantByNRIC", () -> ApplicantDB.getApplicantByNRIC(dataset.anyApplicantNric())));
+        benchmarks.add(new Benchmark("ApplicantDB.getApplicantMap", ApplicantDB::getApplicantMap));
+        benchmarks.add(new Benchmark("HDBOfficerDB.getOfficerByNRIC", () -> HDBOfficerDB.getOfficerByNRIC(dataset.anyOfficerNric())));
+        benchmarks.add(new Benchmark("HDBOfficerDB.getOfficerMap", HDBOfficerDB::getOfficerMap));
+        benchmarks.add(new Benchmark("HDBManagerDB.getManagerByNRIC", () -> HDBManagerDB.getManagerByNRIC(dataset.anyManagerNric())));
+        benchmarks.add(new Benchmark("HDBManagerDB.getManagerbyName", () -> HDBManagerDB.getManagerbyName(dataset.anyManagerName())));
+        benchmarks.add(new Benchmark("HDBManagerDB.getManagerMap", HDBManagerDB::getManagerMap));
+        benchmarks.add(new Benchmark("ProjectDB.getAllProjects", ProjectDB::getAllProjects));
+        benchmarks.add(new Benchmark("ProjectDB.getProjectMap", ProjectDB::getProjectMap));
+        benchmarks.add(new Benchmark("ProjectDB.getProjectByIdDB", () -> ProjectDB.getProjectByIdDB(dataset.anyProjectID())));
+        benchmarks.add(new Benchmark("ProjectDB.getProjectByName", () -> ProjectDB.getProjectByName(dataset.anyProjectName())));
+        benchmarks.add(new Benchmark("ProjectDB.getProjectsByManager", () -> ProjectDB.getProjectsByManager(dataset.anyManagerNric())));
+        benchmarks.add(new Benchmark("ProjectDB.getQueryEngine", ProjectDB::getQueryEngine));
+        benchmarks.add(new Benchmark("ApplicationDB.getAllApplications", ApplicationDB::getAllApplications));
+        benchmarks.add(new Benchmark("ApplicationDB.getApplicationByNric", () -> ApplicationDB.getApplicationByNric(dataset.anyApplicantNric())));
+        benchmarks.add(new Benchmark("ApplicationDB.getApplicationsForProject", () -> ApplicationDB.getApplicationsForProject(dataset.anyProjectID())));
+        benchmarks.add(new Benchmark("ApplicationDB.getApplicationsByStatus",
+            () -> ApplicationDB.getApplicationsByStatus(ApplicationStatus.values()[dataset.random.nextInt(ApplicationStatus.values().length)].getStatus())));
+        benchmarks.add(new Benchmark("ApplicationDB.hasApplicationsForProject", () -> ApplicationDB.hasApplicationsForProject(dataset.anyProjectID())));
+        benchmarks.add(new Benchmark("EnquiryDB.getAllEnquiries", EnquiryDB::getAllEnquiries));
+        benchmarks.add(new Benchmark("EnquiryDB.getEnquiriesByNricDB", () -> EnquiryDB.getEnquiriesByNricDB(dataset.anyApplicantNric())));
+        benchmarks.add(new Benchmark("OfficerRegistrationDB.getAllOfficerRegistrations", OfficerRegistrationDB::getAllOfficerRegistrations));
+
+        // Writes that leave the dataset the same size; creates and deletes would change what the reads measure
+        benchmarks.add(new Benchmark("ApplicationDB.updateApplication", () -> {
+            Application application = ApplicationDB.reloadApplication(dataset.anyApplicationID());
+            ApplicationDB.updateApplication(application);
+            return application;
+        }));
+        benchmarks.add(new Benchmark("EnquiryDB.updateEnquiry", () -> {
+            List<Enquiry> enquiries = EnquiryDB.getEnquiriesByNricDB(dataset.anyApplicantNric());
+            return enquiries.isEmpty() || EnquiryDB.updateEnquiry(enquiries.get(0));
+        }));
+        benchmarks.add(new Benchmark("OfficerRegistrationDB.updateOfficerRegistration", () -> {
+            OfficerRegistrationDB.updateOfficerRegistration(dataset.anyRegistrationID(), OfficerRegisterationStatus.PENDING.getStatus());
+            return null;
+        }));
+
+        // Controller flows
+        HDBManager manager = HDBManagerDB.getManagerByNRIC(dataset.generator.getManagerNric(0));
+        benchmarks.add(new Benchmark("AuthenticatorController.authenticate (applicant login, logout)", () -> {
+            String script = dataset.anyApplicantNric() + "\npassword\n5\n";
+            return runScripted(script, () -> new AuthenticatorController().authenticate());
+        }));
+        benchmarks.add(new Benchmark("ApplicantApplicationController.getApplicableProjects", () -> {
+            Applicant applicant = ApplicantDB.getApplicantByNRIC(dataset.anyApplicantNric());
+            return new ApplicantApplicationController().getApplicableProjects(applicant);
+        }));
+        benchmarks.add(new Benchmark("ManagerProjectController.getAllProjects", () -> new ManagerProjectController().getAllProjects()));
+        benchmarks.add(new Benchmark("ManagerRegistrationController.getPendingRegistrations",
+            () -> new ManagerRegistrationController().getPendingRegistrations(manager)));
+        return benchmarks;
+    }
+
+    /**
+     * Runs an interactive flow with scripted input, discarding everything it prints.
+     * @param script The lines the user would type.
+     * @param flow The flow to run.
+     * @return null
+     */
+    private static Object runScripted(String script, Runnable flow) {
+        Session session = new Session(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)),
+            new PrintStream(OutputStream.nullOutputStream()));
+        session.bind();
+        try {
+            flow.run();
+        } catch (Session.ClosedError e) {
+            throw new IllegalStateException("Flow read past the end of its script", e);
+        } finally {
+            Session.unbind();
+        }
+        return null;
+    }
+
+    /**
+     * Warms a benchmark up and then measures it on the current thread.
+     * @param benchmark The benchmark to measure.
+     * @return The throughput, latency percentiles and allocation of the benchmark.
+     */
+    private static Result measure(Benchmark benchmark) {
+        try {
+            long warmupEnd = System.nanoTime() + WARMUP_MILLIS * 1_000_000;
+            while (System.nanoTime() < warmupEnd) {
+                sink = benchmark.operation.run();
+            }
+
+            long[] latencies = new long[1024];
+            int count = 0;
+            long allocatedBefore = allocatedBytes();
+            long begin = System.nanoTime();
+            long end = begin + MEASURE_MILLIS * 1_000_000;
+            long now = begin;
+            while (now < end) {
+                sink = benchmark.operation.run();
+                long finished = System.nanoTime();
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = finished - now;
+                now = finished;
+            }
+            long allocated = allocatedBytes() - allocatedBefore;
+            double seconds = (now - begin) / 1e9;
+
+            Arrays.sort(latencies, 0, count);
+            return new Result(benchmark.name, count, count / seconds,
+                percentile(latencies, count, 0.50), percentile(latencies, count, 0.95), percentile(latencies, count, 0.99),
+                allocatedBefore < 0 ? -1 : (double) allocated / count);
+        } catch (Exception e) {
+            System.err.println("Benchmark " + benchmark.name + " failed: " + e);
+            return new Result(benchmark.name, 0, 0, 0, 0, 0, 0);
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, int count, double quantile) {
+        int index = Math.max(0, (int) Math.ceil(quantile * count) - 1);
+        return sortedNanos[index] / 1000.0;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void appendResults(String engineName, int size, List<Result> results) throws IOException {
+        File file = new File(RESULTS_FILE);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        boolean newFile = !file.exists();
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            if (newFile) {
+                out.println("timestamp,engine,size,benchmark,operations,ops_per_second,p50_us,p95_us,p99_us,bytes_per_op");
+            }
+            for (Result result : results) {
+                out.printf("%s,%s,%d,%s,%d,%.1f,%.1f,%.1f,%.1f,%.0f%n", timestamp, engineName, size, result.name,
+                    result.operations, result.opsPerSecond, result.p50Micros, result.p95Micros, result.p99Micros, result.bytesPerOp);
+            }
+        }
+        System.out.println("Results appended to " + RESULTS_FILE);
+    }
+}
@@ -0,0 +1,212 @@
+package databases;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import enums.ApplicationStatus;
+import enums.CostMetric;
+import utilities.MetricsRegistry;
+
+/**
+ * TableLoadCheck class checks that reading the tables opens each workbook at most once, however many applications
+ * there are.
+ * Usage: java databases.TableLoadCheck [-engine xlsx|binary] [applicants ...]
+ * A synthetic dataset of each size (default 200, 2000 and 20000 applicants) is generated in a temporary directory.
+ * Each operation is then run twice in a fresh JVM, so that no table is loaded before it starts, and the
+ * storage.table.loads counter is read after each run.
+ * The check fails if the first run loads more tables than there are, if the second run loads any table, or if the
+ * tables loaded by an operation differ between sizes. The real data files are never touched, and the forked JVMs
+ * write their logs in the temporary directory as well.
+ */
+public class TableLoadCheck {
+    private static final String GENERATE_FLAG = "--generate";
+    private static final String RUN_FLAG = "--run";
+    private static final String RESULTS_FILE = "table-loads.txt";
+    private static final List<Integer> DEFAULT_SIZES = List.of(200, 2000, 20000);
+
+    /**
+     * An operation whose table loads are counted.
+     */
+    private interface Operation {
+        void run() throws IOException;
+    }
+
+    /**
+     * @return the operations checked, keyed by name, in the order they are run
+     */
+    private static Map<String, Operation> operations() {
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        operations.put("ApplicationDB.getAllApplications", ApplicationDB::getAllApplications);
+        operations.put("ApplicationDB.getApplicationsForProject", () -> ApplicationDB.getApplicationsForProject(1));
+        operations.put("ApplicationDB.getApplicationsByStatus",
+            () -> ApplicationDB.getApplicationsByStatus(ApplicationStatus.PENDING.getStatus()));
+        operations.put("EnquiryDB.getAllEnquiries", EnquiryDB::getAllEnquiries);
+        operations.put("OfficerRegistrationDB.getAllOfficerRegistrations", OfficerRegistrationDB::getAllOfficerRegistrations);
+        operations.put("ProjectDB.getAllProjects", ProjectDB::getAllProjects);
+        return operations;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals(GENERATE_FLAG)) {
+            try {
+                new DatasetGenerator(Integer.parseInt(args[1]), 5).generate(DataStore.getConfig().createEngine());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Failed to generate the dataset: " + e.getMessage());
+                e.printStackTrace();
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length == 3 && args[0].equals(RUN_FLAG)) {
+            try {
+                System.exit(countLoads(args[1], args[2]) ? 0 : 1);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Running " + args[1] + " failed: " + e.getMessage());
+                e.printStackTrace();
+                System.exit(1);
+            }
+            return;
+        }
+
+        String engineName = StorageConfig.BINARY;
+        List<Integer> sizes = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-engine") && i + 1 < args.length) {
+                    engineName = args[++i].toLowerCase();
+                } else {
+                    sizes.add(Integer.parseInt(args[i]));
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: java databases.TableLoadCheck [-engine xlsx|binary] [applicants ...]");
+            System.exit(1);
+        }
+        if (!engineName.equals(StorageConfig.XLSX) && !engineName.equals(StorageConfig.BINARY)) {
+            System.err.println("Only the xlsx and binary engines can be checked: " + engineName);
+            System.exit(1);
+        }
+        if (sizes.isEmpty()) {
+            sizes.addAll(DEFAULT_SIZES);
+        }
+
+        boolean passed = true;
+        // Tables loaded by each operation on the first size
+        Map<String, Integer> firstLoads = new HashMap<>();
+        System.out.printf("%-50s %10s %10s %10s%n", "Operation", "Applicants", "Cold loads", "Warm loads");
+        for (int size : sizes) {
+            try {
+                Path directory = Files.createTempDirectory("bto-loads-");
+                try {
+                    if (fork(engineName, directory, GENERATE_FLAG, String.valueOf(size)) != 0) {
+                        System.err.println("Failed to generate a dataset of " + size + " applicants");
+                        System.exit(1);
+                    }
+                    Path results = directory.resolve(RESULTS_FILE);
+                    for (String name : operations().keySet()) {
+                        if (fork(engineName, directory, RUN_FLAG, name, results.toString()) != 0) {
+                            passed = false;
+                        }
+                    }
+                    for (String line : Files.readAllLines(results)) {
+                        String[] fields = line.split(",");
+                        int coldLoads = Integer.parseInt(fields[1]);
+                        System.out.printf("%-50s %10d %10s %10s%n", fields[0], size, fields[1], fields[2]);
+                        Integer expected = firstLoads.putIfAbsent(fields[0], coldLoads);
+                        if (expected != null && expected != coldLoads) {
+                            System.err.println(fields[0] + " loaded " + coldLoads + " tables with " + size
+                                + " applicants but " + expected + " with " + sizes.get(0));
+                            passed = false;
+                        }
+                    }
+                } finally {
+                    deleteDirectory(directory);
+                }
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Failed to run table load check of size " + size + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (!passed) {
+            System.err.println("Table load check failed");
+            System.exit(1);
+        }
+        System.out.println("Table load check passed");
+    }
+
+    /**
+     * Runs one phase of the check in a new JVM on the temporary data directory.
+     * @return The exit code of the JVM.
+     */
+    private static int fork(String engineName, Path directory, String... phase) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(
+            System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+            "-cp", System.getProperty("java.class.path"),
+            "-Dstorage.engine=" + engineName,
+            "-Dstorage.directory=" + directory,
+            "-Dlog.directory=" + directory.resolve("logs"),
+            TableLoadCheck.class.getName()));
+        command.addAll(List.of(phase));
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.forEach(paths::add);
+        }
+        // Children before their directories
+        paths.sort(Comparator.reverseOrder());
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Runs an operation twice on tables not loaded yet, and appends the tables loaded by each run to the results.
+     * Runs in a forked JVM, whose storage.directory is the temporary directory.
+     * @param name The name of the operation.
+     * @param resultsPath The file the loads are appended to.
+     * @return true if the first run loaded each table at most once and the second run loaded none.
+     */
+    private static boolean countLoads(String name, String resultsPath) throws IOException {
+        Operation operation = operations().get(name);
+        if (operation == null) {
+            throw new IllegalArgumentException("Unknown operation: " + name);
+        }
+        if (!MetricsRegistry.isEnabled()) {
+            throw new IllegalStateException("Table loads are not counted (metrics.enabled=false)");
+        }
+        String counter = CostMetric.TABLE_LOADS.getMetricName();
+        long before = MetricsRegistry.getCount(counter);
+        operation.run();
+        long cold = MetricsRegistry.getCount(counter) - before;
+        operation.run();
+        long warm = MetricsRegistry.getCount(counter) - before - cold;
+        try (PrintWriter out = new PrintWriter(new FileWriter(resultsPath, true))) {
+            out.println(name + "," + cold + "," + warm);
+        }
+
+        boolean passed = true;
+        if (cold > DataStore.TABLE_NAMES.size()) {
+            System.err.println(name + " loaded " + cold + " tables, more than the " + DataStore.TABLE_NAMES.size() + " there are");
+            passed = false;
+        }
+        if (warm != 0) {
+            System.err.println(name + " loaded " + warm + " tables again after they were loaded");
+            passed = false;
+        }
+        return passed;
+    }
+}
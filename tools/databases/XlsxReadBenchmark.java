@@ -0,0 +1,266 @@
+package databases;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import enums.UserFileIndex;
+
+/**
+ * XlsxReadBenchmark class compares reading an Excel table with XlsxStreamReader (SAX) against building it as an
+ * XSSFWorkbook (DOM), the way tables were read before XlsxStreamReader.
+ * Usage: java databases.XlsxReadBenchmark [rows ...]
+ * Each size is the number of rows of a user table (default 10000, 100000 and 1000000). The file of each size is written
+ * once in a temporary directory, and each reader then parses it in a fresh JVM, so that the peak heap of one reader
+ * does not include the garbage of the other. Every cell is read as the table loader would read it.
+ * The forked JVMs write their logs in the temporary directory as well.
+ * The peak heap is the sum of the peak usage of every heap memory pool while parsing, which can slightly overstate the
+ * true peak. A reader that runs out of memory is reported as such, with the heap it was given.
+ * Results are also appended to RESULTS_FILE.
+ */
+public class XlsxReadBenchmark {
+    private static final String RESULTS_FILE = "generated_files/xlsx-read-results.csv";
+    private static final String FORK_FLAG = "--fork";
+    private static final String SAX = "sax";
+    private static final String DOM = "dom";
+    private static final String FILE_NAME = "ApplicantList.xlsx";
+    private static final int SXSSF_WINDOW = 100;
+    private static final List<Integer> DEFAULT_SIZES = List.of(10000, 100000, 1000000);
+
+    // Keeps the cells read reachable, so the JIT cannot drop the reads
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        if (args.length == 3 && args[0].equals(FORK_FLAG)) {
+            try {
+                runReader(args[1], args[2]);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Reading with " + args[1] + " failed: " + e.getMessage());
+                e.printStackTrace();
+                System.exit(1);
+            }
+            return;
+        }
+
+        List<Integer> sizes = new ArrayList<>();
+        try {
+            for (String arg : args) {
+                sizes.add(Integer.parseInt(arg));
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: java databases.XlsxReadBenchmark [rows ...]");
+            System.exit(1);
+        }
+        if (sizes.isEmpty()) {
+            sizes.addAll(DEFAULT_SIZES);
+        }
+
+        System.out.printf("%-6s %10s %12s %14s %14s%n", "Reader", "Rows", "Parse ms", "Peak heap MB", "Max heap MB");
+        for (int size : sizes) {
+            try {
+                Path directory = Files.createTempDirectory("bto-xlsx-");
+                try {
+                    File file = directory.resolve(FILE_NAME).toFile();
+                    writeTable(file, size);
+                    for (String reader : List.of(SAX, DOM)) {
+                        if (fork(reader, file) != 0) {
+                            System.err.println("Reading " + size + " rows with " + reader + " failed");
+                        }
+                    }
+                } finally {
+                    deleteDirectory(directory);
+                }
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Failed to run benchmark of size " + size + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Parses a file with one reader in a new JVM.
+     * @param reader SAX or DOM.
+     * @param file The file to parse.
+     * @return The exit code of the JVM.
+     */
+    private static int fork(String reader, File file) throws IOException, InterruptedException {
+        List<String> command = List.of(
+            System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+            "-cp", System.getProperty("java.class.path"),
+            "-Dlog.directory=" + new File(file.getParentFile(), "logs"),
+            XlsxReadBenchmark.class.getName(), FORK_FLAG, reader, file.getPath());
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.forEach(paths::add);
+        }
+        // Children before their directories
+        paths.sort(Comparator.reverseOrder());
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Writes a user table of a number of rows with a streaming workbook, so that any size fits in a small heap.
+     */
+    private static void writeTable(File file, int rows) throws IOException {
+        long start = System.nanoTime();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(SXSSF_WINDOW);
+        try (OutputStream out = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Sheet1");
+            Row header = sheet.createRow(0);
+            for (UserFileIndex column : UserFileIndex.values()) {
+                header.createCell(column.getIndex()).setCellValue(column.name());
+            }
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(UserFileIndex.NAME.getIndex()).setCellValue("Applicant " + i);
+                row.createCell(UserFileIndex.NRIC.getIndex()).setCellValue(DatasetGenerator.nric('S', i));
+                row.createCell(UserFileIndex.AGE.getIndex()).setCellValue(21 + i % 50);
+                row.createCell(UserFileIndex.MARITAL_STATUS.getIndex()).setCellValue(i % 3 == 0 ? "Single" : "Married");
+                row.createCell(UserFileIndex.PASSWORD.getIndex()).setCellValue("password");
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        System.out.printf("Wrote %d rows (%.1f MB) in %.1f ms%n", rows, file.length() / 1e6, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Parses a file with one reader and reports the parse time and peak heap.
+     * Runs in the forked JVM.
+     * @param reader SAX or DOM.
+     * @param path The path of the file to parse.
+     */
+    private static void runReader(String reader, String path) throws IOException {
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+        }
+        System.gc();
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+
+        long start = System.nanoTime();
+        long rows;
+        try {
+            rows = reader.equals(SAX) ? readWithSax(path) : readWithDom(path);
+        } catch (OutOfMemoryError e) {
+            sink = null;
+            System.out.printf("%-6s %10s %12s %14s %14.0f%n", reader, "-", "-", "out of memory", maxHeapMegabytes());
+            appendResult(reader, -1, -1, -1);
+            return;
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+        long peakBytes = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakBytes += pool.getPeakUsage().getUsed();
+        }
+        double peakMegabytes = peakBytes / (1024.0 * 1024.0);
+        System.out.printf("%-6s %10d %12.1f %14.1f %14.0f%n", reader, rows, millis, peakMegabytes, maxHeapMegabytes());
+        appendResult(reader, rows, millis, peakMegabytes);
+    }
+
+    private static long readWithSax(String path) throws IOException {
+        long[] rows = { 0 };
+        new XlsxStreamReader(path, UserFileIndex.values().length).read(row -> {
+            for (int column = 0; column < row.getWidth(); column++) {
+                sink = row.get(column);
+            }
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private static long readWithDom(String path) throws IOException {
+        long rows = 0;
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(path, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Failed to open Excel file: " + path, e);
+        }
+        try {
+            XSSFWorkbook workbook = new XSSFWorkbook(pkg);
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                if (row.getRowNum() == 0) {
+                    continue;
+                }
+                for (Cell cell : row) {
+                    sink = cellValue(cell);
+                }
+                rows++;
+            }
+        } finally {
+            pkg.revert();
+        }
+        return rows;
+    }
+
+    /**
+     * @return the value of a cell as the table loader reads it: String, Double, Date or null
+     */
+    private static Object cellValue(Cell cell) {
+        if (cell.getCellType() == CellType.NUMERIC) {
+            return DateUtil.isCellDateFormatted(cell) ? cell.getDateCellValue() : (Object) cell.getNumericCellValue();
+        }
+        if (cell.getCellType() == CellType.STRING) {
+            return cell.getStringCellValue();
+        }
+        return null;
+    }
+
+    private static double maxHeapMegabytes() {
+        return Runtime.getRuntime().maxMemory() / (1024.0 * 1024.0);
+    }
+
+    private static void appendResult(String reader, long rows, double millis, double peakMegabytes) throws IOException {
+        File file = new File(RESULTS_FILE);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        boolean newFile = !file.exists();
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            if (newFile) {
+                out.println("timestamp,reader,rows,parse_ms,peak_heap_mb,max_heap_mb");
+            }
+            out.printf("%s,%s,%d,%.1f,%.1f,%.0f%n", timestamp, reader, rows, millis, peakMegabytes, maxHeapMegabytes());
+        }
+    }
+}